@@ -0,0 +1,52 @@
+package socialmedia.benchmark;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A program running the JMH benchmarks of every {@link socialmedia.SocialMediaPlatform} method,
+ * with JMH's command line options, always adding the {@code gc} profiler so the allocation rate
+ * of each operation (as {@code gc.alloc.rate.norm}, in bytes per operation) is reported with its
+ * throughput and latency percentiles.
+ * <p>
+ * Build with {@code mvn package} from the ecm1410_coursework directory, then for example:
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar                      (every benchmark, size, depth and platform)
+ * java -jar benchmarks/target/benchmarks.jar QueryBenchmark -t 4 -p posts=1000,100000
+ * java -jar benchmarks/target/benchmarks.jar -p platformName=ConcurrentSocialMedia -t 8 -jvmArgsAppend -Xmx12g
+ * </pre>
+ * The thread count is given with {@code -t}, and the platform, size and thread depth with
+ * {@code -p platformName=...}, {@code -p posts=...} and {@code -p depth=...}. Platforms of
+ * 10^7 posts need a heap of several gigabytes. {@code -rf csv -rff results.csv} writes the
+ * results to a CSV file.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public class BenchmarkMain {
+
+    /**
+     * Benchmark method.
+     *
+     * @param args JMH command line options.
+     * @throws Exception if the benchmarks cannot be run.
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        boolean profiled = false;
+        for (int i = 0; i + 1 < options.size(); i++) {
+            if (options.get(i).equals("-prof") && options.get(i + 1).startsWith("gc")) {
+                profiled = true;
+            }
+        }
+        if (!profiled) {
+            options.add("-prof");
+            options.add("gc");
+        }
+        Main.main(options.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,273 @@
+package socialmedia.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ChangeBenchmark class measures the {@link socialmedia.SocialMediaPlatform} methods which
+ * change accounts and posts.
+ * <p>
+ * Each change is undone by an untimed call after it (a created post is deleted again), or
+ * prepared by an untimed call before it (a post is created to be deleted), so the platform
+ * keeps the same size however long the benchmark runs. Renaming an account and changing its
+ * description alternate between two values instead.
+ * <p>
+ * A benchmark method takes the calling thread's {@link ThreadState} either itself or through
+ * the state preparing its call, never both, as JMH would give each its own instance.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChangeBenchmark {
+
+    /**
+     * The Undo class removes, after each call, the account or post the call created.
+     */
+    @State(Scope.Thread)
+    public static class Undo {
+
+        /** Handle of the account created by the call, or null if it did not create one. */
+        String handle;
+
+        /** ID of the post created by the call, or -1 if it did not create one. */
+        int postId = -1;
+
+        /**
+         * Removes the account or post created by the call.
+         *
+         * @param state the platform under test.
+         * @throws Exception if the platform throws.
+         */
+        @TearDown(Level.Invocation)
+        public void undo(PlatformState state) throws Exception {
+            if (handle != null) {
+                state.platform.removeAccount(handle);
+                handle = null;
+            }
+            if (postId != -1) {
+                state.platform.deletePost(postId);
+                postId = -1;
+            }
+        }
+    }
+
+    /**
+     * The FreshAccount class creates, before each call, an account with one post for the call to remove.
+     */
+    @State(Scope.Thread)
+    public static class FreshAccount {
+
+        /** Handle of the account created. */
+        String handle;
+
+        /** ID of the account created. */
+        int id;
+
+        /**
+         * Creates the account, with the calling thread's {@link ThreadState#newHandle}, and its post.
+         *
+         * @param state the platform under test.
+         * @param thread state of the calling thread.
+         * @throws Exception if the platform throws.
+         */
+        @Setup(Level.Invocation)
+        public void create(PlatformState state, ThreadState thread) throws Exception {
+            handle = thread.newHandle;
+            id = state.platform.createAccount(handle);
+            state.platform.createPost(handle, "Benchmark post");
+        }
+    }
+
+    /**
+     * The FreshPost class creates, before each call, a post with an endorsement and a comment for
+     * the call to delete, and deletes the comment left behind afterwards.
+     */
+    @State(Scope.Thread)
+    public static class FreshPost {
+
+        /** ID of the post created. */
+        int id;
+
+        /** ID of the comment on the post. */
+        int commentId;
+
+        /**
+         * Creates the post, its endorsement and its comment.
+         *
+         * @param state the platform under test.
+         * @param thread state of the calling thread.
+         * @throws Exception if the platform throws.
+         */
+        @Setup(Level.Invocation)
+        public void create(PlatformState state, ThreadState thread) throws Exception {
+            id = state.platform.createPost(thread.handle, "Benchmark post");
+            state.platform.endorsePost(thread.handle, id);
+            commentId = state.platform.commentPost(thread.handle, id, "Benchmark comment");
+        }
+
+        /**
+         * Deletes the comment, which is left behind when the post is deleted.
+         *
+         * @param state the platform under test.
+         * @throws Exception if the platform throws.
+         */
+        @TearDown(Level.Invocation)
+        public void deleteComment(PlatformState state) throws Exception {
+            state.platform.deletePost(commentId);
+        }
+    }
+
+    /**
+     * Creates an account with a handle alone.
+     *
+     * @param state the platform under test.
+     * @param thread state of the calling thread.
+     * @param undo removes the account afterwards.
+     * @return ID of the account.
+     * @throws Exception if the platform throws.
+     */
+    @Benchmark
+    public int createAccount(PlatformState state, ThreadState thread, Undo undo) throws Exception {
+        undo.handle = thread.newHandle;
+        return state.platform.createAccount(thread.newHandle);
+    }
+
+    /**
+     * Creates an account with a handle and description.
+     *
+     * @param state the platform under test.
+     * @param thread state of the calling thread.
+     * @param undo removes the account afterwards.
+     * @return ID of the account.
+     * @throws Exception if the platform throws.
+     */
+    @Benchmark
+    public int createAccountDescription(PlatformState state, ThreadState thread, Undo undo) throws Exception {
+        undo.handle = thread.newHandle;
+        return state.platform.createAccount(thread.newHandle, "Benchmark account description");
+    }
+
+    /**
+     * Removes an account with one post by its ID.
+     *
+     * @param state the platform under test.
+     * @param account the account to remove, created beforehand.
+     * @throws Exception if the platform throws.
+     */
+    @Benchmark
+    public void removeAccountById(PlatformState state, FreshAccount account) throws Exception {
+        state.platform.removeAccount(account.id);
+    }
+
+    /**
+     * Removes an account with one post by its handle.
+     *
+     * @param state the platform under test.
+     * @param account the account to remove, created beforehand.
+     * @throws Exception if the platform throws.
+     */
+    @Benchmark
+    public void removeAccountByHandle(PlatformState state, FreshAccount account) throws Exception {
+        state.platform.removeAccount(account.handle);
+    }
+
+    /**
+     * Renames the calling thread's account, alternately to another handle and back.
+     *
+     * @param state the platform under test.
+     * @param thread state of the calling thread.
+     * @throws Exception if the platform throws.
+     */
+    @Benchmark
+    public void changeAccountHandle(PlatformState state, ThreadState thread) throws Exception {
+        if ((thread.alternations++ & 1) == 0) {
+            state.platform.changeAccountHandle(thread.handle, thread.otherHandle);
+        } else {
+            state.platform.changeAccountHandle(thread.otherHandle, thread.handle);
+        }
+    }
+
+    /**
+     * Changes the description of the calling thread's account, alternately between two descriptions.
+     *
+     * @param state the platform under test.
+     * @param thread state of the calling thread.
+     * @throws Exception if the platform throws.
+     */
+    @Benchmark
+    public void updateAccountDescription(PlatformState state, ThreadState thread) throws Exception {
+        state.platform.updateAccountDescription(thread.handle, (thread.alternations++ & 1) == 0 ? "Description A" : "Description B");
+    }
+
+    /**
+     * Creates an original post.
+     *
+     * @param state the platform under test.
+     * @param thread state of the calling thread.
+     * @param undo deletes the post afterwards.
+     * @return ID of the post.
+     * @throws Exception if the platform throws.
+     */
+    @Benchmark
+    public int createPost(PlatformState state, ThreadState thread, Undo undo) throws Exception {
+        return undo.postId = state.platform.createPost(thread.handle, "Benchmark post");
+    }
+
+    /**
+     * Endorses an original post or comment filling the platform.
+     *
+     * @param state the platform under test.
+     * @param thread state of the calling thread.
+     * @param undo deletes the endorsement afterwards.
+     * @return ID of the endorsement.
+     * @throws Exception if the platform throws.
+     */
+    @Benchmark
+    public int endorsePost(PlatformState state, ThreadState thread, Undo undo) throws Exception {
+        return undo.postId = state.platform.endorsePost(thread.handle, thread.anyActionable(state));
+    }
+
+    /**
+     * Comments on an original post or comment filling the platform.
+     *
+     * @param state the platform under test.
+     * @param thread state of the calling thread.
+     * @param undo deletes the comment afterwards.
+     * @return ID of the comment.
+     * @throws Exception if the platform throws.
+     */
+    @Benchmark
+    public int commentPost(PlatformState state, ThreadState thread, Undo undo) throws Exception {
+        return undo.postId = state.platform.commentPost(thread.handle, thread.anyActionable(state), "Benchmark comment");
+    }
+
+    /**
+     * Deletes an original post with an endorsement and a comment.
+     *
+     * @param state the platform under test.
+     * @param post the post to delete, created beforehand.
+     * @throws Exception if the platform throws.
+     */
+    @Benchmark
+    public void deletePost(PlatformState state, FreshPost post) throws Exception {
+        state.platform.deletePost(post.id);
+    }
+}
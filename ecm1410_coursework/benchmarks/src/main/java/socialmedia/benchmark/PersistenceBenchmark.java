@@ -0,0 +1,130 @@
+package socialmedia.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The PersistenceBenchmark class measures the {@link socialmedia.SocialMediaPlatform} methods
+ * which save, erase and load the whole platform.
+ * <p>
+ * Each thread saves to its own file. Erasing and loading replace the whole platform, so they
+ * are only run with one thread; the platform is loaded again after each erase, untimed.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    /**
+     * The Snapshot class is a file holding the filled platform, which it is erased and loaded from.
+     */
+    @State(Scope.Benchmark)
+    public static class Snapshot {
+
+        /** Location of the file. */
+        String file;
+
+        /**
+         * Saves the filled platform.
+         *
+         * @param state the platform under test.
+         * @param params parameters of the benchmark, giving the number of threads.
+         * @throws IOException if the platform cannot be saved.
+         * @throws IllegalStateException if the benchmark runs with more than one thread.
+         */
+        @Setup(Level.Trial)
+        public void save(PlatformState state, BenchmarkParams params) throws IOException {
+            if (params.getThreads() != 1) {
+                throw new IllegalStateException("erasePlatform and loadPlatform replace the whole platform, so must be run with one thread.");
+            }
+            File temporary = File.createTempFile("platform-benchmark", ".ser");
+            temporary.deleteOnExit();
+            file = temporary.getPath();
+            state.platform.savePlatform(file);
+        }
+
+        /**
+         * Deletes the file.
+         */
+        @TearDown(Level.Trial)
+        public void delete() {
+            new File(file).delete();
+        }
+    }
+
+    /**
+     * The Reload class loads the filled platform again after each call.
+     */
+    @State(Scope.Thread)
+    public static class Reload {
+
+        /**
+         * Loads the filled platform from its snapshot.
+         *
+         * @param state the platform under test.
+         * @param snapshot file holding the filled platform.
+         * @throws Exception if the platform cannot be loaded.
+         */
+        @TearDown(Level.Invocation)
+        public void reload(PlatformState state, Snapshot snapshot) throws Exception {
+            state.platform.loadPlatform(snapshot.file);
+        }
+    }
+
+    /**
+     * Saves the platform to the calling thread's file.
+     *
+     * @param state the platform under test.
+     * @param thread state of the calling thread.
+     * @throws IOException if the platform cannot be saved.
+     */
+    @Benchmark
+    public void savePlatform(PlatformState state, ThreadState thread) throws IOException {
+        state.platform.savePlatform(thread.file);
+    }
+
+    /**
+     * Erases the platform.
+     *
+     * @param state the platform under test.
+     * @param snapshot file holding the filled platform.
+     * @param reload loads the platform again afterwards.
+     */
+    @Benchmark
+    public void erasePlatform(PlatformState state, Snapshot snapshot, Reload reload) {
+        state.platform.erasePlatform();
+    }
+
+    /**
+     * Loads the filled platform, replacing the same platform already loaded.
+     *
+     * @param state the platform under test.
+     * @param snapshot file holding the filled platform.
+     * @throws Exception if the platform cannot be loaded.
+     */
+    @Benchmark
+    public void loadPlatform(PlatformState state, Snapshot snapshot) throws Exception {
+        state.platform.loadPlatform(snapshot.file);
+    }
+}
@@ -0,0 +1,158 @@
+package socialmedia.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import socialmedia.SocialMediaPlatform;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The PlatformState class is the platform under test, shared by every benchmark thread,
+ * filled with accounts, posts and comment threads before each trial.
+ * <p>
+ * The platform is filled with the given number of posts: original posts, comments and
+ * endorsements by a pool of accounts, plus {@value PlatformState#DEEP_THREADS} comment threads
+ * of the given depth, each level of which has two comments. The fill is seeded, so every
+ * platform of the same size and depth is filled with the same calls. Each benchmark thread
+ * is given its own account as well.
+ * <p>
+ * Platforms which are not thread-safe are wrapped in a {@link SynchronizedPlatform} when the
+ * benchmark runs with more than one thread, as any caller sharing them would have to.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+@State(Scope.Benchmark)
+public class PlatformState {
+
+    /** Platforms which may be called by several threads at once without locking. */
+    private static final Set<String> THREAD_SAFE = Set.of("ConcurrentSocialMedia", "PipelinedSocialMedia", "PersistentSocialMedia");
+
+    /** Number of deep comment threads filling each platform. */
+    static final int DEEP_THREADS = 8;
+
+    /** Class name of the platform in the socialmedia package, which must have a constructor without arguments. */
+    @Param({"SocialMedia", "BadSocialMedia"})
+    public String platformName;
+
+    /** Number of posts the platform is filled with. */
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int posts;
+
+    /** Depth of the deep comment threads. */
+    @Param({"1", "32"})
+    public int depth;
+
+    /** The platform under test. */
+    SocialMediaPlatform platform;
+
+    /** Handles of the accounts filling the platform. */
+    String[] handles;
+
+    /** IDs of the original posts and comments filling the platform. */
+    int[] actionable;
+
+    /** IDs of the original posts at the root of the deep comment threads. */
+    int[] threadRoots;
+
+    /** Number of benchmark threads given an index so far. */
+    private final AtomicInteger threadIndexes = new AtomicInteger();
+
+    /**
+     * Creates the platform and fills it.
+     *
+     * @param params parameters of the benchmark, giving the number of threads.
+     * @throws Exception if the platform cannot be created or filled.
+     */
+    @Setup(Level.Trial)
+    public void fill(BenchmarkParams params) throws Exception {
+        SocialMediaPlatform filled = create(platformName);
+        Random random = new Random(posts * 31L + depth);
+        handles = new String[Math.max(16, posts / 50)];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = "user" + i;
+            filled.createAccount(handles[i], "Account " + i);
+        }
+        for (int i = 0; i < params.getThreads(); i++) {
+            filled.createAccount(ThreadState.handleOf(i));
+        }
+        int[] found = new int[posts];
+        int foundCount = 0;
+        int made = 0;
+        threadRoots = new int[DEEP_THREADS];
+        for (int i = 0; i < DEEP_THREADS; i++) {
+            threadRoots[i] = filled.createPost(handles[random.nextInt(handles.length)], "Thread " + i);
+            found[foundCount++] = threadRoots[i];
+            made++;
+            int parent = threadRoots[i];
+            for (int level = 0; level < depth && made + 2 <= posts; level++) {
+                filled.commentPost(handles[random.nextInt(handles.length)], parent, "Sibling at depth " + level);
+                parent = filled.commentPost(handles[random.nextInt(handles.length)], parent, "Reply at depth " + level);
+                found[foundCount++] = parent;
+                made += 2;
+            }
+        }
+        for (; made < posts; made++) {
+            String handle = handles[random.nextInt(handles.length)];
+            int kind = random.nextInt(100);
+            if (kind < 60) {
+                found[foundCount++] = filled.createPost(handle, "Post " + made);
+            } else if (kind < 85) {
+                int parent = found[random.nextInt(foundCount)];
+                found[foundCount++] = filled.commentPost(handle, parent, "Comment " + made);
+            } else {
+                filled.endorsePost(handle, found[random.nextInt(foundCount)]);
+            }
+        }
+        actionable = Arrays.copyOf(found, foundCount);
+        platform = params.getThreads() > 1 && !THREAD_SAFE.contains(platformName) ? new SynchronizedPlatform(filled) : filled;
+    }
+
+    /**
+     * Closes the platform, if it holds resources.
+     *
+     * @throws IOException if the platform cannot be closed.
+     */
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        SocialMediaPlatform inner = platform instanceof SynchronizedPlatform ? ((SynchronizedPlatform) platform).unwrap() : platform;
+        if (inner instanceof Closeable) {
+            ((Closeable) inner).close();
+        }
+    }
+
+    /**
+     * Returns the index of a benchmark thread, from 0, each thread getting a different one.
+     * @return the index.
+     */
+    int nextThreadIndex() {
+        return threadIndexes.getAndIncrement();
+    }
+
+    /**
+     * Creates an empty platform from its class name.
+     *
+     * @param platformName class name of the platform in the socialmedia package.
+     * @return the platform.
+     * @throws IllegalArgumentException if there is no such platform, or it has no constructor without arguments.
+     */
+    private static SocialMediaPlatform create(String platformName) {
+        try {
+            Class<?> platformClass = Class.forName("socialmedia." + platformName);
+            return (SocialMediaPlatform) platformClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IllegalArgumentException("Not a platform with a constructor without arguments: " + platformName, e);
+        }
+    }
+}
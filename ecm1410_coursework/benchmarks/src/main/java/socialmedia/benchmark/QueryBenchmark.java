@@ -0,0 +1,133 @@
+package socialmedia.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The QueryBenchmark class measures the {@link socialmedia.SocialMediaPlatform} methods which
+ * only read the platform: showing accounts, posts and comment threads, and the totals and
+ * most endorsed post and account. Targets are picked at random from those filling the platform.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+
+    /**
+     * Shows an account filling the platform.
+     *
+     * @param state the platform under test.
+     * @param thread state of the calling thread.
+     * @return the text shown.
+     * @throws Exception if the platform throws.
+     */
+    @Benchmark
+    public String showAccount(PlatformState state, ThreadState thread) throws Exception {
+        return state.platform.showAccount(thread.anyHandle(state));
+    }
+
+    /**
+     * Shows an original post or comment filling the platform.
+     *
+     * @param state the platform under test.
+     * @param thread state of the calling thread.
+     * @return the text shown.
+     * @throws Exception if the platform throws.
+     */
+    @Benchmark
+    public String showIndividualPost(PlatformState state, ThreadState thread) throws Exception {
+        return state.platform.showIndividualPost(thread.anyActionable(state));
+    }
+
+    /**
+     * Shows one of the deep comment threads, whose depth is {@link PlatformState#depth}.
+     *
+     * @param state the platform under test.
+     * @param thread state of the calling thread.
+     * @return the text shown.
+     * @throws Exception if the platform throws.
+     */
+    @Benchmark
+    public StringBuilder showPostChildrenDetails(PlatformState state, ThreadState thread) throws Exception {
+        return state.platform.showPostChildrenDetails(thread.anyThreadRoot(state));
+    }
+
+    /**
+     * Counts the accounts.
+     *
+     * @param state the platform under test.
+     * @return the number of accounts.
+     */
+    @Benchmark
+    public int getNumberOfAccounts(PlatformState state) {
+        return state.platform.getNumberOfAccounts();
+    }
+
+    /**
+     * Counts the original posts.
+     *
+     * @param state the platform under test.
+     * @return the number of original posts.
+     */
+    @Benchmark
+    public int getTotalOriginalPosts(PlatformState state) {
+        return state.platform.getTotalOriginalPosts();
+    }
+
+    /**
+     * Counts the endorsements.
+     *
+     * @param state the platform under test.
+     * @return the number of endorsements.
+     */
+    @Benchmark
+    public int getTotalEndorsmentPosts(PlatformState state) {
+        return state.platform.getTotalEndorsmentPosts();
+    }
+
+    /**
+     * Counts the comments.
+     *
+     * @param state the platform under test.
+     * @return the number of comments.
+     */
+    @Benchmark
+    public int getTotalCommentPosts(PlatformState state) {
+        return state.platform.getTotalCommentPosts();
+    }
+
+    /**
+     * Finds the most endorsed post.
+     *
+     * @param state the platform under test.
+     * @return its ID.
+     */
+    @Benchmark
+    public int getMostEndorsedPost(PlatformState state) {
+        return state.platform.getMostEndorsedPost();
+    }
+
+    /**
+     * Finds the most endorsed account.
+     *
+     * @param state the platform under test.
+     * @return its ID.
+     */
+    @Benchmark
+    public int getMostEndorsedAccount(PlatformState state) {
+        return state.platform.getMostEndorsedAccount();
+    }
+}
@@ -0,0 +1,158 @@
+package socialmedia.benchmark;
+
+import socialmedia.AccountIDNotRecognisedException;
+import socialmedia.HandleNotRecognisedException;
+import socialmedia.IllegalHandleException;
+import socialmedia.InvalidHandleException;
+import socialmedia.InvalidPostException;
+import socialmedia.NotActionablePostException;
+import socialmedia.PostIDNotRecognisedException;
+import socialmedia.SocialMediaPlatform;
+
+import java.io.IOException;
+
+/**
+ * SynchronizedPlatform is an implementor of the SocialMediaPlatform interface which passes
+ * every call on to another platform while holding its own monitor, so a platform which is
+ * not thread-safe can be shared by several benchmark threads, as any caller sharing it would have to.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+class SynchronizedPlatform implements SocialMediaPlatform {
+
+    /** The platform the calls are passed on to. */
+    private final SocialMediaPlatform platform;
+
+    /**
+     * Constructor which wraps a platform.
+     *
+     * @param platform platform the calls are passed on to.
+     */
+    SynchronizedPlatform(SocialMediaPlatform platform) {
+        this.platform = platform;
+    }
+
+    /**
+     * Returns the wrapped platform.
+     * @return the platform the calls are passed on to.
+     */
+    SocialMediaPlatform unwrap() {
+        return platform;
+    }
+
+    @Override
+    public synchronized int createAccount(String handle) throws IllegalHandleException, InvalidHandleException {
+        return platform.createAccount(handle);
+    }
+
+    @Override
+    public synchronized int createAccount(String handle, String description) throws IllegalHandleException, InvalidHandleException {
+        return platform.createAccount(handle, description);
+    }
+
+    @Override
+    public synchronized void removeAccount(int id) throws AccountIDNotRecognisedException {
+        platform.removeAccount(id);
+    }
+
+    @Override
+    public synchronized void removeAccount(String handle) throws HandleNotRecognisedException {
+        platform.removeAccount(handle);
+    }
+
+    @Override
+    public synchronized void changeAccountHandle(String oldHandle, String newHandle)
+            throws HandleNotRecognisedException, IllegalHandleException, InvalidHandleException {
+        platform.changeAccountHandle(oldHandle, newHandle);
+    }
+
+    @Override
+    public synchronized void updateAccountDescription(String handle, String description) throws HandleNotRecognisedException {
+        platform.updateAccountDescription(handle, description);
+    }
+
+    @Override
+    public synchronized String showAccount(String handle) throws HandleNotRecognisedException {
+        return platform.showAccount(handle);
+    }
+
+    @Override
+    public synchronized int createPost(String handle, String message) throws HandleNotRecognisedException, InvalidPostException {
+        return platform.createPost(handle, message);
+    }
+
+    @Override
+    public synchronized int endorsePost(String handle, int id)
+            throws HandleNotRecognisedException, PostIDNotRecognisedException, NotActionablePostException {
+        return platform.endorsePost(handle, id);
+    }
+
+    @Override
+    public synchronized int commentPost(String handle, int id, String message) throws HandleNotRecognisedException,
+            PostIDNotRecognisedException, NotActionablePostException, InvalidPostException {
+        return platform.commentPost(handle, id, message);
+    }
+
+    @Override
+    public synchronized void deletePost(int id) throws PostIDNotRecognisedException {
+        platform.deletePost(id);
+    }
+
+    @Override
+    public synchronized String showIndividualPost(int id) throws PostIDNotRecognisedException {
+        return platform.showIndividualPost(id);
+    }
+
+    @Override
+    public synchronized StringBuilder showPostChildrenDetails(int id)
+            throws PostIDNotRecognisedException, NotActionablePostException {
+        return platform.showPostChildrenDetails(id);
+    }
+
+    @Override
+    public synchronized int getNumberOfAccounts() {
+        return platform.getNumberOfAccounts();
+    }
+
+    @Override
+    public synchronized int getTotalOriginalPosts() {
+        return platform.getTotalOriginalPosts();
+    }
+
+    @Override
+    public synchronized int getTotalEndorsmentPosts() {
+        return platform.getTotalEndorsmentPosts();
+    }
+
+    @Override
+    public synchronized int getTotalCommentPosts() {
+        return platform.getTotalCommentPosts();
+    }
+
+    @Override
+    public synchronized int getMostEndorsedPost() {
+        return platform.getMostEndorsedPost();
+    }
+
+    @Override
+    public synchronized int getMostEndorsedAccount() {
+        return platform.getMostEndorsedAccount();
+    }
+
+    @Override
+    public synchronized void erasePlatform() {
+        platform.erasePlatform();
+    }
+
+    @Override
+    public synchronized void savePlatform(String filename) throws IOException {
+        platform.savePlatform(filename);
+    }
+
+    @Override
+    public synchronized void loadPlatform(String filename) throws IOException, ClassNotFoundException {
+        platform.loadPlatform(filename);
+    }
+}
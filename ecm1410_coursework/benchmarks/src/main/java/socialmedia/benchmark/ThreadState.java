@@ -0,0 +1,102 @@
+package socialmedia.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * The ThreadState class is the state of one benchmark thread: its own account on the
+ * platform, the handles it creates and renames accounts to, and its choice of targets.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+@State(Scope.Thread)
+public class ThreadState {
+
+    /** Index of the thread, from 0. */
+    int index;
+
+    /** Handle of the thread's own account, created when the platform is filled. */
+    String handle;
+
+    /** Handle the thread's own account is renamed to, and back from. */
+    String otherHandle;
+
+    /** Handle of the accounts the thread creates and removes again. */
+    String newHandle;
+
+    /** Number of calls the thread has made to benchmarks which alternate between two changes. */
+    long alternations;
+
+    /** Temporary file the thread saves the platform to. */
+    String file;
+
+    /** Random number generator picking targets, seeded by the thread's index. */
+    private SplittableRandom random;
+
+    /**
+     * Sets up the thread's state.
+     *
+     * @param state the platform under test.
+     * @throws IOException if the temporary file cannot be created.
+     */
+    @Setup(Level.Trial)
+    public void setUp(PlatformState state) throws IOException {
+        index = state.nextThreadIndex();
+        handle = handleOf(index);
+        otherHandle = handle + "x";
+        newHandle = handle + "n";
+        alternations = 0;
+        random = new SplittableRandom(index);
+        File temporary = File.createTempFile("platform-benchmark-" + index, ".ser");
+        temporary.deleteOnExit();
+        file = temporary.getPath();
+    }
+
+    /**
+     * Returns the handle of a thread's own account.
+     *
+     * @param index index of the thread.
+     * @return the handle.
+     */
+    static String handleOf(int index) {
+        return "bench" + index;
+    }
+
+    /**
+     * Picks an original post or comment filling the platform.
+     *
+     * @param state the platform under test.
+     * @return its ID.
+     */
+    int anyActionable(PlatformState state) {
+        return state.actionable[random.nextInt(state.actionable.length)];
+    }
+
+    /**
+     * Picks the root of one of the deep comment threads.
+     *
+     * @param state the platform under test.
+     * @return its ID.
+     */
+    int anyThreadRoot(PlatformState state) {
+        return state.threadRoots[random.nextInt(state.threadRoots.length)];
+    }
+
+    /**
+     * Picks one of the accounts filling the platform.
+     *
+     * @param state the platform under test.
+     * @return its handle.
+     */
+    String anyHandle(PlatformState state) {
+        return state.handles[random.nextInt(state.handles.length)];
+    }
+}
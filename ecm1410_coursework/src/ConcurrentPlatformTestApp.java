@@ -0,0 +1,528 @@
+import socialmedia.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A program checking the thread-safe platforms while several threads use them at once:
+ * that a save taken while changes carry on holds a consistent platform which loads and
+ * shows without error, that the platform saved at the end matches the live one, that
+ * accounts created while the platform is erased and loaded never take a loaded account's ID,
+ * and that an account is removed along with its posts in one step as far as readers can tell.
+ * Run it with assertions enabled ({@code java -ea ConcurrentPlatformTestApp}).
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public class ConcurrentPlatformTestApp {
+
+    /** Number of accounts each check starts with. */
+    private static final int ACCOUNTS = 40;
+
+    /** Number of threads changing the platform at once. */
+    private static final int WRITERS = 4;
+
+    /** Number of changes each writer makes. */
+    private static final int STEPS = 3000;
+
+    /** Number of accounts removed while their posts are being read. */
+    private static final int REMOVALS = 20;
+
+    /** Number of rounds of accounts created while the platform is erased and loaded. */
+    private static final int RELOADS = 50;
+
+    /** Number of accounts each thread creates in a round while the platform is erased and loaded. */
+    private static final int CREATES = 200;
+
+    /** Highest post ID handed out in the current check. */
+    private static final AtomicInteger lastPostId = new AtomicInteger();
+
+    /**
+     * Test method.
+     *
+     * @param args not used
+     * @throws Exception if a check cannot be run
+     */
+    public static void main(String[] args) throws Exception {
+        System.out.println("Checking thread-safe platforms under concurrent use...");
+        File directory = Files.createTempDirectory("concurrent-check").toFile();
+        try {
+            checkSavesDuringChanges(new ConcurrentSocialMedia(), directory);
+            checkSavesDuringChanges(new PersistentSocialMedia(), directory);
+            checkRemovalDuringReads(new ConcurrentSocialMedia(), directory);
+            checkRemovalDuringReads(new PersistentSocialMedia(), directory);
+            checkCreatesDuringReloads(new ConcurrentSocialMedia(), directory);
+            checkCreatesDuringReloads(new PersistentSocialMedia(), directory);
+            checkJournalDuringChanges(directory);
+        } finally {
+            deleteAll(directory);
+        }
+        System.out.println("All concurrent checks passed.");
+    }
+
+    /**
+     * Saves a platform over and over while writers change it, then loads each save into a
+     * {@link SocialMedia} and checks it is consistent, and checks a save taken once the
+     * writers stop matches the live platform.
+     *
+     * @param platform thread-safe platform to check.
+     * @param directory directory for the saved files.
+     * @throws Exception if a check cannot be run
+     */
+    private static void checkSavesDuringChanges(SocialMediaPlatform platform, File directory) throws Exception {
+        String name = platform.getClass().getSimpleName();
+        populate(platform);
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> writers = startWriters(platform, stop, failure);
+        List<String> saves = new ArrayList<>();
+        try {
+            while (saves.isEmpty() || anyAlive(writers)) {
+                String filename = new File(directory, name + "-" + saves.size() + ".smps").getPath();
+                if (platform instanceof ConcurrentSocialMedia && saves.size() % 2 == 1) {
+                    ((ConcurrentSocialMedia) platform).savePlatformInBackground(filename).join();
+                } else {
+                    platform.savePlatform(filename);
+                }
+                saves.add(filename);
+            }
+        } finally {
+            stop.set(true);
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+        assert (failure.get() == null) : name + " writer failed: " + failure.get();
+        for (String filename : saves) {
+            SocialMedia loaded = new SocialMedia();
+            loaded.loadPlatform(filename);
+            assertConsistent(loaded, name + " " + filename);
+        }
+
+        String filename = new File(directory, name + "-final.smps").getPath();
+        platform.savePlatform(filename);
+        SocialMedia loaded = new SocialMedia();
+        loaded.loadPlatform(filename);
+        assert (describe(loaded).equals(describe(platform))) : name + " final save does not match the live platform";
+        System.out.println(name + ": " + saves.size() + " saves during changes loaded consistently");
+    }
+
+    /**
+     * Removes accounts with many posts while readers show those posts and a save is taken,
+     * checking that a post shown always has its author, that every post is gone once the
+     * account is, and that each save loads consistently.
+     *
+     * @param platform thread-safe platform to check.
+     * @param directory directory for the saved files.
+     * @throws Exception if a check cannot be run
+     */
+    private static void checkRemovalDuringReads(SocialMediaPlatform platform, File directory) throws Exception {
+        String name = platform.getClass().getSimpleName();
+        populate(platform);
+        for (int round = 0; round < REMOVALS; round++) {
+            String handle = "leaving" + round;
+            platform.createAccount(handle, "Removed in round " + round);
+            int[] authored = new int[20];
+            for (int i = 0; i < authored.length; i++) {
+                authored[i] = platform.createPost(handle, "Post " + i + " of " + handle);
+                platform.commentPost("user" + (i % ACCOUNTS), authored[i], "Reply to " + handle);
+                noteId(platform.endorsePost("user" + ((i + 1) % ACCOUNTS), authored[i]));
+            }
+
+            AtomicBoolean stop = new AtomicBoolean();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            List<Thread> readers = new ArrayList<>();
+            for (int r = 0; r < WRITERS; r++) {
+                Thread reader = new Thread(() -> {
+                    while (!stop.get() && failure.get() == null) {
+                        for (int id : authored) {
+                            try {
+                                String shown = platform.showIndividualPost(id);
+                                if (!shown.contains("Account: " + handle)) {
+                                    throw new AssertionError("Post " + id + " shown without its author: " + shown);
+                                }
+                                platform.showPostChildrenDetails(id);
+                            } catch (PostIDNotRecognisedException e) {
+                                // Removed along with the account
+                            } catch (Throwable e) {
+                                failure.compareAndSet(null, e);
+                            }
+                        }
+                    }
+                }, "reader-" + r);
+                reader.start();
+                readers.add(reader);
+            }
+            String filename = new File(directory, name + "-removal-" + round + ".smps").getPath();
+            try {
+                Thread.sleep(1);
+                if (round % 2 == 0) {
+                    Thread saver = new Thread(() -> {
+                        try {
+                            platform.savePlatform(filename);
+                        } catch (Throwable e) {
+                            failure.compareAndSet(null, e);
+                        }
+                    });
+                    saver.start();
+                    platform.removeAccount(handle);
+                    saver.join();
+                } else {
+                    platform.removeAccount(handle);
+                    platform.savePlatform(filename);
+                }
+            } finally {
+                stop.set(true);
+                for (Thread reader : readers) {
+                    reader.join();
+                }
+            }
+            assert (failure.get() == null) : name + " reader failed: " + failure.get();
+            for (int id : authored) {
+                try {
+                    platform.showIndividualPost(id);
+                    assert (false) : name + " kept post " + id + " of a removed account";
+                } catch (PostIDNotRecognisedException e) {
+                    // Removed along with the account
+                }
+            }
+            SocialMedia loaded = new SocialMedia();
+            loaded.loadPlatform(filename);
+            assertConsistent(loaded, name + " " + filename);
+        }
+        System.out.println(name + ": " + REMOVALS + " accounts removed while being read and saved");
+    }
+
+    /**
+     * Creates accounts from several threads while the platform is erased and loaded over and
+     * over, then checks that every account loaded last is still there under its own ID, and
+     * that no two accounts share an ID.
+     *
+     * @param platform thread-safe platform to check.
+     * @param directory directory for the saved file.
+     * @throws Exception if a check cannot be run
+     */
+    private static void checkCreatesDuringReloads(SocialMediaPlatform platform, File directory) throws Exception {
+        String name = platform.getClass().getSimpleName();
+        platform.erasePlatform();
+        String[] loaded = new String[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            platform.createAccount("loaded" + i, "Loaded account number " + i);
+        }
+        for (int i = 0; i < ACCOUNTS; i++) {
+            loaded[i] = platform.showAccount("loaded" + i);
+        }
+        String filename = new File(directory, name + "-reload.smps").getPath();
+        platform.savePlatform(filename);
+        for (int round = 0; round < RELOADS; round++) {
+            String prefix = "created" + round + "x";
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            List<Thread> creators = new ArrayList<>();
+            for (int c = 0; c < WRITERS; c++) {
+                String creatorPrefix = prefix + c + "x";
+                Thread creator = new Thread(() -> {
+                    for (int i = 0; i < CREATES && failure.get() == null; i++) {
+                        try {
+                            platform.createAccount(creatorPrefix + i);
+                        } catch (Throwable e) {
+                            failure.compareAndSet(null, e);
+                        }
+                    }
+                }, "creator-" + c);
+                creator.start();
+                creators.add(creator);
+            }
+            try {
+                do {
+                    platform.erasePlatform();
+                    platform.loadPlatform(filename);
+                } while (anyAlive(creators));
+            } finally {
+                for (Thread creator : creators) {
+                    creator.join();
+                }
+            }
+            assert (failure.get() == null) : name + " creator failed: " + failure.get();
+
+            Set<String> ids = new HashSet<>();
+            for (int i = 0; i < ACCOUNTS; i++) {
+                try {
+                    assert (platform.showAccount("loaded" + i).equals(loaded[i])) : name + " changed loaded account " + i;
+                } catch (HandleNotRecognisedException e) {
+                    assert (false) : name + " lost loaded account " + i + " to an account created during the load";
+                }
+                ids.add(loaded[i].lines().findFirst().get());
+            }
+            for (int c = 0; c < WRITERS; c++) {
+                for (int i = 0; i < CREATES; i++) {
+                    try {
+                        String shown = platform.showAccount(prefix + c + "x" + i);
+                        assert (ids.add(shown.lines().findFirst().get())) : name + " gave two accounts the same ID";
+                    } catch (HandleNotRecognisedException e) {
+                        // Created before the last load, which replaced it
+                    }
+                }
+            }
+            assert (ids.size() == platform.getNumberOfAccounts()) : name + " counts "
+                    + platform.getNumberOfAccounts() + " accounts but shows " + ids.size();
+        }
+        System.out.println(name + ": " + RELOADS + " rounds of creates during erases and loads kept every account");
+    }
+
+    /**
+     * Changes a journaled platform from several threads while it is compacted, then reopens
+     * its directory and checks the recovered platform matches the live one.
+     *
+     * @param directory directory to create the journal directory in.
+     * @throws Exception if a check cannot be run
+     */
+    private static void checkJournalDuringChanges(File directory) throws Exception {
+        String journalDirectory = new File(directory, "journal").getPath();
+        String expected;
+        try (JournaledSocialMedia platform = new JournaledSocialMedia(new ConcurrentSocialMedia(), journalDirectory,
+                JournaledSocialMedia.FsyncPolicy.GROUP)) {
+            populate(platform);
+            AtomicBoolean stop = new AtomicBoolean();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            List<Thread> writers = startWriters(platform, stop, failure);
+            try {
+                while (anyAlive(writers)) {
+                    platform.compact();
+                    Thread.sleep(20);
+                }
+            } finally {
+                stop.set(true);
+                for (Thread writer : writers) {
+                    writer.join();
+                }
+            }
+            assert (failure.get() == null) : "JournaledSocialMedia writer failed: " + failure.get();
+            expected = describe(platform);
+        }
+        try (JournaledSocialMedia recovered = new JournaledSocialMedia(new ConcurrentSocialMedia(), journalDirectory,
+                JournaledSocialMedia.FsyncPolicy.GROUP)) {
+            assertConsistent(recovered, "recovered journal");
+            assert (describe(recovered).equals(expected)) : "Recovered journal does not match the live platform";
+        }
+
+        // A crash part way through writing a change leaves a torn record at the end of the journal
+        Files.write(newestJournal(new File(journalDirectory)).toPath(), new byte[] {0, 0, 0, 100, 1, 2, 3, 4, 5, 6},
+                StandardOpenOption.APPEND);
+        try (JournaledSocialMedia recovered = new JournaledSocialMedia(new ConcurrentSocialMedia(), journalDirectory,
+                JournaledSocialMedia.FsyncPolicy.GROUP)) {
+            assertConsistent(recovered, "journal with a torn tail");
+            assert (describe(recovered).equals(expected)) : "Journal with a torn tail does not recover the changes before it";
+            recovered.createAccount("recovered");
+            noteId(recovered.createPost("recovered", "Written after recovery"));
+            expected = describe(recovered);
+        }
+        try (JournaledSocialMedia recovered = new JournaledSocialMedia(new ConcurrentSocialMedia(), journalDirectory,
+                JournaledSocialMedia.FsyncPolicy.GROUP)) {
+            assert (describe(recovered).equals(expected)) : "Changes after recovering a torn tail are lost";
+        }
+        System.out.println("JournaledSocialMedia: recovery after concurrent changes, compactions and a torn tail matches");
+    }
+
+    /**
+     * Finds the journal of the newest generation in a journal directory.
+     *
+     * @param directory the journal directory.
+     * @return the journal file.
+     */
+    private static File newestJournal(File directory) {
+        File newest = null;
+        long newestGeneration = -1;
+        for (File file : directory.listFiles()) {
+            String name = file.getName();
+            if (name.startsWith("journal-") && name.endsWith(".log")) {
+                long generation = Long.parseLong(name.substring("journal-".length(), name.length() - ".log".length()));
+                if (generation > newestGeneration) {
+                    newest = file;
+                    newestGeneration = generation;
+                }
+            }
+        }
+        assert (newest != null) : "No journal written in " + directory;
+        return newest;
+    }
+
+    /**
+     * Creates the accounts every check starts with, each with a few posts.
+     *
+     * @param platform platform to fill.
+     * @throws Exception if the platform rejects a change
+     */
+    private static void populate(SocialMediaPlatform platform) throws Exception {
+        lastPostId.set(0);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            platform.createAccount("user" + i, "Account number " + i);
+            int post = platform.createPost("user" + i, "First post by user" + i);
+            platform.commentPost("user" + (i / 2), post, "Welcome, user" + i);
+            noteId(platform.endorsePost("user" + (i / 3), post));
+        }
+    }
+
+    /**
+     * Starts the writer threads, which each make {@value ConcurrentPlatformTestApp#STEPS} random
+     * changes, or fewer if told to stop. Changes the platform rejects are expected, as other
+     * writers remove what they refer to; any other exception is recorded as a failure.
+     *
+     * @param platform platform to change.
+     * @param stop set to make the writers stop.
+     * @param failure set to the first unexpected exception thrown.
+     * @return the writer threads.
+     */
+    private static List<Thread> startWriters(SocialMediaPlatform platform, AtomicBoolean stop,
+            AtomicReference<Throwable> failure) {
+        List<Thread> writers = new ArrayList<>();
+        for (int w = 0; w < WRITERS; w++) {
+            Random random = new Random(w);
+            Thread writer = new Thread(() -> {
+                for (int step = 0; step < STEPS && !stop.get() && failure.get() == null; step++) {
+                    String handle = "user" + random.nextInt(ACCOUNTS);
+                    int post = random.nextInt(lastPostId.get() + 1);
+                    try {
+                        int action = random.nextInt(20);
+                        if (action < 6) {
+                            noteId(platform.createPost(handle, "Post " + step));
+                        } else if (action < 10) {
+                            noteId(platform.commentPost(handle, post, "Comment " + step));
+                        } else if (action < 14) {
+                            noteId(platform.endorsePost(handle, post));
+                        } else if (action < 16) {
+                            platform.deletePost(post);
+                        } else if (action < 17) {
+                            platform.removeAccount(handle);
+                            platform.createAccount(handle, "Recreated at step " + step);
+                        } else {
+                            platform.updateAccountDescription(handle, "Changed at step " + step);
+                        }
+                    } catch (HandleNotRecognisedException | PostIDNotRecognisedException | NotActionablePostException
+                             | IllegalHandleException e) {
+                        // Another writer removed or recreated what this change refers to
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                    if (step % 10 == 9) {
+                        // Give the saves a chance to run while the changes are still being made
+                        LockSupport.parkNanos(1_000_000);
+                    }
+                }
+            }, "writer-" + w);
+            writer.start();
+            writers.add(writer);
+        }
+        return writers;
+    }
+
+    /**
+     * Returns whether any of the writer threads is still running.
+     *
+     * @param writers the writer threads.
+     * @return true if a writer has not finished.
+     */
+    private static boolean anyAlive(List<Thread> writers) {
+        for (Thread writer : writers) {
+            if (writer.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records a post ID handed out, so the checks know how far to look for posts.
+     *
+     * @param id ID of a post just created.
+     */
+    private static void noteId(int id) {
+        lastPostId.accumulateAndGet(id, Math::max);
+    }
+
+    /**
+     * Checks a platform shows every post and account without error, and that the totals
+     * agree with the posts it shows.
+     *
+     * @param platform platform to check.
+     * @param what description of the platform, for failure messages.
+     */
+    private static void assertConsistent(SocialMediaPlatform platform, String what) {
+        int posts = 0;
+        for (int id = 0; id <= lastPostId.get(); id++) {
+            try {
+                String shown = platform.showIndividualPost(id);
+                assert (shown.contains("ID: " + id)) : what + " shows post " + id + " wrongly";
+                platform.showPostChildrenDetails(id);
+                posts++;
+            } catch (PostIDNotRecognisedException | NotActionablePostException e) {
+                // No post with this ID, or an endorsement, which has no children to show
+                if (e instanceof NotActionablePostException) {
+                    posts++;
+                }
+            }
+        }
+        int total = platform.getTotalOriginalPosts() + platform.getTotalCommentPosts() + platform.getTotalEndorsmentPosts();
+        assert (posts == total) : what + " shows " + posts + " posts but counts " + total;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            try {
+                platform.showAccount("user" + i);
+            } catch (HandleNotRecognisedException e) {
+                // Removed, and not yet recreated, when the platform was saved
+            }
+        }
+    }
+
+    /**
+     * Describes everything a platform shows, so two platforms can be compared.
+     *
+     * @param platform platform to describe.
+     * @return the totals, every account and every post, as shown by the platform.
+     */
+    private static String describe(SocialMediaPlatform platform) {
+        StringBuilder description = new StringBuilder();
+        description.append(platform.getNumberOfAccounts()).append(' ').append(platform.getTotalOriginalPosts())
+                .append(' ').append(platform.getTotalCommentPosts()).append(' ')
+                .append(platform.getTotalEndorsmentPosts()).append('\n');
+        for (int i = 0; i < ACCOUNTS; i++) {
+            try {
+                description.append(platform.showAccount("user" + i)).append('\n');
+            } catch (HandleNotRecognisedException e) {
+                description.append("no user").append(i).append('\n');
+            }
+        }
+        for (int id = 0; id <= lastPostId.get(); id++) {
+            try {
+                description.append(platform.showIndividualPost(id)).append('\n');
+            } catch (PostIDNotRecognisedException e) {
+                // No post with this ID
+            }
+        }
+        return description.toString();
+    }
+
+    /**
+     * Deletes a file, or a directory and everything in it.
+     *
+     * @param file file or directory to delete.
+     */
+    private static void deleteAll(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteAll(child);
+            }
+        }
+        file.delete();
+    }
+}
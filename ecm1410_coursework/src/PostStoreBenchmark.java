@@ -0,0 +1,142 @@
+import socialmedia.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A short program comparing the memory use and throughput of the
+ * {@link IntKeyMap} post store against the {@link HashMap} it replaced.
+ * <p>
+ * Every entry maps to the same {@link Post} object, so the memory figures
+ * only count the overhead of each map. Run with a large heap, for example:
+ * <pre>
+ * java -Xmx4g PostStoreBenchmark 10000000
+ * </pre>
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public class PostStoreBenchmark {
+
+	/** Number of timed rounds for each measurement (after one warm-up round). */
+	private static final int ROUNDS = 5;
+
+	/** Sink for values read during the timed loops, so they are not optimised away. */
+	private static long blackhole;
+
+	/**
+	 * Benchmark method.
+	 *
+	 * @param args optional number of posts (default 1,000,000).
+	 */
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		Post post = new OriginalPost(0, 0, "benchmark");
+		int[] lookups = new Random(42).ints(size, 0, size).toArray();
+		System.out.printf("Posts: %,d%n%n", size);
+		System.out.printf("%-12s %14s %12s %12s %12s%n", "Store", "Bytes/entry", "put ns/op", "get ns/op", "iter ns/op");
+		benchmarkHashMap(size, post, lookups);
+		benchmarkIntKeyMap(size, post, lookups);
+		System.out.println("\n(blackhole " + (blackhole & 1) + ")");
+	}
+
+	/**
+	 * Measures a {@link HashMap} with {@link Integer} keys, as previously used to store posts.
+	 *
+	 * @param size number of entries.
+	 * @param post value stored under every key.
+	 * @param lookups keys to look up.
+	 */
+	private static void benchmarkHashMap(int size, Post post, int[] lookups) {
+		long before = usedMemory();
+		Map<Integer,Post> filled = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			filled.put(i, post);
+		}
+		double bytes = (usedMemory() - before) / (double) size;
+		double put = time(size, () -> {
+			Map<Integer,Post> map = new HashMap<>();
+			for (int i = 0; i < size; i++) {
+				map.put(i, post);
+			}
+			blackhole += map.size();
+		});
+		double get = time(size, () -> {
+			for (int key : lookups) {
+				blackhole += filled.get(key).getPostId();
+			}
+		});
+		double iterate = time(size, () -> {
+			for (Post value : filled.values()) {
+				blackhole += value.getPostId();
+			}
+		});
+		System.out.printf("%-12s %14.1f %12.1f %12.1f %12.1f%n", "HashMap", bytes, put, get, iterate);
+	}
+
+	/**
+	 * Measures an {@link IntKeyMap}, as now used to store posts.
+	 *
+	 * @param size number of entries.
+	 * @param post value stored under every key.
+	 * @param lookups keys to look up.
+	 */
+	private static void benchmarkIntKeyMap(int size, Post post, int[] lookups) {
+		long before = usedMemory();
+		IntKeyMap<Post> filled = new IntKeyMap<>();
+		for (int i = 0; i < size; i++) {
+			filled.put(i, post);
+		}
+		double bytes = (usedMemory() - before) / (double) size;
+		double put = time(size, () -> {
+			IntKeyMap<Post> map = new IntKeyMap<>();
+			for (int i = 0; i < size; i++) {
+				map.put(i, post);
+			}
+			blackhole += map.size();
+		});
+		double get = time(size, () -> {
+			for (int key : lookups) {
+				blackhole += filled.get(key).getPostId();
+			}
+		});
+		double iterate = time(size, () -> {
+			for (int slot = filled.nextSlot(0); slot != -1; slot = filled.nextSlot(slot + 1)) {
+				blackhole += filled.valueAt(slot).getPostId();
+			}
+		});
+		System.out.printf("%-12s %14.1f %12.1f %12.1f %12.1f%n", "IntKeyMap", bytes, put, get, iterate);
+	}
+
+	/**
+	 * Runs a task once to warm up, then returns its best time over {@link PostStoreBenchmark#ROUNDS} rounds.
+	 *
+	 * @param operations number of operations performed by one run of the task.
+	 * @param task task to time.
+	 * @return nanoseconds per operation.
+	 */
+	private static double time(int operations, Runnable task) {
+		task.run();
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < ROUNDS; i++) {
+			long start = System.nanoTime();
+			task.run();
+			best = Math.min(best, System.nanoTime() - start);
+		}
+		return best / (double) operations;
+	}
+
+	/**
+	 * Returns the heap memory in use after requesting garbage collection.
+	 * @return used heap in bytes.
+	 */
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -23,9 +23,6 @@ public class Account implements Serializable {
     /** Optional text description for each account. */
     private String description;
 
-    /** The total number of Account objects created (including deleted accounts). */
-    static int numberOfAccounts = 0;
-
     /** The number of posts made by the account */
     private int postCount = 0;
 
@@ -34,28 +31,29 @@ public class Account implements Serializable {
 
     /**
      * Constructor which creates an Account object.
-     * Assigns a sequentially incrementing account id.
      *
+     * @param accountId account's id, allocated by the platform's {@link IdAllocator}.
      * @param handle account's handle.
      */
-    public Account(String handle){
+    public Account(int accountId, String handle){
         this.handle = handle;
         description = null;
-        accountId = numberOfAccounts++;
+        this.accountId = accountId;
     }
 
     /**
-     * Constructor which performs same task as {@link Account#Account(String)}.
+     * Constructor which performs same task as {@link Account#Account(int, String)}.
      * Also adds an account description.
      *
+     * @param accountId account's id, allocated by the platform's {@link IdAllocator}.
      * @param handle account's handle.
      * @param description account's description.
-     * @see Account#Account(String)
+     * @see Account#Account(int, String)
      */
-    public Account(String handle, String description){
+    public Account(int accountId, String handle, String description){
         this.handle = handle;
         this.description = description;
-        accountId = numberOfAccounts++;
+        this.accountId = accountId;
     }
 
     /**
@@ -0,0 +1,223 @@
+package socialmedia;
+
+/**
+ * The BatchResult class holds the outcome of each item of a batch applied by a
+ * {@link BatchSocialMediaPlatform}: the ID of the post it created, or the reason it failed.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public final class BatchResult {
+
+    /**
+     * Why an item of a batch failed, matching the exception the single operation would have thrown.
+     */
+    public enum ErrorCode {
+
+        /** The item succeeded. */
+        NONE,
+
+        /** The handle does not match any account ({@link HandleNotRecognisedException}). */
+        HANDLE_NOT_RECOGNISED,
+
+        /** The post ID does not match any post ({@link PostIDNotRecognisedException}). */
+        POST_ID_NOT_RECOGNISED,
+
+        /** The post is an endorsement, which cannot be endorsed or commented on ({@link NotActionablePostException}). */
+        NOT_ACTIONABLE_POST,
+
+        /** The message is empty or too long ({@link InvalidPostException}). */
+        INVALID_POST
+    }
+
+    /** ID of the post created by each item, or -1 if the item failed. */
+    private final int[] postIds;
+
+    /** Error code of each item. */
+    private final ErrorCode[] errorCodes;
+
+    /** Number of items which failed. */
+    private int failureCount;
+
+    /**
+     * Constructor which creates the result of a batch, with every item yet to be recorded.
+     *
+     * @param size number of items in the batch.
+     */
+    BatchResult(int size) {
+        postIds = new int[size];
+        errorCodes = new ErrorCode[size];
+    }
+
+    /**
+     * Records that an item succeeded.
+     *
+     * @param index position of the item in the batch.
+     * @param postId ID of the post it created.
+     */
+    void succeeded(int index, int postId) {
+        postIds[index] = postId;
+        errorCodes[index] = ErrorCode.NONE;
+    }
+
+    /**
+     * Records that an item failed.
+     *
+     * @param index position of the item in the batch.
+     * @param errorCode why the item failed.
+     */
+    void failed(int index, ErrorCode errorCode) {
+        postIds[index] = -1;
+        errorCodes[index] = errorCode;
+        failureCount++;
+    }
+
+    /**
+     * Returns the number of items in the batch.
+     * @return number of items.
+     */
+    public int size() {
+        return postIds.length;
+    }
+
+    /**
+     * Returns the number of items which failed.
+     * @return number of failed items.
+     */
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Returns the ID of the post created by an item.
+     *
+     * @param index position of the item in the batch.
+     * @return post ID, or -1 if the item failed.
+     */
+    public int getPostId(int index) {
+        return postIds[index];
+    }
+
+    /**
+     * Returns why an item failed.
+     *
+     * @param index position of the item in the batch.
+     * @return error code, {@link ErrorCode#NONE} if the item succeeded.
+     */
+    public ErrorCode getErrorCode(int index) {
+        return errorCodes[index];
+    }
+
+    /**
+     * Returns the ID of the post created by each item.
+     * @return post IDs, -1 for each item which failed.
+     */
+    public int[] getPostIds() {
+        return postIds.clone();
+    }
+
+    /**
+     * Returns why each item failed.
+     * @return error codes, {@link ErrorCode#NONE} for each item which succeeded.
+     */
+    public ErrorCode[] getErrorCodes() {
+        return errorCodes.clone();
+    }
+
+    /**
+     * Creates original posts one at a time through {@link SocialMediaPlatform#createPost(String, String)}.
+     *
+     * @param platform platform to create the posts on.
+     * @param handles handle of the author of each post.
+     * @param messages message of each post.
+     * @return the result of the batch.
+     */
+    static BatchResult createEach(SocialMediaPlatform platform, String[] handles, String[] messages) {
+        BatchResult result = new BatchResult(checkSizes(handles.length, messages.length));
+        for (int i = 0; i < handles.length; i++) {
+            try {
+                result.succeeded(i, platform.createPost(handles[i], messages[i]));
+            } catch (HandleNotRecognisedException | InvalidPostException e) {
+                result.failed(i, codeOf(e));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Endorses posts one at a time through {@link SocialMediaPlatform#endorsePost(String, int)}.
+     *
+     * @param platform platform to create the endorsements on.
+     * @param handles handle of the endorser of each post.
+     * @param ids ID of each post to endorse.
+     * @return the result of the batch.
+     */
+    static BatchResult endorseEach(SocialMediaPlatform platform, String[] handles, int[] ids) {
+        BatchResult result = new BatchResult(checkSizes(handles.length, ids.length));
+        for (int i = 0; i < handles.length; i++) {
+            try {
+                result.succeeded(i, platform.endorsePost(handles[i], ids[i]));
+            } catch (HandleNotRecognisedException | PostIDNotRecognisedException | NotActionablePostException e) {
+                result.failed(i, codeOf(e));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Comments on posts one at a time through {@link SocialMediaPlatform#commentPost(String, int, String)}.
+     *
+     * @param platform platform to create the comments on.
+     * @param handles handle of the author of each comment.
+     * @param ids ID of each post to comment on.
+     * @param messages message of each comment.
+     * @return the result of the batch.
+     */
+    static BatchResult commentEach(SocialMediaPlatform platform, String[] handles, int[] ids, String[] messages) {
+        BatchResult result = new BatchResult(checkSizes(handles.length, ids.length, messages.length));
+        for (int i = 0; i < handles.length; i++) {
+            try {
+                result.succeeded(i, platform.commentPost(handles[i], ids[i], messages[i]));
+            } catch (HandleNotRecognisedException | PostIDNotRecognisedException | NotActionablePostException
+                     | InvalidPostException e) {
+                result.failed(i, codeOf(e));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks that the arrays describing a batch are all the same length.
+     *
+     * @param lengths length of each array.
+     * @return the number of items in the batch.
+     * @throws IllegalArgumentException if the lengths differ.
+     */
+    static int checkSizes(int... lengths) {
+        for (int length : lengths) {
+            if (length != lengths[0]) {
+                throw new IllegalArgumentException("Every array of a batch must be the same length.");
+            }
+        }
+        return lengths[0];
+    }
+
+    /**
+     * Returns the error code matching an exception thrown by a single operation.
+     *
+     * @param e exception thrown.
+     * @return the error code.
+     */
+    private static ErrorCode codeOf(Exception e) {
+        if (e instanceof HandleNotRecognisedException) {
+            return ErrorCode.HANDLE_NOT_RECOGNISED;
+        } else if (e instanceof PostIDNotRecognisedException) {
+            return ErrorCode.POST_ID_NOT_RECOGNISED;
+        } else if (e instanceof NotActionablePostException) {
+            return ErrorCode.NOT_ACTIONABLE_POST;
+        } else {
+            return ErrorCode.INVALID_POST;
+        }
+    }
+}
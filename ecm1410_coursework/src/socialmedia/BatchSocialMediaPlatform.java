@@ -0,0 +1,59 @@
+package socialmedia;
+
+/**
+ * BatchSocialMediaPlatform extends the SocialMediaPlatform interface with batch variants of the
+ * post-creating methods, for callers which create many posts at once.
+ * <p>
+ * A batch is a set of parallel arrays, item i of the batch being made up of element i of each
+ * array. The items are applied in order, exactly as if the single method had been called once
+ * for each of them, so an item may refer to a post created by an earlier item of the same batch.
+ * An item which fails leaves the platform as it was and does not stop the rest of the batch:
+ * instead of throwing, its error code is recorded in the {@link BatchResult}.
+ * <p>
+ * The default methods simply call the single methods. Implementors override them to resolve
+ * each handle once per batch and to pay for locking (or journaling) once per batch instead of
+ * once per item.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public interface BatchSocialMediaPlatform extends SocialMediaPlatform {
+
+    /**
+     * Creates a batch of original posts, as by {@link SocialMediaPlatform#createPost(String, String)}.
+     *
+     * @param handles handle of the author of each post.
+     * @param messages message of each post.
+     * @return the ID of each post created, and why each item which failed did.
+     * @throws IllegalArgumentException if the arrays are not the same length.
+     */
+    default BatchResult createPosts(String[] handles, String[] messages) {
+        return BatchResult.createEach(this, handles, messages);
+    }
+
+    /**
+     * Creates a batch of endorsements, as by {@link SocialMediaPlatform#endorsePost(String, int)}.
+     *
+     * @param handles handle of the endorser of each post.
+     * @param ids ID of each post to endorse.
+     * @return the ID of each endorsement created, and why each item which failed did.
+     * @throws IllegalArgumentException if the arrays are not the same length.
+     */
+    default BatchResult endorsePosts(String[] handles, int[] ids) {
+        return BatchResult.endorseEach(this, handles, ids);
+    }
+
+    /**
+     * Creates a batch of comments, as by {@link SocialMediaPlatform#commentPost(String, int, String)}.
+     *
+     * @param handles handle of the author of each comment.
+     * @param ids ID of each post to comment on.
+     * @param messages message of each comment.
+     * @return the ID of each comment created, and why each item which failed did.
+     * @throws IllegalArgumentException if the arrays are not the same length.
+     */
+    default BatchResult commentPosts(String[] handles, int[] ids, String[] messages) {
+        return BatchResult.commentEach(this, handles, ids, messages);
+    }
+}
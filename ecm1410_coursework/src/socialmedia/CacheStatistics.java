@@ -0,0 +1,86 @@
+package socialmedia;
+
+/**
+ * The CacheStatistics class is a record of how well a cache of formatted accounts or posts
+ * has worked, as returned by {@link SocialMedia#getPostRenderCacheStatistics()} and similar methods.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public final class CacheStatistics {
+
+    /** Number of lookups which found an entry. */
+    private final long hitCount;
+
+    /** Number of lookups which found no entry. */
+    private final long missCount;
+
+    /** Number of entries evicted to make room for others. */
+    private final long evictionCount;
+
+    /** Number of entries in the cache. */
+    private final int size;
+
+    /**
+     * Constructor which records the statistics of a cache.
+     *
+     * @param hitCount number of lookups which found an entry.
+     * @param missCount number of lookups which found no entry.
+     * @param evictionCount number of entries evicted to make room for others.
+     * @param size number of entries in the cache.
+     */
+    CacheStatistics(long hitCount, long missCount, long evictionCount, int size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of lookups which found an entry.
+     * @return number of hits.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups which found no entry.
+     * @return number of misses.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the fraction of lookups which found an entry.
+     * @return hit rate between 0 and 1 (1 if there have been no lookups).
+     */
+    public double getHitRate() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 1.0 : (double) hitCount / lookups;
+    }
+
+    /**
+     * Returns the number of entries evicted to make room for others.
+     * @return number of evictions.
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     * @return number of entries.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d misses=%d hitRate=%.3f evictions=%d size=%d",
+                hitCount, missCount, getHitRate(), evictionCount, size);
+    }
+}
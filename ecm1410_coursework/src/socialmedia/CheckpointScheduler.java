@@ -0,0 +1,142 @@
+package socialmedia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CheckpointScheduler class checkpoints a platform at a fixed interval on a background thread.
+ * <p>
+ * A plain platform is checkpointed by saving it to a temporary file and then renaming that over
+ * the checkpoint file, so the checkpoint file always holds a whole platform. With a
+ * {@link ConcurrentSocialMedia}, the platform keeps taking changes while it is saved, as only a
+ * point-in-time image of it is written. A {@link JournaledSocialMedia} is checkpointed by
+ * {@link JournaledSocialMedia#compact()}, which keeps its journal short.
+ * <p>
+ * The interval is measured from the end of one checkpoint to the start of the next, so
+ * checkpoints never overlap. A checkpoint which fails is recorded (see
+ * {@link CheckpointScheduler#getLastFailure()}) and tried again at the next interval.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public class CheckpointScheduler implements Closeable {
+
+    /**
+     * The Checkpoint interface is a single checkpoint of a platform.
+     */
+    private interface Checkpoint {
+
+        /**
+         * Checkpoints the platform.
+         *
+         * @throws IOException if there is a problem writing the checkpoint.
+         */
+        void run() throws IOException;
+    }
+
+    /** Thread which runs the checkpoints. */
+    private final ScheduledExecutorService executor;
+
+    /** Number of checkpoints which have succeeded. */
+    private volatile long checkpointCount;
+
+    /** The exception thrown by the last checkpoint which failed, or null if none has. */
+    private volatile IOException lastFailure;
+
+    /**
+     * Constructor which checkpoints a platform by saving it to a file at a fixed interval.
+     *
+     * @param platform platform to checkpoint.
+     * @param filename location of the checkpoint file.
+     * @param interval time between the end of one checkpoint and the start of the next.
+     * @param unit unit of the interval.
+     */
+    public CheckpointScheduler(SocialMediaPlatform platform, String filename, long interval, TimeUnit unit) {
+        this(() -> {
+            Path checkpoint = Paths.get(filename);
+            Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+            platform.savePlatform(temporary.toString());
+            Files.move(temporary, checkpoint, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (platform instanceof SocialMedia) {
+                ((SocialMedia) platform).checkpointMoved(temporary.toString(), filename);
+            }
+        }, interval, unit);
+    }
+
+    /**
+     * Constructor which checkpoints a journaled platform by compacting it at a fixed interval.
+     *
+     * @param platform platform to checkpoint.
+     * @param interval time between the end of one checkpoint and the start of the next.
+     * @param unit unit of the interval.
+     */
+    public CheckpointScheduler(JournaledSocialMedia platform, long interval, TimeUnit unit) {
+        this(platform::compact, interval, unit);
+    }
+
+    /**
+     * Constructor which runs a checkpoint at a fixed interval.
+     *
+     * @param checkpoint checkpoint to run.
+     * @param interval time between the end of one checkpoint and the start of the next.
+     * @param unit unit of the interval.
+     */
+    private CheckpointScheduler(Checkpoint checkpoint, long interval, TimeUnit unit) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Checkpoint interval must be positive.");
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "platform-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint.run();
+                checkpointCount++;
+            } catch (IOException e) {
+                lastFailure = e;
+            }
+        }, interval, interval, unit);
+    }
+
+    /**
+     * Returns the number of checkpoints which have succeeded.
+     *
+     * @return number of checkpoints.
+     */
+    public long getCheckpointCount() {
+        return checkpointCount;
+    }
+
+    /**
+     * Returns the exception thrown by the last checkpoint which failed.
+     *
+     * @return the exception, or null if no checkpoint has failed.
+     */
+    public IOException getLastFailure() {
+        return lastFailure;
+    }
+
+    /**
+     * Stops checkpointing, waiting for a checkpoint in progress to finish.
+     * No checkpoint is taken on closing.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
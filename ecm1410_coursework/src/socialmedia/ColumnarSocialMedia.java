@@ -0,0 +1,986 @@
+package socialmedia;
+
+import java.io.*;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * ColumnarSocialMedia is an implementor of the SocialMediaPlatform interface
+ * which stores posts column by column instead of as {@link Post} objects.
+ * <p>
+ * Post IDs are handed out sequentially, so each post ID is used directly as an
+ * index into parallel arrays holding the type, parent ID, author ID, comment
+ * count and endorsement count of every post, alongside a table of messages.
+ * The comments and endorsements of each post are kept as linked lists threaded
+ * through further arrays, so no collections are allocated per post.
+ * <p>
+ * {@link Post} objects are only created as views when a caller asks for one
+ * through {@link ColumnarSocialMedia#getPost(int)}, and aggregates such as
+ * {@link ColumnarSocialMedia#getMostEndorsedPost()} and the post totals are
+ * found by scanning the dense arrays. Platforms are saved in the same snapshot
+ * format as {@link SocialMedia}, so files can be loaded by either implementor.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public class ColumnarSocialMedia implements BatchSocialMediaPlatform, Serializable {
+
+    /** Type of a post ID which is unused, or whose post has been deleted. */
+    private static final byte NONE = 0;
+
+    /** Type of a post ID holding an {@link OriginalPost}. */
+    private static final byte ORIGINAL = SnapshotWriter.ORIGINAL;
+
+    /** Type of a post ID holding a {@link Comment}. */
+    private static final byte COMMENT = SnapshotWriter.COMMENT;
+
+    /** Type of a post ID holding an {@link Endorsement}. */
+    private static final byte ENDORSEMENT = SnapshotWriter.ENDORSEMENT;
+
+    /** Initial number of posts the columns can hold. */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Default number of accounts, and of posts, whose formatted text is cached. */
+    public static final int DEFAULT_RENDER_CACHE_CAPACITY = 4096;
+
+    /** (Multi-)key-value pair hashmap of account handles and ids to Account objects. */
+    private DualKeyMap<String,Account> accounts = new DualKeyMap<>();
+
+    /** Allocator of sequential account IDs. */
+    private final IdAllocator accountIds = new IdAllocator();
+
+    /** Allocator of sequential post IDs, which are also the indexes into the post columns. */
+    private final IdAllocator postIds = new IdAllocator();
+
+    /** Type of each post ({@link ColumnarSocialMedia#NONE} if there is no post with the ID). */
+    private byte[] type;
+
+    /** Parent post ID of each comment or endorsement (-1 for original posts and orphaned comments). */
+    private int[] parentId;
+
+    /** Account ID of the author of each post. */
+    private int[] authorId;
+
+    /** Number of comments on each post. */
+    private int[] commentCount;
+
+    /** Number of endorsements on each post. */
+    private int[] endorseCount;
+
+    /** Message of each post. */
+    private String[] message;
+
+    /** ID of the first comment on each post (-1 if there are none). */
+    private int[] firstComment;
+
+    /** ID of the last comment on each post (-1 if there are none). */
+    private int[] lastComment;
+
+    /** ID of the first endorsement of each post (-1 if there are none). */
+    private int[] firstEndorsement;
+
+    /** ID of the last endorsement of each post (-1 if there are none). */
+    private int[] lastEndorsement;
+
+    /** ID of the next comment or endorsement on the same parent post (-1 if it is the last). */
+    private int[] nextSibling;
+
+    /** ID of the previous comment or endorsement on the same parent post (-1 if it is the first). */
+    private int[] previousSibling;
+
+    /** Formatted text of recently shown accounts, by account ID. */
+    private final RenderCache accountRenders;
+
+    /** Formatted text of recently shown posts, by post ID. */
+    private final RenderCache postRenders;
+
+    /**
+     * Constructor which creates an empty ColumnarSocialMedia platform caching the formatted text
+     * of up to {@link ColumnarSocialMedia#DEFAULT_RENDER_CACHE_CAPACITY} accounts and as many posts.
+     */
+    public ColumnarSocialMedia() {
+        this(DEFAULT_RENDER_CACHE_CAPACITY);
+    }
+
+    /**
+     * Constructor which creates an empty ColumnarSocialMedia platform caching the formatted text
+     * of up to the given number of accounts and as many posts. Once a cache is full, the account
+     * or post shown least recently is dropped from it.
+     *
+     * @param renderCacheCapacity number of accounts, and of posts, cached (0 disables the caches).
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    public ColumnarSocialMedia(int renderCacheCapacity) {
+        accountRenders = new RenderCache(renderCacheCapacity, 1);
+        postRenders = new RenderCache(renderCacheCapacity, 1);
+        allocateColumns(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public int createAccount(String handle)
+            throws IllegalHandleException, InvalidHandleException {
+        return createAccount(handle, null);
+    }
+
+    @Override
+    public int createAccount(String handle, String description)
+            throws IllegalHandleException, InvalidHandleException {
+        if (stringExceedsLimit(Account.HANDLE_CHAR_LIMIT, handle) || handle.contains(" ")) {
+            throw new InvalidHandleException();
+        } else if (accounts.containsSecond(handle)) {
+            throw new IllegalHandleException();
+        } else {
+            Account newAccount = description == null
+                    ? new Account(accountIds.allocate(), handle)
+                    : new Account(accountIds.allocate(), handle, description);
+            accounts.put(newAccount.getAccountId(), handle, newAccount);
+            return newAccount.getAccountId();
+        }
+    }
+
+    @Override
+    public void removeAccount(int id)
+            throws AccountIDNotRecognisedException {
+        if (!accounts.containsFirst(id)) {
+            throw new AccountIDNotRecognisedException();
+        } else {
+            removeAccountPosts(id);
+            accounts.removeByFirst(id);
+            accountRenders.invalidate(id);
+        }
+    }
+
+    @Override
+    public void removeAccount(String handle)
+            throws HandleNotRecognisedException {
+        Account account = accounts.getBySecond(handle);
+        if (account == null) {
+            throw new HandleNotRecognisedException();
+        } else {
+            removeAccountPosts(account.getAccountId());
+            accounts.removeBySecond(handle);
+            accountRenders.invalidate(account.getAccountId());
+        }
+    }
+
+    @Override
+    public void changeAccountHandle(String oldHandle, String newHandle)
+            throws HandleNotRecognisedException, IllegalHandleException, InvalidHandleException {
+        if (!accounts.containsSecond(oldHandle)) {
+            throw new HandleNotRecognisedException();
+        } else if (stringExceedsLimit(Account.HANDLE_CHAR_LIMIT, newHandle)) {
+            throw new InvalidHandleException();
+        } else {
+            Account account = accounts.rekey(oldHandle, newHandle);
+            if (account == null) {
+                // The old handle is known, so the new handle must already be taken
+                throw new IllegalHandleException();
+            }
+            account.setHandle(newHandle);
+            accountRenders.invalidate(account.getAccountId());
+            // The account's posts show its handle too
+            postRenders.invalidateIf(post -> authorId[post] == account.getAccountId());
+        }
+    }
+
+    @Override
+    public void updateAccountDescription(String handle, String description)
+            throws HandleNotRecognisedException {
+        Account account = accounts.getBySecond(handle);
+        if (account == null) {
+            throw new HandleNotRecognisedException();
+        } else {
+            account.setDescription(description);
+            accountRenders.invalidate(account.getAccountId());
+        }
+    }
+
+    @Override
+    public String showAccount(String handle)
+            throws HandleNotRecognisedException {
+        Account account = accounts.getBySecond(handle);
+        if (account == null) {
+            throw new HandleNotRecognisedException();
+        }
+        String text = accountRenders.get(account.getAccountId());
+        if (text == null) {
+            text = PlatformFormat.account(account.getAccountId(), handle, account.getDescription(), account.getPostCount(), account.getEndorseCount());
+            accountRenders.put(account.getAccountId(), text);
+        }
+        return text;
+    }
+
+    @Override
+    public int createPost(String handle, String message)
+            throws HandleNotRecognisedException, InvalidPostException {
+        Account author = accounts.getBySecond(handle);
+        if (author == null) {
+            throw new HandleNotRecognisedException();
+        } else if (stringExceedsLimit(Post.POST_CHAR_LIMIT, message)) {
+            throw new InvalidPostException();
+        } else {
+            return addPost(ORIGINAL, author, -1, message);
+        }
+    }
+
+    @Override
+    public int endorsePost(String handle, int id)
+            throws HandleNotRecognisedException, PostIDNotRecognisedException, NotActionablePostException {
+        Account endorser = accounts.getBySecond(handle);
+        if (endorser == null) {
+            throw new HandleNotRecognisedException();
+        } else if (!postExists(id)) {
+            throw new PostIDNotRecognisedException();
+        } else if (type[id] == ENDORSEMENT) {
+            throw new NotActionablePostException();
+        } else {
+            return addEndorsement(endorser, id);
+        }
+    }
+
+    @Override
+    public int commentPost(String handle, int id, String message)
+            throws HandleNotRecognisedException, PostIDNotRecognisedException, NotActionablePostException, InvalidPostException {
+        Account author = accounts.getBySecond(handle);
+        if (author == null) {
+            throw new HandleNotRecognisedException();
+        } else if (!postExists(id)) {
+            throw new PostIDNotRecognisedException();
+        } else if (type[id] == ENDORSEMENT) {
+            throw new NotActionablePostException();
+        } else if (stringExceedsLimit(Post.POST_CHAR_LIMIT, message)) {
+            throw new InvalidPostException();
+        } else {
+            return addComment(author, id, message);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each handle is looked up once for the whole batch.
+     */
+    @Override
+    public BatchResult createPosts(String[] handles, String[] messages) {
+        BatchResult result = new BatchResult(BatchResult.checkSizes(handles.length, messages.length));
+        Map<String,Account> authors = new HashMap<>();
+        for (int i = 0; i < handles.length; i++) {
+            Account author = authors.computeIfAbsent(handles[i], accounts::getBySecond);
+            if (author == null) {
+                result.failed(i, BatchResult.ErrorCode.HANDLE_NOT_RECOGNISED);
+            } else if (stringExceedsLimit(Post.POST_CHAR_LIMIT, messages[i])) {
+                result.failed(i, BatchResult.ErrorCode.INVALID_POST);
+            } else {
+                result.succeeded(i, addPost(ORIGINAL, author, -1, messages[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each handle is looked up once for the whole batch.
+     */
+    @Override
+    public BatchResult endorsePosts(String[] handles, int[] ids) {
+        BatchResult result = new BatchResult(BatchResult.checkSizes(handles.length, ids.length));
+        Map<String,Account> endorsers = new HashMap<>();
+        for (int i = 0; i < handles.length; i++) {
+            Account endorser = endorsers.computeIfAbsent(handles[i], accounts::getBySecond);
+            if (endorser == null) {
+                result.failed(i, BatchResult.ErrorCode.HANDLE_NOT_RECOGNISED);
+            } else if (!postExists(ids[i])) {
+                result.failed(i, BatchResult.ErrorCode.POST_ID_NOT_RECOGNISED);
+            } else if (type[ids[i]] == ENDORSEMENT) {
+                result.failed(i, BatchResult.ErrorCode.NOT_ACTIONABLE_POST);
+            } else {
+                result.succeeded(i, addEndorsement(endorser, ids[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each handle is looked up once for the whole batch.
+     */
+    @Override
+    public BatchResult commentPosts(String[] handles, int[] ids, String[] messages) {
+        BatchResult result = new BatchResult(BatchResult.checkSizes(handles.length, ids.length, messages.length));
+        Map<String,Account> authors = new HashMap<>();
+        for (int i = 0; i < handles.length; i++) {
+            Account author = authors.computeIfAbsent(handles[i], accounts::getBySecond);
+            if (author == null) {
+                result.failed(i, BatchResult.ErrorCode.HANDLE_NOT_RECOGNISED);
+            } else if (!postExists(ids[i])) {
+                result.failed(i, BatchResult.ErrorCode.POST_ID_NOT_RECOGNISED);
+            } else if (type[ids[i]] == ENDORSEMENT) {
+                result.failed(i, BatchResult.ErrorCode.NOT_ACTIONABLE_POST);
+            } else if (stringExceedsLimit(Post.POST_CHAR_LIMIT, messages[i])) {
+                result.failed(i, BatchResult.ErrorCode.INVALID_POST);
+            } else {
+                result.succeeded(i, addComment(author, ids[i], messages[i]));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void deletePost(int id)
+            throws PostIDNotRecognisedException {
+        if (!postExists(id)) {
+            throw new PostIDNotRecognisedException();
+        } else {
+            removePost(id);
+            for (int child = firstComment[id]; child != -1; ) {
+                int next = nextSibling[child];
+                parentId[child] = -1;
+                nextSibling[child] = -1;
+                previousSibling[child] = -1;
+                child = next;
+            }
+            for (int child = firstEndorsement[id]; child != -1; ) {
+                int next = nextSibling[child];
+                Account endorser = accounts.getByFirst(authorId[child]);
+                endorser.setPostCount(endorser.getPostCount() - 1);
+                accountRenders.invalidate(endorser.getAccountId());
+                clearPost(child);
+                child = next;
+            }
+            clearPost(id);
+        }
+    }
+
+    @Override
+    public String showIndividualPost(int id)
+            throws PostIDNotRecognisedException {
+        String text = postRenders.get(id);
+        if (text != null) {
+            return text;
+        } else if (!postExists(id)) {
+            throw new PostIDNotRecognisedException();
+        } else {
+            text = PlatformFormat.post(id, getAuthor(id), endorseCount[id], commentCount[id], message[id]);
+            postRenders.put(id, text);
+            return text;
+        }
+    }
+
+    @Override
+    public StringBuilder showPostChildrenDetails(int id)
+            throws PostIDNotRecognisedException, NotActionablePostException {
+        if (!postExists(id)) {
+            throw new PostIDNotRecognisedException();
+        } else if (type[id] == ENDORSEMENT) {
+            throw new NotActionablePostException();
+        } else {
+            StringBuilder postFamilyInfo = new StringBuilder();
+            try {
+                ThreadRenderer.render(threadSource(), id, postFamilyInfo);
+            } catch (IOException e) {
+                // A StringBuilder never throws
+                throw new UncheckedIOException(e);
+            }
+            return postFamilyInfo;
+        }
+    }
+
+    /**
+     * Returns one page of the formatted thread of a post, in the same format as
+     * {@link ColumnarSocialMedia#showPostChildrenDetails(int)}, leaving out comments nested deeper than a
+     * given depth. The cursor of each page is passed to get the next one, which carries on
+     * from the post after the last one on the page without walking the thread again from the top.
+     *
+     * @param id of the post to be shown.
+     * @param maxDepth depth of the deepest comments shown (0 shows the post alone).
+     * @param pageSize largest number of posts on the page.
+     * @param cursor {@link ThreadPage#getCursor()} of the previous page, or null for the first page.
+     * @return the page.
+     * @throws PostIDNotRecognisedException if the ID does not match to any post in the system.
+     * @throws NotActionablePostException if the ID refers to an endorsement post.
+     * @throws IllegalArgumentException if the depth is negative, the page size is not positive,
+     *                                  or the cursor is not one of the post's thread.
+     */
+    public ThreadPage showPostChildrenDetails(int id, int maxDepth, int pageSize, String cursor)
+            throws PostIDNotRecognisedException, NotActionablePostException {
+        if (!postExists(id)) {
+            throw new PostIDNotRecognisedException();
+        } else if (type[id] == ENDORSEMENT) {
+            throw new NotActionablePostException();
+        }
+        return ThreadRenderer.page(threadSource(), id, maxDepth, pageSize, cursor);
+    }
+
+    /**
+     * Writes the formatted thread of a post to an {@link Appendable}, such as a {@link Writer},
+     * in the same format as {@link ColumnarSocialMedia#showPostChildrenDetails(int)}.
+     * Each post is written as soon as it is formatted, so the thread is never held in memory whole.
+     *
+     * @param id of the post to be shown.
+     * @param out destination of the thread.
+     * @throws PostIDNotRecognisedException if the ID does not match to any post in the system.
+     * @throws NotActionablePostException if the ID refers to an endorsement post.
+     * @throws IOException if there is a problem writing to the destination.
+     */
+    public void renderPostChildrenDetails(int id, Appendable out)
+            throws PostIDNotRecognisedException, NotActionablePostException, IOException {
+        if (!postExists(id)) {
+            throw new PostIDNotRecognisedException();
+        } else if (type[id] == ENDORSEMENT) {
+            throw new NotActionablePostException();
+        }
+        ThreadRenderer.render(threadSource(), id, out);
+    }
+
+    /**
+     * Writes the formatted thread of a post to a channel, encoded in UTF-8,
+     * in the same format as {@link ColumnarSocialMedia#showPostChildrenDetails(int)}.
+     * The channel is left open.
+     *
+     * @param id of the post to be shown.
+     * @param channel destination of the thread.
+     * @throws PostIDNotRecognisedException if the ID does not match to any post in the system.
+     * @throws NotActionablePostException if the ID refers to an endorsement post.
+     * @throws IOException if there is a problem writing to the channel.
+     */
+    public void renderPostChildrenDetails(int id, WritableByteChannel channel)
+            throws PostIDNotRecognisedException, NotActionablePostException, IOException {
+        if (!postExists(id)) {
+            throw new PostIDNotRecognisedException();
+        } else if (type[id] == ENDORSEMENT) {
+            throw new NotActionablePostException();
+        }
+        ThreadRenderer.render(threadSource(), id, channel);
+    }
+
+    @Override
+    public int getNumberOfAccounts() {
+        return accounts.size();
+    }
+
+    @Override
+    public int getTotalOriginalPosts() {
+        return countPosts(ORIGINAL);
+    }
+
+    @Override
+    public int getTotalEndorsmentPosts() {
+        return countPosts(ENDORSEMENT);
+    }
+
+    @Override
+    public int getTotalCommentPosts() {
+        return countPosts(COMMENT);
+    }
+
+    @Override
+    public int getMostEndorsedPost() {
+        int mostEndorsed = -1;
+        int highestCount = -1;
+        int end = postIds.highWaterMark();
+        for (int id = 0; id < end; id++) {
+            // Scanning in ID order keeps the lowest ID on a tie
+            if (type[id] != NONE && endorseCount[id] > highestCount) {
+                highestCount = endorseCount[id];
+                mostEndorsed = id;
+            }
+        }
+        return mostEndorsed;
+    }
+
+    @Override
+    public int getMostEndorsedAccount() {
+        Account mostEndorsed = null;
+        for (Account account : accounts.values()) {
+            if (mostEndorsed == null
+                    || account.getEndorseCount() > mostEndorsed.getEndorseCount()
+                    || (account.getEndorseCount() == mostEndorsed.getEndorseCount()
+                        && account.getAccountId() < mostEndorsed.getAccountId())) {
+                mostEndorsed = account;
+            }
+        }
+        return mostEndorsed == null ? -1 : mostEndorsed.getAccountId();
+    }
+
+    /**
+     * Returns a {@link Post} view of a post, holding a copy of its current values.
+     * The view is created on each call, and is not updated by later changes to the platform.
+     *
+     * @param id ID of the post.
+     * @return a new {@link OriginalPost}, {@link Comment} or {@link Endorsement} object.
+     * @throws PostIDNotRecognisedException if the ID does not match any post in the system.
+     */
+    public Post getPost(int id) throws PostIDNotRecognisedException {
+        if (!postExists(id)) {
+            throw new PostIDNotRecognisedException();
+        }
+        Post view;
+        if (type[id] == ORIGINAL) {
+            view = new OriginalPost(id, authorId[id], message[id]);
+        } else if (type[id] == COMMENT) {
+            view = new Comment(id, authorId[id], parentId[id], message[id]);
+        } else {
+            view = new Endorsement(id, authorId[id], parentId[id], message[id]);
+        }
+        view.setCommentCount(commentCount[id]);
+        view.setEndorseCount(endorseCount[id]);
+        return view;
+    }
+
+    /**
+     * Returns the current handle of the author of a post, looked up by the author's account
+     * ID in {@link ColumnarSocialMedia#accounts}, as a post view only holds the ID.
+     *
+     * @param id ID of the post.
+     * @return the author's handle.
+     * @throws PostIDNotRecognisedException if the ID does not match any post in the system.
+     */
+    public String getPostAuthor(int id) throws PostIDNotRecognisedException {
+        if (!postExists(id)) {
+            throw new PostIDNotRecognisedException();
+        }
+        return accounts.getByFirst(authorId[id]).getHandle();
+    }
+
+    /**
+     * Returns the statistics of the cache of formatted accounts used by {@link ColumnarSocialMedia#showAccount(String)}.
+     *
+     * @return the statistics.
+     */
+    public CacheStatistics getAccountRenderCacheStatistics() {
+        return accountRenders.statistics();
+    }
+
+    /**
+     * Returns the statistics of the cache of formatted posts used by {@link ColumnarSocialMedia#showIndividualPost(int)}.
+     *
+     * @return the statistics.
+     */
+    public CacheStatistics getPostRenderCacheStatistics() {
+        return postRenders.statistics();
+    }
+
+    @Override
+    public void erasePlatform() {
+        accounts.clear();
+        accountRenders.clear();
+        postRenders.clear();
+        accountIds.reset();
+        postIds.reset();
+        allocateColumns(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public void savePlatform(String filename) throws IOException {
+        int end = postIds.highWaterMark();
+        int postCount = countPosts(ORIGINAL) + countPosts(COMMENT) + countPosts(ENDORSEMENT);
+        try (SnapshotWriter out = new SnapshotWriter(filename, accountIds.highWaterMark(), end, accounts.size(), postCount)) {
+            for (Account value : accounts.values()) {
+                out.writeAccount(value);
+            }
+            for (int id = 0; id < end; id++) {
+                if (type[id] != NONE) {
+                    out.writePost(type[id], id, authorId[id], parentId[id], commentCount[id], endorseCount[id], message[id]);
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Posts are written straight into the columns as they are read, without creating
+     * {@link Post} objects, so if the file turns out to be damaged part of the way
+     * through, the platform is left empty.
+     */
+    @Override
+    public void loadPlatform(String filename) throws IOException, ClassNotFoundException {
+        DualKeyMap<String,Account> loadedAccounts = new DualKeyMap<>();
+        boolean[] started = new boolean[1];
+        try {
+            SnapshotReader.read(filename, new SnapshotReader.Sink() {
+                @Override
+                public void header(int accountHighWaterMark, int postHighWaterMark, int accountCount, int postCount) {
+                    started[0] = true;
+                    erasePlatform();
+                    accountIds.advanceTo(accountHighWaterMark);
+                    postIds.advanceTo(postHighWaterMark);
+                    allocateColumns(Math.max(INITIAL_CAPACITY, postHighWaterMark));
+                }
+
+                @Override
+                public void account(int id, String handle, String description, int postCount, int endorseCount) {
+                    loadedAccounts.put(id, handle, SnapshotReader.toAccount(id, handle, description, postCount, endorseCount));
+                    accountIds.advanceTo(id + 1);
+                }
+
+                @Override
+                public void post(byte postType, int id, int author, int parent, int comments, int endorsements, String text) {
+                    postIds.advanceTo(id + 1);
+                    ensureCapacity(id + 1);
+                    type[id] = postType;
+                    parentId[id] = parent;
+                    authorId[id] = author;
+                    commentCount[id] = comments;
+                    endorseCount[id] = endorsements;
+                    message[id] = text;
+                    // Posts arrive in ID (creation) order, so each child is appended after its older siblings
+                    if (postType == COMMENT && parent != -1) {
+                        link(firstComment, lastComment, parent, id);
+                    } else if (postType == ENDORSEMENT) {
+                        link(firstEndorsement, lastEndorsement, parent, id);
+                    }
+                }
+            });
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            if (started[0]) {
+                erasePlatform();
+            }
+            throw e;
+        }
+        accounts = loadedAccounts;
+    }
+
+    /**
+     * This method checks if input string exceeds given character limit.
+     * Only returns true if string exceeds limit, or is empty.
+     *
+     * @param limit character limit.
+     * @param input string text.
+     * @return boolean if string exceeds character limit.
+     */
+    private boolean stringExceedsLimit(int limit, String input) {
+        return input.length() > limit || input.length() == 0;
+    }
+
+    /**
+     * Returns true if there is a post with the given ID on the platform.
+     *
+     * @param id post id.
+     * @return true if the post exists.
+     */
+    private boolean postExists(int id) {
+        return id >= 0 && id < postIds.highWaterMark() && type[id] != NONE;
+    }
+
+    /**
+     * Resolves the current handle of a post's author through {@link ColumnarSocialMedia#accounts}.
+     *
+     * @param id post id.
+     * @return author's handle.
+     */
+    private String getAuthor(int id) {
+        return accounts.getByFirst(authorId[id]).getHandle();
+    }
+
+    /**
+     * Counts the posts of a single type by scanning {@link ColumnarSocialMedia#type}.
+     *
+     * @param postType type of post to count.
+     * @return number of posts of the type.
+     */
+    private int countPosts(byte postType) {
+        int count = 0;
+        int end = postIds.highWaterMark();
+        for (int id = 0; id < end; id++) {
+            if (type[id] == postType) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes a new post into the columns under a newly allocated ID, and counts it
+     * against its author. Linking the post to its parent is left for the caller.
+     *
+     * @param postType type of the post.
+     * @param author account creating the post.
+     * @param parent parent post id (-1 for an original post).
+     * @param text message of the post.
+     * @return ID of the new post.
+     */
+    private int addPost(byte postType, Account author, int parent, String text) {
+        int id = postIds.allocate();
+        ensureCapacity(id + 1);
+        type[id] = postType;
+        parentId[id] = parent;
+        authorId[id] = author.getAccountId();
+        commentCount[id] = 0;
+        endorseCount[id] = 0;
+        message[id] = text;
+        author.setPostCount(author.getPostCount() + 1);
+        accountRenders.invalidate(author.getAccountId());
+        return id;
+    }
+
+    /**
+     * Creates an endorsement of a post, once the endorser and post have been checked.
+     *
+     * @param endorser account endorsing the post.
+     * @param id ID of the original post or comment being endorsed.
+     * @return ID of the new endorsement.
+     */
+    private int addEndorsement(Account endorser, int id) {
+        Account parentAuthor = accounts.getByFirst(authorId[id]);
+        String endorsement = String.format("EP@%1$s: %2$s", parentAuthor.getHandle(), message[id]);
+        int newId = addPost(ENDORSEMENT, endorser, id, endorsement);
+        link(firstEndorsement, lastEndorsement, id, newId);
+        endorseCount[id]++;
+        parentAuthor.setEndorseCount(parentAuthor.getEndorseCount() + 1);
+        postRenders.invalidate(id);
+        accountRenders.invalidate(parentAuthor.getAccountId());
+        return newId;
+    }
+
+    /**
+     * Creates a comment on a post, once the author, post and message have been checked.
+     *
+     * @param author account creating the comment.
+     * @param id ID of the original post or comment being commented on.
+     * @param text message of the comment.
+     * @return ID of the new comment.
+     */
+    private int addComment(Account author, int id, String text) {
+        int newId = addPost(COMMENT, author, id, text);
+        link(firstComment, lastComment, id, newId);
+        commentCount[id]++;
+        postRenders.invalidate(id);
+        return newId;
+    }
+
+    /**
+     * Removes a single post from its author's and parent's counts, and unlinks it
+     * from its parent. Children of the post are left for the caller to handle.
+     *
+     * @param id post id.
+     */
+    private void removePost(int id) {
+        Account author = accounts.getByFirst(authorId[id]);
+        author.setPostCount(author.getPostCount() - 1);
+        accountRenders.invalidate(author.getAccountId());
+        int parent = parentId[id];
+        if (type[id] == COMMENT && parent != -1) {
+            commentCount[parent]--;
+            postRenders.invalidate(parent);
+            unlink(firstComment, lastComment, parent, id);
+        } else if (type[id] == ENDORSEMENT) {
+            endorseCount[parent]--;
+            postRenders.invalidate(parent);
+            Account parentAuthor = accounts.getByFirst(authorId[parent]);
+            parentAuthor.setEndorseCount(parentAuthor.getEndorseCount() - 1);
+            accountRenders.invalidate(parentAuthor.getAccountId());
+            unlink(firstEndorsement, lastEndorsement, parent, id);
+        }
+        if (endorseCount[id] > 0) {
+            // Endorsements of the post are removed with it, so its author loses them
+            author.setEndorseCount(author.getEndorseCount() - endorseCount[id]);
+        }
+    }
+
+    /**
+     * Marks a post ID as unused, and releases its message.
+     *
+     * @param id post id.
+     */
+    private void clearPost(int id) {
+        postRenders.invalidate(id);
+        type[id] = NONE;
+        parentId[id] = -1;
+        message[id] = null;
+        firstComment[id] = -1;
+        lastComment[id] = -1;
+        firstEndorsement[id] = -1;
+        lastEndorsement[id] = -1;
+        nextSibling[id] = -1;
+        previousSibling[id] = -1;
+    }
+
+    /**
+     * Deletes every post authored by an account, along with anything cascaded by those deletions.
+     *
+     * @param accountId account whose posts are deleted.
+     */
+    private void removeAccountPosts(int accountId) {
+        int end = postIds.highWaterMark();
+        for (int id = 0; id < end; id++) {
+            // Endorsements of the account's own posts may already have been cascaded away
+            if (type[id] != NONE && authorId[id] == accountId) {
+                try {
+                    deletePost(id);
+                } catch (PostIDNotRecognisedException ignored) {}
+            }
+        }
+    }
+
+    /**
+     * Appends a child post to the end of its parent's list of comments or endorsements.
+     *
+     * @param first {@link ColumnarSocialMedia#firstComment} or {@link ColumnarSocialMedia#firstEndorsement}.
+     * @param last {@link ColumnarSocialMedia#lastComment} or {@link ColumnarSocialMedia#lastEndorsement}.
+     * @param parent parent post id.
+     * @param child child post id.
+     */
+    private void link(int[] first, int[] last, int parent, int child) {
+        previousSibling[child] = last[parent];
+        nextSibling[child] = -1;
+        if (last[parent] == -1) {
+            first[parent] = child;
+        } else {
+            nextSibling[last[parent]] = child;
+        }
+        last[parent] = child;
+    }
+
+    /**
+     * Removes a child post from its parent's list of comments or endorsements.
+     *
+     * @param first {@link ColumnarSocialMedia#firstComment} or {@link ColumnarSocialMedia#firstEndorsement}.
+     * @param last {@link ColumnarSocialMedia#lastComment} or {@link ColumnarSocialMedia#lastEndorsement}.
+     * @param parent parent post id.
+     * @param child child post id.
+     */
+    private void unlink(int[] first, int[] last, int parent, int child) {
+        int previous = previousSibling[child];
+        int next = nextSibling[child];
+        if (previous == -1) {
+            first[parent] = next;
+        } else {
+            nextSibling[previous] = next;
+        }
+        if (next == -1) {
+            last[parent] = previous;
+        } else {
+            previousSibling[next] = previous;
+        }
+        previousSibling[child] = -1;
+        nextSibling[child] = -1;
+    }
+
+    /**
+     * Returns the first comment on a post with an ID greater than a given ID. When that ID is
+     * still a comment on the post this is the comment after it; otherwise the comments are
+     * walked from the first one.
+     *
+     * @param id post id.
+     * @param after ID to start after, or -1 to start from the first comment.
+     * @return ID of the comment, or -1 if there is none.
+     */
+    private int firstAfter(int id, int after) {
+        if (postExists(after) && type[after] == COMMENT && parentId[after] == id) {
+            return nextSibling[after];
+        }
+        int child = firstComment[id];
+        while (child != -1 && child <= after) {
+            child = nextSibling[child];
+        }
+        return child;
+    }
+
+    /**
+     * Returns the posts of the platform as a {@link ThreadRenderer.Source}.
+     * Only the comments of each post are visited, by following {@link ColumnarSocialMedia#firstComment}
+     * and {@link ColumnarSocialMedia#nextSibling}.
+     *
+     * @return source of the posts of comment threads.
+     */
+    private ThreadRenderer.Source threadSource() {
+        return new ThreadRenderer.Source() {
+            @Override
+            public String showPost(int id) {
+                try {
+                    return showIndividualPost(id);
+                } catch (PostIDNotRecognisedException e) {
+                    return null;
+                }
+            }
+
+            @Override
+            public Iterator<Integer> comments(int id, int after) {
+                return new Iterator<>() {
+                    /** Next comment to be returned, or -1 once there are none left. */
+                    private int child = firstAfter(id, after);
+
+                    @Override
+                    public boolean hasNext() {
+                        return child != -1;
+                    }
+
+                    @Override
+                    public Integer next() {
+                        if (child == -1) {
+                            throw new NoSuchElementException();
+                        }
+                        int comment = child;
+                        child = nextSibling[comment];
+                        return comment;
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Replaces every column with an empty column of the given capacity.
+     *
+     * @param capacity number of post IDs the columns can hold.
+     */
+    private void allocateColumns(int capacity) {
+        type = new byte[capacity];
+        parentId = filled(new int[capacity], 0);
+        authorId = new int[capacity];
+        commentCount = new int[capacity];
+        endorseCount = new int[capacity];
+        message = new String[capacity];
+        firstComment = filled(new int[capacity], 0);
+        lastComment = filled(new int[capacity], 0);
+        firstEndorsement = filled(new int[capacity], 0);
+        lastEndorsement = filled(new int[capacity], 0);
+        nextSibling = filled(new int[capacity], 0);
+        previousSibling = filled(new int[capacity], 0);
+    }
+
+    /**
+     * Grows every column, at least doubling its capacity, so that it can hold the given number of post IDs.
+     *
+     * @param capacity number of post IDs the columns must hold.
+     */
+    private void ensureCapacity(int capacity) {
+        int oldCapacity = type.length;
+        if (capacity <= oldCapacity) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, oldCapacity << 1);
+        type = Arrays.copyOf(type, newCapacity);
+        parentId = filled(Arrays.copyOf(parentId, newCapacity), oldCapacity);
+        authorId = Arrays.copyOf(authorId, newCapacity);
+        commentCount = Arrays.copyOf(commentCount, newCapacity);
+        endorseCount = Arrays.copyOf(endorseCount, newCapacity);
+        message = Arrays.copyOf(message, newCapacity);
+        firstComment = filled(Arrays.copyOf(firstComment, newCapacity), oldCapacity);
+        lastComment = filled(Arrays.copyOf(lastComment, newCapacity), oldCapacity);
+        firstEndorsement = filled(Arrays.copyOf(firstEndorsement, newCapacity), oldCapacity);
+        lastEndorsement = filled(Arrays.copyOf(lastEndorsement, newCapacity), oldCapacity);
+        nextSibling = filled(Arrays.copyOf(nextSibling, newCapacity), oldCapacity);
+        previousSibling = filled(Arrays.copyOf(previousSibling, newCapacity), oldCapacity);
+    }
+
+    /**
+     * Fills a column with -1 (no post) from the given index onwards.
+     *
+     * @param column column to fill.
+     * @param from first index to fill.
+     * @return the column.
+     */
+    private static int[] filled(int[] column, int from) {
+        Arrays.fill(column, from, column.length, -1);
+        return column;
+    }
+}
@@ -16,17 +16,17 @@ public class Comment extends Post{
 
     /**
      * Constructor which creates a Comment object.
-     * Assigns a sequentially incrementing post ID.
      *
-     * @param handle author's handle.
+     * @param postId post's ID, allocated by the platform's {@link IdAllocator}.
+     * @param authorId author's account ID.
      * @param postID parent post ID.
      * @param message post's message.
      */
-    public Comment(String handle, int postID, String message){
+    public Comment(int postId, int authorId, int postID, String message){
         this.message = message;
         parentId = postID;
-        this.postId = numberOfPosts++;
-        this.author = handle;
+        this.postId = postId;
+        this.authorId = authorId;
     }
 
     /**
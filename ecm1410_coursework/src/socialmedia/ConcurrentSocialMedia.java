@@ -0,0 +1,1477 @@
+package socialmedia;
+
+import java.io.*;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * ConcurrentSocialMedia is a thread-safe implementor of the
+ * SocialMediaPlatform interface, which can be shared between threads
+ * without any external locking.
+ * <p>
+ * Accounts and posts are guarded by striped read-write locks ({@link LockStripes}).
+ * An operation only locks the stripes of the accounts and posts it reads or changes,
+ * so operations on unrelated accounts and posts run in parallel, and reads such as
+ * {@link ConcurrentSocialMedia#showIndividualPost(int)} only take read locks.
+ * Whenever an operation needs several locks, account stripes are always acquired
+ * before post stripes, and stripes of each kind in ascending order, so operations
+ * such as {@link ConcurrentSocialMedia#endorsePost(String, int)} (which changes the
+ * endorser, the post and the post's author) cannot deadlock.
+ * <p>
+ * IDs are resolved to objects before any lock is taken, so every operation checks
+ * again that its accounts and posts still exist once it holds their stripes.
+ * Operations on the whole platform (erasing and loading) hold every stripe.
+ * <p>
+ * Saving only holds every stripe for long enough to take a point-in-time image of the platform,
+ * which takes the same time however large the platform is. The image is then written while
+ * changes carry on: each account or post changed (or removed) while the image is being written
+ * first has a copy of itself as it was kept in the image (copy-on-write), and the image writes
+ * that copy instead of the changed object.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public class ConcurrentSocialMedia implements BatchSocialMediaPlatform {
+
+    /** Default number of lock stripes used for each of accounts and posts. */
+    public static final int DEFAULT_STRIPES = 256;
+
+    /** Default number of accounts, and of posts, whose formatted text is cached. */
+    public static final int DEFAULT_RENDER_CACHE_CAPACITY = 4096;
+
+    /** Key-value pair hashmap of account IDs to Account objects. */
+    private final Map<Integer,Account> accounts = new ConcurrentHashMap<>();
+
+    /** Key-value pair hashmap of account handles to account IDs. */
+    private final ConcurrentHashMap<String,Integer> handles = new ConcurrentHashMap<>();
+
+    /** Key-value pair hashmap of post IDs to Post objects. */
+    private final Map<Integer,Post> posts = new ConcurrentHashMap<>();
+
+    /** Allocator of sequential account IDs. */
+    private final IdAllocator accountIds = new IdAllocator();
+
+    /** Allocator of sequential post IDs. */
+    private final IdAllocator postIds = new IdAllocator();
+
+    /** Key-value pair hashmap of parent post IDs to the IDs of their comments (in ascending order). */
+    private final Map<Integer,NavigableSet<Integer>> childComments = new ConcurrentHashMap<>();
+
+    /** Key-value pair hashmap of parent post IDs to the IDs of their endorsements (in ascending order). */
+    private final Map<Integer,NavigableSet<Integer>> childEndorsements = new ConcurrentHashMap<>();
+
+    /** Key-value pair hashmap of account IDs to the IDs of the posts they authored. */
+    private final Map<Integer,NavigableSet<Integer>> accountPosts = new ConcurrentHashMap<>();
+
+    /** The number of {@link OriginalPost} objects currently on the platform. */
+    private final AtomicInteger originalPostCount = new AtomicInteger();
+
+    /** The number of {@link Comment} objects currently on the platform. */
+    private final AtomicInteger commentPostCount = new AtomicInteger();
+
+    /** The number of {@link Endorsement} objects currently on the platform. */
+    private final AtomicInteger endorsementPostCount = new AtomicInteger();
+
+    /** Locks guarding the fields of accounts, and their presence on the platform. */
+    private final LockStripes accountLocks;
+
+    /** Locks guarding the fields and children of posts, and their presence on the platform. */
+    private final LockStripes postLocks;
+
+    /** Formatted text of recently shown accounts, by account ID. */
+    private final RenderCache accountRenders;
+
+    /** Formatted text of recently shown posts, by post ID. */
+    private final RenderCache postRenders;
+
+    /** Permit held while an image is taken and written, so only one is written at a time. */
+    private final Semaphore saving = new Semaphore(1);
+
+    /** The point-in-time image being written, or null if the platform is not being saved. */
+    private volatile PointInTimeImage image;
+
+    /**
+     * Constructor which creates an empty platform using {@link ConcurrentSocialMedia#DEFAULT_STRIPES}
+     * lock stripes for each of accounts and posts.
+     */
+    public ConcurrentSocialMedia() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Constructor which creates an empty platform with the given number of lock stripes
+     * for each of accounts and posts. More stripes reduce contention between unrelated
+     * operations, at the cost of more work for operations on the whole platform.
+     *
+     * @param stripes number of lock stripes, rounded up to a power of two.
+     */
+    public ConcurrentSocialMedia(int stripes) {
+        this(stripes, DEFAULT_RENDER_CACHE_CAPACITY);
+    }
+
+    /**
+     * Constructor which creates an empty platform with the given number of lock stripes
+     * for each of accounts and posts, caching the formatted text of up to the given number
+     * of accounts and as many posts. Once a cache is full, the account or post shown least
+     * recently is dropped from it.
+     *
+     * @param stripes number of lock stripes, rounded up to a power of two.
+     * @param renderCacheCapacity number of accounts, and of posts, cached (0 disables the caches).
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    public ConcurrentSocialMedia(int stripes, int renderCacheCapacity) {
+        accountLocks = new LockStripes(stripes);
+        postLocks = new LockStripes(stripes);
+        accountRenders = new RenderCache(renderCacheCapacity, stripes);
+        postRenders = new RenderCache(renderCacheCapacity, stripes);
+    }
+
+    @Override
+    public int createAccount(String handle)
+            throws IllegalHandleException, InvalidHandleException {
+        return createAccount(handle, null);
+    }
+
+    @Override
+    public int createAccount(String handle, String description)
+            throws IllegalHandleException, InvalidHandleException {
+        if (stringExceedsLimit(Account.HANDLE_CHAR_LIMIT, handle) || handle.contains(" ")) {
+            throw new InvalidHandleException();
+        } else if (handles.containsKey(handle)) {
+            throw new IllegalHandleException();
+        }
+        while (true) {
+            int id = accountIds.allocate();
+            int[] stripes = accountLocks.stripesOf(id);
+            accountLocks.lock(stripes, true);
+            try {
+                if (accounts.containsKey(id)) {
+                    // An erase or load reset the allocator after the ID was allocated, and an
+                    // account loaded (or created since) already has it
+                    continue;
+                } else if (handles.putIfAbsent(handle, id) != null) {
+                    throw new IllegalHandleException();
+                }
+                beforeAccountChange(id);
+                accounts.put(id, new Account(id, handle, description));
+                return id;
+            } finally {
+                accountLocks.unlock(stripes, true);
+            }
+        }
+    }
+
+    @Override
+    public void removeAccount(int id)
+            throws AccountIDNotRecognisedException {
+        if (!removeAccount(id, null)) {
+            throw new AccountIDNotRecognisedException();
+        }
+    }
+
+    @Override
+    public void removeAccount(String handle)
+            throws HandleNotRecognisedException {
+        Integer id = handles.get(handle);
+        if (id == null || !removeAccount(id, handle)) {
+            throw new HandleNotRecognisedException();
+        }
+    }
+
+    @Override
+    public void changeAccountHandle(String oldHandle, String newHandle)
+            throws HandleNotRecognisedException, IllegalHandleException, InvalidHandleException {
+        Integer id = handles.get(oldHandle);
+        if (id == null) {
+            throw new HandleNotRecognisedException();
+        } else if (stringExceedsLimit(Account.HANDLE_CHAR_LIMIT, newHandle)) {
+            throw new InvalidHandleException();
+        }
+        int[] stripes = accountLocks.stripesOf(id);
+        accountLocks.lock(stripes, true);
+        try {
+            Account account = currentAccount(id, oldHandle);
+            if (account == null) {
+                throw new HandleNotRecognisedException();
+            } else if (handles.putIfAbsent(newHandle, id) != null) {
+                throw new IllegalHandleException();
+            }
+            beforeAccountChange(id);
+            account.setHandle(newHandle);
+            handles.remove(oldHandle, id);
+            // The account's posts show its handle too, and are only shown under its stripe
+            for (int postId : accountPosts.getOrDefault(id, Collections.emptyNavigableSet())) {
+                postRenders.invalidate(postId);
+            }
+        } finally {
+            accountLocks.unlock(stripes, true);
+        }
+    }
+
+    @Override
+    public void updateAccountDescription(String handle, String description)
+            throws HandleNotRecognisedException {
+        Integer id = handles.get(handle);
+        if (id == null) {
+            throw new HandleNotRecognisedException();
+        }
+        int[] stripes = accountLocks.stripesOf(id);
+        accountLocks.lock(stripes, true);
+        try {
+            Account account = currentAccount(id, handle);
+            if (account == null) {
+                throw new HandleNotRecognisedException();
+            }
+            beforeAccountChange(id);
+            account.setDescription(description);
+        } finally {
+            accountLocks.unlock(stripes, true);
+        }
+    }
+
+    @Override
+    public String showAccount(String handle)
+            throws HandleNotRecognisedException {
+        Integer id = handles.get(handle);
+        if (id == null) {
+            throw new HandleNotRecognisedException();
+        }
+        // Entries are dropped before any change, so a cached one is current
+        String text = accountRenders.get(id);
+        if (text != null) {
+            return text;
+        }
+        int[] stripes = accountLocks.stripesOf(id);
+        accountLocks.lock(stripes, false);
+        try {
+            Account account = currentAccount(id, handle);
+            if (account == null) {
+                throw new HandleNotRecognisedException();
+            }
+            // Cached while the stripe is held, so a change cannot slip in between
+            text = PlatformFormat.account(id, handle, account.getDescription(), account.getPostCount(), account.getEndorseCount());
+            accountRenders.put(id, text);
+            return text;
+        } finally {
+            accountLocks.unlock(stripes, false);
+        }
+    }
+
+    @Override
+    public int createPost(String handle, String message)
+            throws HandleNotRecognisedException, InvalidPostException {
+        Integer authorId = handles.get(handle);
+        if (authorId == null) {
+            throw new HandleNotRecognisedException();
+        } else if (stringExceedsLimit(Post.POST_CHAR_LIMIT, message)) {
+            throw new InvalidPostException();
+        }
+        int[] stripes = accountLocks.stripesOf(authorId);
+        accountLocks.lock(stripes, true);
+        try {
+            Account author = currentAccount(authorId, handle);
+            if (author == null) {
+                throw new HandleNotRecognisedException();
+            }
+            return insertOriginalPost(author, message);
+        } finally {
+            accountLocks.unlock(stripes, true);
+        }
+    }
+
+    @Override
+    public int endorsePost(String handle, int id)
+            throws HandleNotRecognisedException, PostIDNotRecognisedException, NotActionablePostException {
+        Integer endorserId = handles.get(handle);
+        Post post = posts.get(id);
+        if (endorserId == null) {
+            throw new HandleNotRecognisedException();
+        } else if (post == null) {
+            throw new PostIDNotRecognisedException();
+        } else if (post instanceof Endorsement) {
+            throw new NotActionablePostException();
+        }
+        int[] accountStripes = accountLocks.stripesOf(endorserId, post.getAuthorId());
+        int[] postStripes = postLocks.stripesOf(id);
+        accountLocks.lock(accountStripes, true);
+        postLocks.lock(postStripes, true);
+        try {
+            Account endorser = currentAccount(endorserId, handle);
+            Account author = accounts.get(post.getAuthorId());
+            if (endorser == null) {
+                throw new HandleNotRecognisedException();
+            } else if (posts.get(id) != post || author == null) {
+                throw new PostIDNotRecognisedException();
+            }
+            return insertEndorsement(endorser, post, author);
+        } finally {
+            postLocks.unlock(postStripes, true);
+            accountLocks.unlock(accountStripes, true);
+        }
+    }
+
+    @Override
+    public int commentPost(String handle, int id, String message)
+            throws HandleNotRecognisedException, PostIDNotRecognisedException, NotActionablePostException, InvalidPostException {
+        Integer authorId = handles.get(handle);
+        Post post = posts.get(id);
+        if (authorId == null) {
+            throw new HandleNotRecognisedException();
+        } else if (post == null) {
+            throw new PostIDNotRecognisedException();
+        } else if (post instanceof Endorsement) {
+            throw new NotActionablePostException();
+        } else if (stringExceedsLimit(Post.POST_CHAR_LIMIT, message)) {
+            throw new InvalidPostException();
+        }
+        int[] accountStripes = accountLocks.stripesOf(authorId);
+        int[] postStripes = postLocks.stripesOf(id);
+        accountLocks.lock(accountStripes, true);
+        postLocks.lock(postStripes, true);
+        try {
+            Account author = currentAccount(authorId, handle);
+            if (author == null) {
+                throw new HandleNotRecognisedException();
+            } else if (posts.get(id) != post) {
+                throw new PostIDNotRecognisedException();
+            }
+            return insertComment(author, post, message);
+        } finally {
+            postLocks.unlock(postStripes, true);
+            accountLocks.unlock(accountStripes, true);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each handle is looked up once, and the stripes of every author are acquired once,
+     * for the whole batch.
+     */
+    @Override
+    public BatchResult createPosts(String[] batchHandles, String[] messages) {
+        BatchResult result = new BatchResult(BatchResult.checkSizes(batchHandles.length, messages.length));
+        Set<Integer> accountIds = new HashSet<>();
+        Map<String,Integer> ids = resolveHandles(batchHandles, accountIds);
+        int[][] stripes = lockBatch(accountIds, Collections.emptySet(), false);
+        try {
+            for (int i = 0; i < batchHandles.length; i++) {
+                Account author = currentAccount(ids, batchHandles[i]);
+                if (author == null) {
+                    result.failed(i, BatchResult.ErrorCode.HANDLE_NOT_RECOGNISED);
+                } else if (stringExceedsLimit(Post.POST_CHAR_LIMIT, messages[i])) {
+                    result.failed(i, BatchResult.ErrorCode.INVALID_POST);
+                } else {
+                    result.succeeded(i, insertOriginalPost(author, messages[i]));
+                }
+            }
+        } finally {
+            unlockBatch(stripes);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each handle is looked up once, and the stripes of every endorser, post and post author
+     * are acquired once, for the whole batch. If any post is missing beforehand (it may be
+     * created by an earlier item) every stripe is acquired instead.
+     */
+    @Override
+    public BatchResult endorsePosts(String[] batchHandles, int[] ids) {
+        BatchResult result = new BatchResult(BatchResult.checkSizes(batchHandles.length, ids.length));
+        Set<Integer> accountIds = new HashSet<>();
+        Set<Integer> postIds = new HashSet<>();
+        Map<String,Integer> endorserIds = resolveHandles(batchHandles, accountIds);
+        Post[] planned = new Post[ids.length];
+        boolean wholePlatform = false;
+        for (int i = 0; i < ids.length; i++) {
+            planned[i] = posts.get(ids[i]);
+            if (planned[i] == null) {
+                wholePlatform = true;
+            } else {
+                postIds.add(ids[i]);
+                accountIds.add(planned[i].getAuthorId());
+            }
+        }
+        int[][] stripes = lockBatch(accountIds, postIds, wholePlatform);
+        try {
+            for (int i = 0; i < batchHandles.length; i++) {
+                Account endorser = currentAccount(endorserIds, batchHandles[i]);
+                Post post = posts.get(ids[i]);
+                // Only the planned posts' stripes are held, unless every stripe is
+                if (!wholePlatform && post != planned[i]) {
+                    post = null;
+                }
+                Account author = post == null ? null : accounts.get(post.getAuthorId());
+                if (endorser == null) {
+                    result.failed(i, BatchResult.ErrorCode.HANDLE_NOT_RECOGNISED);
+                } else if (post == null || author == null) {
+                    result.failed(i, BatchResult.ErrorCode.POST_ID_NOT_RECOGNISED);
+                } else if (post instanceof Endorsement) {
+                    result.failed(i, BatchResult.ErrorCode.NOT_ACTIONABLE_POST);
+                } else {
+                    result.succeeded(i, insertEndorsement(endorser, post, author));
+                }
+            }
+        } finally {
+            unlockBatch(stripes);
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each handle is looked up once, and the stripes of every author and post are acquired once,
+     * for the whole batch. If any post is missing beforehand (it may be created by an earlier item)
+     * every stripe is acquired instead.
+     */
+    @Override
+    public BatchResult commentPosts(String[] batchHandles, int[] ids, String[] messages) {
+        BatchResult result = new BatchResult(BatchResult.checkSizes(batchHandles.length, ids.length, messages.length));
+        Set<Integer> accountIds = new HashSet<>();
+        Set<Integer> postIds = new HashSet<>();
+        Map<String,Integer> authorIds = resolveHandles(batchHandles, accountIds);
+        Post[] planned = new Post[ids.length];
+        boolean wholePlatform = false;
+        for (int i = 0; i < ids.length; i++) {
+            planned[i] = posts.get(ids[i]);
+            if (planned[i] == null) {
+                wholePlatform = true;
+            } else {
+                postIds.add(ids[i]);
+            }
+        }
+        int[][] stripes = lockBatch(accountIds, postIds, wholePlatform);
+        try {
+            for (int i = 0; i < batchHandles.length; i++) {
+                Account author = currentAccount(authorIds, batchHandles[i]);
+                Post post = posts.get(ids[i]);
+                // Only the planned posts' stripes are held, unless every stripe is
+                if (!wholePlatform && post != planned[i]) {
+                    post = null;
+                }
+                if (author == null) {
+                    result.failed(i, BatchResult.ErrorCode.HANDLE_NOT_RECOGNISED);
+                } else if (post == null) {
+                    result.failed(i, BatchResult.ErrorCode.POST_ID_NOT_RECOGNISED);
+                } else if (post instanceof Endorsement) {
+                    result.failed(i, BatchResult.ErrorCode.NOT_ACTIONABLE_POST);
+                } else if (stringExceedsLimit(Post.POST_CHAR_LIMIT, messages[i])) {
+                    result.failed(i, BatchResult.ErrorCode.INVALID_POST);
+                } else {
+                    result.succeeded(i, insertComment(author, post, messages[i]));
+                }
+            }
+        } finally {
+            unlockBatch(stripes);
+        }
+        return result;
+    }
+
+    @Override
+    public void deletePost(int id)
+            throws PostIDNotRecognisedException {
+        while (true) {
+            Post post = posts.get(id);
+            if (post == null) {
+                throw new PostIDNotRecognisedException();
+            }
+            int[][] lockedIds = deleteLockSet(post);
+            int[] accountStripes = accountLocks.stripesOf(lockedIds[0]);
+            int[] postStripes = postLocks.stripesOf(lockedIds[1]);
+            accountLocks.lock(accountStripes, true);
+            postLocks.lock(postStripes, true);
+            try {
+                // Retry if the post or the posts and accounts around it changed before the locks were held
+                if (posts.get(id) == post) {
+                    int[][] currentIds = deleteLockSet(post);
+                    if (Arrays.equals(accountStripes, accountLocks.stripesOf(currentIds[0]))
+                            && Arrays.equals(postStripes, postLocks.stripesOf(currentIds[1]))) {
+                        removeLockedPost(post);
+                        return;
+                    }
+                }
+            } finally {
+                postLocks.unlock(postStripes, true);
+                accountLocks.unlock(accountStripes, true);
+            }
+        }
+    }
+
+    @Override
+    public String showIndividualPost(int id)
+            throws PostIDNotRecognisedException {
+        // Entries are dropped before any change, so a cached one is current
+        String text = postRenders.get(id);
+        if (text != null) {
+            return text;
+        }
+        Post post = posts.get(id);
+        if (post == null) {
+            throw new PostIDNotRecognisedException();
+        }
+        int[] accountStripes = accountLocks.stripesOf(post.getAuthorId());
+        int[] postStripes = postLocks.stripesOf(id);
+        accountLocks.lock(accountStripes, false);
+        postLocks.lock(postStripes, false);
+        try {
+            Account author = accounts.get(post.getAuthorId());
+            if (posts.get(id) != post || author == null) {
+                throw new PostIDNotRecognisedException();
+            }
+            // Cached while the stripes are held, so a change cannot slip in between
+            text = PlatformFormat.post(id, author.getHandle(), post.getEndorseCount(), post.getCommentCount(), post.getMessage());
+            postRenders.put(id, text);
+            return text;
+        } finally {
+            postLocks.unlock(postStripes, false);
+            accountLocks.unlock(accountStripes, false);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each post in the thread is read consistently, but comments added or deleted
+     * while the thread is being built may or may not be included.
+     */
+    @Override
+    public StringBuilder showPostChildrenDetails(int id)
+            throws PostIDNotRecognisedException, NotActionablePostException {
+        Post post = posts.get(id);
+        if (post == null) {
+            throw new PostIDNotRecognisedException();
+        } else if (post instanceof Endorsement) {
+            throw new NotActionablePostException();
+        }
+        StringBuilder postFamilyInfo = new StringBuilder();
+        try {
+            ThreadRenderer.render(threadSource(), id, postFamilyInfo);
+        } catch (IOException e) {
+            // A StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return postFamilyInfo;
+    }
+
+    /**
+     * Returns one page of the formatted thread of a post, in the same format as
+     * {@link ConcurrentSocialMedia#showPostChildrenDetails(int)}, leaving out comments nested deeper than a
+     * given depth. The cursor of each page is passed to get the next one, which carries on
+     * from the post after the last one on the page without walking the thread again from the top.
+     *
+     * @param id of the post to be shown.
+     * @param maxDepth depth of the deepest comments shown (0 shows the post alone).
+     * @param pageSize largest number of posts on the page.
+     * @param cursor {@link ThreadPage#getCursor()} of the previous page, or null for the first page.
+     * @return the page.
+     * @throws PostIDNotRecognisedException if the ID does not match to any post in the system.
+     * @throws NotActionablePostException if the ID refers to an endorsement post.
+     * @throws IllegalArgumentException if the depth is negative, the page size is not positive,
+     *                                  or the cursor is not one of the post's thread.
+     */
+    public ThreadPage showPostChildrenDetails(int id, int maxDepth, int pageSize, String cursor)
+            throws PostIDNotRecognisedException, NotActionablePostException {
+        Post post = posts.get(id);
+        if (post == null) {
+            throw new PostIDNotRecognisedException();
+        } else if (post instanceof Endorsement) {
+            throw new NotActionablePostException();
+        }
+        return ThreadRenderer.page(threadSource(), id, maxDepth, pageSize, cursor);
+    }
+
+    /**
+     * Writes the formatted thread of a post to an {@link Appendable}, such as a {@link Writer},
+     * in the same format as {@link ConcurrentSocialMedia#showPostChildrenDetails(int)}.
+     * Each post is read under its locks and written after they are released, so a slow
+     * destination never holds up changes to the platform.
+     *
+     * @param id of the post to be shown.
+     * @param out destination of the thread.
+     * @throws PostIDNotRecognisedException if the ID does not match to any post in the system.
+     * @throws NotActionablePostException if the ID refers to an endorsement post.
+     * @throws IOException if there is a problem writing to the destination.
+     */
+    public void renderPostChildrenDetails(int id, Appendable out)
+            throws PostIDNotRecognisedException, NotActionablePostException, IOException {
+        Post post = posts.get(id);
+        if (post == null) {
+            throw new PostIDNotRecognisedException();
+        } else if (post instanceof Endorsement) {
+            throw new NotActionablePostException();
+        }
+        ThreadRenderer.render(threadSource(), id, out);
+    }
+
+    /**
+     * Writes the formatted thread of a post to a channel, encoded in UTF-8,
+     * in the same format as {@link ConcurrentSocialMedia#showPostChildrenDetails(int)}.
+     * The channel is left open.
+     *
+     * @param id of the post to be shown.
+     * @param channel destination of the thread.
+     * @throws PostIDNotRecognisedException if the ID does not match to any post in the system.
+     * @throws NotActionablePostException if the ID refers to an endorsement post.
+     * @throws IOException if there is a problem writing to the channel.
+     */
+    public void renderPostChildrenDetails(int id, WritableByteChannel channel)
+            throws PostIDNotRecognisedException, NotActionablePostException, IOException {
+        Post post = posts.get(id);
+        if (post == null) {
+            throw new PostIDNotRecognisedException();
+        } else if (post instanceof Endorsement) {
+            throw new NotActionablePostException();
+        }
+        ThreadRenderer.render(threadSource(), id, channel);
+    }
+
+    @Override
+    public int getNumberOfAccounts() {
+        return accounts.size();
+    }
+
+    @Override
+    public int getTotalOriginalPosts() {
+        return originalPostCount.get();
+    }
+
+    @Override
+    public int getTotalEndorsmentPosts() {
+        return endorsementPostCount.get();
+    }
+
+    @Override
+    public int getTotalCommentPosts() {
+        return commentPostCount.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Posts are scanned without locking, so endorsements made during the
+     * scan may or may not be counted. Ties are broken by lowest post ID.
+     */
+    @Override
+    public int getMostEndorsedPost() {
+        int highestValue = -1;
+        int mostEndorsedPostId = -1;
+        for (Post value : posts.values()) {
+            int endorsements = value.getEndorseCount();
+            if (endorsements > highestValue || (endorsements == highestValue && value.getPostId() < mostEndorsedPostId)) {
+                highestValue = endorsements;
+                mostEndorsedPostId = value.getPostId();
+            }
+        }
+        return mostEndorsedPostId;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Accounts are scanned without locking, so endorsements made during the
+     * scan may or may not be counted. Ties are broken by lowest account ID.
+     */
+    @Override
+    public int getMostEndorsedAccount() {
+        int highestValue = -1;
+        int mostEndorsedAccountId = -1;
+        for (Account value : accounts.values()) {
+            int endorsements = value.getEndorseCount();
+            if (endorsements > highestValue || (endorsements == highestValue && value.getAccountId() < mostEndorsedAccountId)) {
+                highestValue = endorsements;
+                mostEndorsedAccountId = value.getAccountId();
+            }
+        }
+        return mostEndorsedAccountId;
+    }
+
+    /**
+     * Returns the statistics of the cache of formatted accounts used by {@link ConcurrentSocialMedia#showAccount(String)}.
+     *
+     * @return the statistics.
+     */
+    public CacheStatistics getAccountRenderCacheStatistics() {
+        return accountRenders.statistics();
+    }
+
+    /**
+     * Returns the statistics of the cache of formatted posts used by {@link ConcurrentSocialMedia#showIndividualPost(int)}.
+     *
+     * @return the statistics.
+     */
+    public CacheStatistics getPostRenderCacheStatistics() {
+        return postRenders.statistics();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Waits for any save in progress to finish first.
+     */
+    @Override
+    public void erasePlatform() {
+        saving.acquireUninterruptibly();
+        try {
+            clearPlatform();
+        } finally {
+            saving.release();
+        }
+    }
+
+    /**
+     * Removes every account and post, and resets the ID allocators.
+     * The caller must hold {@link ConcurrentSocialMedia#saving}, so that no image is being written.
+     */
+    private void clearPlatform() {
+        lockPlatform(true);
+        try {
+            accounts.clear();
+            handles.clear();
+            posts.clear();
+            childComments.clear();
+            childEndorsements.clear();
+            accountPosts.clear();
+            originalPostCount.set(0);
+            commentPostCount.set(0);
+            endorsementPostCount.set(0);
+            accountIds.reset();
+            postIds.reset();
+            accountRenders.clear();
+            postRenders.clear();
+        } finally {
+            unlockPlatform(true);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The file has the same layout as the one written by {@link SocialMedia#savePlatform(String)},
+     * and holds the platform as it was when the save started. Changes carry on while the file
+     * is written, but a second save waits for the first to finish.
+     */
+    @Override
+    public void savePlatform(String filename) throws IOException {
+        saving.acquireUninterruptibly();
+        try {
+            writeImage(takeImage(), filename);
+        } finally {
+            saving.release();
+        }
+    }
+
+    /**
+     * Saves the platform as it is now on a background thread, like {@link ConcurrentSocialMedia#savePlatform(String)}.
+     * Only the point-in-time image is taken before this method returns, which takes the same time
+     * however large the platform is (once any save already in progress has finished).
+     *
+     * @param filename location of the file to be saved.
+     * @return a future which completes once the file is written, or completes exceptionally with
+     *         the {@link IOException} thrown if there is a problem writing it.
+     */
+    public CompletableFuture<Void> savePlatformInBackground(String filename) {
+        saving.acquireUninterruptibly();
+        PointInTimeImage taken;
+        try {
+            taken = takeImage();
+        } catch (RuntimeException e) {
+            saving.release();
+            throw e;
+        }
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        Thread writer = new Thread(() -> {
+            try {
+                writeImage(taken, filename);
+                written.complete(null);
+            } catch (IOException | RuntimeException e) {
+                written.completeExceptionally(e);
+            } finally {
+                saving.release();
+            }
+        }, "platform-save");
+        writer.setDaemon(true);
+        writer.start();
+        return written;
+    }
+
+    @Override
+    public void loadPlatform(String filename) throws IOException, ClassNotFoundException {
+        List<Account> loadedAccounts = new ArrayList<>();
+        List<Post> loadedPosts = new ArrayList<>();
+        int[] highWaterMarks = new int[2];
+        SnapshotReader.read(filename, new SnapshotReader.Sink() {
+            @Override
+            public void header(int accountHighWaterMark, int postHighWaterMark, int accountCount, int postCount) {
+                highWaterMarks[0] = accountHighWaterMark;
+                highWaterMarks[1] = postHighWaterMark;
+            }
+
+            @Override
+            public void account(int id, String handle, String description, int postCount, int endorseCount) {
+                loadedAccounts.add(SnapshotReader.toAccount(id, handle, description, postCount, endorseCount));
+            }
+
+            @Override
+            public void post(byte type, int id, int authorId, int parentId, int commentCount, int endorseCount, String message) {
+                loadedPosts.add(SnapshotReader.toPost(type, id, authorId, parentId, commentCount, endorseCount, message));
+            }
+        });
+        saving.acquireUninterruptibly();
+        lockPlatform(true);
+        try {
+            clearPlatform();
+            accountIds.advanceTo(highWaterMarks[0]);
+            postIds.advanceTo(highWaterMarks[1]);
+            for (Account value : loadedAccounts) {
+                accounts.put(value.getAccountId(), value);
+                handles.put(value.getHandle(), value.getAccountId());
+                accountIds.advanceTo(value.getAccountId() + 1);
+            }
+            for (Post value : loadedPosts) {
+                posts.put(value.getPostId(), value);
+            }
+            rebuildIndexes();
+        } finally {
+            unlockPlatform(true);
+            saving.release();
+        }
+    }
+
+    /**
+     * This method checks if input string exceeds given character limit.
+     * Only returns true if string exceeds limit, or is empty.
+     *
+     * @param limit character limit.
+     * @param input string text.
+     * @return boolean if string exceeds character limit.
+     */
+    private boolean stringExceedsLimit(int limit, String input) {
+        return input.length() > limit || input.length() == 0;
+    }
+
+    /**
+     * Creates an original post, once its author and message have been checked.
+     * The caller must hold the author's stripe for writing.
+     *
+     * @param author account creating the post.
+     * @param message message of the post.
+     * @return ID of the new post.
+     */
+    private int insertOriginalPost(Account author, String message) {
+        int authorId = author.getAccountId();
+        OriginalPost newPost = new OriginalPost(postIds.allocate(), authorId, message);
+        beforeAccountChange(authorId);
+        beforePostChange(newPost.getPostId());
+        author.setPostCount(author.getPostCount() + 1);
+        addToIndex(accountPosts, authorId, newPost.getPostId());
+        originalPostCount.incrementAndGet();
+        posts.put(newPost.getPostId(), newPost);
+        return newPost.getPostId();
+    }
+
+    /**
+     * Creates an endorsement of a post, once the endorser and post have been checked.
+     * The caller must hold the stripes of the endorser, the post's author and the post for writing.
+     *
+     * @param endorser account endorsing the post.
+     * @param post original post or comment being endorsed.
+     * @param author account which authored the post.
+     * @return ID of the new endorsement.
+     */
+    private int insertEndorsement(Account endorser, Post post, Account author) {
+        int id = post.getPostId();
+        int endorserId = endorser.getAccountId();
+        String message = String.format("EP@%1$s: %2$s", author.getHandle(), post.getMessage());
+        Endorsement newEndorsement = new Endorsement(postIds.allocate(), endorserId, id, message);
+        beforeAccountChange(endorserId);
+        beforeAccountChange(author.getAccountId());
+        beforePostChange(id);
+        beforePostChange(newEndorsement.getPostId());
+        addToIndex(childEndorsements, id, newEndorsement.getPostId());
+        addToIndex(accountPosts, endorserId, newEndorsement.getPostId());
+        post.setEndorseCount(post.getEndorseCount() + 1);
+        endorser.setPostCount(endorser.getPostCount() + 1);
+        author.setEndorseCount(author.getEndorseCount() + 1);
+        endorsementPostCount.incrementAndGet();
+        posts.put(newEndorsement.getPostId(), newEndorsement);
+        return newEndorsement.getPostId();
+    }
+
+    /**
+     * Creates a comment on a post, once the author, post and message have been checked.
+     * The caller must hold the stripes of the author and the post for writing.
+     *
+     * @param author account creating the comment.
+     * @param post original post or comment being commented on.
+     * @param message message of the comment.
+     * @return ID of the new comment.
+     */
+    private int insertComment(Account author, Post post, String message) {
+        int id = post.getPostId();
+        int authorId = author.getAccountId();
+        Comment newComment = new Comment(postIds.allocate(), authorId, id, message);
+        beforeAccountChange(authorId);
+        beforePostChange(id);
+        beforePostChange(newComment.getPostId());
+        addToIndex(childComments, id, newComment.getPostId());
+        addToIndex(accountPosts, authorId, newComment.getPostId());
+        post.setCommentCount(post.getCommentCount() + 1);
+        author.setPostCount(author.getPostCount() + 1);
+        commentPostCount.incrementAndGet();
+        posts.put(newComment.getPostId(), newComment);
+        return newComment.getPostId();
+    }
+
+    /**
+     * Acquires, for writing, the stripes a batch needs: the given account and post stripes,
+     * or every stripe if the batch refers to posts which may not exist yet.
+     *
+     * @param accountIds IDs of the accounts the batch changes.
+     * @param postIds IDs of the existing posts the batch changes.
+     * @param wholePlatform true to acquire every stripe instead.
+     * @return the account and post stripes acquired, or null if every stripe was.
+     */
+    private int[][] lockBatch(Set<Integer> accountIds, Set<Integer> postIds, boolean wholePlatform) {
+        if (wholePlatform) {
+            lockPlatform(true);
+            return null;
+        }
+        int[][] stripes = {
+                accountLocks.stripesOf(accountIds.stream().mapToInt(Integer::intValue).toArray()),
+                postLocks.stripesOf(postIds.stream().mapToInt(Integer::intValue).toArray())};
+        accountLocks.lock(stripes[0], true);
+        postLocks.lock(stripes[1], true);
+        return stripes;
+    }
+
+    /**
+     * Releases the stripes acquired by {@link ConcurrentSocialMedia#lockBatch(Set, Set, boolean)}.
+     *
+     * @param stripes the account and post stripes acquired, or null if every stripe was.
+     */
+    private void unlockBatch(int[][] stripes) {
+        if (stripes == null) {
+            unlockPlatform(true);
+        } else {
+            postLocks.unlock(stripes[1], true);
+            accountLocks.unlock(stripes[0], true);
+        }
+    }
+
+    /**
+     * Looks up the ID of each distinct handle of a batch, and collects the IDs found.
+     *
+     * @param batchHandles handle of each item of the batch.
+     * @param accountIds set to add the account IDs found to.
+     * @return key-value pair hashmap of each handle found to its account ID.
+     */
+    private Map<String,Integer> resolveHandles(String[] batchHandles, Set<Integer> accountIds) {
+        Map<String,Integer> ids = new HashMap<>();
+        for (String handle : batchHandles) {
+            if (!ids.containsKey(handle)) {
+                Integer id = handles.get(handle);
+                if (id != null) {
+                    ids.put(handle, id);
+                    accountIds.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the account with the given handle, as resolved for a batch, if it is still on the platform
+     * under that handle. The caller must hold the account's stripe.
+     *
+     * @param ids key-value pair hashmap of handles to the account IDs they resolved to.
+     * @param handle handle of the account.
+     * @return the account, or null if the handle was not found or the account was removed or renamed.
+     */
+    private Account currentAccount(Map<String,Integer> ids, String handle) {
+        Integer id = ids.get(handle);
+        return id == null ? null : currentAccount(id, handle);
+    }
+
+    /**
+     * Returns the account with the given ID if it is still on the platform under the given handle.
+     * The caller must hold the account's stripe.
+     *
+     * @param id account ID.
+     * @param handle handle the account was looked up by, or null to accept any handle.
+     * @return the account, or null if it was removed or renamed.
+     */
+    private Account currentAccount(int id, String handle) {
+        Account account = accounts.get(id);
+        if (account == null || (handle != null && !account.getHandle().equals(handle))) {
+            return null;
+        }
+        return account;
+    }
+
+    /**
+     * Removes an account and every post it authored in one step, holding the stripes of
+     * the account and of every account and post changed by deleting its posts, so readers
+     * and saves see either the account with all its posts or neither.
+     * While the account's stripe is held no new posts can be made by it,
+     * so the posts found then are all the account's posts.
+     *
+     * @param id account ID.
+     * @param handle handle the account was looked up by, or null if looked up by ID.
+     * @return true if the account was removed.
+     */
+    private boolean removeAccount(int id, String handle) {
+        while (true) {
+            if (currentAccount(id, handle) == null) {
+                return false;
+            }
+            int[][] lockedIds = removeLockSet(id);
+            int[] accountStripes = accountLocks.stripesOf(lockedIds[0]);
+            int[] postStripes = postLocks.stripesOf(lockedIds[1]);
+            accountLocks.lock(accountStripes, true);
+            postLocks.lock(postStripes, true);
+            try {
+                Account account = currentAccount(id, handle);
+                if (account == null) {
+                    return false;
+                }
+                // Retry if the account's posts or the posts and accounts around them changed before the locks were held
+                int[][] currentIds = removeLockSet(id);
+                if (Arrays.equals(accountStripes, accountLocks.stripesOf(currentIds[0]))
+                        && Arrays.equals(postStripes, postLocks.stripesOf(currentIds[1]))) {
+                    beforeAccountChange(id);
+                    handles.remove(account.getHandle(), id);
+                    accounts.remove(id);
+                    Set<Integer> authored = accountPosts.remove(id);
+                    if (authored != null) {
+                        for (Integer postId : new ArrayList<>(authored)) {
+                            // Endorsements of the account's own deleted posts are already gone
+                            Post post = posts.get(postId);
+                            if (post != null) {
+                                removeLockedPost(post);
+                            }
+                        }
+                    }
+                    return true;
+                }
+            } finally {
+                postLocks.unlock(postStripes, true);
+                accountLocks.unlock(accountStripes, true);
+            }
+        }
+    }
+
+    /**
+     * Finds the IDs of every account and post changed by removing an account:
+     * the account itself, and those returned by {@link ConcurrentSocialMedia#deleteLockSet(Post)}
+     * for each post it authored.
+     *
+     * @param id account ID.
+     * @return the account IDs and the post IDs to lock.
+     */
+    private int[][] removeLockSet(int id) {
+        List<Integer> accountIds = new ArrayList<>();
+        List<Integer> postIds = new ArrayList<>();
+        accountIds.add(id);
+        for (Integer postId : new ArrayList<>(accountPosts.getOrDefault(id, Collections.emptyNavigableSet()))) {
+            Post post = posts.get(postId);
+            if (post != null) {
+                int[][] deleted = deleteLockSet(post);
+                Arrays.stream(deleted[0]).forEach(accountIds::add);
+                Arrays.stream(deleted[1]).forEach(postIds::add);
+            }
+        }
+        return new int[][] {
+                accountIds.stream().mapToInt(Integer::intValue).toArray(),
+                postIds.stream().mapToInt(Integer::intValue).toArray()
+        };
+    }
+
+    /**
+     * Finds the IDs of every account and post changed by deleting a post:
+     * the post itself, its author, its parent and the parent's author,
+     * and its comments and endorsements along with their endorsers.
+     *
+     * @param post post being deleted.
+     * @return the account IDs and the post IDs to lock.
+     */
+    private int[][] deleteLockSet(Post post) {
+        List<Integer> accountIds = new ArrayList<>();
+        List<Integer> postIds = new ArrayList<>();
+        accountIds.add(post.getAuthorId());
+        postIds.add(post.getPostId());
+        if (post instanceof Comment && ((Comment) post).getParentId() != -1) {
+            postIds.add(((Comment) post).getParentId());
+        } else if (post instanceof Endorsement) {
+            Post parent = posts.get(((Endorsement) post).getParentId());
+            postIds.add(((Endorsement) post).getParentId());
+            if (parent != null) {
+                accountIds.add(parent.getAuthorId());
+            }
+        }
+        postIds.addAll(childComments.getOrDefault(post.getPostId(), Collections.emptyNavigableSet()));
+        for (Integer endorsementId : childEndorsements.getOrDefault(post.getPostId(), Collections.emptyNavigableSet())) {
+            Post endorsement = posts.get(endorsementId);
+            postIds.add(endorsementId);
+            if (endorsement != null) {
+                accountIds.add(endorsement.getAuthorId());
+            }
+        }
+        return new int[][] {
+                accountIds.stream().mapToInt(Integer::intValue).toArray(),
+                postIds.stream().mapToInt(Integer::intValue).toArray()
+        };
+    }
+
+    /**
+     * Removes a post from the platform, orphaning its comments and removing its endorsements.
+     * The caller must hold the stripes of every ID returned by {@link ConcurrentSocialMedia#deleteLockSet(Post)}.
+     * Authors may be missing when their account is being removed, in which case only the posts are updated.
+     *
+     * @param post post to remove.
+     */
+    private void removeLockedPost(Post post) {
+        int id = post.getPostId();
+        beforePostChange(id);
+        posts.remove(id);
+        removeFromIndex(accountPosts, post.getAuthorId(), id);
+        Account author = accounts.get(post.getAuthorId());
+        if (author != null) {
+            beforeAccountChange(author.getAccountId());
+            author.setPostCount(author.getPostCount() - 1);
+            author.setEndorseCount(author.getEndorseCount() - post.getEndorseCount());
+        }
+        if (post instanceof OriginalPost) {
+            originalPostCount.decrementAndGet();
+        } else if (post instanceof Comment) {
+            commentPostCount.decrementAndGet();
+            int parentId = ((Comment) post).getParentId();
+            Post parent = posts.get(parentId);
+            if (parent != null) {
+                beforePostChange(parentId);
+                parent.setCommentCount(parent.getCommentCount() - 1);
+                removeFromIndex(childComments, parentId, id);
+            }
+        } else if (post instanceof Endorsement) {
+            endorsementPostCount.decrementAndGet();
+            int parentId = ((Endorsement) post).getParentId();
+            Post parent = posts.get(parentId);
+            if (parent != null) {
+                beforePostChange(parentId);
+                parent.setEndorseCount(parent.getEndorseCount() - 1);
+                removeFromIndex(childEndorsements, parentId, id);
+                Account parentAuthor = accounts.get(parent.getAuthorId());
+                if (parentAuthor != null) {
+                    beforeAccountChange(parentAuthor.getAccountId());
+                    parentAuthor.setEndorseCount(parentAuthor.getEndorseCount() - 1);
+                }
+            }
+        }
+        Set<Integer> comments = childComments.remove(id);
+        if (comments != null) {
+            for (Integer commentId : comments) {
+                beforePostChange(commentId);
+                ((Comment) posts.get(commentId)).setParentDeleted();
+            }
+        }
+        Set<Integer> endorsements = childEndorsements.remove(id);
+        if (endorsements != null) {
+            for (Integer endorsementId : endorsements) {
+                beforePostChange(endorsementId);
+                Post endorsement = posts.remove(endorsementId);
+                removeFromIndex(accountPosts, endorsement.getAuthorId(), endorsementId);
+                Account endorser = accounts.get(endorsement.getAuthorId());
+                if (endorser != null) {
+                    beforeAccountChange(endorser.getAccountId());
+                    endorser.setPostCount(endorser.getPostCount() - 1);
+                }
+                endorsementPostCount.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Returns the posts of the platform as a {@link ThreadRenderer.Source}.
+     * Posts deleted while the thread is written are left out.
+     *
+     * @return source of the posts of comment threads.
+     */
+    private ThreadRenderer.Source threadSource() {
+        return new ThreadRenderer.Source() {
+            @Override
+            public String showPost(int id) {
+                try {
+                    return showIndividualPost(id);
+                } catch (PostIDNotRecognisedException e) {
+                    return null;
+                }
+            }
+
+            @Override
+            public Iterator<Integer> comments(int id, int after) {
+                NavigableSet<Integer> comments = childComments.get(id);
+                return comments == null ? Collections.emptyIterator() : comments.tailSet(after, false).iterator();
+            }
+        };
+    }
+
+    /**
+     * Adds a post ID to the set of post IDs indexed under a key
+     * (a parent post ID or an account ID). The caller must hold the key's stripe.
+     *
+     * @param index post index to update.
+     * @param key parent post id or account id.
+     * @param postId post id.
+     */
+    private void addToIndex(Map<Integer,NavigableSet<Integer>> index, int key, int postId) {
+        index.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>()).add(postId);
+    }
+
+    /**
+     * Removes a post ID from the set of post IDs indexed under a key,
+     * dropping the set once it is empty. The caller must hold the key's stripe.
+     *
+     * @param index post index to update.
+     * @param key parent post id or account id.
+     * @param postId post id.
+     */
+    private void removeFromIndex(Map<Integer,NavigableSet<Integer>> index, int key, int postId) {
+        index.computeIfPresent(key, (k, indexed) -> indexed.remove(postId) && indexed.isEmpty() ? null : indexed);
+    }
+
+    /**
+     * Rebuilds the post indexes and post type counters from the posts currently on the platform,
+     * and makes sure the post ID allocator will not hand out any ID already in use.
+     * The caller must hold every stripe.
+     */
+    private void rebuildIndexes() {
+        for (Post value : posts.values()) {
+            postIds.advanceTo(value.getPostId() + 1);
+            addToIndex(accountPosts, value.getAuthorId(), value.getPostId());
+            if (value instanceof OriginalPost) {
+                originalPostCount.incrementAndGet();
+            } else if (value instanceof Comment) {
+                commentPostCount.incrementAndGet();
+                if (((Comment) value).getParentId() != -1) {
+                    addToIndex(childComments, ((Comment) value).getParentId(), value.getPostId());
+                }
+            } else if (value instanceof Endorsement) {
+                endorsementPostCount.incrementAndGet();
+                addToIndex(childEndorsements, ((Endorsement) value).getParentId(), value.getPostId());
+            }
+        }
+    }
+
+    /**
+     * Takes a point-in-time image of the platform, from which changes made afterwards
+     * keep a copy of whatever they change. The caller must hold {@link ConcurrentSocialMedia#saving}.
+     *
+     * @return the image, which must be passed to {@link ConcurrentSocialMedia#writeImage(PointInTimeImage, String)}.
+     */
+    private PointInTimeImage takeImage() {
+        lockPlatform(true);
+        try {
+            image = new PointInTimeImage(accountIds.highWaterMark(), postIds.highWaterMark(), accounts.size(), posts.size());
+            return image;
+        } finally {
+            unlockPlatform(true);
+        }
+    }
+
+    /**
+     * Writes a point-in-time image to a snapshot file, and stops changes keeping copies for it.
+     * Each account and post is read under its stripe's read lock, and the copy kept in the image
+     * is written instead if it has been changed since the image was taken.
+     *
+     * @param taken image to write.
+     * @param filename location of the file to be saved.
+     * @throws IOException if there is a problem writing the file.
+     */
+    private void writeImage(PointInTimeImage taken, String filename) throws IOException {
+        try (SnapshotWriter out = new SnapshotWriter(filename, taken.accountHighWaterMark, taken.postHighWaterMark, taken.accountCount, taken.postCount)) {
+            int[] ids = imageIds(accounts, taken.accounts);
+            for (int id : ids) {
+                Account account;
+                int[] stripes = accountLocks.stripesOf(id);
+                accountLocks.lock(stripes, false);
+                try {
+                    account = taken.accounts.get(id);
+                    if (account == null && accounts.containsKey(id)) {
+                        Account live = accounts.get(id);
+                        account = SnapshotReader.toAccount(id, live.getHandle(), live.getDescription(), live.getPostCount(), live.getEndorseCount());
+                    }
+                } finally {
+                    accountLocks.unlock(stripes, false);
+                }
+                if (account != null && account != PointInTimeImage.ABSENT_ACCOUNT) {
+                    out.writeAccount(account);
+                }
+            }
+            ids = imageIds(posts, taken.posts);
+            for (int id : ids) {
+                Post post;
+                int[] stripes = postLocks.stripesOf(id);
+                postLocks.lock(stripes, false);
+                try {
+                    post = taken.posts.get(id);
+                    if (post == null && posts.containsKey(id)) {
+                        post = copyOf(posts.get(id));
+                    }
+                } finally {
+                    postLocks.unlock(stripes, false);
+                }
+                if (post != null && post != PointInTimeImage.ABSENT_POST) {
+                    out.writePost(post);
+                }
+            }
+        } finally {
+            image = null;
+        }
+    }
+
+    /**
+     * Returns the IDs to look at when writing an image: those in the platform, and those the
+     * image has copies of, which include anything removed since the image was taken.
+     * <p>
+     * The IDs in the platform are collected first. A copy is kept before its entry is removed,
+     * so an entry removed while they are being collected is still found among the copies,
+     * which are only looked at afterwards.
+     *
+     * @param live accounts or posts in the platform, by ID.
+     * @param copies copies of the accounts or posts kept in the image, by ID.
+     * @return the IDs, in ascending order without repeats.
+     */
+    private static int[] imageIds(Map<Integer, ?> live, Map<Integer, ?> copies) {
+        int[] liveIds = live.keySet().stream().mapToInt(Integer::intValue).toArray();
+        return IntStream.concat(Arrays.stream(liveIds), copies.keySet().stream().mapToInt(Integer::intValue))
+                .sorted().distinct().toArray();
+    }
+
+    /**
+     * Prepares for an account to be created, changed or removed. Its cached formatted text is
+     * dropped, and a copy of it is kept in the image being written (if any) when it is first
+     * changed or removed since the image was taken, or it is recorded as absent from the image
+     * if it is being created. The caller must hold the account's stripe for writing.
+     *
+     * @param id account ID.
+     */
+    private void beforeAccountChange(int id) {
+        accountRenders.invalidate(id);
+        PointInTimeImage current = image;
+        if (current != null) {
+            current.accounts.computeIfAbsent(id, key -> {
+                Account account = accounts.get(key);
+                return account == null ? PointInTimeImage.ABSENT_ACCOUNT : SnapshotReader.toAccount(key,
+                        account.getHandle(), account.getDescription(), account.getPostCount(), account.getEndorseCount());
+            });
+        }
+    }
+
+    /**
+     * Prepares for a post to be created, changed or removed. Its cached formatted text is
+     * dropped, and a copy of it is kept in the image being written (if any) when it is first
+     * changed or removed since the image was taken, or it is recorded as absent from the image
+     * if it is being created. The caller must hold the post's stripe for writing,
+     * or (for a post being created) its author's stripe.
+     *
+     * @param id post ID.
+     */
+    private void beforePostChange(int id) {
+        postRenders.invalidate(id);
+        PointInTimeImage current = image;
+        if (current != null) {
+            current.posts.computeIfAbsent(id, key -> {
+                Post post = posts.get(key);
+                return post == null ? PointInTimeImage.ABSENT_POST : copyOf(post);
+            });
+        }
+    }
+
+    /**
+     * Creates a copy of a post.
+     *
+     * @param post post to copy.
+     * @return new post with the same fields.
+     */
+    private static Post copyOf(Post post) {
+        return SnapshotReader.toPost(SnapshotWriter.typeOf(post), post.getPostId(), post.getAuthorId(),
+                SnapshotWriter.parentOf(post), post.getCommentCount(), post.getEndorseCount(), post.getMessage());
+    }
+
+    /**
+     * The PointInTimeImage class holds what is needed to write the platform as it was
+     * when a save started: the header values at that time, and copies of the accounts
+     * and posts changed since.
+     */
+    private static class PointInTimeImage {
+
+        /** Marks an account created since the image was taken. */
+        private static final Account ABSENT_ACCOUNT = new Account(-1, "");
+
+        /** Marks a post created since the image was taken. */
+        private static final Post ABSENT_POST = new OriginalPost(-1, -1, "");
+
+        /** Values of the header when the image was taken. */
+        private final int accountHighWaterMark, postHighWaterMark, accountCount, postCount;
+
+        /** Key-value pair hashmap of account IDs to the accounts as they were, for accounts changed since. */
+        private final Map<Integer,Account> accounts = new ConcurrentHashMap<>();
+
+        /** Key-value pair hashmap of post IDs to the posts as they were, for posts changed since. */
+        private final Map<Integer,Post> posts = new ConcurrentHashMap<>();
+
+        /**
+         * Constructor which creates an image with no changes yet.
+         *
+         * @param accountHighWaterMark next account ID to be handed out.
+         * @param postHighWaterMark next post ID to be handed out.
+         * @param accountCount number of accounts on the platform.
+         * @param postCount number of posts on the platform.
+         */
+        private PointInTimeImage(int accountHighWaterMark, int postHighWaterMark, int accountCount, int postCount) {
+            this.accountHighWaterMark = accountHighWaterMark;
+            this.postHighWaterMark = postHighWaterMark;
+            this.accountCount = accountCount;
+            this.postCount = postCount;
+        }
+    }
+
+    /**
+     * Acquires every account stripe and then every post stripe.
+     *
+     * @param exclusive true to acquire the write locks, false to acquire the read locks.
+     */
+    private void lockPlatform(boolean exclusive) {
+        accountLocks.lock(accountLocks.allStripes(), exclusive);
+        postLocks.lock(postLocks.allStripes(), exclusive);
+    }
+
+    /**
+     * Releases every stripe acquired by {@link ConcurrentSocialMedia#lockPlatform(boolean)}.
+     *
+     * @param exclusive true to release the write locks, false to release the read locks.
+     */
+    private void unlockPlatform(boolean exclusive) {
+        postLocks.unlock(postLocks.allStripes(), exclusive);
+        accountLocks.unlock(accountLocks.allStripes(), exclusive);
+    }
+}
@@ -1,79 +1,181 @@
 package socialmedia;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.Collection;
 
 /**
- * The DualKeyMap class is used to map two keys to one value
- * and is based off {@link HashMap} objects and methods.
- * There are several assumptions made for this generic class,
- * including that for every {@link Value} there is a given {@link FirstKey}
- * and {@link SecondKey}.
+ * The DualKeyMap class is used to map two keys to one value:
+ * a primitive int first key, and a second key of {@link SecondKey} type.
+ * Every value is always mapped by exactly one first key and one second key.
+ * <p>
+ * Each value is held in an entry which records both of its keys. Entries are
+ * indexed by first key in an {@link IntKeyMap} and by second key in a {@link HashMap},
+ * so {@link DualKeyMap#getByFirst(int)} and {@link DualKeyMap#getBySecond(Object)}
+ * each do a single lookup, and removing a value by either key removes both keys.
  *
+ * @param <SecondKey> the type of the second keys.
+ * @param <Value> the type of mapped values.
  * @author Adam George
- * @version 17-03-2023
+ * @version 18-10-2026
  */
-public class DualKeyMap<FirstKey, SecondKey, Value> implements Serializable {
+public class DualKeyMap<SecondKey, Value> implements Serializable {
+
+    /**
+     * A value together with both of the keys mapping to it.
+     *
+     * @param <SecondKey> the type of the second key.
+     * @param <Value> the type of the value.
+     */
+    private static final class Entry<SecondKey, Value> implements Serializable {
+
+        /** First key of the entry. */
+        private final int firstKey;
 
-    /** Key-value pair of {@link FirstKey} to {@link Value}. */
-    private final Map<FirstKey, Value> firstMap = new HashMap<>();
+        /** Second key of the entry. */
+        private SecondKey secondKey;
 
-    /** Key-value pair of {@link SecondKey} to {@link Value}. */
-    private final Map<SecondKey, Value> secondMap = new HashMap<>();
+        /** Value of the entry. */
+        private final Value value;
+
+        /**
+         * Constructor which creates an Entry.
+         *
+         * @param firstKey first key of the entry.
+         * @param secondKey second key of the entry.
+         * @param value value of the entry.
+         */
+        private Entry(int firstKey, SecondKey secondKey, Value value) {
+            this.firstKey = firstKey;
+            this.secondKey = secondKey;
+            this.value = value;
+        }
+    }
+
+    /** Entries keyed by first key. */
+    private final IntKeyMap<Entry<SecondKey, Value>> firstMap = new IntKeyMap<>();
+
+    /** Entries keyed by second key, rebuilt from {@link DualKeyMap#firstMap} when the map is loaded. */
+    private transient Map<SecondKey, Entry<SecondKey, Value>> secondMap = new HashMap<>();
 
     /**
      * Associates the specified value with the specified keys in this map.
-     * If the map previously contained a specific mapping for both of the keys,
-     * the old value is replaced by the specified value.
+     * Any values previously mapped by either key are removed, along with their other keys.
      *
      * @param firstKey first key with which the specified value is to be associated.
      * @param secondKey second key with which the specified value is to be associated.
      * @param value value to be associated with both keys.
      */
-    public void put(FirstKey firstKey, SecondKey secondKey, Value value) {
-        firstMap.put(firstKey,value);
-        secondMap.put(secondKey,value);
+    public void put(int firstKey, SecondKey secondKey, Value value) {
+        removeByFirst(firstKey);
+        removeBySecond(secondKey);
+        Entry<SecondKey, Value> entry = new Entry<>(firstKey, secondKey, value);
+        firstMap.put(firstKey, entry);
+        secondMap.put(secondKey, entry);
     }
 
     /**
-     * Returns the value to which the specified key is mapped,
+     * Returns the value to which the specified first key is mapped,
      * or null if this map contains no mapping for the key.
      *
-     * @param key the key of either {@link FirstKey} or {@link SecondKey} type.
+     * @param firstKey the first key.
      * @return the value associated with the key.
      */
-    public Value get(Object key) {
-        if (firstMap.containsKey(key)) {
-            return firstMap.get(key);
-        } else {
-            return secondMap.getOrDefault(key, null);
-        }
+    public Value getByFirst(int firstKey) {
+        Entry<SecondKey, Value> entry = firstMap.get(firstKey);
+        return entry == null ? null : entry.value;
     }
 
     /**
-     * Removes the mapping for a key from this map if it exists.
-     * @param key the key of either {@link FirstKey} or {@link SecondKey} type.
+     * Returns the value to which the specified second key is mapped,
+     * or null if this map contains no mapping for the key.
+     *
+     * @param secondKey the second key.
+     * @return the value associated with the key.
      */
-    public void remove(Object key) {
-        firstMap.remove(key);
-        secondMap.remove(key);
+    public Value getBySecond(SecondKey secondKey) {
+        Entry<SecondKey, Value> entry = secondMap.get(secondKey);
+        return entry == null ? null : entry.value;
     }
 
     /**
-     * Returns true if a mapping exists for the key specified.
+     * Returns true if a mapping exists for the first key specified.
      * Otherwise, returns false.
      *
-     * @param key the key of either {@link FirstKey} or {@link SecondKey} type.
+     * @param firstKey the first key.
      * @return true if a mapping exists for the specified key in this map.
      */
-    public boolean containsKey(Object key) {
-        return firstMap.containsKey(key) || secondMap.containsKey(key);
+    public boolean containsFirst(int firstKey) {
+        return firstMap.containsKey(firstKey);
+    }
+
+    /**
+     * Returns true if a mapping exists for the second key specified.
+     * Otherwise, returns false.
+     *
+     * @param secondKey the second key.
+     * @return true if a mapping exists for the specified key in this map.
+     */
+    public boolean containsSecond(SecondKey secondKey) {
+        return secondMap.containsKey(secondKey);
+    }
+
+    /**
+     * Removes the value mapped by a first key, along with its second key, if it exists.
+     *
+     * @param firstKey the first key.
+     * @return the removed value, or null if there was none.
+     */
+    public Value removeByFirst(int firstKey) {
+        Entry<SecondKey, Value> entry = firstMap.remove(firstKey);
+        if (entry == null) {
+            return null;
+        }
+        secondMap.remove(entry.secondKey);
+        return entry.value;
+    }
+
+    /**
+     * Removes the value mapped by a second key, along with its first key, if it exists.
+     *
+     * @param secondKey the second key.
+     * @return the removed value, or null if there was none.
+     */
+    public Value removeBySecond(SecondKey secondKey) {
+        Entry<SecondKey, Value> entry = secondMap.remove(secondKey);
+        if (entry == null) {
+            return null;
+        }
+        firstMap.remove(entry.firstKey);
+        return entry.value;
+    }
+
+    /**
+     * Replaces the second key of a value, keeping its first key.
+     * The map is left unchanged unless the old key is mapped and the new key is not,
+     * so the value is never left mapped by both second keys or by neither.
+     *
+     * @param oldSecondKey current second key of the value.
+     * @param newSecondKey new second key of the value.
+     * @return the value which was rekeyed, or null if the map was left unchanged.
+     */
+    public Value rekey(SecondKey oldSecondKey, SecondKey newSecondKey) {
+        Entry<SecondKey, Value> entry = secondMap.get(oldSecondKey);
+        if (entry == null || secondMap.putIfAbsent(newSecondKey, entry) != null) {
+            return null;
+        }
+        secondMap.remove(oldSecondKey);
+        entry.secondKey = newSecondKey;
+        return entry.value;
     }
 
     /**
-     * Returns the number of key-value pairs in this map.
+     * Returns the number of values in this map.
      * @return size of map.
      */
     public int size() {
@@ -82,10 +184,33 @@ public class DualKeyMap<FirstKey, SecondKey, Value> implements Serializable {
 
     /**
      * Returns the values in the map viewed as a {@link Collection}.
+     * The map must not be changed while the view is iterated.
+     *
      * @return all values in map.
      */
     public Collection<Value> values() {
-        return firstMap.values();
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Value> iterator() {
+                Iterator<Entry<SecondKey, Value>> entries = firstMap.values().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Value next() {
+                        return entries.next().value;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return firstMap.size();
+            }
+        };
     }
 
     /**
@@ -95,6 +220,19 @@ public class DualKeyMap<FirstKey, SecondKey, Value> implements Serializable {
         firstMap.clear();
         secondMap.clear();
     }
-}
-
 
+    /**
+     * Reads the entries of the map, and indexes them again by second key.
+     *
+     * @param in stream to read from.
+     * @throws IOException if an I/O error occurs.
+     * @throws ClassNotFoundException if the class of a key or value cannot be found.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        secondMap = new HashMap<>(firstMap.size() * 2);
+        for (Entry<SecondKey, Value> entry : firstMap.values()) {
+            secondMap.put(entry.secondKey, entry);
+        }
+    }
+}
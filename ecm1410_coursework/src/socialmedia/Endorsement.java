@@ -15,15 +15,16 @@ public class Endorsement extends Post{
 
     /**
      * Constructor which creates an Endorsement object.
-     * Assigns a sequentially incrementing post ID.
      *
-     * @param handle author's handle.
+     * @param postId post's ID, allocated by the platform's {@link IdAllocator}.
+     * @param authorId author's account ID.
      * @param postID parent post ID.
+     * @param message post's message.
      */
-    public Endorsement(String handle, int postID, String message){
+    public Endorsement(int postId, int authorId, int postID, String message){
         parentId = postID;
-        this.postId = numberOfPosts++;
-        this.author = handle;
+        this.postId = postId;
+        this.authorId = authorId;
         this.message = message;
     }
 
@@ -0,0 +1,182 @@
+package socialmedia;
+
+import java.io.Serializable;
+import java.util.BitSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The EndorsementRanking class keeps a set of IDs (of posts or accounts)
+ * ordered by their endorsement count, so that the most endorsed IDs can be
+ * read without scanning every post or account.
+ * <p>
+ * IDs are ranked by highest endorsement count first, and IDs with the same count
+ * are ranked by lowest ID first. Only IDs with at least one endorsement are grouped
+ * into buckets by count; the rest, usually most of them, are only marked in a bit set,
+ * so they cost about one bit each. The first ranked ID is cached, so
+ * {@link EndorsementRanking#first()} is constant time, while every update of an
+ * endorsed ID costs a logarithmic number of bucket operations.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public class EndorsementRanking implements Serializable {
+
+    /** IDs in the ranking, whatever their endorsement count. */
+    private final BitSet ids = new BitSet();
+
+    /** The number of IDs in the ranking. */
+    private int size = 0;
+
+    /** The lowest ID in the ranking, or -1 if the ranking is empty. */
+    private int lowest = -1;
+
+    /** Key-value pair map of the IDs with at least one endorsement to their endorsement count. */
+    private final IntKeyMap<Integer> counts = new IntKeyMap<>();
+
+    /** Endorsement counts above zero mapped to the IDs which have that count, in ascending order. */
+    private final TreeMap<Integer,TreeSet<Integer>> buckets = new TreeMap<>();
+
+    /** The first ranked ID, or -1 if the ranking is empty. */
+    private int first = -1;
+
+    /**
+     * Adds an ID to the ranking with the given endorsement count.
+     * If the ID is already ranked, its count is updated instead.
+     *
+     * @param id post or account ID, which must not be negative.
+     * @param count endorsement count of the ID, which must not be negative.
+     */
+    public void add(int id, int count) {
+        if (!ids.get(id)) {
+            ids.set(id);
+            size++;
+            if (lowest == -1 || id < lowest) {
+                lowest = id;
+            }
+        }
+        Integer previous = counts.remove(id);
+        if (previous != null) {
+            removeFromBucket(id, previous);
+        }
+        if (count > 0) {
+            counts.put(id, count);
+            buckets.computeIfAbsent(count, k -> new TreeSet<>()).add(id);
+        }
+        updateFirst();
+    }
+
+    /**
+     * Changes the endorsement count of a ranked ID.
+     * Has no effect if the ID is not in the ranking.
+     *
+     * @param id post or account ID.
+     * @param count new endorsement count of the ID, which must not be negative.
+     */
+    public void update(int id, int count) {
+        if (id >= 0 && ids.get(id)) {
+            add(id, count);
+        }
+    }
+
+    /**
+     * Removes an ID from the ranking if it exists.
+     *
+     * @param id post or account ID.
+     */
+    public void remove(int id) {
+        if (id < 0 || !ids.get(id)) {
+            return;
+        }
+        ids.clear(id);
+        size--;
+        if (id == lowest) {
+            // Every ID below the removed one was already absent, so only look above it
+            lowest = ids.nextSetBit(id + 1);
+        }
+        Integer previous = counts.remove(id);
+        if (previous != null) {
+            removeFromBucket(id, previous);
+        }
+        updateFirst();
+    }
+
+    /**
+     * Returns the ID with the highest endorsement count.
+     *
+     * @return the first ranked ID, or -1 if the ranking is empty.
+     */
+    public int first() {
+        return first;
+    }
+
+    /**
+     * Returns up to k IDs in ranked order (highest endorsement count first,
+     * then lowest ID first).
+     *
+     * @param k maximum number of IDs to return.
+     * @return the top k ranked IDs.
+     */
+    public int[] top(int k) {
+        int[] top = new int[Math.max(0, Math.min(k, size))];
+        int i = 0;
+        for (TreeSet<Integer> bucket : buckets.descendingMap().values()) {
+            for (Integer id : bucket) {
+                if (i == top.length) {
+                    return top;
+                }
+                top[i++] = id;
+            }
+        }
+        // The rest have no endorsements, so are ranked by ID alone
+        for (int id = lowest; id >= 0 && i < top.length; id = ids.nextSetBit(id + 1)) {
+            if (!counts.containsKey(id)) {
+                top[i++] = id;
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Returns the number of IDs in the ranking.
+     * @return size of ranking.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all IDs from the ranking.
+     */
+    public void clear() {
+        ids.clear();
+        size = 0;
+        lowest = -1;
+        counts.clear();
+        buckets.clear();
+        first = -1;
+    }
+
+    /**
+     * Removes an ID from the bucket of the given count, dropping the bucket once it is empty.
+     *
+     * @param id post or account ID.
+     * @param count endorsement count the ID was bucketed under.
+     */
+    private void removeFromBucket(int id, int count) {
+        TreeSet<Integer> bucket = buckets.get(count);
+        bucket.remove(id);
+        if (bucket.isEmpty()) {
+            buckets.remove(count);
+        }
+    }
+
+    /**
+     * Recalculates {@link EndorsementRanking#first} from the highest count bucket,
+     * or as the lowest ID if no ID has any endorsements.
+     */
+    private void updateFirst() {
+        first = buckets.isEmpty() ? lowest : buckets.lastEntry().getValue().first();
+    }
+}
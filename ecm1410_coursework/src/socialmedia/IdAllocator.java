@@ -0,0 +1,58 @@
+package socialmedia;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The IdAllocator class hands out sequential numerical IDs for the accounts
+ * or posts of a single platform.
+ * <p>
+ * IDs are taken from an atomic counter, so threads can allocate IDs
+ * concurrently without locking. The high-water mark (the next ID to be
+ * handed out) is saved along with the platform, so IDs are never reused
+ * after a platform is saved and loaded again.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public class IdAllocator implements Serializable {
+
+    /** The next ID to be handed out. */
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Hands out the next unused ID.
+     * @return a new ID.
+     */
+    public int allocate() {
+        return next.getAndIncrement();
+    }
+
+    /**
+     * Returns the high-water mark of this allocator, which is the next ID to be handed out.
+     * Every ID handed out so far is lower than the high-water mark.
+     *
+     * @return the next ID to be handed out.
+     */
+    public int highWaterMark() {
+        return next.get();
+    }
+
+    /**
+     * Moves the high-water mark forward so that it is at least the given value.
+     * Used when restoring a platform, so that IDs already in use are not handed out again.
+     *
+     * @param highWaterMark lowest value the next ID to be handed out may take.
+     */
+    public void advanceTo(int highWaterMark) {
+        next.accumulateAndGet(highWaterMark, Math::max);
+    }
+
+    /**
+     * Resets the allocator so that the next ID handed out is 0.
+     */
+    public void reset() {
+        next.set(0);
+    }
+}
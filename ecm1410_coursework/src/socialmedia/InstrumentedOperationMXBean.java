@@ -0,0 +1,76 @@
+package socialmedia;
+
+import java.util.Map;
+
+/**
+ * The InstrumentedOperationMXBean interface is the management interface through which JMX
+ * clients see the calls made to one method of an {@link InstrumentedSocialMediaPlatform}, as
+ * registered by {@link InstrumentedSocialMediaPlatform#registerMBeans(String)}. Every attribute
+ * is read from the live counts, so each read may include calls the last one did not.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public interface InstrumentedOperationMXBean {
+
+    /**
+     * Returns the name of the method.
+     * @return name, such as {@code deletePost}.
+     */
+    String getName();
+
+    /**
+     * Returns the number of calls made, whether they returned or threw an exception.
+     * @return number of calls.
+     */
+    long getCallCount();
+
+    /**
+     * Returns the number of calls which threw an exception.
+     * @return number of exceptions.
+     */
+    long getExceptionCount();
+
+    /**
+     * Returns the number of calls which threw each type of exception.
+     * @return map from the simple name of each exception class to its count.
+     */
+    Map<String, Long> getExceptionCounts();
+
+    /**
+     * Returns the mean time taken by a call.
+     * @return mean in nanoseconds.
+     */
+    double getMeanNanos();
+
+    /**
+     * Returns the median time taken by a call.
+     * @return 50th percentile in nanoseconds.
+     */
+    long getP50Nanos();
+
+    /**
+     * Returns the 90th percentile of the time taken by a call.
+     * @return 90th percentile in nanoseconds.
+     */
+    long getP90Nanos();
+
+    /**
+     * Returns the 99th percentile of the time taken by a call.
+     * @return 99th percentile in nanoseconds.
+     */
+    long getP99Nanos();
+
+    /**
+     * Returns the 99.9th percentile of the time taken by a call.
+     * @return 99.9th percentile in nanoseconds.
+     */
+    long getP999Nanos();
+
+    /**
+     * Returns the longest time taken by a call.
+     * @return maximum in nanoseconds.
+     */
+    long getMaxNanos();
+}
@@ -0,0 +1,46 @@
+package socialmedia;
+
+import java.util.List;
+
+/**
+ * The InstrumentedPlatformMXBean interface is the management interface through which JMX
+ * clients see and configure the slow-operation log of an {@link InstrumentedSocialMediaPlatform},
+ * as registered by {@link InstrumentedSocialMediaPlatform#registerMBeans(String)}.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public interface InstrumentedPlatformMXBean {
+
+    /**
+     * Returns the time a call must take to be logged as slow.
+     * @return threshold in nanoseconds.
+     */
+    long getSlowThresholdNanos();
+
+    /**
+     * Sets the time a call must take to be logged as slow.
+     *
+     * @param nanos threshold in nanoseconds ({@link Long#MAX_VALUE} logs nothing).
+     * @throws IllegalArgumentException if nanos is negative.
+     */
+    void setSlowThresholdNanos(long nanos);
+
+    /**
+     * Returns the number of calls logged as slow, including those no longer kept in the log.
+     * @return number of slow calls.
+     */
+    long getSlowOperationCount();
+
+    /**
+     * Returns the most recent slow calls, oldest first.
+     * @return descriptions of the slow calls.
+     */
+    List<String> getSlowOperations();
+
+    /**
+     * Clears the counts and latencies of every method, and the slow-operation log.
+     */
+    void resetStatistics();
+}
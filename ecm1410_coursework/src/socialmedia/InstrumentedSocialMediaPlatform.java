@@ -0,0 +1,806 @@
+package socialmedia;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * InstrumentedSocialMediaPlatform is an implementor of the SocialMediaPlatform interface which
+ * passes every call on to another platform, and measures it. For each method it counts the
+ * calls, counts the exceptions thrown by type, and keeps a {@link LatencyHistogram} of how long
+ * the calls took, all without locking, so any number of threads can be measured at once at the
+ * cost of a few atomic additions per call. Overloads of a method are counted together.
+ * <p>
+ * The measurements can be read by {@link InstrumentedSocialMediaPlatform#getOperationStatistics()},
+ * which takes a snapshot of every method, or through JMX once
+ * {@link InstrumentedSocialMediaPlatform#registerMBeans(String)} has been called.
+ * <p>
+ * Any call which takes at least the slow threshold is also written to a slow-operation log,
+ * with the time it started, its arguments and its outcome. The log keeps the most recent
+ * {@value InstrumentedSocialMediaPlatform#SLOW_LOG_CAPACITY} slow calls. Calls are as
+ * thread-safe as the wrapped platform.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public class InstrumentedSocialMediaPlatform implements BatchSocialMediaPlatform, InstrumentedPlatformMXBean {
+
+    /**
+     * The Metrics class holds the live counts and latencies of one method.
+     */
+    private static final class Metrics implements InstrumentedOperationMXBean {
+
+        /** Name of the method. */
+        private final String name;
+
+        /** Time each call took. */
+        private final LatencyHistogram latencies = new LatencyHistogram();
+
+        /** Number of calls which threw an exception. */
+        private final LongAdder exceptions = new LongAdder();
+
+        /** Number of calls which threw each type of exception. */
+        private final ConcurrentHashMap<Class<?>, LongAdder> exceptionTypes = new ConcurrentHashMap<>();
+
+        /**
+         * Constructor which creates the metrics of a method, with no calls.
+         *
+         * @param name name of the method.
+         */
+        private Metrics(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Records a call.
+         *
+         * @param nanos time the call took.
+         * @param thrown exception the call threw, or null if it returned.
+         */
+        private void record(long nanos, Throwable thrown) {
+            latencies.record(nanos);
+            if (thrown != null) {
+                exceptions.increment();
+                LongAdder count = exceptionTypes.get(thrown.getClass());
+                if (count == null) {
+                    count = exceptionTypes.computeIfAbsent(thrown.getClass(), type -> new LongAdder());
+                }
+                count.increment();
+            }
+        }
+
+        /**
+         * Returns a snapshot of the metrics.
+         * @return the statistics.
+         */
+        private OperationStatistics statistics() {
+            return new OperationStatistics(name, exceptions.sum(), getExceptionCounts(), latencies.copy());
+        }
+
+        /**
+         * Clears the counts and latencies.
+         */
+        private void reset() {
+            latencies.reset();
+            exceptions.reset();
+            exceptionTypes.clear();
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getCallCount() {
+            return latencies.getCount();
+        }
+
+        @Override
+        public long getExceptionCount() {
+            return exceptions.sum();
+        }
+
+        @Override
+        public Map<String, Long> getExceptionCounts() {
+            Map<String, Long> counts = new TreeMap<>();
+            exceptionTypes.forEach((type, count) -> counts.merge(type.getSimpleName(), count.sum(), Long::sum));
+            return counts;
+        }
+
+        @Override
+        public double getMeanNanos() {
+            return latencies.getMean();
+        }
+
+        @Override
+        public long getP50Nanos() {
+            return latencies.getPercentile(50);
+        }
+
+        @Override
+        public long getP90Nanos() {
+            return latencies.getPercentile(90);
+        }
+
+        @Override
+        public long getP99Nanos() {
+            return latencies.getPercentile(99);
+        }
+
+        @Override
+        public long getP999Nanos() {
+            return latencies.getPercentile(99.9);
+        }
+
+        @Override
+        public long getMaxNanos() {
+            return latencies.getMax();
+        }
+    }
+
+    /** Slow threshold used unless another is given, in nanoseconds (10 milliseconds). */
+    public static final long DEFAULT_SLOW_THRESHOLD_NANOS = 10_000_000;
+
+    /** Most slow calls kept in the slow-operation log. */
+    public static final int SLOW_LOG_CAPACITY = 256;
+
+    /** Domain of the names the MBeans are registered under. */
+    private static final String DOMAIN = "socialmedia";
+
+    /** The platform whose calls are measured. */
+    private final SocialMediaPlatform platform;
+
+    /** Metrics of every method, by name, in the order the interface declares them. */
+    private final Map<String, Metrics> operations = new LinkedHashMap<>();
+
+    /** Metrics of createAccount. */
+    private final Metrics createAccount = operation("createAccount");
+
+    /** Metrics of removeAccount. */
+    private final Metrics removeAccount = operation("removeAccount");
+
+    /** Metrics of changeAccountHandle. */
+    private final Metrics changeAccountHandle = operation("changeAccountHandle");
+
+    /** Metrics of updateAccountDescription. */
+    private final Metrics updateAccountDescription = operation("updateAccountDescription");
+
+    /** Metrics of showAccount. */
+    private final Metrics showAccount = operation("showAccount");
+
+    /** Metrics of createPost. */
+    private final Metrics createPost = operation("createPost");
+
+    /** Metrics of endorsePost. */
+    private final Metrics endorsePost = operation("endorsePost");
+
+    /** Metrics of commentPost. */
+    private final Metrics commentPost = operation("commentPost");
+
+    /** Metrics of deletePost. */
+    private final Metrics deletePost = operation("deletePost");
+
+    /** Metrics of showIndividualPost. */
+    private final Metrics showIndividualPost = operation("showIndividualPost");
+
+    /** Metrics of showPostChildrenDetails. */
+    private final Metrics showPostChildrenDetails = operation("showPostChildrenDetails");
+
+    /** Metrics of getNumberOfAccounts. */
+    private final Metrics getNumberOfAccounts = operation("getNumberOfAccounts");
+
+    /** Metrics of getTotalOriginalPosts. */
+    private final Metrics getTotalOriginalPosts = operation("getTotalOriginalPosts");
+
+    /** Metrics of getTotalEndorsmentPosts. */
+    private final Metrics getTotalEndorsmentPosts = operation("getTotalEndorsmentPosts");
+
+    /** Metrics of getTotalCommentPosts. */
+    private final Metrics getTotalCommentPosts = operation("getTotalCommentPosts");
+
+    /** Metrics of getMostEndorsedPost. */
+    private final Metrics getMostEndorsedPost = operation("getMostEndorsedPost");
+
+    /** Metrics of getMostEndorsedAccount. */
+    private final Metrics getMostEndorsedAccount = operation("getMostEndorsedAccount");
+
+    /** Metrics of erasePlatform. */
+    private final Metrics erasePlatform = operation("erasePlatform");
+
+    /** Metrics of savePlatform. */
+    private final Metrics savePlatform = operation("savePlatform");
+
+    /** Metrics of loadPlatform. */
+    private final Metrics loadPlatform = operation("loadPlatform");
+
+    /** Metrics of createPosts. */
+    private final Metrics createPosts = operation("createPosts");
+
+    /** Metrics of endorsePosts. */
+    private final Metrics endorsePosts = operation("endorsePosts");
+
+    /** Metrics of commentPosts. */
+    private final Metrics commentPosts = operation("commentPosts");
+
+    /** Time a call must take to be logged as slow, in nanoseconds. */
+    private volatile long slowThresholdNanos;
+
+    /** Descriptions of the most recent slow calls, oldest first. */
+    private final ArrayDeque<String> slowLog = new ArrayDeque<>();
+
+    /** Number of calls logged as slow, including those no longer kept. */
+    private final LongAdder slowCount = new LongAdder();
+
+    /** Names the MBeans are registered under, or empty if they are not registered. */
+    private final List<ObjectName> registered = new ArrayList<>();
+
+    /**
+     * Constructor which starts measuring the calls to a platform, logging calls which take
+     * at least {@link InstrumentedSocialMediaPlatform#DEFAULT_SLOW_THRESHOLD_NANOS} as slow.
+     *
+     * @param platform platform whose calls are measured.
+     */
+    public InstrumentedSocialMediaPlatform(SocialMediaPlatform platform) {
+        this(platform, DEFAULT_SLOW_THRESHOLD_NANOS);
+    }
+
+    /**
+     * Constructor which starts measuring the calls to a platform.
+     *
+     * @param platform platform whose calls are measured.
+     * @param slowThresholdNanos time a call must take to be logged as slow, in nanoseconds
+     *                           ({@link Long#MAX_VALUE} logs nothing).
+     * @throws IllegalArgumentException if slowThresholdNanos is negative.
+     */
+    public InstrumentedSocialMediaPlatform(SocialMediaPlatform platform, long slowThresholdNanos) {
+        this.platform = platform;
+        setSlowThresholdNanos(slowThresholdNanos);
+    }
+
+    /**
+     * Creates the metrics of a method.
+     *
+     * @param name name of the method.
+     * @return the metrics.
+     */
+    private Metrics operation(String name) {
+        Metrics metrics = new Metrics(name);
+        operations.put(name, metrics);
+        return metrics;
+    }
+
+    /**
+     * Returns a snapshot of the counts and latencies of every method, including those never called.
+     * @return unmodifiable map from method name to statistics, in the order the interface declares them.
+     */
+    public Map<String, OperationStatistics> getOperationStatistics() {
+        Map<String, OperationStatistics> statistics = new LinkedHashMap<>();
+        for (Metrics metrics : operations.values()) {
+            statistics.put(metrics.name, metrics.statistics());
+        }
+        return Collections.unmodifiableMap(statistics);
+    }
+
+    /**
+     * Returns a snapshot of the counts and latencies of one method.
+     *
+     * @param name name of the method, such as {@code deletePost}.
+     * @return the statistics.
+     * @throws IllegalArgumentException if the platform has no method with the name.
+     */
+    public OperationStatistics getOperationStatistics(String name) {
+        Metrics metrics = operations.get(name);
+        if (metrics == null) {
+            throw new IllegalArgumentException("No platform operation named " + name + ".");
+        }
+        return metrics.statistics();
+    }
+
+    @Override
+    public void resetStatistics() {
+        for (Metrics metrics : operations.values()) {
+            metrics.reset();
+        }
+        synchronized (slowLog) {
+            slowLog.clear();
+            slowCount.reset();
+        }
+    }
+
+    @Override
+    public long getSlowThresholdNanos() {
+        return slowThresholdNanos;
+    }
+
+    @Override
+    public void setSlowThresholdNanos(long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException("Slow threshold must not be negative.");
+        }
+        slowThresholdNanos = nanos;
+    }
+
+    @Override
+    public long getSlowOperationCount() {
+        return slowCount.sum();
+    }
+
+    @Override
+    public List<String> getSlowOperations() {
+        synchronized (slowLog) {
+            return new ArrayList<>(slowLog);
+        }
+    }
+
+    /**
+     * Registers the platform's MBeans with the platform MBean server: one named
+     * {@code socialmedia:type=InstrumentedSocialMediaPlatform,name=<name>} for the slow-operation
+     * log, and one for each method, named the same with {@code ,operation=<method>} added.
+     *
+     * @param name name telling this platform apart from others registered.
+     * @throws IllegalStateException if the MBeans are already registered.
+     * @throws JMException if an MBean cannot be registered, such as when the name is already in use.
+     */
+    public synchronized void registerMBeans(String name) throws JMException {
+        if (!registered.isEmpty()) {
+            throw new IllegalStateException("MBeans are already registered.");
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        String prefix = DOMAIN + ":type=InstrumentedSocialMediaPlatform,name=" + ObjectName.quote(name);
+        try {
+            ObjectName platformName = new ObjectName(prefix);
+            server.registerMBean(new StandardMBean(this, InstrumentedPlatformMXBean.class, true), platformName);
+            registered.add(platformName);
+            for (Metrics metrics : operations.values()) {
+                ObjectName operationName = new ObjectName(prefix + ",operation=" + metrics.name);
+                server.registerMBean(new StandardMBean(metrics, InstrumentedOperationMXBean.class, true), operationName);
+                registered.add(operationName);
+            }
+        } catch (JMException e) {
+            unregisterMBeans();
+            throw e;
+        }
+    }
+
+    /**
+     * Unregisters the platform's MBeans, if they are registered.
+     *
+     * @throws JMException if an MBean cannot be unregistered.
+     */
+    public synchronized void unregisterMBeans() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        while (!registered.isEmpty()) {
+            ObjectName name = registered.remove(registered.size() - 1);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        }
+    }
+
+    /**
+     * Records a call which has finished, and logs it if it was slow.
+     *
+     * @param metrics metrics of the method called.
+     * @param start value of {@link System#nanoTime()} when the call started.
+     * @param thrown exception the call threw, or null if it returned.
+     * @param arguments arguments of the call.
+     */
+    private void finish(Metrics metrics, long start, Throwable thrown, Object... arguments) {
+        long nanos = System.nanoTime() - start;
+        metrics.record(nanos, thrown);
+        if (nanos >= slowThresholdNanos) {
+            logSlow(metrics.name, nanos, thrown, arguments);
+        }
+    }
+
+    /**
+     * Adds a slow call to the slow-operation log, dropping the oldest if the log is full.
+     *
+     * @param name name of the method called.
+     * @param nanos time the call took.
+     * @param thrown exception the call threw, or null if it returned.
+     * @param arguments arguments of the call.
+     */
+    private void logSlow(String name, long nanos, Throwable thrown, Object[] arguments) {
+        Instant started = Instant.ofEpochMilli(System.currentTimeMillis() - nanos / 1_000_000);
+        String entry = String.format("%s %s took %.3f ms and %s", started, TraceFile.describeCall(name, arguments),
+                nanos / 1e6, thrown == null ? "returned" : TraceFile.describeThrown(thrown));
+        synchronized (slowLog) {
+            if (slowLog.size() == SLOW_LOG_CAPACITY) {
+                slowLog.removeFirst();
+            }
+            slowLog.addLast(entry);
+            slowCount.increment();
+        }
+    }
+
+    @Override
+    public int createAccount(String handle) throws IllegalHandleException, InvalidHandleException {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return platform.createAccount(handle);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(createAccount, start, thrown, handle);
+        }
+    }
+
+    @Override
+    public int createAccount(String handle, String description) throws IllegalHandleException, InvalidHandleException {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return platform.createAccount(handle, description);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(createAccount, start, thrown, handle, description);
+        }
+    }
+
+    @Override
+    public void removeAccount(int id) throws AccountIDNotRecognisedException {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            platform.removeAccount(id);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(removeAccount, start, thrown, id);
+        }
+    }
+
+    @Override
+    public void removeAccount(String handle) throws HandleNotRecognisedException {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            platform.removeAccount(handle);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(removeAccount, start, thrown, handle);
+        }
+    }
+
+    @Override
+    public void changeAccountHandle(String oldHandle, String newHandle)
+            throws HandleNotRecognisedException, IllegalHandleException, InvalidHandleException {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            platform.changeAccountHandle(oldHandle, newHandle);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(changeAccountHandle, start, thrown, oldHandle, newHandle);
+        }
+    }
+
+    @Override
+    public void updateAccountDescription(String handle, String description) throws HandleNotRecognisedException {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            platform.updateAccountDescription(handle, description);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(updateAccountDescription, start, thrown, handle, description);
+        }
+    }
+
+    @Override
+    public String showAccount(String handle) throws HandleNotRecognisedException {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return platform.showAccount(handle);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(showAccount, start, thrown, handle);
+        }
+    }
+
+    @Override
+    public int createPost(String handle, String message) throws HandleNotRecognisedException, InvalidPostException {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return platform.createPost(handle, message);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(createPost, start, thrown, handle, message);
+        }
+    }
+
+    @Override
+    public int endorsePost(String handle, int id)
+            throws HandleNotRecognisedException, PostIDNotRecognisedException, NotActionablePostException {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return platform.endorsePost(handle, id);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(endorsePost, start, thrown, handle, id);
+        }
+    }
+
+    @Override
+    public int commentPost(String handle, int id, String message) throws HandleNotRecognisedException,
+            PostIDNotRecognisedException, NotActionablePostException, InvalidPostException {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return platform.commentPost(handle, id, message);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(commentPost, start, thrown, handle, id, message);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The batch is counted as a single call, which returns even if some of its items fail.
+     */
+    @Override
+    public BatchResult createPosts(String[] handles, String[] messages) {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return platform instanceof BatchSocialMediaPlatform
+                    ? ((BatchSocialMediaPlatform) platform).createPosts(handles, messages)
+                    : BatchResult.createEach(platform, handles, messages);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(createPosts, start, thrown, handles, messages);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The batch is counted as a single call, which returns even if some of its items fail.
+     */
+    @Override
+    public BatchResult endorsePosts(String[] handles, int[] ids) {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return platform instanceof BatchSocialMediaPlatform
+                    ? ((BatchSocialMediaPlatform) platform).endorsePosts(handles, ids)
+                    : BatchResult.endorseEach(platform, handles, ids);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(endorsePosts, start, thrown, handles, ids);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The batch is counted as a single call, which returns even if some of its items fail.
+     */
+    @Override
+    public BatchResult commentPosts(String[] handles, int[] ids, String[] messages) {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return platform instanceof BatchSocialMediaPlatform
+                    ? ((BatchSocialMediaPlatform) platform).commentPosts(handles, ids, messages)
+                    : BatchResult.commentEach(platform, handles, ids, messages);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(commentPosts, start, thrown, handles, ids, messages);
+        }
+    }
+
+    @Override
+    public void deletePost(int id) throws PostIDNotRecognisedException {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            platform.deletePost(id);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(deletePost, start, thrown, id);
+        }
+    }
+
+    @Override
+    public String showIndividualPost(int id) throws PostIDNotRecognisedException {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return platform.showIndividualPost(id);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(showIndividualPost, start, thrown, id);
+        }
+    }
+
+    @Override
+    public StringBuilder showPostChildrenDetails(int id)
+            throws PostIDNotRecognisedException, NotActionablePostException {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return platform.showPostChildrenDetails(id);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(showPostChildrenDetails, start, thrown, id);
+        }
+    }
+
+    @Override
+    public int getNumberOfAccounts() {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return platform.getNumberOfAccounts();
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(getNumberOfAccounts, start, thrown);
+        }
+    }
+
+    @Override
+    public int getTotalOriginalPosts() {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return platform.getTotalOriginalPosts();
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(getTotalOriginalPosts, start, thrown);
+        }
+    }
+
+    @Override
+    public int getTotalEndorsmentPosts() {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return platform.getTotalEndorsmentPosts();
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(getTotalEndorsmentPosts, start, thrown);
+        }
+    }
+
+    @Override
+    public int getTotalCommentPosts() {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return platform.getTotalCommentPosts();
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(getTotalCommentPosts, start, thrown);
+        }
+    }
+
+    @Override
+    public int getMostEndorsedPost() {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return platform.getMostEndorsedPost();
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(getMostEndorsedPost, start, thrown);
+        }
+    }
+
+    @Override
+    public int getMostEndorsedAccount() {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            return platform.getMostEndorsedAccount();
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(getMostEndorsedAccount, start, thrown);
+        }
+    }
+
+    @Override
+    public void erasePlatform() {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            platform.erasePlatform();
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(erasePlatform, start, thrown);
+        }
+    }
+
+    @Override
+    public void savePlatform(String filename) throws IOException {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            platform.savePlatform(filename);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(savePlatform, start, thrown, filename);
+        }
+    }
+
+    @Override
+    public void loadPlatform(String filename) throws IOException, ClassNotFoundException {
+        long start = System.nanoTime();
+        Throwable thrown = null;
+        try {
+            platform.loadPlatform(filename);
+        } catch (Throwable e) {
+            thrown = e;
+            throw e;
+        } finally {
+            finish(loadPlatform, start, thrown, filename);
+        }
+    }
+}
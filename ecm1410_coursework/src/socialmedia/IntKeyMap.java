@@ -0,0 +1,361 @@
+package socialmedia;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The IntKeyMap class maps primitive int keys to values, and is used in
+ * place of a {@link java.util.HashMap} with {@link Integer} keys.
+ * <p>
+ * Keys and values are stored in two parallel arrays using open addressing
+ * with linear probing, so there are no boxed keys or per-entry node objects,
+ * and {@link IntKeyMap#get(int)} and {@link IntKeyMap#containsKey(int)}
+ * do not allocate. Entries can also be iterated without allocating by slot,
+ * using {@link IntKeyMap#nextSlot(int)}, {@link IntKeyMap#keyAt(int)}
+ * and {@link IntKeyMap#valueAt(int)}.
+ * <p>
+ * Null values are not permitted, as an empty slot is marked by a null value.
+ *
+ * @param <V> the type of mapped values.
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public class IntKeyMap<V> implements Serializable {
+
+    /** Initial number of slots (must be a power of two). */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Keys of the map, where slot i holds a key only if values[i] is not null. */
+    private transient int[] keys;
+
+    /** Values of the map, where a null value marks an empty slot. */
+    private transient Object[] values;
+
+    /** The number of key-value pairs in the map. */
+    private transient int size;
+
+    /**
+     * Constructor which creates an empty IntKeyMap.
+     */
+    public IntKeyMap() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructor which creates an empty IntKeyMap, sized to hold
+     * the given number of key-value pairs without growing.
+     *
+     * @param expectedSize number of key-value pairs expected.
+     */
+    public IntKeyMap(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns the value to which the specified key is mapped,
+     * or null if this map contains no mapping for the key.
+     *
+     * @param key the key whose associated value is to be returned.
+     * @return the value associated with the key.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = slotOf(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if a mapping exists for the key specified.
+     * Otherwise, returns false.
+     *
+     * @param key the key whose presence in this map is to be tested.
+     * @return true if a mapping exists for the specified key in this map.
+     */
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Associates the specified value with the specified key in this map.
+     * If the map previously contained a mapping for the key, the old value is replaced.
+     *
+     * @param key key with which the specified value is to be associated.
+     * @param value value to be associated with the key (not null).
+     * @return the previous value associated with the key, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("IntKeyMap does not permit null values");
+        }
+        int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        for (; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > maxSize(keys.length)) {
+            resize(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the mapping for a key from this map if it exists.
+     * Entries after the removed slot are shifted back, so lookups
+     * never have to skip over deleted slots.
+     *
+     * @param key key whose mapping is to be removed from the map.
+     * @return the value associated with the key, or null if there was none.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        while (values[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (values[slot] == null) {
+            return null;
+        }
+        V removed = (V) values[slot];
+        int gap = slot;
+        for (int next = (gap + 1) & mask; values[next] != null; next = (next + 1) & mask) {
+            int home = slotOf(keys[next], mask);
+            // Move the entry back into the gap if its home slot is not between the gap and its slot
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        values[gap] = null;
+        size--;
+        return removed;
+    }
+
+    /**
+     * Returns the number of key-value pairs in this map.
+     * @return size of map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if this map contains no key-value pairs.
+     * @return true if the map is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all key-value pairs in the map.
+     */
+    public void clear() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Returns the first occupied slot at or after the given slot, to iterate
+     * over the map without allocating:
+     * <pre>
+     * for (int slot = map.nextSlot(0); slot != -1; slot = map.nextSlot(slot + 1)) {
+     *     use(map.keyAt(slot), map.valueAt(slot));
+     * }
+     * </pre>
+     * The map must not be changed while it is iterated.
+     *
+     * @param slot slot to start searching from.
+     * @return the next occupied slot, or -1 if there are no more entries.
+     */
+    public int nextSlot(int slot) {
+        for (; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the key held in an occupied slot.
+     *
+     * @param slot slot returned by {@link IntKeyMap#nextSlot(int)}.
+     * @return key in the slot.
+     */
+    public int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Returns the value held in an occupied slot.
+     *
+     * @param slot slot returned by {@link IntKeyMap#nextSlot(int)}.
+     * @return value in the slot.
+     */
+    @SuppressWarnings("unchecked")
+    public V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    /**
+     * Returns the values in the map viewed as a {@link Collection}.
+     * The map must not be changed while the view is iterated.
+     *
+     * @return all values in map.
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new Iterator<>() {
+                    private int slot = nextSlot(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return slot != -1;
+                    }
+
+                    @Override
+                    public V next() {
+                        if (slot == -1) {
+                            throw new NoSuchElementException();
+                        }
+                        V value = valueAt(slot);
+                        slot = nextSlot(slot + 1);
+                        return value;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Returns the home slot of a key. As in {@link java.util.HashMap}, the high bits
+     * are folded into the low bits but sequential keys keep sequential slots, so the
+     * mostly sequential IDs used by the platform fill the table without collisions
+     * and are laid out in memory in ID order.
+     *
+     * @param key key to hash.
+     * @param mask table capacity - 1.
+     * @return home slot of the key.
+     */
+    private static int slotOf(int key, int mask) {
+        return (key ^ (key >>> 16)) & mask;
+    }
+
+    /**
+     * Returns the number of entries a table of the given capacity holds before growing (75% full).
+     *
+     * @param capacity number of slots.
+     * @return maximum number of entries.
+     */
+    private static int maxSize(int capacity) {
+        return capacity - (capacity >>> 2);
+    }
+
+    /**
+     * Returns the smallest power of two capacity which holds the given number of entries.
+     *
+     * @param expectedSize number of entries.
+     * @return table capacity.
+     */
+    private static int capacityFor(int expectedSize) {
+        int capacity = INITIAL_CAPACITY;
+        while (maxSize(capacity) < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Replaces the table with an empty table of the given capacity.
+     *
+     * @param capacity number of slots (a power of two).
+     */
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        size = 0;
+    }
+
+    /**
+     * Moves every entry into a new table of the given capacity.
+     *
+     * @param capacity new number of slots (a power of two).
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = slotOf(oldKeys[i], mask);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Writes the entries of the map, without its empty slots.
+     *
+     * @param out stream to write to.
+     * @throws IOException if an I/O error occurs.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int slot = nextSlot(0); slot != -1; slot = nextSlot(slot + 1)) {
+            out.writeInt(keys[slot]);
+            out.writeObject(values[slot]);
+        }
+    }
+
+    /**
+     * Reads the entries written by {@link IntKeyMap#writeObject(ObjectOutputStream)}.
+     *
+     * @param in stream to read from.
+     * @throws IOException if an I/O error occurs.
+     * @throws ClassNotFoundException if the class of a value cannot be found.
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int entries = in.readInt();
+        allocate(capacityFor(entries));
+        for (int i = 0; i < entries; i++) {
+            int key = in.readInt();
+            put(key, (V) in.readObject());
+        }
+    }
+}
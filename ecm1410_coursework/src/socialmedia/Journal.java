@@ -0,0 +1,341 @@
+package socialmedia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * The Journal class is an append-only file of records, used by {@link JournaledSocialMedia}
+ * to record every change made to a platform since its last snapshot.
+ * <p>
+ * A journal file starts with a magic number ("SMPJ") and a version, followed by the records.
+ * Each record is its payload length (4 bytes), the CRC-32 of its payload (4 bytes) and then
+ * its payload. When a journal is opened, its records are read back in order until the end of
+ * the file, or until a record which was only partly written or fails its checksum (as left by
+ * a crash while it was being written), and the file is truncated after the last whole record.
+ * <p>
+ * Records are appended to a buffer in memory, and written to the file when they are committed.
+ * Several threads can commit at once: the first one writes every record appended so far (and
+ * forces them to the disk, if the journal is synchronised) while the others wait for it, so a
+ * single write and sync can commit the records of many threads (group commit).
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+final class Journal implements Closeable {
+
+    /**
+     * The Replayer interface receives the payload of each record read back when a journal is opened.
+     */
+    interface Replayer {
+
+        /**
+         * Receives the payload of a record.
+         *
+         * @param payload payload of the record.
+         * @throws IOException if the record cannot be replayed.
+         */
+        void replay(byte[] payload) throws IOException;
+    }
+
+    /** First four bytes of every journal file ("SMPJ"). */
+    static final int MAGIC = 0x534D504A;
+
+    /** Version of the journal format written by this class. */
+    static final short VERSION = 1;
+
+    /** Size in bytes of the header (magic number and version). */
+    private static final int HEADER_SIZE = 6;
+
+    /** Size in bytes of the length and checksum before each payload. */
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    /** Initial size in bytes of the buffers of records not yet written. */
+    private static final int BUFFER_SIZE = 1 << 12;
+
+    /** Channel of the journal file. */
+    private final FileChannel channel;
+
+    /** True if committed records are forced to the disk. */
+    private final boolean synchronous;
+
+    /** Records appended but not yet taken to be written. */
+    private ByteBuffer pending = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /** Buffer swapped with {@link Journal#pending} when records are written. */
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /** Checksum calculator used while appending. */
+    private final CRC32 crc = new CRC32();
+
+    /** Size in bytes of the records written to the file (including the header). */
+    private long size;
+
+    /** Size in bytes the file will have once every record appended has been written. */
+    private long length;
+
+    /** Sequence number of the last record appended. */
+    private long appended;
+
+    /** Sequence number of the last record committed. */
+    private long committed;
+
+    /** True while a thread is writing records to the file. */
+    private boolean committing;
+
+    /** The exception which stopped records being written, after which no more can be committed. */
+    private IOException failure;
+
+    /**
+     * Constructor which creates a Journal over an open file.
+     *
+     * @param channel channel of the journal file.
+     * @param size size in bytes of the whole records in the file.
+     * @param synchronous true if committed records are forced to the disk.
+     */
+    private Journal(FileChannel channel, long size, boolean synchronous) {
+        this.channel = channel;
+        this.size = size;
+        length = size;
+        this.synchronous = synchronous;
+    }
+
+    /**
+     * Opens a journal file, creating it if it does not exist, and replays every whole record in it.
+     * Anything after the last whole record is removed from the file.
+     *
+     * @param file location of the journal file.
+     * @param synchronous true if committed records are forced to the disk.
+     * @param replayer receiver of the records in the file.
+     * @return the opened journal, ready for records to be appended.
+     * @throws IOException if there is a problem reading the file or replaying a record,
+     *                     or the file is not a journal.
+     */
+    static Journal open(Path file, boolean synchronous, Replayer replayer) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                // A new file, or one whose header was never completely written
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION).flip();
+                channel.truncate(0);
+                writeFully(channel, header, 0);
+                channel.force(false);
+                return new Journal(channel, HEADER_SIZE, synchronous);
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC) {
+                throw new StreamCorruptedException("File is not a journal.");
+            } else if (header.getShort(4) != VERSION) {
+                throw new StreamCorruptedException("Unsupported journal version " + header.getShort(4) + ".");
+            }
+            long end = replay(channel, size, replayer);
+            if (end < size) {
+                channel.truncate(end);
+                channel.force(false);
+            }
+            return new Journal(channel, end, synchronous);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Replays the records of a journal file, after its header.
+     *
+     * @param channel channel of the journal file.
+     * @param size size in bytes of the file.
+     * @param replayer receiver of the records.
+     * @return the file offset just after the last whole record.
+     * @throws IOException if there is a problem reading the file or replaying a record.
+     */
+    private static long replay(FileChannel channel, long size, Replayer replayer) throws IOException {
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        CRC32 checksum = new CRC32();
+        long offset = HEADER_SIZE;
+        while (size - offset >= RECORD_HEADER_SIZE) {
+            recordHeader.clear();
+            readFully(channel, recordHeader, offset);
+            int length = recordHeader.getInt(0);
+            if (length < 0 || length > size - offset - RECORD_HEADER_SIZE) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            readFully(channel, ByteBuffer.wrap(payload), offset + RECORD_HEADER_SIZE);
+            checksum.reset();
+            checksum.update(payload);
+            if ((int) checksum.getValue() != recordHeader.getInt(4)) {
+                break;
+            }
+            replayer.replay(payload);
+            offset += RECORD_HEADER_SIZE + length;
+        }
+        return offset;
+    }
+
+    /**
+     * Appends a record to the journal. The record is not written to the file until it is committed.
+     *
+     * @param payload payload of the record.
+     * @return the sequence number of the record, to be passed to {@link Journal#commit(long)}.
+     */
+    synchronized long append(byte[] payload) {
+        if (pending.remaining() < RECORD_HEADER_SIZE + payload.length) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + RECORD_HEADER_SIZE + payload.length));
+            pending.flip();
+            pending = grown.put(pending);
+        }
+        crc.reset();
+        crc.update(payload);
+        pending.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+        length += RECORD_HEADER_SIZE + payload.length;
+        return ++appended;
+    }
+
+    /**
+     * Makes sure a record, and every record appended before it, has been written to the file
+     * (and forced to the disk, if the journal is synchronised), writing them if they have not.
+     *
+     * @param sequence sequence number of the record.
+     * @throws IOException if there is a problem writing the file, now or when an earlier commit failed.
+     */
+    void commit(long sequence) throws IOException {
+        ByteBuffer batch;
+        long last;
+        synchronized (this) {
+            while (committing && committed < sequence) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for a journal commit.");
+                }
+            }
+            if (committed >= sequence) {
+                return;
+            } else if (failure != null) {
+                throw new IOException("An earlier journal write failed.", failure);
+            }
+            // Take every record appended so far, so that they are all committed together
+            committing = true;
+            batch = pending;
+            pending = spare;
+            spare = null;
+            last = appended;
+        }
+        IOException thrown = null;
+        try {
+            batch.flip();
+            long end = writeFully(channel, batch, size);
+            if (synchronous) {
+                channel.force(false);
+            }
+            size = end;
+        } catch (IOException e) {
+            thrown = e;
+            throw e;
+        } finally {
+            synchronized (this) {
+                batch.clear();
+                spare = batch;
+                committing = false;
+                if (thrown == null) {
+                    committed = last;
+                } else {
+                    failure = thrown;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Makes sure every record appended so far has been written to the file.
+     *
+     * @throws IOException if there is a problem writing the file.
+     */
+    void commitAll() throws IOException {
+        long sequence;
+        synchronized (this) {
+            sequence = appended;
+        }
+        commit(sequence);
+    }
+
+    /**
+     * Returns the exception which stopped records being written to the file, if any.
+     *
+     * @return the exception, or null if every write so far has succeeded.
+     */
+    synchronized IOException failure() {
+        return failure;
+    }
+
+    /**
+     * Returns the size of the journal file, including records appended but not yet written.
+     *
+     * @return size in bytes.
+     */
+    synchronized long size() {
+        return length;
+    }
+
+    /**
+     * Commits every record appended so far, forces them to the disk, and closes the file.
+     *
+     * @throws IOException if there is a problem writing the file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            commitAll();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads bytes from a file at the given offset until a buffer is full.
+     *
+     * @param channel channel of the file.
+     * @param bytes buffer to fill.
+     * @param offset file offset to read from.
+     * @throws IOException if there is a problem reading the file, or it ends first.
+     */
+    private static void readFully(FileChannel channel, ByteBuffer bytes, long offset) throws IOException {
+        while (bytes.hasRemaining()) {
+            int read = channel.read(bytes, offset);
+            if (read == -1) {
+                throw new StreamCorruptedException("Journal file ends unexpectedly.");
+            }
+            offset += read;
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer to a file at the given offset.
+     *
+     * @param channel channel of the file.
+     * @param bytes bytes to write.
+     * @param offset file offset to write them at.
+     * @return the file offset just after the bytes written.
+     * @throws IOException if there is a problem writing the file.
+     */
+    private static long writeFully(FileChannel channel, ByteBuffer bytes, long offset) throws IOException {
+        while (bytes.hasRemaining()) {
+            offset += channel.write(bytes, offset);
+        }
+        return offset;
+    }
+}
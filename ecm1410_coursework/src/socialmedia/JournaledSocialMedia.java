@@ -0,0 +1,827 @@
+package socialmedia;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * JournaledSocialMedia is an implementor of the SocialMediaPlatform interface which
+ * makes every change to another platform durable, by recording it in a write-ahead
+ * {@link Journal} before the change is reported as done.
+ * <p>
+ * The platform is kept in a directory holding a snapshot (written by
+ * {@link SocialMediaPlatform#savePlatform(String)}) and a journal of every change made
+ * since that snapshot. When a JournaledSocialMedia is created, it recovers the platform
+ * by loading the snapshot and replaying the journal, so nothing reported as done is lost
+ * if the program stops without saving. {@link JournaledSocialMedia#compact()} writes a
+ * new snapshot and starts a new, empty journal, so that recovery stays quick.
+ * <p>
+ * Snapshots and journals are numbered by generation ({@code snapshot-3.smps} pairs with
+ * {@code journal-3.log}). A compaction only removes the files of the previous generation
+ * once the new snapshot and journal are safely written, so a crash part way through
+ * a compaction recovers from whichever generation is complete.
+ * <p>
+ * Changes are applied and journaled one at a time, in the order they are journaled,
+ * so that replaying the journal gives every account and post the same ID again.
+ * A batch of posts is journaled as a single record, holding the items which succeeded,
+ * so the whole batch is written and committed once.
+ * Requests which do not change the platform go straight to the wrapped platform, and
+ * are as thread-safe as it is. How often the journal is forced to the disk is set by
+ * its {@link FsyncPolicy}.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public class JournaledSocialMedia implements BatchSocialMediaPlatform, Closeable {
+
+    /**
+     * How often a journal is forced to the disk.
+     */
+    public enum FsyncPolicy {
+
+        /** Every change is forced to the disk on its own before it is reported as done. */
+        ALWAYS,
+
+        /**
+         * Every change is forced to the disk before it is reported as done, but changes
+         * made at the same time by several threads share a single write and sync.
+         */
+        GROUP,
+
+        /**
+         * Every change is written to the file before it is reported as done, but left to the
+         * operating system to put on the disk, so it survives the program stopping but not
+         * the machine stopping.
+         */
+        NEVER
+    }
+
+    /** Journal operation recording {@link SocialMediaPlatform#createAccount(String, String)}. */
+    private static final byte CREATE_ACCOUNT = 1;
+
+    /** Journal operation recording {@link SocialMediaPlatform#removeAccount(int)}. */
+    private static final byte REMOVE_ACCOUNT_BY_ID = 2;
+
+    /** Journal operation recording {@link SocialMediaPlatform#removeAccount(String)}. */
+    private static final byte REMOVE_ACCOUNT_BY_HANDLE = 3;
+
+    /** Journal operation recording {@link SocialMediaPlatform#changeAccountHandle(String, String)}. */
+    private static final byte CHANGE_ACCOUNT_HANDLE = 4;
+
+    /** Journal operation recording {@link SocialMediaPlatform#updateAccountDescription(String, String)}. */
+    private static final byte UPDATE_ACCOUNT_DESCRIPTION = 5;
+
+    /** Journal operation recording {@link SocialMediaPlatform#createPost(String, String)}. */
+    private static final byte CREATE_POST = 6;
+
+    /** Journal operation recording {@link SocialMediaPlatform#endorsePost(String, int)}. */
+    private static final byte ENDORSE_POST = 7;
+
+    /** Journal operation recording {@link SocialMediaPlatform#commentPost(String, int, String)}. */
+    private static final byte COMMENT_POST = 8;
+
+    /** Journal operation recording {@link SocialMediaPlatform#deletePost(int)}. */
+    private static final byte DELETE_POST = 9;
+
+    /** Journal operation recording {@link SocialMediaPlatform#erasePlatform()}. */
+    private static final byte ERASE_PLATFORM = 10;
+
+    /** Journal operation recording the items of {@link BatchSocialMediaPlatform#createPosts(String[], String[])} which succeeded. */
+    private static final byte CREATE_POSTS = 11;
+
+    /** Journal operation recording the items of {@link BatchSocialMediaPlatform#endorsePosts(String[], int[])} which succeeded. */
+    private static final byte ENDORSE_POSTS = 12;
+
+    /** Journal operation recording the items of {@link BatchSocialMediaPlatform#commentPosts(String[], int[], String[])} which succeeded. */
+    private static final byte COMMENT_POSTS = 13;
+
+    /** Start of the name of every snapshot file. */
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    /** End of the name of every snapshot file. */
+    private static final String SNAPSHOT_SUFFIX = ".smps";
+
+    /** Start of the name of every journal file. */
+    private static final String JOURNAL_PREFIX = "journal-";
+
+    /** End of the name of every journal file. */
+    private static final String JOURNAL_SUFFIX = ".log";
+
+    /** End of the name of a snapshot file which is still being written. */
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    /** The platform whose changes are journaled. */
+    private final SocialMediaPlatform platform;
+
+    /** Directory holding the snapshots and journals. */
+    private final Path directory;
+
+    /** How often the journal is forced to the disk. */
+    private final FsyncPolicy policy;
+
+    /** Lock held while a change is applied and journaled, so changes are journaled in the order they are applied. */
+    private final ReentrantLock changeLock = new ReentrantLock();
+
+    /** Journal of the changes made since the current snapshot. */
+    private Journal journal;
+
+    /** Generation of the current snapshot and journal. */
+    private long generation;
+
+    /** True once the platform has been closed. */
+    private boolean closed;
+
+    /**
+     * Constructor which recovers a platform from a directory, creating the directory if it does not exist.
+     * Whatever the given platform holds is replaced by the recovered platform (an empty one, if the
+     * directory holds no snapshot or journal).
+     *
+     * @param platform platform whose changes are journaled.
+     * @param directory directory holding the snapshots and journals.
+     * @param policy how often the journal is forced to the disk.
+     * @throws IOException if there is a problem reading the snapshot or journal, or a journaled
+     *                     change cannot be replayed.
+     * @throws ClassNotFoundException if the snapshot holds an unknown class.
+     */
+    public JournaledSocialMedia(SocialMediaPlatform platform, String directory, FsyncPolicy policy)
+            throws IOException, ClassNotFoundException {
+        this.platform = platform;
+        this.directory = Paths.get(directory);
+        this.policy = policy;
+        Files.createDirectories(this.directory);
+        recover();
+    }
+
+    /**
+     * Loads the newest complete snapshot into the platform, replays its journal, and removes
+     * the files of older generations.
+     *
+     * @throws IOException if there is a problem reading the snapshot or journal, or a journaled
+     *                     change cannot be replayed.
+     * @throws ClassNotFoundException if the snapshot holds an unknown class.
+     */
+    private void recover() throws IOException, ClassNotFoundException {
+        generation = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    long fileGeneration = Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()));
+                    generation = Math.max(generation, fileGeneration);
+                } catch (NumberFormatException e) {
+                    // Not a snapshot written by this class
+                }
+            }
+        }
+        platform.erasePlatform();
+        if (Files.exists(snapshotFile(generation))) {
+            platform.loadPlatform(snapshotFile(generation).toString());
+        }
+        journal = Journal.open(journalFile(generation), policy != FsyncPolicy.NEVER, this::replay);
+        removeOldGenerations();
+    }
+
+    /**
+     * Writes a snapshot of the platform and starts a new, empty journal, removing the
+     * previous snapshot and journal. Changes wait until the compaction is finished.
+     *
+     * @throws IOException if there is a problem writing the snapshot or journal, in which
+     *                     case the previous snapshot and journal are still used.
+     */
+    public void compact() throws IOException {
+        changeLock.lock();
+        try {
+            checkOpen();
+            journal.commitAll();
+            long next = generation + 1;
+            Path temporary = directory.resolve(SNAPSHOT_PREFIX + next + SNAPSHOT_SUFFIX + TEMPORARY_SUFFIX);
+            platform.savePlatform(temporary.toString());
+            try (FileChannel snapshot = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                snapshot.force(true);
+            }
+            Journal nextJournal = Journal.open(journalFile(next), policy != FsyncPolicy.NEVER, payload -> {
+                throw new StreamCorruptedException("New journal already holds changes.");
+            });
+            try {
+                Files.move(temporary, snapshotFile(next), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                nextJournal.close();
+                Files.deleteIfExists(journalFile(next));
+                throw e;
+            }
+            if (platform instanceof SocialMedia) {
+                ((SocialMedia) platform).checkpointMoved(temporary.toString(), snapshotFile(next).toString());
+            }
+            forceDirectory();
+            Journal previous = journal;
+            journal = nextJournal;
+            generation = next;
+            previous.close();
+            removeOldGenerations();
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the size of the current journal, which grows with every change until the next compaction.
+     *
+     * @return size of the journal in bytes.
+     */
+    public long getJournalSize() {
+        return journal.size();
+    }
+
+    /**
+     * Writes every journaled change to the disk and closes the journal.
+     * The platform cannot be changed after it is closed.
+     *
+     * @throws IOException if there is a problem writing the journal.
+     */
+    @Override
+    public void close() throws IOException {
+        changeLock.lock();
+        try {
+            if (!closed) {
+                closed = true;
+                journal.close();
+            }
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Override
+    public int createAccount(String handle) throws IllegalHandleException, InvalidHandleException {
+        return createAccount(handle, null);
+    }
+
+    @Override
+    public int createAccount(String handle, String description)
+            throws IllegalHandleException, InvalidHandleException {
+        long sequence;
+        int id;
+        changeLock.lock();
+        try {
+            checkOpen();
+            id = platform.createAccount(handle, description);
+            sequence = append(CREATE_ACCOUNT, handle, description, id);
+        } finally {
+            changeLock.unlock();
+        }
+        commit(sequence);
+        return id;
+    }
+
+    @Override
+    public void removeAccount(int id) throws AccountIDNotRecognisedException {
+        long sequence;
+        changeLock.lock();
+        try {
+            checkOpen();
+            platform.removeAccount(id);
+            sequence = append(REMOVE_ACCOUNT_BY_ID, id);
+        } finally {
+            changeLock.unlock();
+        }
+        commit(sequence);
+    }
+
+    @Override
+    public void removeAccount(String handle) throws HandleNotRecognisedException {
+        long sequence;
+        changeLock.lock();
+        try {
+            checkOpen();
+            platform.removeAccount(handle);
+            sequence = append(REMOVE_ACCOUNT_BY_HANDLE, handle);
+        } finally {
+            changeLock.unlock();
+        }
+        commit(sequence);
+    }
+
+    @Override
+    public void changeAccountHandle(String oldHandle, String newHandle)
+            throws HandleNotRecognisedException, IllegalHandleException, InvalidHandleException {
+        long sequence;
+        changeLock.lock();
+        try {
+            checkOpen();
+            platform.changeAccountHandle(oldHandle, newHandle);
+            sequence = append(CHANGE_ACCOUNT_HANDLE, oldHandle, newHandle);
+        } finally {
+            changeLock.unlock();
+        }
+        commit(sequence);
+    }
+
+    @Override
+    public void updateAccountDescription(String handle, String description)
+            throws HandleNotRecognisedException {
+        long sequence;
+        changeLock.lock();
+        try {
+            checkOpen();
+            platform.updateAccountDescription(handle, description);
+            sequence = append(UPDATE_ACCOUNT_DESCRIPTION, handle, description);
+        } finally {
+            changeLock.unlock();
+        }
+        commit(sequence);
+    }
+
+    @Override
+    public String showAccount(String handle) throws HandleNotRecognisedException {
+        return platform.showAccount(handle);
+    }
+
+    @Override
+    public int createPost(String handle, String message)
+            throws HandleNotRecognisedException, InvalidPostException {
+        long sequence;
+        int id;
+        changeLock.lock();
+        try {
+            checkOpen();
+            id = platform.createPost(handle, message);
+            sequence = append(CREATE_POST, handle, message, id);
+        } finally {
+            changeLock.unlock();
+        }
+        commit(sequence);
+        return id;
+    }
+
+    @Override
+    public int endorsePost(String handle, int id)
+            throws HandleNotRecognisedException, PostIDNotRecognisedException, NotActionablePostException {
+        long sequence;
+        int endorsementId;
+        changeLock.lock();
+        try {
+            checkOpen();
+            endorsementId = platform.endorsePost(handle, id);
+            sequence = append(ENDORSE_POST, handle, id, endorsementId);
+        } finally {
+            changeLock.unlock();
+        }
+        commit(sequence);
+        return endorsementId;
+    }
+
+    @Override
+    public int commentPost(String handle, int id, String message) throws HandleNotRecognisedException,
+            PostIDNotRecognisedException, NotActionablePostException, InvalidPostException {
+        long sequence;
+        int commentId;
+        changeLock.lock();
+        try {
+            checkOpen();
+            commentId = platform.commentPost(handle, id, message);
+            sequence = append(COMMENT_POST, handle, id, message, commentId);
+        } finally {
+            changeLock.unlock();
+        }
+        commit(sequence);
+        return commentId;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The items which succeed are journaled as a single record.
+     */
+    @Override
+    public BatchResult createPosts(String[] handles, String[] messages) {
+        long sequence;
+        BatchResult result;
+        changeLock.lock();
+        try {
+            checkOpen();
+            result = platform instanceof BatchSocialMediaPlatform
+                    ? ((BatchSocialMediaPlatform) platform).createPosts(handles, messages)
+                    : BatchResult.createEach(platform, handles, messages);
+            if (result.getFailureCount() == result.size()) {
+                return result;
+            }
+            List<Object> fields = new ArrayList<>();
+            fields.add(result.size() - result.getFailureCount());
+            for (int i = 0; i < result.size(); i++) {
+                if (result.getErrorCode(i) == BatchResult.ErrorCode.NONE) {
+                    fields.add(handles[i]);
+                    fields.add(messages[i]);
+                    fields.add(result.getPostId(i));
+                }
+            }
+            sequence = append(CREATE_POSTS, fields.toArray());
+        } finally {
+            changeLock.unlock();
+        }
+        commit(sequence);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The items which succeed are journaled as a single record.
+     */
+    @Override
+    public BatchResult endorsePosts(String[] handles, int[] ids) {
+        long sequence;
+        BatchResult result;
+        changeLock.lock();
+        try {
+            checkOpen();
+            result = platform instanceof BatchSocialMediaPlatform
+                    ? ((BatchSocialMediaPlatform) platform).endorsePosts(handles, ids)
+                    : BatchResult.endorseEach(platform, handles, ids);
+            if (result.getFailureCount() == result.size()) {
+                return result;
+            }
+            List<Object> fields = new ArrayList<>();
+            fields.add(result.size() - result.getFailureCount());
+            for (int i = 0; i < result.size(); i++) {
+                if (result.getErrorCode(i) == BatchResult.ErrorCode.NONE) {
+                    fields.add(handles[i]);
+                    fields.add(ids[i]);
+                    fields.add(result.getPostId(i));
+                }
+            }
+            sequence = append(ENDORSE_POSTS, fields.toArray());
+        } finally {
+            changeLock.unlock();
+        }
+        commit(sequence);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The items which succeed are journaled as a single record.
+     */
+    @Override
+    public BatchResult commentPosts(String[] handles, int[] ids, String[] messages) {
+        long sequence;
+        BatchResult result;
+        changeLock.lock();
+        try {
+            checkOpen();
+            result = platform instanceof BatchSocialMediaPlatform
+                    ? ((BatchSocialMediaPlatform) platform).commentPosts(handles, ids, messages)
+                    : BatchResult.commentEach(platform, handles, ids, messages);
+            if (result.getFailureCount() == result.size()) {
+                return result;
+            }
+            List<Object> fields = new ArrayList<>();
+            fields.add(result.size() - result.getFailureCount());
+            for (int i = 0; i < result.size(); i++) {
+                if (result.getErrorCode(i) == BatchResult.ErrorCode.NONE) {
+                    fields.add(handles[i]);
+                    fields.add(ids[i]);
+                    fields.add(messages[i]);
+                    fields.add(result.getPostId(i));
+                }
+            }
+            sequence = append(COMMENT_POSTS, fields.toArray());
+        } finally {
+            changeLock.unlock();
+        }
+        commit(sequence);
+        return result;
+    }
+
+    @Override
+    public void deletePost(int id) throws PostIDNotRecognisedException {
+        long sequence;
+        changeLock.lock();
+        try {
+            checkOpen();
+            platform.deletePost(id);
+            sequence = append(DELETE_POST, id);
+        } finally {
+            changeLock.unlock();
+        }
+        commit(sequence);
+    }
+
+    @Override
+    public String showIndividualPost(int id) throws PostIDNotRecognisedException {
+        return platform.showIndividualPost(id);
+    }
+
+    @Override
+    public StringBuilder showPostChildrenDetails(int id)
+            throws PostIDNotRecognisedException, NotActionablePostException {
+        return platform.showPostChildrenDetails(id);
+    }
+
+    @Override
+    public int getNumberOfAccounts() {
+        return platform.getNumberOfAccounts();
+    }
+
+    @Override
+    public int getTotalOriginalPosts() {
+        return platform.getTotalOriginalPosts();
+    }
+
+    @Override
+    public int getTotalEndorsmentPosts() {
+        return platform.getTotalEndorsmentPosts();
+    }
+
+    @Override
+    public int getTotalCommentPosts() {
+        return platform.getTotalCommentPosts();
+    }
+
+    @Override
+    public int getMostEndorsedPost() {
+        return platform.getMostEndorsedPost();
+    }
+
+    @Override
+    public int getMostEndorsedAccount() {
+        return platform.getMostEndorsedAccount();
+    }
+
+    @Override
+    public void erasePlatform() {
+        long sequence;
+        changeLock.lock();
+        try {
+            checkOpen();
+            platform.erasePlatform();
+            sequence = append(ERASE_PLATFORM);
+        } finally {
+            changeLock.unlock();
+        }
+        commit(sequence);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The file is a copy of the platform, and has no effect on the snapshots kept in the
+     * platform's directory.
+     */
+    @Override
+    public void savePlatform(String filename) throws IOException {
+        platform.savePlatform(filename);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The loaded platform is then compacted, so that it becomes the snapshot kept in the
+     * platform's directory. If the compaction fails, the loaded platform is in use but
+     * would not be recovered.
+     */
+    @Override
+    public void loadPlatform(String filename) throws IOException, ClassNotFoundException {
+        changeLock.lock();
+        try {
+            checkOpen();
+            platform.loadPlatform(filename);
+            compact();
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    /**
+     * Replays a journaled change on the platform, while it is being recovered.
+     *
+     * @param payload payload of the journal record.
+     * @throws IOException if the record is malformed, or the change cannot be made
+     *                     or gives a different ID to the one journaled.
+     */
+    private void replay(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte operation = in.readByte();
+        try {
+            if (operation == CREATE_ACCOUNT) {
+                String handle = readString(in);
+                String description = readString(in);
+                checkReplayedId(platform.createAccount(handle, description), in.readInt());
+            } else if (operation == REMOVE_ACCOUNT_BY_ID) {
+                platform.removeAccount(in.readInt());
+            } else if (operation == REMOVE_ACCOUNT_BY_HANDLE) {
+                platform.removeAccount(readString(in));
+            } else if (operation == CHANGE_ACCOUNT_HANDLE) {
+                String oldHandle = readString(in);
+                platform.changeAccountHandle(oldHandle, readString(in));
+            } else if (operation == UPDATE_ACCOUNT_DESCRIPTION) {
+                String handle = readString(in);
+                platform.updateAccountDescription(handle, readString(in));
+            } else if (operation == CREATE_POST) {
+                String handle = readString(in);
+                String message = readString(in);
+                checkReplayedId(platform.createPost(handle, message), in.readInt());
+            } else if (operation == ENDORSE_POST) {
+                String handle = readString(in);
+                int id = in.readInt();
+                checkReplayedId(platform.endorsePost(handle, id), in.readInt());
+            } else if (operation == COMMENT_POST) {
+                String handle = readString(in);
+                int id = in.readInt();
+                String message = readString(in);
+                checkReplayedId(platform.commentPost(handle, id, message), in.readInt());
+            } else if (operation == CREATE_POSTS) {
+                for (int count = in.readInt(); count > 0; count--) {
+                    String handle = readString(in);
+                    String message = readString(in);
+                    checkReplayedId(platform.createPost(handle, message), in.readInt());
+                }
+            } else if (operation == ENDORSE_POSTS) {
+                for (int count = in.readInt(); count > 0; count--) {
+                    String handle = readString(in);
+                    int id = in.readInt();
+                    checkReplayedId(platform.endorsePost(handle, id), in.readInt());
+                }
+            } else if (operation == COMMENT_POSTS) {
+                for (int count = in.readInt(); count > 0; count--) {
+                    String handle = readString(in);
+                    int id = in.readInt();
+                    String message = readString(in);
+                    checkReplayedId(platform.commentPost(handle, id, message), in.readInt());
+                }
+            } else if (operation == DELETE_POST) {
+                platform.deletePost(in.readInt());
+            } else if (operation == ERASE_PLATFORM) {
+                platform.erasePlatform();
+            } else {
+                throw new StreamCorruptedException("Unknown journal operation " + operation + ".");
+            }
+        } catch (IllegalHandleException | InvalidHandleException | HandleNotRecognisedException
+                 | AccountIDNotRecognisedException | PostIDNotRecognisedException
+                 | NotActionablePostException | InvalidPostException e) {
+            throw (IOException) new StreamCorruptedException("Journaled change could not be replayed.").initCause(e);
+        }
+    }
+
+    /**
+     * Checks that a replayed change gave an account or post the same ID as when it was journaled.
+     *
+     * @param replayed ID given by the replayed change.
+     * @param journaled ID given when the change was journaled.
+     * @throws StreamCorruptedException if the IDs differ.
+     */
+    private static void checkReplayedId(int replayed, int journaled) throws StreamCorruptedException {
+        if (replayed != journaled) {
+            throw new StreamCorruptedException("Replayed change gave ID " + replayed + " instead of " + journaled + ".");
+        }
+    }
+
+    /**
+     * Appends a change to the journal. Under {@link FsyncPolicy#ALWAYS} the change is also committed,
+     * so that each change is forced to the disk on its own. Must be called while holding
+     * {@link JournaledSocialMedia#changeLock}, straight after the change is applied.
+     *
+     * @param operation journal operation of the change.
+     * @param fields arguments and result of the change, each an Integer or a (possibly null) String.
+     * @return the sequence number of the journal record.
+     */
+    private long append(byte operation, Object... fields) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(operation);
+            for (Object field : fields) {
+                if (field instanceof Integer) {
+                    out.writeInt((Integer) field);
+                } else if (field == null) {
+                    out.writeInt(-1);
+                } else {
+                    byte[] string = ((String) field).getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(string.length);
+                    out.write(string);
+                }
+            }
+        } catch (IOException e) {
+            // Writing to a byte array cannot fail
+            throw new UncheckedIOException(e);
+        }
+        long sequence = journal.append(bytes.toByteArray());
+        if (policy == FsyncPolicy.ALWAYS) {
+            commit(sequence);
+        }
+        return sequence;
+    }
+
+    /**
+     * Waits until a journal record has been committed.
+     *
+     * @param sequence sequence number of the journal record.
+     * @throws UncheckedIOException if there is a problem writing the journal. The change has
+     *                              been made, but may not survive the program stopping.
+     */
+    private void commit(long sequence) {
+        try {
+            journal.commit(sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads a string written by {@link JournaledSocialMedia#append(byte, Object...)}.
+     *
+     * @param in payload being read.
+     * @return string read (may be null).
+     * @throws IOException if the payload ends first.
+     */
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        byte[] string = new byte[length];
+        in.readFully(string);
+        return new String(string, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Makes sure the platform has not been closed, and its journal can still be written.
+     *
+     * @throws IllegalStateException if the platform has been closed.
+     * @throws UncheckedIOException if an earlier journal write failed, so that further
+     *                              changes could not be recovered.
+     */
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Journaled platform has been closed.");
+        } else if (journal.failure() != null) {
+            throw new UncheckedIOException("An earlier journal write failed.", journal.failure());
+        }
+    }
+
+    /**
+     * Returns the location of the snapshot of a generation.
+     *
+     * @param fileGeneration generation of the snapshot.
+     * @return location of the snapshot file.
+     */
+    private Path snapshotFile(long fileGeneration) {
+        return directory.resolve(SNAPSHOT_PREFIX + fileGeneration + SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Returns the location of the journal of a generation.
+     *
+     * @param fileGeneration generation of the journal.
+     * @return location of the journal file.
+     */
+    private Path journalFile(long fileGeneration) {
+        return directory.resolve(JOURNAL_PREFIX + fileGeneration + JOURNAL_SUFFIX);
+    }
+
+    /**
+     * Removes the snapshots and journals of generations before the current one,
+     * and any snapshot left part written by a failed compaction.
+     *
+     * @throws IOException if there is a problem removing a file.
+     */
+    private void removeOldGenerations() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMPORARY_SUFFIX) && name.startsWith(SNAPSHOT_PREFIX)) {
+                    Files.delete(file);
+                } else if (name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX)
+                        && !file.equals(snapshotFile(generation))) {
+                    Files.delete(file);
+                } else if (name.startsWith(JOURNAL_PREFIX) && name.endsWith(JOURNAL_SUFFIX)
+                        && !file.equals(journalFile(generation))) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forces the directory's entries to the disk, so that a renamed snapshot survives
+     * the machine stopping. Not every operating system allows this, in which case the
+     * rename is left to the operating system.
+     */
+    private void forceDirectory() {
+        try (FileChannel entries = FileChannel.open(directory, StandardOpenOption.READ)) {
+            entries.force(true);
+        } catch (IOException e) {
+            // The directory cannot be opened or synced on this operating system
+        }
+    }
+}
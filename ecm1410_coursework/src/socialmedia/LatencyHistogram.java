@@ -0,0 +1,181 @@
+package socialmedia;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class counts durations in buckets, so that percentiles of any number of
+ * durations can be found in a fixed amount of memory.
+ * <p>
+ * Durations below 128 nanoseconds each have their own bucket. Above that, each power of two is
+ * split into 64 buckets of equal width, so every duration is counted in a bucket less than 1.6%
+ * wider than it, and a percentile is never more than that far above the true value. Every
+ * duration a {@code long} can hold fits in under 4000 buckets.
+ * <p>
+ * Durations may be recorded by any number of threads at once, without locking. The count and
+ * total are spread over {@link LongAdder} cells so that threads recording at once do not contend.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+final class LatencyHistogram {
+
+    /** Number of buckets each power of two above {@link LatencyHistogram#LINEAR_LIMIT} is split into. */
+    private static final int SUB_BUCKETS = 64;
+
+    /** Durations below this each have their own bucket. */
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+
+    /** Number of buckets, enough for every non-negative long. */
+    private static final int BUCKETS = LINEAR_LIMIT + (64 - 7) * SUB_BUCKETS;
+
+    /** Number of durations counted in each bucket. */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /** Number of durations recorded. */
+    private final LongAdder count = new LongAdder();
+
+    /** Sum of the durations recorded, in nanoseconds. */
+    private final LongAdder total = new LongAdder();
+
+    /** Longest duration recorded, in nanoseconds. */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds (a negative duration counts as 0).
+     */
+    void record(long nanos) {
+        nanos = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        total.add(nanos);
+        long longest;
+        while (nanos > (longest = max.get()) && !max.compareAndSet(longest, nanos)) {
+            // Another thread recorded a longer duration first, so check against that
+        }
+    }
+
+    /**
+     * Returns the number of durations recorded.
+     * @return number of durations.
+     */
+    long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the durations recorded.
+     * @return total in nanoseconds.
+     */
+    long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the mean duration recorded.
+     * @return mean in nanoseconds, or 0 if none have been recorded.
+     */
+    double getMean() {
+        long recorded = count.sum();
+        return recorded == 0 ? 0 : total.sum() / (double) recorded;
+    }
+
+    /**
+     * Returns the longest duration recorded.
+     * @return maximum in nanoseconds, or 0 if none have been recorded.
+     */
+    long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns a percentile of the durations recorded: the upper end of the bucket holding it,
+     * but no more than the longest duration recorded.
+     *
+     * @param percentile percentage of durations at or below the value (0 to 100).
+     * @return the percentile in nanoseconds, or 0 if none have been recorded.
+     */
+    long getPercentile(double percentile) {
+        long recorded = count.sum();
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * recorded));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(upperBound(bucket), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Returns a copy of the histogram, which does not change as more durations are recorded.
+     * Durations recorded while the copy is being made may or may not be in it, but its count
+     * always matches its buckets.
+     *
+     * @return the copy.
+     */
+    LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        long copied = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            long inBucket = counts.get(bucket);
+            copy.counts.set(bucket, inBucket);
+            copied += inBucket;
+        }
+        copy.count.add(copied);
+        copy.total.add(total.sum());
+        copy.max.set(max.get());
+        return copy;
+    }
+
+    /**
+     * Clears every duration recorded.
+     * Durations recorded while the histogram is being cleared may or may not be kept.
+     */
+    void reset() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            counts.set(bucket, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    /**
+     * Returns the bucket a duration is counted in.
+     *
+     * @param nanos non-negative duration in nanoseconds.
+     * @return index of the bucket.
+     */
+    private static int bucketOf(long nanos) {
+        if (nanos < LINEAR_LIMIT) {
+            return (int) nanos;
+        }
+        // Shift so the duration's top seven bits are left, from 64 to 127
+        int shift = 64 - Long.numberOfLeadingZeros(nanos) - 7;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) (nanos >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Returns the longest duration counted in a bucket.
+     *
+     * @param bucket index of the bucket.
+     * @return the duration in nanoseconds.
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < LINEAR_LIMIT) {
+            return bucket;
+        }
+        int shift = (bucket - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long top = (bucket - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+}
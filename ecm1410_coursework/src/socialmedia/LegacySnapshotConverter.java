@@ -0,0 +1,289 @@
+package socialmedia;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The LegacySnapshotConverter class reads platforms saved in the original Java
+ * serialized format (such as {@code platform.txt}), in which a {@link DualKeyMap}
+ * of accounts and a {@link HashMap} of posts were written by an {@link ObjectOutputStream},
+ * and converts them to the binary snapshot format written by {@link SnapshotWriter}.
+ * <p>
+ * The classes in those files no longer match the classes of this package, so each
+ * one is read into a private copy of its original fields instead. Posts in the old
+ * format name their author by handle, which is resolved to an account ID here.
+ * As older versions of the platform could leave counts out of step with the posts
+ * (for example after deleting a post with endorsements), the comment, endorsement
+ * and post counts are recounted from the posts in the file, and posts whose author
+ * or endorsed post no longer exists are dropped.
+ * <p>
+ * Files can be converted from the command line:
+ * <pre>
+ * java socialmedia.LegacySnapshotConverter platform.txt platform.smps
+ * </pre>
+ * and {@link SocialMediaPlatform#loadPlatform(String)} also accepts old files directly.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public final class LegacySnapshotConverter {
+
+    /** Fields of the original socialmedia.DualKeyMap class. */
+    private static class LegacyDualKeyMap implements Serializable {
+        /** Account IDs to accounts. */
+        private Map<?, ?> firstMap;
+        /** Account handles to accounts. */
+        private Map<?, ?> secondMap;
+    }
+
+    /** Fields of the original socialmedia.Account class. */
+    private static class LegacyAccount implements Serializable {
+        /** Account ID. */
+        private int accountId;
+        /** Account handle. */
+        private String handle;
+        /** Account description. */
+        private String description;
+        /** Number of posts made by the account. */
+        private int postCount;
+        /** Number of endorsements on the account's posts. */
+        private int endorsementCount;
+    }
+
+    /** Fields of the original socialmedia.Post class. */
+    private static class LegacyPost implements Serializable {
+        /** Post ID. */
+        private int postId;
+        /** Handle of the post's author. */
+        private String author;
+        /** Message of the post. */
+        private String message;
+        /** Number of comments on the post. */
+        private int commentCount;
+        /** Number of endorsements on the post. */
+        private int endorsementCount;
+    }
+
+    /** Fields of the original socialmedia.OriginalPost class. */
+    private static class LegacyOriginalPost extends LegacyPost {}
+
+    /** Fields of the original socialmedia.Comment class. */
+    private static class LegacyComment extends LegacyPost {
+        /** Parent post ID (-1 if the parent was deleted). */
+        private int parentId;
+    }
+
+    /** Fields of the original socialmedia.Endorsement class. */
+    private static class LegacyEndorsement extends LegacyPost {
+        /** Endorsed post ID. */
+        private int parentId;
+    }
+
+    /**
+     * Object input stream which reads each class of the original format
+     * into the legacy class with the same fields.
+     */
+    private static class LegacyObjectInputStream extends ObjectInputStream {
+
+        /** Original class names to the legacy classes replacing them. */
+        private static final Map<String, Class<?>> LEGACY_CLASSES = Map.of(
+                "socialmedia.DualKeyMap", LegacyDualKeyMap.class,
+                "socialmedia.Account", LegacyAccount.class,
+                "socialmedia.Post", LegacyPost.class,
+                "socialmedia.OriginalPost", LegacyOriginalPost.class,
+                "socialmedia.Comment", LegacyComment.class,
+                "socialmedia.Endorsement", LegacyEndorsement.class);
+
+        /**
+         * Constructor which creates a LegacyObjectInputStream.
+         *
+         * @param in stream to read from.
+         * @throws IOException if the stream header cannot be read.
+         */
+        private LegacyObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+            ObjectStreamClass descriptor = super.readClassDescriptor();
+            Class<?> legacy = LEGACY_CLASSES.get(descriptor.getName());
+            return legacy == null ? descriptor : ObjectStreamClass.lookup(legacy);
+        }
+    }
+
+    /**
+     * Private constructor, as this class only holds static methods.
+     */
+    private LegacySnapshotConverter() {}
+
+    /**
+     * Converts a platform saved in the original Java serialized format to the snapshot format.
+     *
+     * @param args location of the old file, then location of the snapshot file to write.
+     * @throws IOException if there is a problem reading or writing either file.
+     * @throws ClassNotFoundException if the old file holds an unknown class.
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        if (args.length != 2) {
+            System.err.println("Usage: java socialmedia.LegacySnapshotConverter <old file> <snapshot file>");
+            System.exit(1);
+        }
+        convert(args[0], args[1]);
+    }
+
+    /**
+     * Converts a platform saved in the original Java serialized format to the snapshot format.
+     *
+     * @param legacyFilename location of the old file.
+     * @param snapshotFilename location of the snapshot file to write.
+     * @throws IOException if there is a problem reading or writing either file.
+     * @throws ClassNotFoundException if the old file holds an unknown class.
+     */
+    public static void convert(String legacyFilename, String snapshotFilename)
+            throws IOException, ClassNotFoundException {
+        SnapshotWriter[] writer = new SnapshotWriter[1];
+        try {
+            read(legacyFilename, new SnapshotReader.Sink() {
+                @Override
+                public void header(int accountHighWaterMark, int postHighWaterMark, int accountCount, int postCount) {
+                    try {
+                        writer[0] = new SnapshotWriter(snapshotFilename, accountHighWaterMark, postHighWaterMark, accountCount, postCount);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public void account(int id, String handle, String description, int postCount, int endorseCount) {
+                    try {
+                        writer[0].writeAccount(id, handle, description, postCount, endorseCount);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public void post(byte type, int id, int authorId, int parentId, int commentCount, int endorseCount, String message) {
+                    try {
+                        writer[0].writePost(type, id, authorId, parentId, commentCount, endorseCount, message);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (writer[0] != null) {
+                writer[0].close();
+            }
+        }
+    }
+
+    /**
+     * Reads a platform saved in the original Java serialized format, passing its
+     * accounts and posts to a sink in the same order as {@link SnapshotReader}.
+     *
+     * @param filename location of the old file.
+     * @param sink receiver of the accounts and posts read.
+     * @throws IOException if there is a problem reading the file, or it is not a saved platform.
+     * @throws ClassNotFoundException if the file holds an unknown class.
+     */
+    static void read(String filename, SnapshotReader.Sink sink) throws IOException, ClassNotFoundException {
+        LegacyDualKeyMap legacyAccounts = null;
+        Map<?, ?> legacyPosts = null;
+        try (ObjectInputStream in = new LegacyObjectInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
+            for (int i = 0; i < 2; i++) {
+                Object obj = in.readObject();
+                if (obj instanceof LegacyDualKeyMap) {
+                    legacyAccounts = (LegacyDualKeyMap) obj;
+                } else if (obj instanceof Map) {
+                    legacyPosts = (Map<?, ?>) obj;
+                }
+            }
+        }
+        if (legacyAccounts == null || legacyAccounts.firstMap == null || legacyPosts == null) {
+            throw new InvalidObjectException("File does not contain a saved platform.");
+        }
+
+        // Accounts are keyed by ID in the first map, which is the only one kept up to date by older versions
+        Map<Integer, LegacyAccount> accountsById = new HashMap<>();
+        Map<String, LegacyAccount> accountsByHandle = new HashMap<>();
+        for (Object value : legacyAccounts.firstMap.values()) {
+            LegacyAccount account = (LegacyAccount) value;
+            accountsById.put(account.accountId, account);
+            accountsByHandle.put(account.handle, account);
+        }
+        Map<Integer, LegacyPost> postsById = new HashMap<>();
+        for (Object value : legacyPosts.values()) {
+            LegacyPost post = (LegacyPost) value;
+            if (accountsByHandle.containsKey(post.author)) {
+                postsById.put(post.postId, post);
+            }
+        }
+
+        // Parents always have lower IDs than their children, so they are kept or dropped first
+        List<Integer> postIds = new ArrayList<>(postsById.keySet());
+        postIds.sort(null);
+        Set<Integer> kept = new HashSet<>();
+        Map<Integer, Integer> commentCounts = new HashMap<>();
+        Map<Integer, Integer> endorseCounts = new HashMap<>();
+        Map<Integer, Integer> accountPostCounts = new HashMap<>();
+        Map<Integer, Integer> accountEndorseCounts = new HashMap<>();
+        for (int id : postIds) {
+            LegacyPost post = postsById.get(id);
+            if (post instanceof LegacyEndorsement) {
+                LegacyPost parent = postsById.get(((LegacyEndorsement) post).parentId);
+                if (parent == null || !kept.contains(parent.postId) || parent instanceof LegacyEndorsement) {
+                    continue;
+                }
+                endorseCounts.merge(parent.postId, 1, Integer::sum);
+                accountEndorseCounts.merge(accountsByHandle.get(parent.author).accountId, 1, Integer::sum);
+            } else if (post instanceof LegacyComment && kept.contains(((LegacyComment) post).parentId)) {
+                commentCounts.merge(((LegacyComment) post).parentId, 1, Integer::sum);
+            }
+            kept.add(id);
+            accountPostCounts.merge(accountsByHandle.get(post.author).accountId, 1, Integer::sum);
+        }
+
+        int accountHighWaterMark = 0;
+        for (int id : accountsById.keySet()) {
+            accountHighWaterMark = Math.max(accountHighWaterMark, id + 1);
+        }
+        int postHighWaterMark = postIds.isEmpty() ? 0 : postIds.get(postIds.size() - 1) + 1;
+        sink.header(accountHighWaterMark, postHighWaterMark, accountsById.size(), kept.size());
+        List<Integer> accountIds = new ArrayList<>(accountsById.keySet());
+        accountIds.sort(null);
+        for (int id : accountIds) {
+            LegacyAccount account = accountsById.get(id);
+            sink.account(id, account.handle, account.description,
+                    accountPostCounts.getOrDefault(id, 0), accountEndorseCounts.getOrDefault(id, 0));
+        }
+        for (int id : postIds) {
+            if (!kept.contains(id)) {
+                continue;
+            }
+            LegacyPost post = postsById.get(id);
+            int authorId = accountsByHandle.get(post.author).accountId;
+            int comments = commentCounts.getOrDefault(id, 0);
+            int endorsements = endorseCounts.getOrDefault(id, 0);
+            if (post instanceof LegacyComment) {
+                int parentId = ((LegacyComment) post).parentId;
+                sink.post(SnapshotWriter.COMMENT, id, authorId, kept.contains(parentId) ? parentId : -1,
+                        comments, endorsements, post.message);
+            } else if (post instanceof LegacyEndorsement) {
+                sink.post(SnapshotWriter.ENDORSEMENT, id, authorId, ((LegacyEndorsement) post).parentId,
+                        comments, endorsements, post.message);
+            } else {
+                sink.post(SnapshotWriter.ORIGINAL, id, authorId, -1, comments, endorsements, post.message);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package socialmedia;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The LockStripes class maps integer IDs onto a fixed number of
+ * {@link ReentrantReadWriteLock} objects (stripes), so that operations on
+ * different IDs can usually proceed in parallel without one lock per ID.
+ * <p>
+ * Whenever several stripes are held at once they are always acquired in
+ * ascending stripe order, which prevents two threads from deadlocking
+ * when they lock overlapping sets of IDs.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public class LockStripes implements Serializable {
+
+    /** The read-write locks, one per stripe. */
+    private final ReentrantReadWriteLock[] locks;
+
+    /** Bit mask used to map a hashed ID onto a stripe (stripe count - 1). */
+    private final int mask;
+
+    /**
+     * Constructor which creates a LockStripes object.
+     * The number of stripes is rounded up to the next power of two.
+     *
+     * @param stripes minimum number of stripes.
+     */
+    public LockStripes(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        locks = new ReentrantReadWriteLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Returns the stripe which guards the given ID.
+     * Sequential IDs are spread across the stripes, as IDs created
+     * together are likely to be used together.
+     *
+     * @param id account or post ID.
+     * @return stripe index of the ID.
+     */
+    public int stripeOf(int id) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Returns the distinct stripes guarding the given IDs, in ascending (locking) order.
+     *
+     * @param ids account or post IDs.
+     * @return sorted stripe indexes without duplicates.
+     */
+    public int[] stripesOf(int... ids) {
+        int[] stripes = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            stripes[i] = stripeOf(ids[i]);
+        }
+        Arrays.sort(stripes);
+        int distinct = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            if (i == 0 || stripes[i] != stripes[i - 1]) {
+                stripes[distinct++] = stripes[i];
+            }
+        }
+        return Arrays.copyOf(stripes, distinct);
+    }
+
+    /**
+     * Returns every stripe in ascending (locking) order.
+     * @return all stripe indexes.
+     */
+    public int[] allStripes() {
+        int[] stripes = new int[locks.length];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = i;
+        }
+        return stripes;
+    }
+
+    /**
+     * Acquires the given stripes in order.
+     *
+     * @param stripes sorted stripe indexes, as returned by {@link LockStripes#stripesOf(int...)}.
+     * @param exclusive true to acquire the write locks, false to acquire the read locks.
+     */
+    public void lock(int[] stripes, boolean exclusive) {
+        for (int stripe : stripes) {
+            if (exclusive) {
+                locks[stripe].writeLock().lock();
+            } else {
+                locks[stripe].readLock().lock();
+            }
+        }
+    }
+
+    /**
+     * Releases the given stripes, in the reverse order to which they were acquired.
+     *
+     * @param stripes sorted stripe indexes previously passed to {@link LockStripes#lock(int[], boolean)}.
+     * @param exclusive true to release the write locks, false to release the read locks.
+     */
+    public void unlock(int[] stripes, boolean exclusive) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            if (exclusive) {
+                locks[stripes[i]].writeLock().unlock();
+            } else {
+                locks[stripes[i]].readLock().unlock();
+            }
+        }
+    }
+}
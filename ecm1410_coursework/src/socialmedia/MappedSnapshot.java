@@ -0,0 +1,350 @@
+package socialmedia;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * The MappedSnapshot class gives random access to the posts of a full snapshot file
+ * (version 2 or later, as written by {@link SnapshotWriter}) by memory-mapping the file.
+ * <p>
+ * Opening a snapshot only reads its header. A post is found by a binary search of
+ * the fixed-width post index, and decoded from the mapped file when it is asked for,
+ * so the time taken to open a snapshot does not grow with the number of posts in it.
+ * Files larger than 1 GiB are mapped in several segments.
+ * <p>
+ * A MappedSnapshot is not thread-safe, and the file must not be changed while it is mapped.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+final class MappedSnapshot {
+
+    /** Number of bits of a file offset addressing a byte within one segment. */
+    private static final int SEGMENT_SHIFT = 30;
+
+    /** Bit mask of a file offset addressing a byte within one segment. */
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    /** Mapped segments of the file, each (except the last) 1 GiB long. */
+    private final MappedByteBuffer[] segments;
+
+    /** Values of the header. */
+    private final int accountHighWaterMark, postHighWaterMark, accountCount, postCount;
+
+    /** Size in bytes of the header, which depends on the version of the file. */
+    private final int headerSize;
+
+    /** Checkpoint ID of the file, and of its base (0 for a full snapshot or a version 2 file). */
+    private final long checkpointId, baseCheckpointId;
+
+    /** Numbers of posts of each type in the snapshot. */
+    private final int originalCount, commentCount, endorsementCount;
+
+    /** File offset of the next byte to be decoded. */
+    private long cursor;
+
+    /** Scratch array used to decode strings. */
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Constructor which creates a MappedSnapshot over mapped segments, and reads the header.
+     *
+     * @param segments mapped segments of the file.
+     */
+    private MappedSnapshot(MappedByteBuffer[] segments) {
+        this.segments = segments;
+        cursor = 6;
+        accountHighWaterMark = readInt();
+        postHighWaterMark = readInt();
+        accountCount = readInt();
+        postCount = readInt();
+        originalCount = readInt();
+        commentCount = readInt();
+        endorsementCount = readInt();
+        if (segments[0].getShort(4) == SnapshotWriter.VERSION) {
+            headerSize = SnapshotWriter.HEADER_SIZE;
+            checkpointId = readLong(cursor);
+            baseCheckpointId = readLong(cursor + 8);
+        } else {
+            headerSize = SnapshotWriter.VERSION_2_HEADER_SIZE;
+            checkpointId = 0;
+            baseCheckpointId = 0;
+        }
+    }
+
+    /**
+     * Memory-maps a snapshot file.
+     * Only full snapshots in version 2 of the snapshot format or later can be mapped, as older
+     * files have no post index, and incremental snapshots need the checkpoints they are based on.
+     *
+     * @param filename location of the file.
+     * @return the mapped snapshot, or null if the file cannot be mapped.
+     * @throws IOException if there is a problem reading the file.
+     */
+    static MappedSnapshot map(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < SnapshotWriter.VERSION_2_HEADER_SIZE) {
+                return null;
+            }
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_MASK + 1, size - start));
+            }
+            short version = segments[0].getShort(4);
+            if (segments[0].getInt(0) != SnapshotWriter.MAGIC || version < 2 || version > SnapshotWriter.VERSION
+                    || (version == SnapshotWriter.VERSION && size < SnapshotWriter.HEADER_SIZE)) {
+                return null;
+            }
+            MappedSnapshot snapshot = new MappedSnapshot(segments);
+            if (snapshot.baseCheckpointId != 0) {
+                return null;
+            } else if (snapshot.indexEntry(snapshot.postCount) > size) {
+                throw new StreamCorruptedException("Snapshot file ends unexpectedly.");
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Returns the next account ID to be handed out when the snapshot was saved.
+     * @return account ID high-water mark.
+     */
+    int accountHighWaterMark() {
+        return accountHighWaterMark;
+    }
+
+    /**
+     * Returns the next post ID to be handed out when the snapshot was saved.
+     * @return post ID high-water mark.
+     */
+    int postHighWaterMark() {
+        return postHighWaterMark;
+    }
+
+    /**
+     * Returns the checkpoint ID of the snapshot, which incremental snapshots based on it refer to.
+     * @return checkpoint ID, or 0 for a version 2 file.
+     */
+    long checkpointId() {
+        return checkpointId;
+    }
+
+    /**
+     * Returns the number of {@link OriginalPost} objects in the snapshot.
+     * @return number of original posts.
+     */
+    int originalCount() {
+        return originalCount;
+    }
+
+    /**
+     * Returns the number of {@link Comment} objects in the snapshot.
+     * @return number of comments.
+     */
+    int commentCount() {
+        return commentCount;
+    }
+
+    /**
+     * Returns the number of {@link Endorsement} objects in the snapshot.
+     * @return number of endorsements.
+     */
+    int endorsementCount() {
+        return endorsementCount;
+    }
+
+    /**
+     * Decodes every account in the snapshot, passing each to an action.
+     *
+     * @param action receiver of the accounts.
+     */
+    void forEachAccount(Consumer<Account> action) {
+        cursor = indexEntry(postCount);
+        if (headerSize == SnapshotWriter.HEADER_SIZE) {
+            // Skip the (empty) location of the base checkpoint
+            readString(false);
+        }
+        for (int i = 0; i < accountCount; i++) {
+            int id = readVarInt();
+            String handle = readString(false);
+            String description = readString(true);
+            int postsMade = readVarInt();
+            int endorsements = readVarInt();
+            action.accept(SnapshotReader.toAccount(id, handle, description, postsMade, endorsements));
+        }
+    }
+
+    /**
+     * Decodes a single post, by looking its ID up in the post index.
+     *
+     * @param id post ID.
+     * @return a new {@link Post} object, or null if there is no post with the ID in the snapshot.
+     */
+    Post decode(int id) {
+        int low = 0;
+        int high = postCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = readInt(indexEntry(middle));
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return decodeAt(id, readLong(indexEntry(middle) + 4));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decodes every post in the snapshot, passing each to an action in ascending ID order.
+     *
+     * @param action receiver of the posts.
+     */
+    void forEachPost(Consumer<Post> action) {
+        for (int i = 0; i < postCount; i++) {
+            action.accept(decodeAt(readInt(indexEntry(i)), readLong(indexEntry(i) + 4)));
+        }
+    }
+
+    /**
+     * Decodes the post stored at a file offset.
+     *
+     * @param id post ID.
+     * @param position file offset of the post's type.
+     * @return a new {@link Post} object.
+     */
+    private Post decodeAt(int id, long position) {
+        cursor = position;
+        byte type = segments[segment(cursor)].get(offset(cursor));
+        cursor++;
+        int authorId = readVarInt();
+        int parentId = type == SnapshotWriter.ORIGINAL ? -1 : readVarInt() - 1;
+        int comments = readVarInt();
+        int endorsements = readVarInt();
+        return SnapshotReader.toPost(type, id, authorId, parentId, comments, endorsements, readString(false));
+    }
+
+    /**
+     * Returns the file offset of an entry in the post index.
+     *
+     * @param index position of the entry in the index.
+     * @return file offset of the entry.
+     */
+    private long indexEntry(int index) {
+        return headerSize + (long) SnapshotWriter.INDEX_ENTRY_SIZE * index;
+    }
+
+    /**
+     * Returns the segment holding a file offset.
+     *
+     * @param position file offset.
+     * @return index of the segment.
+     */
+    private static int segment(long position) {
+        return (int) (position >>> SEGMENT_SHIFT);
+    }
+
+    /**
+     * Returns the offset within its segment of a file offset.
+     *
+     * @param position file offset.
+     * @return offset within the segment.
+     */
+    private static int offset(long position) {
+        return (int) (position & SEGMENT_MASK);
+    }
+
+    /**
+     * Reads a fixed-width int at the cursor, and moves the cursor past it.
+     * @return value read.
+     */
+    private int readInt() {
+        int value = readInt(cursor);
+        cursor += 4;
+        return value;
+    }
+
+    /**
+     * Reads a fixed-width (big-endian) int at a file offset, which may span two segments.
+     *
+     * @param position file offset.
+     * @return value read.
+     */
+    private int readInt(long position) {
+        MappedByteBuffer segment = segments[segment(position)];
+        int offset = offset(position);
+        if (offset + 4 <= segment.limit()) {
+            return segment.getInt(offset);
+        }
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (segments[segment(position + i)].get(offset(position + i)) & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Reads a fixed-width (big-endian) long at a file offset, which may span two segments.
+     *
+     * @param position file offset.
+     * @return value read.
+     */
+    private long readLong(long position) {
+        return ((long) readInt(position) << 32) | (readInt(position + 4) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Reads an unsigned variable-length integer at the cursor, and moves the cursor past it.
+     * @return value read.
+     */
+    private int readVarInt() {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = segments[segment(cursor)].get(offset(cursor));
+            cursor++;
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Reads a string at the cursor, and moves the cursor past it.
+     *
+     * @param nullable true if the length has 1 added to it, so that 0 means null.
+     * @return string read.
+     */
+    private String readString(boolean nullable) {
+        int length = readVarInt();
+        if (nullable) {
+            if (length == 0) {
+                return null;
+            }
+            length--;
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        for (int copied = 0; copied < length; ) {
+            MappedByteBuffer segment = segments[segment(cursor)];
+            int offset = offset(cursor);
+            int chunk = Math.min(length - copied, segment.limit() - offset);
+            segment.get(offset, scratch, copied, chunk);
+            copied += chunk;
+            cursor += chunk;
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,116 @@
+package socialmedia;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The OperationStatistics class is a record of the calls made to one method of an
+ * {@link InstrumentedSocialMediaPlatform}: how many there were, how many threw each type of
+ * exception, and how long they took. It does not change as more calls are made.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public final class OperationStatistics {
+
+    /** Name of the method. */
+    private final String name;
+
+    /** Number of calls which threw an exception. */
+    private final long exceptionCount;
+
+    /** Number of calls which threw each type of exception, by simple class name. */
+    private final Map<String, Long> exceptionCounts;
+
+    /** Time each call took. */
+    private final LatencyHistogram latencies;
+
+    /**
+     * Constructor which records the statistics of a method.
+     *
+     * @param name name of the method.
+     * @param exceptionCount number of calls which threw an exception.
+     * @param exceptionCounts number of calls which threw each type of exception, not to be changed afterwards.
+     * @param latencies time each call took, not to be changed afterwards.
+     */
+    OperationStatistics(String name, long exceptionCount, Map<String, Long> exceptionCounts, LatencyHistogram latencies) {
+        this.name = name;
+        this.exceptionCount = exceptionCount;
+        this.exceptionCounts = Collections.unmodifiableMap(exceptionCounts);
+        this.latencies = latencies;
+    }
+
+    /**
+     * Returns the name of the method.
+     * @return name, such as {@code deletePost}.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of calls made, whether they returned or threw an exception.
+     * @return number of calls.
+     */
+    public long getCallCount() {
+        return latencies.getCount();
+    }
+
+    /**
+     * Returns the number of calls which threw an exception.
+     * @return number of exceptions.
+     */
+    public long getExceptionCount() {
+        return exceptionCount;
+    }
+
+    /**
+     * Returns the number of calls which threw each type of exception.
+     * @return unmodifiable map from the simple name of each exception class to its count.
+     */
+    public Map<String, Long> getExceptionCounts() {
+        return exceptionCounts;
+    }
+
+    /**
+     * Returns the total time taken by the calls.
+     * @return total in nanoseconds.
+     */
+    public long getTotalNanos() {
+        return latencies.getTotal();
+    }
+
+    /**
+     * Returns the mean time taken by a call.
+     * @return mean in nanoseconds, or 0 if there have been no calls.
+     */
+    public double getMeanNanos() {
+        return latencies.getMean();
+    }
+
+    /**
+     * Returns the longest time taken by a call.
+     * @return maximum in nanoseconds, or 0 if there have been no calls.
+     */
+    public long getMaxNanos() {
+        return latencies.getMax();
+    }
+
+    /**
+     * Returns a percentile of the time taken by the calls.
+     *
+     * @param percentile percentage of calls which took no longer (0 to 100).
+     * @return the time in nanoseconds, to within 1.6%, or 0 if there have been no calls.
+     */
+    public long getLatencyPercentile(double percentile) {
+        return latencies.getPercentile(percentile);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s calls=%d exceptions=%d mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus %s",
+                name, getCallCount(), exceptionCount, getMeanNanos() / 1e3, getLatencyPercentile(50) / 1e3,
+                getLatencyPercentile(99) / 1e3, getLatencyPercentile(99.9) / 1e3, getMaxNanos() / 1e3, exceptionCounts);
+    }
+}
@@ -12,14 +12,14 @@ public class OriginalPost extends Post {
 
     /**
      * Constructor which creates an OriginalPost object.
-     * Assigns a sequentially incrementing post ID.
      *
-     * @param handle author's handle.
+     * @param postId post's ID, allocated by the platform's {@link IdAllocator}.
+     * @param authorId author's account ID.
      * @param message post's message.
      */
-    public OriginalPost(String handle,String message) {
+    public OriginalPost(int postId, int authorId,String message) {
         this.message = message;
-        postId = numberOfPosts++;
-        this.author = handle;
+        this.postId = postId;
+        this.authorId = authorId;
     }
 }
\ No newline at end of file
@@ -0,0 +1,388 @@
+package socialmedia;
+
+import java.util.function.BiConsumer;
+
+/**
+ * The PersistentMap class is an immutable map, used by {@link PersistentSocialMedia} to hold
+ * every version of its accounts, handles, posts and post indexes.
+ * <p>
+ * Changing a persistent map gives a new map and leaves the old one as it was, so a reader
+ * holding a map always sees the same contents however the map is changed afterwards. The
+ * new map shares all but a handful of nodes with the old one, so a change only costs as
+ * much as the path to the changed entry.
+ * <p>
+ * The map is a hash array mapped trie (HAMT). Each branch node uses five bits of the key's
+ * hash to pick one of up to 32 children, and stores only the children present, in order,
+ * alongside a 32-bit bitmap of which are present. An entry sits as high in the trie as the
+ * other keys allow, and keys whose hashes are equal share a collision node at the bottom.
+ * Looking up, adding or removing a key therefore visits at most seven nodes.
+ * <p>
+ * Keys must be immutable and values must not be null.
+ *
+ * @param <K> type of the keys.
+ * @param <V> type of the values.
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+final class PersistentMap<K,V> {
+
+    /**
+     * The Leaf class is a single entry of a map.
+     */
+    private static final class Leaf {
+
+        /** Key of the entry. */
+        private final Object key;
+
+        /** Spread hash of the key. */
+        private final int hash;
+
+        /** Value of the entry. */
+        private final Object value;
+
+        /**
+         * Constructor which creates an entry.
+         *
+         * @param key key of the entry.
+         * @param hash spread hash of the key.
+         * @param value value of the entry.
+         */
+        private Leaf(Object key, int hash, Object value) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+
+    /**
+     * The Branch class is a node of a map with up to 32 children, picked by five bits of the hash.
+     */
+    private static final class Branch {
+
+        /** Bit i is set if the child for the five hash bits i is present. */
+        private final int bitmap;
+
+        /** Children present, in order of their five hash bits: each a Leaf, Branch or Collision. */
+        private final Object[] children;
+
+        /**
+         * Constructor which creates a branch.
+         *
+         * @param bitmap bits of the children present.
+         * @param children children present, in order.
+         */
+        private Branch(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+    }
+
+    /**
+     * The Collision class is a node of a map holding the entries of keys with equal hashes.
+     */
+    private static final class Collision {
+
+        /** Spread hash shared by every key. */
+        private final int hash;
+
+        /** Entries, two or more. */
+        private final Leaf[] leaves;
+
+        /**
+         * Constructor which creates a collision node.
+         *
+         * @param hash spread hash shared by every key.
+         * @param leaves entries, two or more.
+         */
+        private Collision(int hash, Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+    }
+
+    /** Number of hash bits used by each level of the trie. */
+    private static final int BITS = 5;
+
+    /** The empty map. */
+    private static final PersistentMap<?,?> EMPTY = new PersistentMap<>(null, 0);
+
+    /** Root node (a Leaf, Branch or Collision), or null if the map is empty. */
+    private final Object root;
+
+    /** Number of entries. */
+    private final int size;
+
+    /**
+     * Constructor which creates a map from its root node.
+     *
+     * @param root root node, or null for the empty map.
+     * @param size number of entries.
+     */
+    private PersistentMap(Object root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty map.
+     *
+     * @param <K> type of the keys.
+     * @param <V> type of the values.
+     * @return map with no entries.
+     */
+    @SuppressWarnings("unchecked")
+    static <K,V> PersistentMap<K,V> empty() {
+        return (PersistentMap<K,V>) EMPTY;
+    }
+
+    /**
+     * Returns the number of entries.
+     * @return size of the map.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the map has no entries.
+     * @return true if the map is empty.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key key to look up.
+     * @return the value, or null if the key is not in the map.
+     */
+    @SuppressWarnings("unchecked")
+    V get(K key) {
+        int hash = hash(key);
+        Object node = root;
+        for (int shift = 0; node instanceof Branch; shift += BITS) {
+            Branch branch = (Branch) node;
+            int bit = 1 << ((hash >>> shift) & 31);
+            if ((branch.bitmap & bit) == 0) {
+                return null;
+            }
+            node = branch.children[Integer.bitCount(branch.bitmap & (bit - 1))];
+        }
+        if (node instanceof Leaf) {
+            Leaf leaf = (Leaf) node;
+            return leaf.hash == hash && leaf.key.equals(key) ? (V) leaf.value : null;
+        } else if (node instanceof Collision && ((Collision) node).hash == hash) {
+            for (Leaf leaf : ((Collision) node).leaves) {
+                if (leaf.key.equals(key)) {
+                    return (V) leaf.value;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns true if a key is in the map.
+     *
+     * @param key key to look up.
+     * @return true if the map has an entry for the key.
+     */
+    boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Returns a map with a key set to a value, and every other entry as in this map.
+     *
+     * @param key key to set.
+     * @param value value of the key (not null).
+     * @return the new map (this map, if the key already had the value).
+     */
+    PersistentMap<K,V> put(K key, V value) {
+        boolean added = get(key) == null;
+        Object newRoot = put(root, new Leaf(key, hash(key), value), 0);
+        return newRoot == root ? this : new PersistentMap<>(newRoot, added ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without a key, and every other entry as in this map.
+     *
+     * @param key key to remove.
+     * @return the new map (this map, if the key was not in it).
+     */
+    PersistentMap<K,V> remove(K key) {
+        if (get(key) == null) {
+            return this;
+        }
+        return new PersistentMap<>(remove(root, key, hash(key), 0), size - 1);
+    }
+
+    /**
+     * Passes every entry to an action, in no particular order.
+     *
+     * @param action action to apply to each key and value.
+     */
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        forEach(root, action);
+    }
+
+    /**
+     * Passes every entry below a node to an action.
+     *
+     * @param node node to visit (may be null).
+     * @param action action to apply to each key and value.
+     */
+    @SuppressWarnings("unchecked")
+    private void forEach(Object node, BiConsumer<? super K, ? super V> action) {
+        if (node instanceof Leaf) {
+            action.accept((K) ((Leaf) node).key, (V) ((Leaf) node).value);
+        } else if (node instanceof Collision) {
+            for (Leaf leaf : ((Collision) node).leaves) {
+                action.accept((K) leaf.key, (V) leaf.value);
+            }
+        } else if (node instanceof Branch) {
+            for (Object child : ((Branch) node).children) {
+                forEach(child, action);
+            }
+        }
+    }
+
+    /**
+     * Spreads the higher bits of a key's hash into the lower ones, which pick the first levels of the trie.
+     *
+     * @param key key to hash.
+     * @return spread hash.
+     */
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns a node with an entry added or replaced.
+     *
+     * @param node node to add the entry below (may be null).
+     * @param leaf the entry.
+     * @param shift position of the hash bits used at the node's level.
+     * @return the new node (the same node, if it already held the entry's value).
+     */
+    private static Object put(Object node, Leaf leaf, int shift) {
+        if (node == null) {
+            return leaf;
+        } else if (node instanceof Leaf) {
+            Leaf existing = (Leaf) node;
+            if (existing.hash == leaf.hash && existing.key.equals(leaf.key)) {
+                return existing.value == leaf.value ? existing : leaf;
+            } else if (existing.hash == leaf.hash) {
+                return new Collision(leaf.hash, new Leaf[] {existing, leaf});
+            }
+            return merge(existing, existing.hash, leaf, shift);
+        } else if (node instanceof Collision) {
+            Collision collision = (Collision) node;
+            if (collision.hash != leaf.hash) {
+                return merge(collision, collision.hash, leaf, shift);
+            }
+            for (int i = 0; i < collision.leaves.length; i++) {
+                if (collision.leaves[i].key.equals(leaf.key)) {
+                    if (collision.leaves[i].value == leaf.value) {
+                        return collision;
+                    }
+                    Leaf[] leaves = collision.leaves.clone();
+                    leaves[i] = leaf;
+                    return new Collision(leaf.hash, leaves);
+                }
+            }
+            Leaf[] leaves = new Leaf[collision.leaves.length + 1];
+            System.arraycopy(collision.leaves, 0, leaves, 0, collision.leaves.length);
+            leaves[collision.leaves.length] = leaf;
+            return new Collision(leaf.hash, leaves);
+        }
+        Branch branch = (Branch) node;
+        int bit = 1 << ((leaf.hash >>> shift) & 31);
+        int index = Integer.bitCount(branch.bitmap & (bit - 1));
+        if ((branch.bitmap & bit) == 0) {
+            Object[] children = new Object[branch.children.length + 1];
+            System.arraycopy(branch.children, 0, children, 0, index);
+            children[index] = leaf;
+            System.arraycopy(branch.children, index, children, index + 1, branch.children.length - index);
+            return new Branch(branch.bitmap | bit, children);
+        }
+        Object child = put(branch.children[index], leaf, shift + BITS);
+        if (child == branch.children[index]) {
+            return branch;
+        }
+        Object[] children = branch.children.clone();
+        children[index] = child;
+        return new Branch(branch.bitmap, children);
+    }
+
+    /**
+     * Returns a branch holding a leaf or collision node and a new entry, whose hashes differ.
+     *
+     * @param node existing leaf or collision node.
+     * @param hash spread hash of the existing node's keys.
+     * @param leaf the new entry.
+     * @param shift position of the hash bits used at the branch's level.
+     * @return the new branch.
+     */
+    private static Object merge(Object node, int hash, Leaf leaf, int shift) {
+        int existingIndex = (hash >>> shift) & 31;
+        int newIndex = (leaf.hash >>> shift) & 31;
+        if (existingIndex == newIndex) {
+            return new Branch(1 << existingIndex, new Object[] {merge(node, hash, leaf, shift + BITS)});
+        }
+        Object[] children = existingIndex < newIndex ? new Object[] {node, leaf} : new Object[] {leaf, node};
+        return new Branch((1 << existingIndex) | (1 << newIndex), children);
+    }
+
+    /**
+     * Returns a node with an entry, which is known to be below it, removed.
+     *
+     * @param node node to remove the entry from.
+     * @param key key of the entry.
+     * @param hash spread hash of the key.
+     * @param shift position of the hash bits used at the node's level.
+     * @return the new node, or null if nothing is left below it.
+     */
+    private static Object remove(Object node, Object key, int hash, int shift) {
+        if (node instanceof Leaf) {
+            return null;
+        } else if (node instanceof Collision) {
+            Leaf[] leaves = ((Collision) node).leaves;
+            if (leaves.length == 2) {
+                return leaves[0].key.equals(key) ? leaves[1] : leaves[0];
+            }
+            Leaf[] remaining = new Leaf[leaves.length - 1];
+            int count = 0;
+            for (Leaf leaf : leaves) {
+                if (!leaf.key.equals(key)) {
+                    remaining[count++] = leaf;
+                }
+            }
+            return new Collision(hash, remaining);
+        }
+        Branch branch = (Branch) node;
+        int bit = 1 << ((hash >>> shift) & 31);
+        int index = Integer.bitCount(branch.bitmap & (bit - 1));
+        Object child = remove(branch.children[index], key, hash, shift + BITS);
+        if (child == null && branch.children.length == 1) {
+            return null;
+        } else if (child == null) {
+            if (branch.children.length == 2 && !(branch.children[1 - index] instanceof Branch)) {
+                // A lone leaf or collision node can move up, as lookups check the whole hash
+                return branch.children[1 - index];
+            }
+            Object[] children = new Object[branch.children.length - 1];
+            System.arraycopy(branch.children, 0, children, 0, index);
+            System.arraycopy(branch.children, index + 1, children, index, children.length - index);
+            return new Branch(branch.bitmap & ~bit, children);
+        } else if (branch.children.length == 1 && !(child instanceof Branch)) {
+            return child;
+        }
+        Object[] children = branch.children.clone();
+        children[index] = child;
+        return new Branch(branch.bitmap, children);
+    }
+}
@@ -0,0 +1,966 @@
+package socialmedia;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * PersistentSocialMedia is a thread-safe implementor of the SocialMediaPlatform interface
+ * whose reads never wait for anything.
+ * <p>
+ * The whole platform is an immutable {@link Version}: its accounts, handles, posts and post
+ * indexes are {@link PersistentMap}s, and its counters and most endorsed post and account are
+ * plain values. The current version is published through a single atomic reference. A read
+ * takes the current version with one volatile read and answers from it alone, so it sees every
+ * account and post as they were at one moment, however many changes are made meanwhile.
+ * <p>
+ * Changes are made one at a time, under a single lock which reads never take. A change builds
+ * the next version from the current one, copying the accounts and posts it changes (never
+ * changing an object a reader may hold) and sharing everything else, and then publishes it.
+ * A change which fails publishes nothing, so leaves the platform as it was.
+ * <p>
+ * Saving writes the version current when the save starts, so it neither blocks nor is blocked
+ * by changes, and the file holds the platform exactly as it was at that moment.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public class PersistentSocialMedia implements BatchSocialMediaPlatform {
+
+    /**
+     * The Version class is the whole platform at one moment. A version is only changed while
+     * it is being built, and never once it has been published.
+     */
+    private static final class Version {
+
+        /** Persistent map of account IDs to Account objects. */
+        private PersistentMap<Integer,Account> accounts;
+
+        /** Persistent map of account handles to account IDs. */
+        private PersistentMap<String,Integer> handles;
+
+        /** Persistent map of post IDs to Post objects. */
+        private PersistentMap<Integer,Post> posts;
+
+        /** Persistent map of parent post IDs to the set of IDs of their comments. */
+        private PersistentMap<Integer,PersistentMap<Integer,Boolean>> childComments;
+
+        /** Persistent map of parent post IDs to the set of IDs of their endorsements. */
+        private PersistentMap<Integer,PersistentMap<Integer,Boolean>> childEndorsements;
+
+        /** Persistent map of account IDs to the set of IDs of the posts they authored. */
+        private PersistentMap<Integer,PersistentMap<Integer,Boolean>> accountPosts;
+
+        /** Next account ID to be handed out. */
+        private int accountHighWaterMark;
+
+        /** Next post ID to be handed out. */
+        private int postHighWaterMark;
+
+        /** The number of {@link OriginalPost} objects on the platform. */
+        private int originalPostCount;
+
+        /** The number of {@link Comment} objects on the platform. */
+        private int commentPostCount;
+
+        /** The number of {@link Endorsement} objects on the platform. */
+        private int endorsementPostCount;
+
+        /** ID of the post with the most endorsements, or -1 if there are no posts. */
+        private int mostEndorsedPost = -1;
+
+        /** ID of the account with the most endorsements, or -1 if there are no accounts. */
+        private int mostEndorsedAccount = -1;
+
+        /**
+         * Constructor which creates an empty platform.
+         */
+        private Version() {
+            accounts = PersistentMap.empty();
+            handles = PersistentMap.empty();
+            posts = PersistentMap.empty();
+            childComments = PersistentMap.empty();
+            childEndorsements = PersistentMap.empty();
+            accountPosts = PersistentMap.empty();
+        }
+
+        /**
+         * Constructor which starts building the next version from a published one.
+         *
+         * @param previous the current version.
+         */
+        private Version(Version previous) {
+            accounts = previous.accounts;
+            handles = previous.handles;
+            posts = previous.posts;
+            childComments = previous.childComments;
+            childEndorsements = previous.childEndorsements;
+            accountPosts = previous.accountPosts;
+            accountHighWaterMark = previous.accountHighWaterMark;
+            postHighWaterMark = previous.postHighWaterMark;
+            originalPostCount = previous.originalPostCount;
+            commentPostCount = previous.commentPostCount;
+            endorsementPostCount = previous.endorsementPostCount;
+            mostEndorsedPost = previous.mostEndorsedPost;
+            mostEndorsedAccount = previous.mostEndorsedAccount;
+        }
+    }
+
+    /** The current version of the platform. */
+    private final AtomicReference<Version> current = new AtomicReference<>(new Version());
+
+    /** Lock held while a change builds and publishes the next version. Reads never take it. */
+    private final ReentrantLock changeLock = new ReentrantLock();
+
+    /** Ranking of posts by endorsement count, kept in step with the current version by changes. */
+    private final EndorsementRanking postRanking = new EndorsementRanking();
+
+    /** Ranking of accounts by endorsement count, kept in step with the current version by changes. */
+    private final EndorsementRanking accountRanking = new EndorsementRanking();
+
+    @Override
+    public int createAccount(String handle) throws IllegalHandleException, InvalidHandleException {
+        return createAccount(handle, null);
+    }
+
+    @Override
+    public int createAccount(String handle, String description)
+            throws IllegalHandleException, InvalidHandleException {
+        changeLock.lock();
+        try {
+            Version next = new Version(current.get());
+            if (stringExceedsLimit(Account.HANDLE_CHAR_LIMIT, handle) || handle.contains(" ")) {
+                throw new InvalidHandleException();
+            } else if (next.handles.containsKey(handle)) {
+                throw new IllegalHandleException();
+            }
+            int id = next.accountHighWaterMark++;
+            next.accounts = next.accounts.put(id, new Account(id, handle, description));
+            next.handles = next.handles.put(handle, id);
+            accountRanking.add(id, 0);
+            publish(next);
+            return id;
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Override
+    public void removeAccount(int id) throws AccountIDNotRecognisedException {
+        changeLock.lock();
+        try {
+            Version next = new Version(current.get());
+            Account account = next.accounts.get(id);
+            if (account == null) {
+                throw new AccountIDNotRecognisedException();
+            }
+            removeAccount(next, account);
+            publish(next);
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Override
+    public void removeAccount(String handle) throws HandleNotRecognisedException {
+        changeLock.lock();
+        try {
+            Version next = new Version(current.get());
+            Integer id = next.handles.get(handle);
+            if (id == null) {
+                throw new HandleNotRecognisedException();
+            }
+            removeAccount(next, next.accounts.get(id));
+            publish(next);
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Override
+    public void changeAccountHandle(String oldHandle, String newHandle)
+            throws HandleNotRecognisedException, IllegalHandleException, InvalidHandleException {
+        changeLock.lock();
+        try {
+            Version next = new Version(current.get());
+            Integer id = next.handles.get(oldHandle);
+            if (id == null) {
+                throw new HandleNotRecognisedException();
+            } else if (stringExceedsLimit(Account.HANDLE_CHAR_LIMIT, newHandle)) {
+                throw new InvalidHandleException();
+            } else if (next.handles.containsKey(newHandle)) {
+                throw new IllegalHandleException();
+            }
+            // Posts show their author's handle through the account, so only the account changes
+            changeAccount(next, id).setHandle(newHandle);
+            next.handles = next.handles.remove(oldHandle).put(newHandle, id);
+            publish(next);
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Override
+    public void updateAccountDescription(String handle, String description) throws HandleNotRecognisedException {
+        changeLock.lock();
+        try {
+            Version next = new Version(current.get());
+            Integer id = next.handles.get(handle);
+            if (id == null) {
+                throw new HandleNotRecognisedException();
+            }
+            changeAccount(next, id).setDescription(description);
+            publish(next);
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Override
+    public String showAccount(String handle) throws HandleNotRecognisedException {
+        Version version = current.get();
+        Integer id = version.handles.get(handle);
+        if (id == null) {
+            throw new HandleNotRecognisedException();
+        }
+        Account account = version.accounts.get(id);
+        return PlatformFormat.account(id, handle, account.getDescription(), account.getPostCount(), account.getEndorseCount());
+    }
+
+    @Override
+    public int createPost(String handle, String message) throws HandleNotRecognisedException, InvalidPostException {
+        changeLock.lock();
+        try {
+            Version next = new Version(current.get());
+            Integer authorId = next.handles.get(handle);
+            if (authorId == null) {
+                throw new HandleNotRecognisedException();
+            } else if (stringExceedsLimit(Post.POST_CHAR_LIMIT, message)) {
+                throw new InvalidPostException();
+            }
+            int id = addOriginalPost(next, authorId, message);
+            publish(next);
+            return id;
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Override
+    public int endorsePost(String handle, int id)
+            throws HandleNotRecognisedException, PostIDNotRecognisedException, NotActionablePostException {
+        changeLock.lock();
+        try {
+            Version next = new Version(current.get());
+            Integer endorserId = next.handles.get(handle);
+            Post post = next.posts.get(id);
+            if (endorserId == null) {
+                throw new HandleNotRecognisedException();
+            } else if (post == null) {
+                throw new PostIDNotRecognisedException();
+            } else if (post instanceof Endorsement) {
+                throw new NotActionablePostException();
+            }
+            int endorsementId = addEndorsement(next, endorserId, post);
+            publish(next);
+            return endorsementId;
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Override
+    public int commentPost(String handle, int id, String message) throws HandleNotRecognisedException,
+            PostIDNotRecognisedException, NotActionablePostException, InvalidPostException {
+        changeLock.lock();
+        try {
+            Version next = new Version(current.get());
+            Integer authorId = next.handles.get(handle);
+            Post post = next.posts.get(id);
+            if (authorId == null) {
+                throw new HandleNotRecognisedException();
+            } else if (post == null) {
+                throw new PostIDNotRecognisedException();
+            } else if (post instanceof Endorsement) {
+                throw new NotActionablePostException();
+            } else if (stringExceedsLimit(Post.POST_CHAR_LIMIT, message)) {
+                throw new InvalidPostException();
+            }
+            int commentId = addComment(next, authorId, post, message);
+            publish(next);
+            return commentId;
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The whole batch is built as a single version, so readers see either none or all of it.
+     */
+    @Override
+    public BatchResult createPosts(String[] handles, String[] messages) {
+        BatchResult result = new BatchResult(BatchResult.checkSizes(handles.length, messages.length));
+        changeLock.lock();
+        try {
+            Version next = new Version(current.get());
+            for (int i = 0; i < handles.length; i++) {
+                Integer authorId = next.handles.get(handles[i]);
+                if (authorId == null) {
+                    result.failed(i, BatchResult.ErrorCode.HANDLE_NOT_RECOGNISED);
+                } else if (stringExceedsLimit(Post.POST_CHAR_LIMIT, messages[i])) {
+                    result.failed(i, BatchResult.ErrorCode.INVALID_POST);
+                } else {
+                    result.succeeded(i, addOriginalPost(next, authorId, messages[i]));
+                }
+            }
+            publish(next);
+        } finally {
+            changeLock.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The whole batch is built as a single version, so readers see either none or all of it.
+     */
+    @Override
+    public BatchResult endorsePosts(String[] handles, int[] ids) {
+        BatchResult result = new BatchResult(BatchResult.checkSizes(handles.length, ids.length));
+        changeLock.lock();
+        try {
+            Version next = new Version(current.get());
+            for (int i = 0; i < handles.length; i++) {
+                Integer endorserId = next.handles.get(handles[i]);
+                Post post = next.posts.get(ids[i]);
+                if (endorserId == null) {
+                    result.failed(i, BatchResult.ErrorCode.HANDLE_NOT_RECOGNISED);
+                } else if (post == null) {
+                    result.failed(i, BatchResult.ErrorCode.POST_ID_NOT_RECOGNISED);
+                } else if (post instanceof Endorsement) {
+                    result.failed(i, BatchResult.ErrorCode.NOT_ACTIONABLE_POST);
+                } else {
+                    result.succeeded(i, addEndorsement(next, endorserId, post));
+                }
+            }
+            publish(next);
+        } finally {
+            changeLock.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The whole batch is built as a single version, so readers see either none or all of it.
+     */
+    @Override
+    public BatchResult commentPosts(String[] handles, int[] ids, String[] messages) {
+        BatchResult result = new BatchResult(BatchResult.checkSizes(handles.length, ids.length, messages.length));
+        changeLock.lock();
+        try {
+            Version next = new Version(current.get());
+            for (int i = 0; i < handles.length; i++) {
+                Integer authorId = next.handles.get(handles[i]);
+                Post post = next.posts.get(ids[i]);
+                if (authorId == null) {
+                    result.failed(i, BatchResult.ErrorCode.HANDLE_NOT_RECOGNISED);
+                } else if (post == null) {
+                    result.failed(i, BatchResult.ErrorCode.POST_ID_NOT_RECOGNISED);
+                } else if (post instanceof Endorsement) {
+                    result.failed(i, BatchResult.ErrorCode.NOT_ACTIONABLE_POST);
+                } else if (stringExceedsLimit(Post.POST_CHAR_LIMIT, messages[i])) {
+                    result.failed(i, BatchResult.ErrorCode.INVALID_POST);
+                } else {
+                    result.succeeded(i, addComment(next, authorId, post, messages[i]));
+                }
+            }
+            publish(next);
+        } finally {
+            changeLock.unlock();
+        }
+        return result;
+    }
+
+    @Override
+    public void deletePost(int id) throws PostIDNotRecognisedException {
+        changeLock.lock();
+        try {
+            Version next = new Version(current.get());
+            if (!next.posts.containsKey(id)) {
+                throw new PostIDNotRecognisedException();
+            }
+            deletePost(next, id);
+            publish(next);
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    @Override
+    public String showIndividualPost(int id) throws PostIDNotRecognisedException {
+        String text = format(current.get(), id);
+        if (text == null) {
+            throw new PostIDNotRecognisedException();
+        }
+        return text;
+    }
+
+    @Override
+    public StringBuilder showPostChildrenDetails(int id)
+            throws PostIDNotRecognisedException, NotActionablePostException {
+        Version version = current.get();
+        checkThreadRoot(version, id);
+        StringBuilder postFamilyInfo = new StringBuilder();
+        try {
+            ThreadRenderer.render(threadSource(version), id, postFamilyInfo);
+        } catch (IOException e) {
+            // A StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        return postFamilyInfo;
+    }
+
+    /**
+     * Returns one page of the formatted thread of a post, in the same format as
+     * {@link PersistentSocialMedia#showPostChildrenDetails(int)}, leaving out comments nested deeper
+     * than a given depth. The cursor of each page is passed to get the next one. Each page is taken
+     * from a single version of the platform, but the pages of a thread may be taken from different ones.
+     *
+     * @param id of the post to be shown.
+     * @param maxDepth depth of the deepest comments shown (0 shows the post alone).
+     * @param pageSize largest number of posts on the page.
+     * @param cursor {@link ThreadPage#getCursor()} of the previous page, or null for the first page.
+     * @return the page.
+     * @throws PostIDNotRecognisedException if the ID does not match to any post in the system.
+     * @throws NotActionablePostException if the ID refers to an endorsement post.
+     * @throws IllegalArgumentException if the depth is negative, the page size is not positive,
+     *                                  or the cursor is not one of the post's thread.
+     */
+    public ThreadPage showPostChildrenDetails(int id, int maxDepth, int pageSize, String cursor)
+            throws PostIDNotRecognisedException, NotActionablePostException {
+        Version version = current.get();
+        checkThreadRoot(version, id);
+        return ThreadRenderer.page(threadSource(version), id, maxDepth, pageSize, cursor);
+    }
+
+    /**
+     * Writes the formatted thread of a post to an {@link Appendable}, in the same format as
+     * {@link PersistentSocialMedia#showPostChildrenDetails(int)}. The whole thread is taken from
+     * a single version of the platform, however long it takes to write.
+     *
+     * @param id of the post to be shown.
+     * @param out destination of the thread.
+     * @throws PostIDNotRecognisedException if the ID does not match to any post in the system.
+     * @throws NotActionablePostException if the ID refers to an endorsement post.
+     * @throws IOException if there is a problem writing to the destination.
+     */
+    public void renderPostChildrenDetails(int id, Appendable out)
+            throws PostIDNotRecognisedException, NotActionablePostException, IOException {
+        Version version = current.get();
+        checkThreadRoot(version, id);
+        ThreadRenderer.render(threadSource(version), id, out);
+    }
+
+    /**
+     * Writes the formatted thread of a post to a channel, encoded in UTF-8, in the same format as
+     * {@link PersistentSocialMedia#showPostChildrenDetails(int)}. The channel is left open.
+     *
+     * @param id of the post to be shown.
+     * @param channel destination of the thread.
+     * @throws PostIDNotRecognisedException if the ID does not match to any post in the system.
+     * @throws NotActionablePostException if the ID refers to an endorsement post.
+     * @throws IOException if there is a problem writing to the channel.
+     */
+    public void renderPostChildrenDetails(int id, WritableByteChannel channel)
+            throws PostIDNotRecognisedException, NotActionablePostException, IOException {
+        Version version = current.get();
+        checkThreadRoot(version, id);
+        ThreadRenderer.render(threadSource(version), id, channel);
+    }
+
+    @Override
+    public int getNumberOfAccounts() {
+        return current.get().accounts.size();
+    }
+
+    @Override
+    public int getTotalOriginalPosts() {
+        return current.get().originalPostCount;
+    }
+
+    @Override
+    public int getTotalEndorsmentPosts() {
+        return current.get().endorsementPostCount;
+    }
+
+    @Override
+    public int getTotalCommentPosts() {
+        return current.get().commentPostCount;
+    }
+
+    @Override
+    public int getMostEndorsedPost() {
+        return current.get().mostEndorsedPost;
+    }
+
+    @Override
+    public int getMostEndorsedAccount() {
+        return current.get().mostEndorsedAccount;
+    }
+
+    @Override
+    public void erasePlatform() {
+        changeLock.lock();
+        try {
+            postRanking.clear();
+            accountRanking.clear();
+            current.set(new Version());
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The platform is written as it was when the save started, without holding any lock,
+     * so changes carry on while it is written.
+     */
+    @Override
+    public void savePlatform(String filename) throws IOException {
+        Version version = current.get();
+        List<Account> accounts = new ArrayList<>(version.accounts.size());
+        version.accounts.forEach((id, account) -> accounts.add(account));
+        int[] postIds = new int[version.posts.size()];
+        int[] count = {0};
+        version.posts.forEach((id, post) -> postIds[count[0]++] = id);
+        Arrays.sort(postIds);
+        try (SnapshotWriter out = new SnapshotWriter(filename, version.accountHighWaterMark, version.postHighWaterMark,
+                accounts.size(), postIds.length)) {
+            for (Account value : accounts) {
+                out.writeAccount(value);
+            }
+            for (int id : postIds) {
+                out.writePost(version.posts.get(id));
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The file is read without holding any lock, and the platform it holds is then published
+     * as a whole, so readers see either the old platform or the loaded one.
+     */
+    @Override
+    public void loadPlatform(String filename) throws IOException, ClassNotFoundException {
+        Version loaded = new Version();
+        SnapshotReader.read(filename, new SnapshotReader.Sink() {
+            @Override
+            public void header(int accountHighWaterMark, int postHighWaterMark, int accountCount, int postCount) {
+                loaded.accountHighWaterMark = accountHighWaterMark;
+                loaded.postHighWaterMark = postHighWaterMark;
+            }
+
+            @Override
+            public void account(int id, String handle, String description, int postCount, int endorseCount) {
+                loaded.accounts = loaded.accounts.put(id, SnapshotReader.toAccount(id, handle, description, postCount, endorseCount));
+                loaded.handles = loaded.handles.put(handle, id);
+            }
+
+            @Override
+            public void post(byte type, int id, int authorId, int parentId, int commentCount, int endorseCount, String message) {
+                loaded.posts = loaded.posts.put(id, SnapshotReader.toPost(type, id, authorId, parentId, commentCount, endorseCount, message));
+            }
+        });
+        changeLock.lock();
+        try {
+            rebuildIndexes(loaded);
+            publish(loaded);
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    /**
+     * Checks that a post exists and can have a comment thread, in a version of the platform.
+     *
+     * @param version version of the platform.
+     * @param id post ID.
+     * @throws PostIDNotRecognisedException if the ID does not match to any post.
+     * @throws NotActionablePostException if the ID refers to an endorsement post.
+     */
+    private static void checkThreadRoot(Version version, int id)
+            throws PostIDNotRecognisedException, NotActionablePostException {
+        Post post = version.posts.get(id);
+        if (post == null) {
+            throw new PostIDNotRecognisedException();
+        } else if (post instanceof Endorsement) {
+            throw new NotActionablePostException();
+        }
+    }
+
+    /**
+     * Formats a post as it is in a version of the platform.
+     *
+     * @param version version of the platform.
+     * @param id post ID.
+     * @return the formatted post, or null if there is no post with the ID.
+     */
+    private static String format(Version version, int id) {
+        Post post = version.posts.get(id);
+        if (post == null) {
+            return null;
+        }
+        String handle = version.accounts.get(post.getAuthorId()).getHandle();
+        return PlatformFormat.post(id, handle, post.getEndorseCount(), post.getCommentCount(), post.getMessage());
+    }
+
+    /**
+     * Returns the posts of a version of the platform as a {@link ThreadRenderer.Source}.
+     * A comment set is unordered, so the comments wanted are sorted each time a post is visited.
+     *
+     * @param version version of the platform.
+     * @return source of the posts of comment threads.
+     */
+    private static ThreadRenderer.Source threadSource(Version version) {
+        return new ThreadRenderer.Source() {
+            @Override
+            public String showPost(int id) {
+                return format(version, id);
+            }
+
+            @Override
+            public Iterator<Integer> comments(int id, int after) {
+                PersistentMap<Integer,Boolean> comments = version.childComments.get(id);
+                if (comments == null) {
+                    return Collections.emptyIterator();
+                }
+                List<Integer> wanted = new ArrayList<>();
+                comments.forEach((commentId, present) -> {
+                    if (commentId > after) {
+                        wanted.add(commentId);
+                    }
+                });
+                Collections.sort(wanted);
+                return wanted.iterator();
+            }
+        };
+    }
+
+    /**
+     * Publishes a version built by a change as the current version, along with the most
+     * endorsed post and account. Must be called while holding {@link PersistentSocialMedia#changeLock}.
+     *
+     * @param next version built by the change.
+     */
+    private void publish(Version next) {
+        next.mostEndorsedPost = postRanking.first();
+        next.mostEndorsedAccount = accountRanking.first();
+        current.set(next);
+    }
+
+    /**
+     * Replaces an account in a version being built with a copy of it, which the caller may then change.
+     *
+     * @param next version being built.
+     * @param id account ID.
+     * @return the copy.
+     */
+    private static Account changeAccount(Version next, int id) {
+        Account account = next.accounts.get(id);
+        Account copy = SnapshotReader.toAccount(id, account.getHandle(), account.getDescription(),
+                account.getPostCount(), account.getEndorseCount());
+        next.accounts = next.accounts.put(id, copy);
+        return copy;
+    }
+
+    /**
+     * Replaces a post in a version being built with a copy of it, which the caller may then change.
+     *
+     * @param next version being built.
+     * @param id post ID.
+     * @return the copy.
+     */
+    private static Post changePost(Version next, int id) {
+        Post post = next.posts.get(id);
+        Post copy = SnapshotReader.toPost(SnapshotWriter.typeOf(post), id, post.getAuthorId(),
+                SnapshotWriter.parentOf(post), post.getCommentCount(), post.getEndorseCount(), post.getMessage());
+        next.posts = next.posts.put(id, copy);
+        return copy;
+    }
+
+    /**
+     * Adds the endorsements of a post to the endorsement count of an account in a version being built.
+     *
+     * @param next version being built.
+     * @param id account ID.
+     * @param change number of endorsements to add (negative to take away).
+     */
+    private void addAccountEndorsements(Version next, int id, int change) {
+        Account account = changeAccount(next, id);
+        account.setEndorseCount(account.getEndorseCount() + change);
+        accountRanking.update(id, account.getEndorseCount());
+    }
+
+    /**
+     * Adds to the post count of an account in a version being built.
+     *
+     * @param next version being built.
+     * @param id account ID.
+     * @param change number of posts to add (negative to take away).
+     */
+    private static void addAccountPosts(Version next, int id, int change) {
+        Account account = changeAccount(next, id);
+        account.setPostCount(account.getPostCount() + change);
+    }
+
+    /**
+     * Creates an original post in a version being built, once its author and message have been checked.
+     *
+     * @param next version being built.
+     * @param authorId ID of the account creating the post.
+     * @param message message of the post.
+     * @return ID of the new post.
+     */
+    private int addOriginalPost(Version next, int authorId, String message) {
+        int id = next.postHighWaterMark++;
+        next.posts = next.posts.put(id, new OriginalPost(id, authorId, message));
+        next.accountPosts = addToIndex(next.accountPosts, authorId, id);
+        next.originalPostCount++;
+        addAccountPosts(next, authorId, 1);
+        postRanking.add(id, 0);
+        return id;
+    }
+
+    /**
+     * Creates an endorsement of a post in a version being built, once the endorser and post have been checked.
+     *
+     * @param next version being built.
+     * @param endorserId ID of the account endorsing the post.
+     * @param post original post or comment being endorsed.
+     * @return ID of the new endorsement.
+     */
+    private int addEndorsement(Version next, int endorserId, Post post) {
+        int id = next.postHighWaterMark++;
+        String message = String.format("EP@%1$s: %2$s", next.accounts.get(post.getAuthorId()).getHandle(), post.getMessage());
+        next.posts = next.posts.put(id, new Endorsement(id, endorserId, post.getPostId(), message));
+        next.childEndorsements = addToIndex(next.childEndorsements, post.getPostId(), id);
+        next.accountPosts = addToIndex(next.accountPosts, endorserId, id);
+        next.endorsementPostCount++;
+        postRanking.add(id, 0);
+        Post endorsed = changePost(next, post.getPostId());
+        endorsed.setEndorseCount(endorsed.getEndorseCount() + 1);
+        postRanking.update(endorsed.getPostId(), endorsed.getEndorseCount());
+        addAccountPosts(next, endorserId, 1);
+        addAccountEndorsements(next, post.getAuthorId(), 1);
+        return id;
+    }
+
+    /**
+     * Creates a comment on a post in a version being built, once the author, post and message have been checked.
+     *
+     * @param next version being built.
+     * @param authorId ID of the account creating the comment.
+     * @param post original post or comment being commented on.
+     * @param message message of the comment.
+     * @return ID of the new comment.
+     */
+    private int addComment(Version next, int authorId, Post post, String message) {
+        int id = next.postHighWaterMark++;
+        next.posts = next.posts.put(id, new Comment(id, authorId, post.getPostId(), message));
+        next.childComments = addToIndex(next.childComments, post.getPostId(), id);
+        next.accountPosts = addToIndex(next.accountPosts, authorId, id);
+        next.commentPostCount++;
+        postRanking.add(id, 0);
+        Post parent = changePost(next, post.getPostId());
+        parent.setCommentCount(parent.getCommentCount() + 1);
+        addAccountPosts(next, authorId, 1);
+        return id;
+    }
+
+    /**
+     * Deletes a post from a version being built, along with its endorsements,
+     * leaving its comments without a parent.
+     *
+     * @param next version being built.
+     * @param id ID of a post in the version.
+     */
+    private void deletePost(Version next, int id) {
+        removePost(next, id);
+        PersistentMap<Integer,Boolean> comments = next.childComments.get(id);
+        if (comments != null) {
+            next.childComments = next.childComments.remove(id);
+            comments.forEach((commentId, present) -> ((Comment) changePost(next, commentId)).setParentDeleted());
+        }
+        PersistentMap<Integer,Boolean> endorsements = next.childEndorsements.get(id);
+        if (endorsements != null) {
+            next.childEndorsements = next.childEndorsements.remove(id);
+            endorsements.forEach((endorsementId, present) -> {
+                Post endorsement = next.posts.get(endorsementId);
+                next.posts = next.posts.remove(endorsementId);
+                postRanking.remove(endorsementId);
+                addAccountPosts(next, endorsement.getAuthorId(), -1);
+                next.accountPosts = removeFromIndex(next.accountPosts, endorsement.getAuthorId(), endorsementId);
+                next.endorsementPostCount--;
+            });
+        }
+    }
+
+    /**
+     * Removes a single post from a version being built, updating the counters of its author
+     * and parent post, and unlinking it from its parent in the child index.
+     * Children of the post are left for the caller to handle.
+     *
+     * @param next version being built.
+     * @param id ID of a post in the version.
+     */
+    private void removePost(Version next, int id) {
+        Post post = next.posts.get(id);
+        next.posts = next.posts.remove(id);
+        postRanking.remove(id);
+        addAccountPosts(next, post.getAuthorId(), -1);
+        next.accountPosts = removeFromIndex(next.accountPosts, post.getAuthorId(), id);
+        if (post instanceof OriginalPost) {
+            next.originalPostCount--;
+        } else if (post instanceof Comment) {
+            next.commentPostCount--;
+            int parentId = ((Comment) post).getParentId();
+            if (parentId != -1) {
+                Post parent = changePost(next, parentId);
+                parent.setCommentCount(parent.getCommentCount() - 1);
+                next.childComments = removeFromIndex(next.childComments, parentId, id);
+            }
+        } else if (post instanceof Endorsement) {
+            next.endorsementPostCount--;
+            Post parent = changePost(next, ((Endorsement) post).getParentId());
+            parent.setEndorseCount(parent.getEndorseCount() - 1);
+            postRanking.update(parent.getPostId(), parent.getEndorseCount());
+            addAccountEndorsements(next, parent.getAuthorId(), -1);
+            next.childEndorsements = removeFromIndex(next.childEndorsements, parent.getPostId(), id);
+        }
+        if (post.getEndorseCount() > 0) {
+            // Endorsements of the post are removed with it, so its author loses them
+            addAccountEndorsements(next, post.getAuthorId(), -post.getEndorseCount());
+        }
+    }
+
+    /**
+     * Removes an account from a version being built, after deleting every post it authored.
+     *
+     * @param next version being built.
+     * @param account account to remove.
+     */
+    private void removeAccount(Version next, Account account) {
+        int id = account.getAccountId();
+        PersistentMap<Integer,Boolean> authored = next.accountPosts.get(id);
+        if (authored != null) {
+            List<Integer> postIds = new ArrayList<>(authored.size());
+            authored.forEach((postId, present) -> postIds.add(postId));
+            Collections.sort(postIds);
+            for (int postId : postIds) {
+                // Endorsements of the account's own posts may already have been cascaded away
+                if (next.posts.containsKey(postId)) {
+                    deletePost(next, postId);
+                }
+            }
+            next.accountPosts = next.accountPosts.remove(id);
+        }
+        next.accounts = next.accounts.remove(id);
+        next.handles = next.handles.remove(account.getHandle());
+        accountRanking.remove(id);
+    }
+
+    /**
+     * Rebuilds the post indexes, post type counters and endorsement rankings of a loaded
+     * version from its accounts and posts, and makes sure its high-water marks are above
+     * every ID in use. Must be called while holding {@link PersistentSocialMedia#changeLock}.
+     *
+     * @param loaded version holding only the loaded accounts and posts.
+     */
+    private void rebuildIndexes(Version loaded) {
+        postRanking.clear();
+        accountRanking.clear();
+        loaded.accounts.forEach((id, account) -> {
+            accountRanking.add(id, account.getEndorseCount());
+            loaded.accountHighWaterMark = Math.max(loaded.accountHighWaterMark, id + 1);
+        });
+        loaded.posts.forEach((id, post) -> {
+            loaded.postHighWaterMark = Math.max(loaded.postHighWaterMark, id + 1);
+            loaded.accountPosts = addToIndex(loaded.accountPosts, post.getAuthorId(), id);
+            postRanking.add(id, post.getEndorseCount());
+            if (post instanceof OriginalPost) {
+                loaded.originalPostCount++;
+            } else if (post instanceof Comment) {
+                loaded.commentPostCount++;
+                if (((Comment) post).getParentId() != -1) {
+                    loaded.childComments = addToIndex(loaded.childComments, ((Comment) post).getParentId(), id);
+                }
+            } else if (post instanceof Endorsement) {
+                loaded.endorsementPostCount++;
+                loaded.childEndorsements = addToIndex(loaded.childEndorsements, ((Endorsement) post).getParentId(), id);
+            }
+        });
+    }
+
+    /**
+     * Returns a post index with a post ID added to the set indexed under a key
+     * (a parent post ID or an account ID).
+     *
+     * @param index post index.
+     * @param key parent post id or account id.
+     * @param postId post id.
+     * @return the new index.
+     */
+    private static PersistentMap<Integer,PersistentMap<Integer,Boolean>> addToIndex(
+            PersistentMap<Integer,PersistentMap<Integer,Boolean>> index, int key, int postId) {
+        PersistentMap<Integer,Boolean> indexed = index.get(key);
+        if (indexed == null) {
+            indexed = PersistentMap.empty();
+        }
+        return index.put(key, indexed.put(postId, Boolean.TRUE));
+    }
+
+    /**
+     * Returns a post index with a post ID removed from the set indexed under a key,
+     * dropping the set once it is empty.
+     *
+     * @param index post index.
+     * @param key parent post id or account id.
+     * @param postId post id.
+     * @return the new index.
+     */
+    private static PersistentMap<Integer,PersistentMap<Integer,Boolean>> removeFromIndex(
+            PersistentMap<Integer,PersistentMap<Integer,Boolean>> index, int key, int postId) {
+        PersistentMap<Integer,Boolean> indexed = index.get(key);
+        if (indexed == null) {
+            return index;
+        }
+        indexed = indexed.remove(postId);
+        return indexed.isEmpty() ? index.remove(key) : index.put(key, indexed);
+    }
+
+    /**
+     * Checks if string exceeds the character limit or is empty.
+     *
+     * @param limit character limit.
+     * @param input string input.
+     * @return boolean if string exceeds character limit.
+     */
+    private static boolean stringExceedsLimit(int limit, String input) {
+        return input.length() > limit || input.length() == 0;
+    }
+}
@@ -0,0 +1,669 @@
+package socialmedia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * PipelinedSocialMedia is an implementor of the SocialMediaPlatform interface which applies every
+ * change on a single writer thread, so that changes never wait for each other's locks.
+ * <p>
+ * Each change is a command put on a bounded {@link RingBuffer}. The writer takes every command
+ * waiting in the buffer as one batch and applies them in order to a {@link SocialMedia}, which
+ * needs no synchronisation of its own as only the writer changes it. Callers from any number of
+ * threads submit commands without taking a lock, and only wait while the buffer is full. So a
+ * post endorsed by thousands of threads at once costs each of them a place in the buffer, not a
+ * turn at a contended lock, and throughput is bounded by how fast one thread can apply changes.
+ * <p>
+ * The methods ending in {@code Async} submit a change and return straight away, with a future
+ * completed once the change is applied (or failed with the exception the change threw). The
+ * methods of the SocialMediaPlatform interface submit the change and wait for it. Futures are
+ * completed on the writer thread, so work chained onto them should use the {@code Async}
+ * methods of {@link CompletableFuture} to keep it off the writer.
+ * <p>
+ * Requests which do not change the platform are answered straight from the {@link SocialMedia}
+ * under a read lock, which the writer takes once per batch rather than once per change, and
+ * always see every change whose future has completed. Saving the platform goes through the
+ * writer, so it holds every change submitted before it.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public class PipelinedSocialMedia implements BatchSocialMediaPlatform, Closeable {
+
+    /** Default number of commands the buffer holds, which is also the largest batch applied at once. */
+    public static final int DEFAULT_RING_CAPACITY = 1024;
+
+    /**
+     * The Command interface is a change to be applied to the platform by the writer thread.
+     *
+     * @param <T> type of the change's result.
+     */
+    private interface Command<T> {
+
+        /**
+         * Applies the change.
+         *
+         * @param core platform to change.
+         * @return result of the change.
+         * @throws Exception if the change fails, leaving the platform as it was.
+         */
+        T apply(SocialMedia core) throws Exception;
+    }
+
+    /**
+     * The Entry class is a command waiting in the buffer, and the future of its result.
+     *
+     * @param <T> type of the command's result.
+     */
+    private static final class Entry<T> {
+
+        /** Command to apply. */
+        private final Command<T> command;
+
+        /** Future completed once the command has been applied. */
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        /** Result of the command, once applied. */
+        private T value;
+
+        /** Exception thrown by the command, or null if it succeeded. */
+        private Throwable failure;
+
+        /**
+         * Constructor which creates an entry for a command.
+         *
+         * @param command command to apply.
+         */
+        private Entry(Command<T> command) {
+            this.command = command;
+        }
+
+        /**
+         * Applies the command, unless its future has been cancelled, recording how it went.
+         *
+         * @param core platform to change.
+         */
+        private void apply(SocialMedia core) {
+            if (result.isCancelled()) {
+                return;
+            }
+            try {
+                value = command.apply(core);
+            } catch (Throwable e) {
+                // Even an error only fails this command, so the writer keeps running
+                failure = e;
+            }
+        }
+
+        /**
+         * Completes the future with how the command went.
+         */
+        private void complete() {
+            if (failure == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(failure);
+            }
+        }
+    }
+
+    /** Platform changed only by the writer thread. */
+    private final SocialMedia core = new SocialMedia();
+
+    /** Lock the writer holds while applying a batch, and requests which do not change the platform share. */
+    private final ReentrantReadWriteLock coreLock = new ReentrantReadWriteLock();
+
+    /** Commands waiting to be applied. */
+    private final RingBuffer<Entry<?>> commands;
+
+    /** Thread which applies the commands. */
+    private final Thread writer;
+
+    /**
+     * Constructor which creates an empty platform, holding up to
+     * {@link PipelinedSocialMedia#DEFAULT_RING_CAPACITY} waiting commands.
+     */
+    public PipelinedSocialMedia() {
+        this(DEFAULT_RING_CAPACITY);
+    }
+
+    /**
+     * Constructor which creates an empty platform.
+     *
+     * @param ringCapacity number of commands which can wait to be applied, a power of two.
+     *                     Callers wait while the buffer is full.
+     * @throws IllegalArgumentException if the capacity is not a power of two.
+     */
+    public PipelinedSocialMedia(int ringCapacity) {
+        commands = new RingBuffer<>(ringCapacity);
+        writer = new Thread(this::applyCommands, "platform-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Body of the writer thread: takes the waiting commands in batches and applies them,
+     * until the platform is closed and every command submitted has been applied.
+     */
+    private void applyCommands() {
+        Entry<?>[] batch = new Entry<?>[commands.capacity()];
+        while (true) {
+            int count = commands.drainTo(batch);
+            if (count == 0) {
+                if (commands.isDrained()) {
+                    return;
+                }
+                commands.awaitPublished();
+                continue;
+            }
+            coreLock.writeLock().lock();
+            try {
+                for (int i = 0; i < count; i++) {
+                    batch[i].apply(core);
+                }
+            } finally {
+                coreLock.writeLock().unlock();
+            }
+            // Completed once the lock is released, so a caller reading straight after sees its change
+            for (int i = 0; i < count; i++) {
+                batch[i].complete();
+                batch[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Submits a command to be applied by the writer thread.
+     *
+     * @param command command to apply.
+     * @param <T> type of the command's result.
+     * @return future completed once the command has been applied.
+     * @throws IllegalStateException if the platform has been closed.
+     */
+    private <T> CompletableFuture<T> submit(Command<T> command) {
+        Entry<T> entry = new Entry<>(command);
+        try {
+            commands.put(entry);
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException("Pipelined platform has been closed.");
+        }
+        return entry.result;
+    }
+
+    /**
+     * Waits for a command to be applied. An unchecked exception or error the command
+     * failed with is rethrown, and a checked one is returned for the caller to rethrow.
+     *
+     * @param result future of the command.
+     * @return the checked exception the command failed with, or null if it succeeded.
+     */
+    private static Throwable await(CompletableFuture<?> result) {
+        try {
+            result.join();
+            return null;
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            return cause;
+        }
+    }
+
+    /**
+     * Stops taking changes, and waits for every change already submitted to be applied.
+     * Requests which do not change the platform can still be made.
+     */
+    @Override
+    public void close() {
+        commands.close();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Submits {@link SocialMediaPlatform#createAccount(String)}.
+     *
+     * @param handle account's handle.
+     * @return future of the ID of the created account.
+     * @throws IllegalStateException if the platform has been closed.
+     */
+    public CompletableFuture<Integer> createAccountAsync(String handle) {
+        return submit(core -> core.createAccount(handle));
+    }
+
+    @Override
+    public int createAccount(String handle) throws IllegalHandleException, InvalidHandleException {
+        CompletableFuture<Integer> result = createAccountAsync(handle);
+        Throwable failure = await(result);
+        if (failure instanceof IllegalHandleException) {
+            throw (IllegalHandleException) failure;
+        } else if (failure instanceof InvalidHandleException) {
+            throw (InvalidHandleException) failure;
+        }
+        return result.join();
+    }
+
+    /**
+     * Submits {@link SocialMediaPlatform#createAccount(String, String)}.
+     *
+     * @param handle account's handle.
+     * @param description account's description.
+     * @return future of the ID of the created account.
+     * @throws IllegalStateException if the platform has been closed.
+     */
+    public CompletableFuture<Integer> createAccountAsync(String handle, String description) {
+        return submit(core -> core.createAccount(handle, description));
+    }
+
+    @Override
+    public int createAccount(String handle, String description) throws IllegalHandleException, InvalidHandleException {
+        CompletableFuture<Integer> result = createAccountAsync(handle, description);
+        Throwable failure = await(result);
+        if (failure instanceof IllegalHandleException) {
+            throw (IllegalHandleException) failure;
+        } else if (failure instanceof InvalidHandleException) {
+            throw (InvalidHandleException) failure;
+        }
+        return result.join();
+    }
+
+    /**
+     * Submits {@link SocialMediaPlatform#removeAccount(int)}.
+     *
+     * @param id ID of the account.
+     * @return future completed once the account is removed.
+     * @throws IllegalStateException if the platform has been closed.
+     */
+    public CompletableFuture<Void> removeAccountAsync(int id) {
+        return submit(core -> {
+            core.removeAccount(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void removeAccount(int id) throws AccountIDNotRecognisedException {
+        Throwable failure = await(removeAccountAsync(id));
+        if (failure instanceof AccountIDNotRecognisedException) {
+            throw (AccountIDNotRecognisedException) failure;
+        }
+    }
+
+    /**
+     * Submits {@link SocialMediaPlatform#removeAccount(String)}.
+     *
+     * @param handle account's handle.
+     * @return future completed once the account is removed.
+     * @throws IllegalStateException if the platform has been closed.
+     */
+    public CompletableFuture<Void> removeAccountAsync(String handle) {
+        return submit(core -> {
+            core.removeAccount(handle);
+            return null;
+        });
+    }
+
+    @Override
+    public void removeAccount(String handle) throws HandleNotRecognisedException {
+        Throwable failure = await(removeAccountAsync(handle));
+        if (failure instanceof HandleNotRecognisedException) {
+            throw (HandleNotRecognisedException) failure;
+        }
+    }
+
+    /**
+     * Submits {@link SocialMediaPlatform#changeAccountHandle(String, String)}.
+     *
+     * @param oldHandle account's old handle.
+     * @param newHandle account's new handle.
+     * @return future completed once the handle is changed.
+     * @throws IllegalStateException if the platform has been closed.
+     */
+    public CompletableFuture<Void> changeAccountHandleAsync(String oldHandle, String newHandle) {
+        return submit(core -> {
+            core.changeAccountHandle(oldHandle, newHandle);
+            return null;
+        });
+    }
+
+    @Override
+    public void changeAccountHandle(String oldHandle, String newHandle)
+            throws HandleNotRecognisedException, IllegalHandleException, InvalidHandleException {
+        Throwable failure = await(changeAccountHandleAsync(oldHandle, newHandle));
+        if (failure instanceof HandleNotRecognisedException) {
+            throw (HandleNotRecognisedException) failure;
+        } else if (failure instanceof IllegalHandleException) {
+            throw (IllegalHandleException) failure;
+        } else if (failure instanceof InvalidHandleException) {
+            throw (InvalidHandleException) failure;
+        }
+    }
+
+    /**
+     * Submits {@link SocialMediaPlatform#updateAccountDescription(String, String)}.
+     *
+     * @param handle handle to identify the account.
+     * @param description new text for description.
+     * @return future completed once the description is updated.
+     * @throws IllegalStateException if the platform has been closed.
+     */
+    public CompletableFuture<Void> updateAccountDescriptionAsync(String handle, String description) {
+        return submit(core -> {
+            core.updateAccountDescription(handle, description);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateAccountDescription(String handle, String description) throws HandleNotRecognisedException {
+        Throwable failure = await(updateAccountDescriptionAsync(handle, description));
+        if (failure instanceof HandleNotRecognisedException) {
+            throw (HandleNotRecognisedException) failure;
+        }
+    }
+
+    @Override
+    public String showAccount(String handle) throws HandleNotRecognisedException {
+        coreLock.readLock().lock();
+        try {
+            return core.showAccount(handle);
+        } finally {
+            coreLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Submits {@link SocialMediaPlatform#createPost(String, String)}.
+     *
+     * @param handle handle to identify the account.
+     * @param message post message.
+     * @return future of the sequential ID of the created post.
+     * @throws IllegalStateException if the platform has been closed.
+     */
+    public CompletableFuture<Integer> createPostAsync(String handle, String message) {
+        return submit(core -> core.createPost(handle, message));
+    }
+
+    @Override
+    public int createPost(String handle, String message) throws HandleNotRecognisedException, InvalidPostException {
+        CompletableFuture<Integer> result = createPostAsync(handle, message);
+        Throwable failure = await(result);
+        if (failure instanceof HandleNotRecognisedException) {
+            throw (HandleNotRecognisedException) failure;
+        } else if (failure instanceof InvalidPostException) {
+            throw (InvalidPostException) failure;
+        }
+        return result.join();
+    }
+
+    /**
+     * Submits {@link SocialMediaPlatform#endorsePost(String, int)}.
+     *
+     * @param handle of the account endorsing a post.
+     * @param id of the post being endorsed.
+     * @return future of the sequential ID of the created post.
+     * @throws IllegalStateException if the platform has been closed.
+     */
+    public CompletableFuture<Integer> endorsePostAsync(String handle, int id) {
+        return submit(core -> core.endorsePost(handle, id));
+    }
+
+    @Override
+    public int endorsePost(String handle, int id)
+            throws HandleNotRecognisedException, PostIDNotRecognisedException, NotActionablePostException {
+        CompletableFuture<Integer> result = endorsePostAsync(handle, id);
+        Throwable failure = await(result);
+        if (failure instanceof HandleNotRecognisedException) {
+            throw (HandleNotRecognisedException) failure;
+        } else if (failure instanceof PostIDNotRecognisedException) {
+            throw (PostIDNotRecognisedException) failure;
+        } else if (failure instanceof NotActionablePostException) {
+            throw (NotActionablePostException) failure;
+        }
+        return result.join();
+    }
+
+    /**
+     * Submits {@link SocialMediaPlatform#commentPost(String, int, String)}.
+     *
+     * @param handle of the account commenting a post.
+     * @param id of the post being commented.
+     * @param message the comment post message.
+     * @return future of the sequential ID of the created post.
+     * @throws IllegalStateException if the platform has been closed.
+     */
+    public CompletableFuture<Integer> commentPostAsync(String handle, int id, String message) {
+        return submit(core -> core.commentPost(handle, id, message));
+    }
+
+    @Override
+    public int commentPost(String handle, int id, String message) throws HandleNotRecognisedException,
+            PostIDNotRecognisedException, NotActionablePostException, InvalidPostException {
+        CompletableFuture<Integer> result = commentPostAsync(handle, id, message);
+        Throwable failure = await(result);
+        if (failure instanceof HandleNotRecognisedException) {
+            throw (HandleNotRecognisedException) failure;
+        } else if (failure instanceof PostIDNotRecognisedException) {
+            throw (PostIDNotRecognisedException) failure;
+        } else if (failure instanceof NotActionablePostException) {
+            throw (NotActionablePostException) failure;
+        } else if (failure instanceof InvalidPostException) {
+            throw (InvalidPostException) failure;
+        }
+        return result.join();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The whole batch is a single command.
+     */
+    @Override
+    public BatchResult createPosts(String[] handles, String[] messages) {
+        CompletableFuture<BatchResult> result = submit(core -> core.createPosts(handles, messages));
+        await(result);
+        return result.join();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The whole batch is a single command.
+     */
+    @Override
+    public BatchResult endorsePosts(String[] handles, int[] ids) {
+        CompletableFuture<BatchResult> result = submit(core -> core.endorsePosts(handles, ids));
+        await(result);
+        return result.join();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The whole batch is a single command.
+     */
+    @Override
+    public BatchResult commentPosts(String[] handles, int[] ids, String[] messages) {
+        CompletableFuture<BatchResult> result = submit(core -> core.commentPosts(handles, ids, messages));
+        await(result);
+        return result.join();
+    }
+
+    /**
+     * Submits {@link SocialMediaPlatform#deletePost(int)}.
+     *
+     * @param id ID of post to be removed.
+     * @return future completed once the post is deleted.
+     * @throws IllegalStateException if the platform has been closed.
+     */
+    public CompletableFuture<Void> deletePostAsync(int id) {
+        return submit(core -> {
+            core.deletePost(id);
+            return null;
+        });
+    }
+
+    @Override
+    public void deletePost(int id) throws PostIDNotRecognisedException {
+        Throwable failure = await(deletePostAsync(id));
+        if (failure instanceof PostIDNotRecognisedException) {
+            throw (PostIDNotRecognisedException) failure;
+        }
+    }
+
+    @Override
+    public String showIndividualPost(int id) throws PostIDNotRecognisedException {
+        coreLock.readLock().lock();
+        try {
+            return core.showIndividualPost(id);
+        } finally {
+            coreLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public StringBuilder showPostChildrenDetails(int id)
+            throws PostIDNotRecognisedException, NotActionablePostException {
+        coreLock.readLock().lock();
+        try {
+            return core.showPostChildrenDetails(id);
+        } finally {
+            coreLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getNumberOfAccounts() {
+        coreLock.readLock().lock();
+        try {
+            return core.getNumberOfAccounts();
+        } finally {
+            coreLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getTotalOriginalPosts() {
+        coreLock.readLock().lock();
+        try {
+            return core.getTotalOriginalPosts();
+        } finally {
+            coreLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getTotalEndorsmentPosts() {
+        coreLock.readLock().lock();
+        try {
+            return core.getTotalEndorsmentPosts();
+        } finally {
+            coreLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getTotalCommentPosts() {
+        coreLock.readLock().lock();
+        try {
+            return core.getTotalCommentPosts();
+        } finally {
+            coreLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getMostEndorsedPost() {
+        coreLock.readLock().lock();
+        try {
+            return core.getMostEndorsedPost();
+        } finally {
+            coreLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getMostEndorsedAccount() {
+        coreLock.readLock().lock();
+        try {
+            return core.getMostEndorsedAccount();
+        } finally {
+            coreLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Submits {@link SocialMediaPlatform#erasePlatform()}.
+     *
+     * @return future completed once the platform is erased.
+     * @throws IllegalStateException if the platform has been closed.
+     */
+    public CompletableFuture<Void> erasePlatformAsync() {
+        return submit(core -> {
+            core.erasePlatform();
+            return null;
+        });
+    }
+
+    @Override
+    public void erasePlatform() {
+        await(erasePlatformAsync());
+    }
+
+    /**
+     * Submits {@link SocialMediaPlatform#savePlatform(String)}. The file holds every change
+     * submitted before the save, and none submitted after it.
+     *
+     * @param filename location of the file to be saved.
+     * @return future completed once the file is written.
+     * @throws IllegalStateException if the platform has been closed.
+     */
+    public CompletableFuture<Void> savePlatformAsync(String filename) {
+        return submit(core -> {
+            core.savePlatform(filename);
+            return null;
+        });
+    }
+
+    @Override
+    public void savePlatform(String filename) throws IOException {
+        Throwable failure = await(savePlatformAsync(filename));
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+    }
+
+    /**
+     * Submits {@link SocialMediaPlatform#loadPlatform(String)}.
+     *
+     * @param filename location of the file to be loaded.
+     * @return future completed once the platform is loaded.
+     * @throws IllegalStateException if the platform has been closed.
+     */
+    public CompletableFuture<Void> loadPlatformAsync(String filename) {
+        return submit(core -> {
+            core.loadPlatform(filename);
+            return null;
+        });
+    }
+
+    @Override
+    public void loadPlatform(String filename) throws IOException, ClassNotFoundException {
+        Throwable failure = await(loadPlatformAsync(filename));
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        } else if (failure instanceof ClassNotFoundException) {
+            throw (ClassNotFoundException) failure;
+        }
+    }
+}
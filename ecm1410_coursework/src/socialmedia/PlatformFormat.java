@@ -0,0 +1,85 @@
+package socialmedia;
+
+import java.io.IOException;
+
+/**
+ * The PlatformFormat class holds the text templates used to display
+ * accounts, posts and comment threads, so that every implementor of
+ * {@link SocialMediaPlatform} in this package produces identical output.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+final class PlatformFormat {
+
+    /** Number of spaces each level of a comment thread is indented by. */
+    static final int THREAD_INDENT = 4;
+
+    /**
+     * Private constructor, as this class only holds static methods.
+     */
+    private PlatformFormat() {}
+
+    /**
+     * Formats the summary of an account.
+     *
+     * @param id account's ID.
+     * @param handle account's handle.
+     * @param description account's description.
+     * @param postCount number of posts made by the account.
+     * @param endorseCount number of endorsements on the account's posts.
+     * @return the account formatted summary.
+     * @see SocialMediaPlatform#showAccount(String)
+     */
+    static String account(int id, String handle, String description, int postCount, int endorseCount) {
+        return String.format("""
+                        ID: %1$s
+                        Handle: %2$s
+                        Description: %3$s
+                        Post count: %4$s
+                        Endorse count: %5$s""",
+                        id, handle, description, postCount, endorseCount);
+    }
+
+    /**
+     * Formats the summary of a post.
+     *
+     * @param id post's ID.
+     * @param handle author's handle.
+     * @param endorseCount number of endorsements on the post.
+     * @param commentCount number of comments on the post.
+     * @param message post's message.
+     * @return the post formatted summary.
+     * @see SocialMediaPlatform#showIndividualPost(int)
+     */
+    static String post(int id, String handle, int endorseCount, int commentCount, String message) {
+        return String.format("""
+                        ID: %1$s
+                        Account: %2$s
+                        No. Endorsements: %3$s | No. Comments: %4$s
+                        %5$s""",
+                        id, handle, endorseCount, commentCount, message);
+    }
+
+    /**
+     * Appends a formatted post to a comment thread being written.
+     * The root post of the thread (depth 0) is appended as is, while comments
+     * are appended below their parent and indented by their depth in the thread.
+     *
+     * @param thread thread being written.
+     * @param post formatted post summary.
+     * @param depth number of spaces the post is indented by.
+     * @throws IOException if there is a problem appending to the thread.
+     * @see SocialMediaPlatform#showPostChildrenDetails(int)
+     */
+    static void appendThreadNode(Appendable thread, String post, int depth) throws IOException {
+        if (depth == 0) {
+            thread.append(post);
+            return;
+        }
+        String indent = " ".repeat(depth - THREAD_INDENT);
+        thread.append('\n').append(indent).append("|\n").append(indent).append("| > ")
+                .append(post.indent(depth).trim());
+    }
+}
@@ -17,14 +17,11 @@ public abstract class Post implements Serializable {
     /** Constant character limit for all post messages. */
     static final int POST_CHAR_LIMIT = 100;
 
-    /** The total number of Post objects created (including deleted posts). */
-    static int numberOfPosts = 0;
-
     /** The sequential numerical ID of the post. */
     int postId;
 
-    /** The handle which is the author of the post. */
-    String author;
+    /** The ID of the account which is the author of the post. */
+    int authorId;
 
     /** The message which belongs to the post. */
     String message;
@@ -52,19 +49,14 @@ public abstract class Post implements Serializable {
     }
 
     /**
-     * Getter method for {@link Post#author}
-     * @return author's handle.
+     * Getter method for {@link Post#authorId}. The author's handle is looked up by
+     * this ID in the platform holding the post, so posts hold no handle of their own.
+     * @return author's account ID.
      */
-    public final String getAuthor(){
-        return author;
+    public final int getAuthorId(){
+        return authorId;
     }
 
-    /**
-     * Setter method for {@link Post#author}
-     * @param handle author's handle
-     */
-    public void setAuthor(String handle){this.author = handle;}
-
     /**
      * Setter method for  {@link OriginalPost#endorsementCount}
      * @param commentCount number of comments on post
@@ -0,0 +1,363 @@
+package socialmedia;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * RecordingSocialMedia is an implementor of the SocialMediaPlatform interface which passes
+ * every call on to another platform, and records it in a trace file: its arguments, when it
+ * started and how long it took, and what it returned or which exception it threw. The trace
+ * can be replayed on any platform by a {@link TraceReplayer}, to benchmark it against the
+ * recorded traffic and check it behaves the same.
+ * <p>
+ * Calls are recorded in the order they return, so a trace of a platform called by one thread
+ * at a time replays exactly. When calls overlap, the order they return in may not be the order
+ * they took effect in, so a replay may report differences in the IDs given out by overlapping calls.
+ * <p>
+ * The trace is written through a buffer, so the last calls recorded are only certain to be in
+ * the file once the platform is flushed or closed. Text shown by the platform is recorded by its
+ * length and hash (see {@link TraceFile}). A call whose record cannot be written has still been
+ * made on the wrapped platform, but throws an {@link java.io.UncheckedIOException}. Calls are as
+ * thread-safe as the wrapped platform, and the wrapped platform is left open when this one is closed.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public class RecordingSocialMedia implements BatchSocialMediaPlatform, Closeable {
+
+    /** The platform whose calls are recorded. */
+    private final SocialMediaPlatform platform;
+
+    /** Trace the calls are recorded in. */
+    private final TraceFile.Writer trace;
+
+    /**
+     * Constructor which starts recording the calls to a platform in a new trace file,
+     * replacing any file already there.
+     *
+     * @param platform platform whose calls are recorded.
+     * @param filename location of the trace file.
+     * @throws IOException if there is a problem creating the trace file.
+     */
+    public RecordingSocialMedia(SocialMediaPlatform platform, String filename) throws IOException {
+        this.platform = platform;
+        this.trace = new TraceFile.Writer(filename);
+    }
+
+    /**
+     * Writes every call recorded so far to the trace file.
+     *
+     * @throws IOException if there is a problem writing the trace.
+     */
+    public void flush() throws IOException {
+        trace.flush();
+    }
+
+    /**
+     * Stops recording, and closes the trace file.
+     *
+     * @throws IOException if there is a problem writing the trace.
+     */
+    @Override
+    public void close() throws IOException {
+        trace.close();
+    }
+
+    @Override
+    public int createAccount(String handle) throws IllegalHandleException, InvalidHandleException {
+        long start = trace.start();
+        int result;
+        try {
+            result = platform.createAccount(handle);
+        } catch (IllegalHandleException | InvalidHandleException | RuntimeException e) {
+            trace.threw(TraceFile.CREATE_ACCOUNT, start, e, handle);
+            throw e;
+        }
+        return trace.returned(TraceFile.CREATE_ACCOUNT, start, result, handle);
+    }
+
+    @Override
+    public int createAccount(String handle, String description) throws IllegalHandleException, InvalidHandleException {
+        long start = trace.start();
+        int result;
+        try {
+            result = platform.createAccount(handle, description);
+        } catch (IllegalHandleException | InvalidHandleException | RuntimeException e) {
+            trace.threw(TraceFile.CREATE_ACCOUNT_DESCRIPTION, start, e, handle, description);
+            throw e;
+        }
+        return trace.returned(TraceFile.CREATE_ACCOUNT_DESCRIPTION, start, result, handle, description);
+    }
+
+    @Override
+    public void removeAccount(int id) throws AccountIDNotRecognisedException {
+        long start = trace.start();
+        try {
+            platform.removeAccount(id);
+        } catch (AccountIDNotRecognisedException | RuntimeException e) {
+            trace.threw(TraceFile.REMOVE_ACCOUNT_BY_ID, start, e, id);
+            throw e;
+        }
+        trace.returned(TraceFile.REMOVE_ACCOUNT_BY_ID, start, null, id);
+    }
+
+    @Override
+    public void removeAccount(String handle) throws HandleNotRecognisedException {
+        long start = trace.start();
+        try {
+            platform.removeAccount(handle);
+        } catch (HandleNotRecognisedException | RuntimeException e) {
+            trace.threw(TraceFile.REMOVE_ACCOUNT_BY_HANDLE, start, e, handle);
+            throw e;
+        }
+        trace.returned(TraceFile.REMOVE_ACCOUNT_BY_HANDLE, start, null, handle);
+    }
+
+    @Override
+    public void changeAccountHandle(String oldHandle, String newHandle)
+            throws HandleNotRecognisedException, IllegalHandleException, InvalidHandleException {
+        long start = trace.start();
+        try {
+            platform.changeAccountHandle(oldHandle, newHandle);
+        } catch (HandleNotRecognisedException | IllegalHandleException | InvalidHandleException | RuntimeException e) {
+            trace.threw(TraceFile.CHANGE_ACCOUNT_HANDLE, start, e, oldHandle, newHandle);
+            throw e;
+        }
+        trace.returned(TraceFile.CHANGE_ACCOUNT_HANDLE, start, null, oldHandle, newHandle);
+    }
+
+    @Override
+    public void updateAccountDescription(String handle, String description) throws HandleNotRecognisedException {
+        long start = trace.start();
+        try {
+            platform.updateAccountDescription(handle, description);
+        } catch (HandleNotRecognisedException | RuntimeException e) {
+            trace.threw(TraceFile.UPDATE_ACCOUNT_DESCRIPTION, start, e, handle, description);
+            throw e;
+        }
+        trace.returned(TraceFile.UPDATE_ACCOUNT_DESCRIPTION, start, null, handle, description);
+    }
+
+    @Override
+    public String showAccount(String handle) throws HandleNotRecognisedException {
+        long start = trace.start();
+        String result;
+        try {
+            result = platform.showAccount(handle);
+        } catch (HandleNotRecognisedException | RuntimeException e) {
+            trace.threw(TraceFile.SHOW_ACCOUNT, start, e, handle);
+            throw e;
+        }
+        return trace.returned(TraceFile.SHOW_ACCOUNT, start, result, handle);
+    }
+
+    @Override
+    public int createPost(String handle, String message) throws HandleNotRecognisedException, InvalidPostException {
+        long start = trace.start();
+        int result;
+        try {
+            result = platform.createPost(handle, message);
+        } catch (HandleNotRecognisedException | InvalidPostException | RuntimeException e) {
+            trace.threw(TraceFile.CREATE_POST, start, e, handle, message);
+            throw e;
+        }
+        return trace.returned(TraceFile.CREATE_POST, start, result, handle, message);
+    }
+
+    @Override
+    public int endorsePost(String handle, int id)
+            throws HandleNotRecognisedException, PostIDNotRecognisedException, NotActionablePostException {
+        long start = trace.start();
+        int result;
+        try {
+            result = platform.endorsePost(handle, id);
+        } catch (HandleNotRecognisedException | PostIDNotRecognisedException | NotActionablePostException
+                 | RuntimeException e) {
+            trace.threw(TraceFile.ENDORSE_POST, start, e, handle, id);
+            throw e;
+        }
+        return trace.returned(TraceFile.ENDORSE_POST, start, result, handle, id);
+    }
+
+    @Override
+    public int commentPost(String handle, int id, String message) throws HandleNotRecognisedException,
+            PostIDNotRecognisedException, NotActionablePostException, InvalidPostException {
+        long start = trace.start();
+        int result;
+        try {
+            result = platform.commentPost(handle, id, message);
+        } catch (HandleNotRecognisedException | PostIDNotRecognisedException | NotActionablePostException
+                 | InvalidPostException | RuntimeException e) {
+            trace.threw(TraceFile.COMMENT_POST, start, e, handle, id, message);
+            throw e;
+        }
+        return trace.returned(TraceFile.COMMENT_POST, start, result, handle, id, message);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The batch is recorded as a single call, with the outcome of every item.
+     */
+    @Override
+    public BatchResult createPosts(String[] handles, String[] messages) {
+        long start = trace.start();
+        BatchResult result;
+        try {
+            result = platform instanceof BatchSocialMediaPlatform
+                    ? ((BatchSocialMediaPlatform) platform).createPosts(handles, messages)
+                    : BatchResult.createEach(platform, handles, messages);
+        } catch (RuntimeException e) {
+            trace.threw(TraceFile.CREATE_POSTS, start, e, handles, messages);
+            throw e;
+        }
+        return trace.returned(TraceFile.CREATE_POSTS, start, result, handles, messages);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The batch is recorded as a single call, with the outcome of every item.
+     */
+    @Override
+    public BatchResult endorsePosts(String[] handles, int[] ids) {
+        long start = trace.start();
+        BatchResult result;
+        try {
+            result = platform instanceof BatchSocialMediaPlatform
+                    ? ((BatchSocialMediaPlatform) platform).endorsePosts(handles, ids)
+                    : BatchResult.endorseEach(platform, handles, ids);
+        } catch (RuntimeException e) {
+            trace.threw(TraceFile.ENDORSE_POSTS, start, e, handles, ids);
+            throw e;
+        }
+        return trace.returned(TraceFile.ENDORSE_POSTS, start, result, handles, ids);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The batch is recorded as a single call, with the outcome of every item.
+     */
+    @Override
+    public BatchResult commentPosts(String[] handles, int[] ids, String[] messages) {
+        long start = trace.start();
+        BatchResult result;
+        try {
+            result = platform instanceof BatchSocialMediaPlatform
+                    ? ((BatchSocialMediaPlatform) platform).commentPosts(handles, ids, messages)
+                    : BatchResult.commentEach(platform, handles, ids, messages);
+        } catch (RuntimeException e) {
+            trace.threw(TraceFile.COMMENT_POSTS, start, e, handles, ids, messages);
+            throw e;
+        }
+        return trace.returned(TraceFile.COMMENT_POSTS, start, result, handles, ids, messages);
+    }
+
+    @Override
+    public void deletePost(int id) throws PostIDNotRecognisedException {
+        long start = trace.start();
+        try {
+            platform.deletePost(id);
+        } catch (PostIDNotRecognisedException | RuntimeException e) {
+            trace.threw(TraceFile.DELETE_POST, start, e, id);
+            throw e;
+        }
+        trace.returned(TraceFile.DELETE_POST, start, null, id);
+    }
+
+    @Override
+    public String showIndividualPost(int id) throws PostIDNotRecognisedException {
+        long start = trace.start();
+        String result;
+        try {
+            result = platform.showIndividualPost(id);
+        } catch (PostIDNotRecognisedException | RuntimeException e) {
+            trace.threw(TraceFile.SHOW_INDIVIDUAL_POST, start, e, id);
+            throw e;
+        }
+        return trace.returned(TraceFile.SHOW_INDIVIDUAL_POST, start, result, id);
+    }
+
+    @Override
+    public StringBuilder showPostChildrenDetails(int id)
+            throws PostIDNotRecognisedException, NotActionablePostException {
+        long start = trace.start();
+        StringBuilder result;
+        try {
+            result = platform.showPostChildrenDetails(id);
+        } catch (PostIDNotRecognisedException | NotActionablePostException | RuntimeException e) {
+            trace.threw(TraceFile.SHOW_POST_CHILDREN_DETAILS, start, e, id);
+            throw e;
+        }
+        return trace.returned(TraceFile.SHOW_POST_CHILDREN_DETAILS, start, result, id);
+    }
+
+    @Override
+    public int getNumberOfAccounts() {
+        long start = trace.start();
+        return trace.returned(TraceFile.GET_NUMBER_OF_ACCOUNTS, start, platform.getNumberOfAccounts());
+    }
+
+    @Override
+    public int getTotalOriginalPosts() {
+        long start = trace.start();
+        return trace.returned(TraceFile.GET_TOTAL_ORIGINAL_POSTS, start, platform.getTotalOriginalPosts());
+    }
+
+    @Override
+    public int getTotalEndorsmentPosts() {
+        long start = trace.start();
+        return trace.returned(TraceFile.GET_TOTAL_ENDORSEMENT_POSTS, start, platform.getTotalEndorsmentPosts());
+    }
+
+    @Override
+    public int getTotalCommentPosts() {
+        long start = trace.start();
+        return trace.returned(TraceFile.GET_TOTAL_COMMENT_POSTS, start, platform.getTotalCommentPosts());
+    }
+
+    @Override
+    public int getMostEndorsedPost() {
+        long start = trace.start();
+        return trace.returned(TraceFile.GET_MOST_ENDORSED_POST, start, platform.getMostEndorsedPost());
+    }
+
+    @Override
+    public int getMostEndorsedAccount() {
+        long start = trace.start();
+        return trace.returned(TraceFile.GET_MOST_ENDORSED_ACCOUNT, start, platform.getMostEndorsedAccount());
+    }
+
+    @Override
+    public void erasePlatform() {
+        long start = trace.start();
+        platform.erasePlatform();
+        trace.returned(TraceFile.ERASE_PLATFORM, start, null);
+    }
+
+    @Override
+    public void savePlatform(String filename) throws IOException {
+        long start = trace.start();
+        try {
+            platform.savePlatform(filename);
+        } catch (IOException | RuntimeException e) {
+            trace.threw(TraceFile.SAVE_PLATFORM, start, e, filename);
+            throw e;
+        }
+        trace.returned(TraceFile.SAVE_PLATFORM, start, null, filename);
+    }
+
+    @Override
+    public void loadPlatform(String filename) throws IOException, ClassNotFoundException {
+        long start = trace.start();
+        try {
+            platform.loadPlatform(filename);
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            trace.threw(TraceFile.LOAD_PLATFORM, start, e, filename);
+            throw e;
+        }
+        trace.returned(TraceFile.LOAD_PLATFORM, start, null, filename);
+    }
+}
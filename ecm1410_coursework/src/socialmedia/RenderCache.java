@@ -0,0 +1,187 @@
+package socialmedia;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+
+/**
+ * The RenderCache class holds the formatted text of recently shown accounts or posts, by ID,
+ * so that showing the same account or post again does not format it again.
+ * <p>
+ * The cache holds a bounded number of entries, evicting the least recently used entry once it is
+ * full. It never checks whether an entry is still up to date: the platform using it must
+ * {@link RenderCache#invalidate(int)} an entry whenever anything shown in it changes.
+ * <p>
+ * The entries are split into segments by ID, each with its own lock, so that threads showing
+ * different accounts or posts rarely wait for each other.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+final class RenderCache implements Serializable {
+
+    /**
+     * The Segment class is a least recently used map of part of the entries of a cache.
+     */
+    private final class Segment extends LinkedHashMap<Integer,String> {
+
+        /** Largest number of entries in the segment. */
+        private final int capacity;
+
+        /**
+         * Constructor which creates an empty segment.
+         *
+         * @param capacity largest number of entries in the segment.
+         */
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer,String> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /** Segments of the cache (none if the cache is disabled). */
+    private final Segment[] segments;
+
+    /** Number of lookups which found an entry. */
+    private final LongAdder hits = new LongAdder();
+
+    /** Number of lookups which found no entry. */
+    private final LongAdder misses = new LongAdder();
+
+    /** Number of entries evicted to make room for others. */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructor which creates an empty cache.
+     *
+     * @param capacity largest number of entries held (0 disables the cache).
+     * @param concurrency number of threads expected to use the cache at once.
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    RenderCache(int capacity, int concurrency) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Render cache capacity must not be negative.");
+        }
+        // A power of two segments, each holding at least 256 entries
+        int count = 1;
+        while (count < concurrency && count * 512 <= capacity) {
+            count *= 2;
+        }
+        segments = new Segment[capacity == 0 ? 0 : count];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment((capacity + count - 1) / count);
+        }
+    }
+
+    /**
+     * Returns the segment holding an ID.
+     *
+     * @param id account or post ID.
+     * @return the segment.
+     */
+    private Segment segmentOf(int id) {
+        return segments[(id ^ (id >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * Looks up the formatted text of an account or post.
+     *
+     * @param id account or post ID.
+     * @return the formatted text, or null if it is not cached.
+     */
+    String get(int id) {
+        if (segments.length == 0) {
+            return null;
+        }
+        Segment segment = segmentOf(id);
+        String text;
+        synchronized (segment) {
+            text = segment.get(id);
+        }
+        (text == null ? misses : hits).increment();
+        return text;
+    }
+
+    /**
+     * Caches the formatted text of an account or post.
+     *
+     * @param id account or post ID.
+     * @param text formatted text.
+     */
+    void put(int id, String text) {
+        if (segments.length == 0) {
+            return;
+        }
+        Segment segment = segmentOf(id);
+        synchronized (segment) {
+            segment.put(id, text);
+        }
+    }
+
+    /**
+     * Removes the formatted text of an account or post, as it has changed.
+     *
+     * @param id account or post ID.
+     */
+    void invalidate(int id) {
+        if (segments.length == 0) {
+            return;
+        }
+        Segment segment = segmentOf(id);
+        synchronized (segment) {
+            segment.remove(id);
+        }
+    }
+
+    /**
+     * Removes the formatted text of every cached account or post whose ID passes a test.
+     * Only the cached entries are tested, however many accounts or posts the platform has.
+     *
+     * @param test test of an account or post ID.
+     */
+    void invalidateIf(IntPredicate test) {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.keySet().removeIf(test::test);
+            }
+        }
+    }
+
+    /**
+     * Removes every entry.
+     */
+    void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the statistics of the cache so far.
+     *
+     * @return the statistics.
+     */
+    CacheStatistics statistics() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return new CacheStatistics(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+}
@@ -0,0 +1,179 @@
+package socialmedia;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The ReplayReport class holds the results of replaying a trace on a platform with a
+ * {@link TraceReplayer}: how many calls behaved differently from the recording, and how long
+ * the calls took compared with the recording.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public final class ReplayReport {
+
+    /** Most mismatches described in a report; any more are only counted. */
+    static final int MISMATCHES_KEPT = 100;
+
+    /** Percentiles listed by {@link ReplayReport#toString()}. */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    /** Number of calls replayed. */
+    private long callCount;
+
+    /** Number of calls whose outcome differed from the recording. */
+    private long mismatchCount;
+
+    /** Descriptions of the first mismatches. */
+    private final List<String> mismatches = new ArrayList<>();
+
+    /** Time taken by the replay, in nanoseconds. */
+    private long elapsedNanos;
+
+    /** Time from the start of the first call recorded to the end of the last, in nanoseconds. */
+    private long recordedSpanNanos;
+
+    /** Time each call took when recorded. */
+    private final LatencyHistogram recorded = new LatencyHistogram();
+
+    /** Time each call took when replayed, from when it was due to start. */
+    private final LatencyHistogram replayed = new LatencyHistogram();
+
+    /**
+     * Constructor which creates an empty report, filled in as the trace is replayed.
+     */
+    ReplayReport() {
+    }
+
+    /**
+     * Adds a replayed call to the report.
+     *
+     * @param recordedNanos time the call took when recorded.
+     * @param replayedNanos time the call took when replayed.
+     * @param mismatch description of how the outcome differed from the recording, or null if it did not.
+     */
+    void addCall(long recordedNanos, long replayedNanos, String mismatch) {
+        callCount++;
+        recorded.record(recordedNanos);
+        replayed.record(replayedNanos);
+        if (mismatch != null) {
+            mismatchCount++;
+            if (mismatches.size() < MISMATCHES_KEPT) {
+                mismatches.add(mismatch);
+            }
+        }
+    }
+
+    /**
+     * Sets how long the replay and the recording took.
+     *
+     * @param elapsedNanos time taken by the replay.
+     * @param recordedSpanNanos time taken by the recording.
+     */
+    void setSpans(long elapsedNanos, long recordedSpanNanos) {
+        this.elapsedNanos = elapsedNanos;
+        this.recordedSpanNanos = recordedSpanNanos;
+    }
+
+    /**
+     * Returns the number of calls replayed.
+     * @return number of calls.
+     */
+    public long getCallCount() {
+        return callCount;
+    }
+
+    /**
+     * Returns the number of calls whose outcome differed from the recording: a different value
+     * returned, different text shown, or a different exception thrown.
+     * @return number of mismatches.
+     */
+    public long getMismatchCount() {
+        return mismatchCount;
+    }
+
+    /**
+     * Returns descriptions of the first {@value ReplayReport#MISMATCHES_KEPT} mismatches, in the
+     * order the calls were replayed. Each gives the call's position in the trace, the operation and
+     * its arguments, and the outcome recorded and replayed.
+     * @return unmodifiable list of descriptions.
+     */
+    public List<String> getMismatches() {
+        return Collections.unmodifiableList(mismatches);
+    }
+
+    /**
+     * Returns whether every call replayed had the same outcome as when it was recorded.
+     * @return true if there were no mismatches.
+     */
+    public boolean matched() {
+        return mismatchCount == 0;
+    }
+
+    /**
+     * Returns the time taken by the replay.
+     * @return elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the time taken by the recording, from the start of the first call to the end of the last.
+     * @return recorded time in nanoseconds.
+     */
+    public long getRecordedSpanNanos() {
+        return recordedSpanNanos;
+    }
+
+    /**
+     * Returns a percentile of the time the calls took when recorded.
+     *
+     * @param percentile percentage of calls which took no longer (0 to 100).
+     * @return the time in nanoseconds, to within 1.6%.
+     */
+    public long getRecordedLatency(double percentile) {
+        return recorded.getPercentile(percentile);
+    }
+
+    /**
+     * Returns a percentile of the time the calls took when replayed. In an open-loop replay this
+     * is measured from when each call was due to start, so it includes any time spent waiting for
+     * earlier calls to finish.
+     *
+     * @param percentile percentage of calls which took no longer (0 to 100).
+     * @return the time in nanoseconds, to within 1.6%.
+     */
+    public long getReplayedLatency(double percentile) {
+        return replayed.getPercentile(percentile);
+    }
+
+    /**
+     * Returns a summary of the report: the number of calls and mismatches, the time taken, and
+     * percentiles of the recorded and replayed latencies, followed by the first mismatches.
+     * @return the summary, over several lines.
+     */
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("%d calls, %d mismatches%n", callCount, mismatchCount));
+        summary.append(String.format("elapsed %.3f ms (recorded %.3f ms)%n", elapsedNanos / 1e6, recordedSpanNanos / 1e6));
+        summary.append(String.format("%-9s %12s %12s%n", "latency", "recorded us", "replayed us"));
+        for (double percentile : PERCENTILES) {
+            summary.append(String.format("%-9s %12.3f %12.3f%n", "p" + (percentile % 1 == 0 ? String.valueOf((int) percentile)
+                    : String.valueOf(percentile)), recorded.getPercentile(percentile) / 1e3,
+                    replayed.getPercentile(percentile) / 1e3));
+        }
+        summary.append(String.format("%-9s %12.3f %12.3f%n", "max", recorded.getMax() / 1e3, replayed.getMax() / 1e3));
+        for (String mismatch : mismatches) {
+            summary.append(mismatch).append(System.lineSeparator());
+        }
+        if (mismatchCount > mismatches.size()) {
+            summary.append(String.format("... and %d more mismatches%n", mismatchCount - mismatches.size()));
+        }
+        return summary.toString();
+    }
+}
@@ -0,0 +1,222 @@
+package socialmedia;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The RingBuffer class is a bounded queue of elements put by any number of threads and taken
+ * by a single consumer thread, used by {@link PipelinedSocialMedia} to pass commands to its writer.
+ * <p>
+ * Each element is given the next sequence number and written to the slot that number maps to.
+ * A producer claims a sequence number with a single atomic operation and, once the consumer has
+ * freed that slot, publishes its element by recording the sequence number against the slot.
+ * No locks are taken: the consumer takes every element published so far in one pass, and a
+ * producer only waits while the buffer is full. A waiting thread spins briefly, and then an
+ * idle consumer parks until a producer publishes and a producer facing a full buffer blocks
+ * until the consumer frees its slot.
+ * <p>
+ * Once closed, no more elements can be put, but those already put can still be taken.
+ *
+ * @param <E> type of the elements.
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+final class RingBuffer<E> {
+
+    /** Bit of {@link RingBuffer#claimed} set once the buffer is closed. */
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    /** Number of times a waiting thread spins before it parks (none on a single processor, where spinning only delays the thread being waited for). */
+    private static final int SPIN_LIMIT = Runtime.getRuntime().availableProcessors() > 1 ? 256 : 0;
+
+
+    /** Elements put but not yet taken, by slot. */
+    private final Object[] slots;
+
+    /** Sequence number of the element last published to each slot (-1 if none has been). */
+    private final AtomicLongArray published;
+
+    /** Number of sequence numbers claimed so far, with {@link RingBuffer#CLOSED} set once the buffer is closed. */
+    private final AtomicLong claimed = new AtomicLong();
+
+    /** Sequence number of the next element to be taken. Every slot of an earlier element is free. */
+    private volatile long consumed;
+
+    /** The consumer thread while it is parked, waiting for an element, otherwise null. */
+    private volatile Thread waiter;
+
+    /** Number of producers waiting (on the buffer's monitor) for a slot to be freed. */
+    private volatile int waitingProducers;
+
+    /** Mask mapping a sequence number to its slot. */
+    private final int mask;
+
+    /**
+     * Constructor which creates an empty buffer.
+     *
+     * @param capacity number of slots, which must be a power of two.
+     * @throws IllegalArgumentException if the capacity is not a power of two.
+     */
+    RingBuffer(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two.");
+        }
+        slots = new Object[capacity];
+        published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        mask = capacity - 1;
+    }
+
+    /**
+     * Returns the number of slots.
+     * @return capacity of the buffer.
+     */
+    int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Puts an element, waiting while the buffer is full.
+     *
+     * @param element element to put.
+     * @throws IllegalStateException if the buffer has been closed.
+     */
+    void put(E element) {
+        long sequence;
+        while (true) {
+            long current = claimed.get();
+            if ((current & CLOSED) != 0) {
+                throw new IllegalStateException("Ring buffer has been closed.");
+            } else if (claimed.compareAndSet(current, current + 1)) {
+                sequence = current;
+                break;
+            }
+        }
+        // The slot is free once the consumer has taken the element a whole lap before
+        for (int spins = 0; sequence - consumed >= slots.length; spins++) {
+            if (spins < SPIN_LIMIT) {
+                Thread.onSpinWait();
+            } else {
+                awaitFreeSlot(sequence);
+            }
+        }
+        int slot = (int) sequence & mask;
+        slots[slot] = element;
+        // The volatile write makes the element visible to the consumer along with its sequence number
+        published.set(slot, sequence);
+        Thread consumer = waiter;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * Takes every element published so far, in order, up to the length of the array.
+     * Must only be called by the consumer thread.
+     *
+     * @param into array to put the elements taken into, from index 0.
+     * @return number of elements taken (0 if none have been published).
+     */
+    @SuppressWarnings("unchecked")
+    int drainTo(E[] into) {
+        long next = consumed;
+        int count = 0;
+        while (count < into.length && published.get((int) next & mask) == next) {
+            int slot = (int) next & mask;
+            into[count++] = (E) slots[slot];
+            slots[slot] = null;
+            next++;
+        }
+        if (count > 0) {
+            consumed = next;
+            if (waitingProducers > 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Blocks a producer until the slot of its sequence number has been freed. Only used once
+     * spinning has failed, so a full buffer costs the waiting producers no processor time.
+     *
+     * @param sequence sequence number claimed by the producer.
+     */
+    private synchronized void awaitFreeSlot(long sequence) {
+        // Counted before checking, so the consumer either sees the count or the producer sees the slot freed
+        waitingProducers++;
+        boolean interrupted = false;
+        try {
+            while (sequence - consumed >= slots.length) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    // The sequence number is claimed, so the element must still be put
+                    interrupted = true;
+                }
+            }
+        } finally {
+            waitingProducers--;
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Waits until an element has been published, or the buffer is closed and empty.
+     * Must only be called by the consumer thread.
+     */
+    void awaitPublished() {
+        for (int spins = 0; !isPublished() && !isDrained(); spins++) {
+            if (spins < SPIN_LIMIT) {
+                Thread.onSpinWait();
+            } else {
+                // Checked again after waiter is set, so a put which missed the waiter has been seen
+                waiter = Thread.currentThread();
+                if (!isPublished() && !isDrained()) {
+                    LockSupport.park(this);
+                }
+                waiter = null;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the next element to be taken has been published.
+     * @return true if an element can be taken.
+     */
+    private boolean isPublished() {
+        long next = consumed;
+        return published.get((int) next & mask) == next;
+    }
+
+    /**
+     * Stops any more elements being put. Elements already put can still be taken.
+     */
+    void close() {
+        long current;
+        do {
+            current = claimed.get();
+        } while ((current & CLOSED) == 0 && !claimed.compareAndSet(current, current | CLOSED));
+        Thread consumer = waiter;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * Returns true once the buffer has been closed and every element put has been taken.
+     * @return true if no element will ever be taken again.
+     */
+    boolean isDrained() {
+        long current = claimed.get();
+        return (current & CLOSED) != 0 && consumed == (current & ~CLOSED);
+    }
+}
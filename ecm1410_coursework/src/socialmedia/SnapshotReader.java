@@ -0,0 +1,558 @@
+package socialmedia;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The SnapshotReader class reads a platform from a file written by {@link SnapshotWriter},
+ * passing each account and post to a {@link Sink} as it is read, so that every
+ * implementor of {@link SocialMediaPlatform} can load a snapshot into its own storage.
+ * The whole file is read in order; {@link MappedSnapshot} decodes single posts instead.
+ * <p>
+ * An incremental snapshot is read along with the chain of checkpoints it is based on,
+ * back to a full snapshot. The chain is applied oldest first, and the platform it adds
+ * up to is passed to the sink as if it had been read from a single full snapshot.
+ * <p>
+ * Files saved before the snapshot format existed (Java serialized files such as
+ * {@code platform.txt}) are recognised and read through {@link LegacySnapshotConverter}.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+final class SnapshotReader {
+
+    /**
+     * The Sink interface receives the contents of a snapshot as it is read:
+     * first the header, then every account, then every post in ascending ID order.
+     */
+    interface Sink {
+
+        /**
+         * Receives the header of the snapshot.
+         *
+         * @param accountHighWaterMark next account ID to be handed out.
+         * @param postHighWaterMark next post ID to be handed out.
+         * @param accountCount number of accounts which follow.
+         * @param postCount number of posts which follow.
+         */
+        void header(int accountHighWaterMark, int postHighWaterMark, int accountCount, int postCount);
+
+        /**
+         * Receives an account.
+         *
+         * @param id account ID.
+         * @param handle account's handle.
+         * @param description account's description (may be null).
+         * @param postCount number of posts made by the account.
+         * @param endorseCount number of endorsements on the account's posts.
+         */
+        void account(int id, String handle, String description, int postCount, int endorseCount);
+
+        /**
+         * Receives a post.
+         *
+         * @param type {@link SnapshotWriter#ORIGINAL}, {@link SnapshotWriter#COMMENT} or {@link SnapshotWriter#ENDORSEMENT}.
+         * @param id post ID.
+         * @param authorId account ID of the post's author.
+         * @param parentId parent post ID (-1 for an original post or an orphaned comment).
+         * @param commentCount number of comments on the post.
+         * @param endorseCount number of endorsements on the post.
+         * @param message message of the post.
+         */
+        void post(byte type, int id, int authorId, int parentId, int commentCount, int endorseCount, String message);
+    }
+
+    /** First four bytes of a Java serialized file (stream magic and version). */
+    private static final int SERIALIZED_MAGIC = 0xACED0005;
+
+    /** Size in bytes of the read buffer. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Channel of the file being read. */
+    private final FileChannel channel;
+
+    /** Buffer of bytes read from {@link SnapshotReader#channel} but not yet decoded. */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /** Scratch array used to decode strings which fit in the buffer. */
+    private byte[] scratch = new byte[256];
+
+    /** Values of the header, set by {@link SnapshotReader#readHeader()}. */
+    private int accountHighWaterMark, postHighWaterMark, accountCount, postCount;
+
+    /** Checkpoint ID of the file, and of its base (0 for a full snapshot), set by {@link SnapshotReader#readHeader()}. */
+    private long checkpointId, baseCheckpointId;
+
+    /** Stored location of the base checkpoint of an incremental snapshot, set by {@link SnapshotReader#readHeader()}. */
+    private String baseLocation;
+
+    /**
+     * Constructor which opens a file for reading.
+     *
+     * @param filename location of the file.
+     * @throws IOException if there is a problem opening the file.
+     */
+    private SnapshotReader(String filename) throws IOException {
+        channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        buffer.flip();
+    }
+
+    /**
+     * Reads a saved platform, in either the snapshot format or the older
+     * Java serialized format, and passes its contents to a sink.
+     *
+     * @param filename location of the file to be loaded.
+     * @param sink receiver of the accounts and posts read.
+     * @throws IOException if there is a problem experienced reading the file,
+     *                     or the file is not a saved platform.
+     * @throws ClassNotFoundException if a Java serialized file holds an unknown class.
+     */
+    static void read(String filename, Sink sink) throws IOException, ClassNotFoundException {
+        SnapshotReader reader = new SnapshotReader(filename);
+        try {
+            reader.ensure(4);
+            int magic = reader.buffer.getInt();
+            if (magic == SERIALIZED_MAGIC) {
+                reader.channel.close();
+                LegacySnapshotConverter.read(filename, sink);
+            } else if (magic == SnapshotWriter.MAGIC) {
+                reader.readHeader();
+                if (reader.baseCheckpointId == 0) {
+                    reader.readBody(sink);
+                } else {
+                    readChain(reader, filename, sink);
+                }
+            } else {
+                throw new StreamCorruptedException("File is not a saved platform.");
+            }
+        } finally {
+            reader.channel.close();
+        }
+    }
+
+    /**
+     * Reads the checkpoint ID of a saved platform, which incremental snapshots
+     * based on it refer to.
+     *
+     * @param filename location of the file.
+     * @return the checkpoint ID, or 0 if the file is not in a snapshot format with checkpoint IDs.
+     * @throws IOException if there is a problem reading the file.
+     */
+    static long checkpointId(String filename) throws IOException {
+        SnapshotReader reader = new SnapshotReader(filename);
+        try {
+            reader.ensure(6);
+            if (reader.buffer.getInt() != SnapshotWriter.MAGIC || reader.buffer.getShort(4) < SnapshotWriter.VERSION) {
+                return 0;
+            }
+            reader.readHeader();
+            return reader.checkpointId;
+        } finally {
+            reader.channel.close();
+        }
+    }
+
+    /**
+     * Creates an {@link Account} object from the values of a snapshot account.
+     *
+     * @param id account ID.
+     * @param handle account's handle.
+     * @param description account's description (may be null).
+     * @param postCount number of posts made by the account.
+     * @param endorseCount number of endorsements on the account's posts.
+     * @return new account.
+     */
+    static Account toAccount(int id, String handle, String description, int postCount, int endorseCount) {
+        Account account = new Account(id, handle, description);
+        account.setPostCount(postCount);
+        account.setEndorseCount(endorseCount);
+        return account;
+    }
+
+    /**
+     * Creates a {@link Post} object from the values of a snapshot post.
+     *
+     * @param type {@link SnapshotWriter#ORIGINAL}, {@link SnapshotWriter#COMMENT} or {@link SnapshotWriter#ENDORSEMENT}.
+     * @param id post ID.
+     * @param authorId account ID of the post's author.
+     * @param parentId parent post ID (-1 for an original post or an orphaned comment).
+     * @param commentCount number of comments on the post.
+     * @param endorseCount number of endorsements on the post.
+     * @param message message of the post.
+     * @return new {@link OriginalPost}, {@link Comment} or {@link Endorsement}.
+     */
+    static Post toPost(byte type, int id, int authorId, int parentId, int commentCount, int endorseCount, String message) {
+        Post post;
+        if (type == SnapshotWriter.COMMENT) {
+            post = new Comment(id, authorId, parentId, message);
+        } else if (type == SnapshotWriter.ENDORSEMENT) {
+            post = new Endorsement(id, authorId, parentId, message);
+        } else {
+            post = new OriginalPost(id, authorId, message);
+        }
+        post.setCommentCount(commentCount);
+        post.setEndorseCount(endorseCount);
+        return post;
+    }
+
+    /**
+     * Reads an incremental snapshot along with the chain of checkpoints it is based on,
+     * and passes the platform they add up to to a sink.
+     *
+     * @param newest reader of the incremental snapshot, which has read its header.
+     * @param filename location of the incremental snapshot.
+     * @param sink receiver of the accounts and posts of the platform.
+     * @throws IOException if there is a problem reading a file, or the chain is broken.
+     */
+    private static void readChain(SnapshotReader newest, String filename, Sink sink) throws IOException {
+        List<SnapshotReader> chain = new ArrayList<>();
+        chain.add(newest);
+        try {
+            Set<Long> seen = new HashSet<>();
+            SnapshotReader current = newest;
+            Path location = Paths.get(filename).toAbsolutePath();
+            while (current.baseCheckpointId != 0) {
+                if (!seen.add(current.checkpointId)) {
+                    throw new StreamCorruptedException("Snapshot chain " + location + " loops back on itself.");
+                }
+                location = location.resolveSibling(current.baseLocation);
+                SnapshotReader base = openBase(location, current.baseCheckpointId);
+                chain.add(base);
+                current = base;
+            }
+            ChainMerger merger = new ChainMerger();
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                chain.get(i).readBody(merger);
+            }
+            merger.replay(sink);
+        } finally {
+            // The newest reader is closed by the caller
+            for (int i = 1; i < chain.size(); i++) {
+                chain.get(i).channel.close();
+            }
+        }
+    }
+
+    /**
+     * Returns the locations of a snapshot and of every checkpoint in the chain it is based on,
+     * newest first. Only the header of each file is read.
+     *
+     * @param filename location of the snapshot.
+     * @return the absolute, normalised locations of the snapshot and its base checkpoints.
+     * @throws IOException if there is a problem reading a file, or the chain is broken.
+     */
+    static Set<Path> chainLocations(String filename) throws IOException {
+        Set<Path> locations = new LinkedHashSet<>();
+        Path location = Paths.get(filename).toAbsolutePath().normalize();
+        locations.add(location);
+        SnapshotReader current = new SnapshotReader(filename);
+        try {
+            current.ensure(4);
+            if (current.buffer.getInt() != SnapshotWriter.MAGIC) {
+                // A Java serialized file is never the base of an incremental snapshot
+                return locations;
+            }
+            current.readHeader();
+            while (current.baseCheckpointId != 0) {
+                location = location.resolveSibling(current.baseLocation).normalize();
+                if (!locations.add(location)) {
+                    throw new StreamCorruptedException("Snapshot chain " + filename + " loops back on itself.");
+                }
+                SnapshotReader base = openBase(location, current.baseCheckpointId);
+                current.channel.close();
+                current = base;
+            }
+            return locations;
+        } finally {
+            current.channel.close();
+        }
+    }
+
+    /**
+     * Opens the base checkpoint of an incremental snapshot and reads its header.
+     *
+     * @param location location of the base checkpoint.
+     * @param checkpointId checkpoint ID the incremental snapshot expects its base to have.
+     * @return reader of the base checkpoint, which has read its header.
+     * @throws IOException if there is a problem reading the file, or it is not the expected checkpoint.
+     */
+    private static SnapshotReader openBase(Path location, long checkpointId) throws IOException {
+        SnapshotReader base = new SnapshotReader(location.toString());
+        try {
+            base.ensure(4);
+            if (base.buffer.getInt() != SnapshotWriter.MAGIC) {
+                throw new StreamCorruptedException("Base checkpoint " + location + " is not a snapshot.");
+            }
+            base.readHeader();
+            if (base.checkpointId != checkpointId) {
+                throw new StreamCorruptedException("Base checkpoint " + location + " has been replaced since it was used.");
+            }
+            return base;
+        } catch (IOException e) {
+            base.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the header of a snapshot file, after its magic number.
+     *
+     * @throws IOException if there is a problem reading the file, or it is not a valid snapshot.
+     */
+    private void readHeader() throws IOException {
+        ensure(2);
+        short version = buffer.getShort();
+        if (version == 1) {
+            accountHighWaterMark = readVarInt();
+            postHighWaterMark = readVarInt();
+            accountCount = readVarInt();
+            postCount = readVarInt();
+        } else if (version == 2 || version == SnapshotWriter.VERSION) {
+            int headerSize = version == 2 ? SnapshotWriter.VERSION_2_HEADER_SIZE : SnapshotWriter.HEADER_SIZE;
+            ensure(headerSize - 6);
+            accountHighWaterMark = buffer.getInt();
+            postHighWaterMark = buffer.getInt();
+            accountCount = buffer.getInt();
+            postCount = buffer.getInt();
+            // The post type totals and post index are only used by MappedSnapshot
+            buffer.position(buffer.position() + 12);
+            if (version == SnapshotWriter.VERSION) {
+                checkpointId = buffer.getLong();
+                baseCheckpointId = buffer.getLong();
+            }
+            channel.position(headerSize + (long) SnapshotWriter.INDEX_ENTRY_SIZE * postCount);
+            buffer.clear().flip();
+            if (version == SnapshotWriter.VERSION) {
+                baseLocation = readString(false);
+            }
+        } else {
+            throw new StreamCorruptedException("Unsupported snapshot version " + version + ".");
+        }
+    }
+
+    /**
+     * Reads the accounts and posts of a snapshot file, after its header.
+     * Accounts and posts removed since the base of an incremental snapshot can only be
+     * read by a {@link ChainMerger}.
+     *
+     * @param sink receiver of the accounts and posts read.
+     * @throws IOException if there is a problem reading the file, or it is not a valid snapshot.
+     */
+    private void readBody(Sink sink) throws IOException {
+        sink.header(accountHighWaterMark, postHighWaterMark, accountCount, postCount);
+        for (int i = 0; i < accountCount; i++) {
+            int id = readVarInt();
+            String handle = readString(false);
+            String description = readString(true);
+            int postsMade = readVarInt();
+            int endorsements = readVarInt();
+            if (handle.isEmpty()) {
+                merger(sink).accountRemoved(id);
+            } else {
+                sink.account(id, handle, description, postsMade, endorsements);
+            }
+        }
+        int id = -1;
+        for (int i = 0; i < postCount; i++) {
+            id += readVarInt();
+            ensure(1);
+            byte type = buffer.get();
+            if (type < SnapshotWriter.REMOVED || type > SnapshotWriter.ENDORSEMENT) {
+                throw new StreamCorruptedException("Unknown post type " + type + ".");
+            } else if (type == SnapshotWriter.REMOVED) {
+                merger(sink).postRemoved(id);
+                continue;
+            }
+            int authorId = readVarInt();
+            int parentId = type == SnapshotWriter.ORIGINAL ? -1 : readVarInt() - 1;
+            int comments = readVarInt();
+            int endorsements = readVarInt();
+            sink.post(type, id, authorId, parentId, comments, endorsements, readString(false));
+        }
+    }
+
+    /**
+     * Returns the sink as a {@link ChainMerger}, which removed accounts and posts are passed to.
+     *
+     * @param sink receiver of the accounts and posts read.
+     * @return the sink.
+     * @throws StreamCorruptedException if the sink is not a ChainMerger, as the file
+     *                                  is a full snapshot with removed accounts or posts in it.
+     */
+    private static ChainMerger merger(Sink sink) throws StreamCorruptedException {
+        if (sink instanceof ChainMerger) {
+            return (ChainMerger) sink;
+        } else {
+            throw new StreamCorruptedException("Full snapshot holds a removed account or post.");
+        }
+    }
+
+    /**
+     * Reads an unsigned variable-length integer.
+     *
+     * @return value read.
+     * @throws IOException if there is a problem reading the file.
+     */
+    private int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            ensure(1);
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed variable-length integer.");
+    }
+
+    /**
+     * Reads a string written as its UTF-8 byte length followed by its UTF-8 bytes.
+     *
+     * @param nullable true if the length has 1 added to it, so that 0 means null.
+     * @return string read.
+     * @throws IOException if there is a problem reading the file.
+     */
+    private String readString(boolean nullable) throws IOException {
+        int length = readVarInt();
+        if (nullable) {
+            if (length == 0) {
+                return null;
+            }
+            length--;
+        }
+        if (length <= BUFFER_SIZE) {
+            ensure(length);
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        for (int offset = 0; offset < length; ) {
+            ensure(1);
+            int chunk = Math.min(buffer.remaining(), length - offset);
+            buffer.get(bytes, offset, chunk);
+            offset += chunk;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Makes sure the buffer holds at least the given number of unread bytes, reading more if it does not.
+     *
+     * @param bytes number of bytes about to be read (at most the buffer size).
+     * @throws IOException if there is a problem reading the file, or it ends first.
+     */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) == -1) {
+                throw new EOFException("Snapshot file ends unexpectedly.");
+            }
+        }
+        buffer.flip();
+    }
+
+    /**
+     * The ChainMerger class applies the checkpoints of a chain oldest first, keeping the
+     * newest version of every account and post, and then passes the result to a sink.
+     */
+    private static class ChainMerger implements Sink {
+
+        /** Key-value pair map of account IDs to the newest version of each account. */
+        private final IntKeyMap<Account> accounts = new IntKeyMap<>();
+
+        /** Key-value pair map of post IDs to the newest version of each post. */
+        private final IntKeyMap<Post> posts = new IntKeyMap<>();
+
+        /** ID high-water marks of the newest checkpoint applied. */
+        private int accountHighWaterMark, postHighWaterMark;
+
+        @Override
+        public void header(int accountHighWaterMark, int postHighWaterMark, int accountCount, int postCount) {
+            this.accountHighWaterMark = accountHighWaterMark;
+            this.postHighWaterMark = postHighWaterMark;
+        }
+
+        @Override
+        public void account(int id, String handle, String description, int postCount, int endorseCount) {
+            accounts.put(id, toAccount(id, handle, description, postCount, endorseCount));
+        }
+
+        @Override
+        public void post(byte type, int id, int authorId, int parentId, int commentCount, int endorseCount, String message) {
+            posts.put(id, toPost(type, id, authorId, parentId, commentCount, endorseCount, message));
+        }
+
+        /**
+         * Removes an account removed since the previous checkpoint.
+         *
+         * @param id account ID.
+         */
+        void accountRemoved(int id) {
+            accounts.remove(id);
+        }
+
+        /**
+         * Removes a post removed since the previous checkpoint.
+         *
+         * @param id post ID.
+         */
+        void postRemoved(int id) {
+            posts.remove(id);
+        }
+
+        /**
+         * Passes the merged accounts and posts to a sink, in ascending ID order.
+         *
+         * @param sink receiver of the accounts and posts.
+         */
+        void replay(Sink sink) {
+            sink.header(accountHighWaterMark, postHighWaterMark, accounts.size(), posts.size());
+            for (int id : sortedKeys(accounts)) {
+                Account account = accounts.get(id);
+                sink.account(id, account.getHandle(), account.getDescription(), account.getPostCount(), account.getEndorseCount());
+            }
+            for (int id : sortedKeys(posts)) {
+                Post post = posts.get(id);
+                sink.post(SnapshotWriter.typeOf(post), id, post.getAuthorId(), SnapshotWriter.parentOf(post),
+                        post.getCommentCount(), post.getEndorseCount(), post.getMessage());
+            }
+        }
+
+        /**
+         * Returns the keys of a map in ascending order.
+         *
+         * @param map map to read the keys of.
+         * @return sorted keys.
+         */
+        private static int[] sortedKeys(IntKeyMap<?> map) {
+            int[] keys = new int[map.size()];
+            int count = 0;
+            for (int slot = map.nextSlot(0); slot != -1; slot = map.nextSlot(slot + 1)) {
+                keys[count++] = map.keyAt(slot);
+            }
+            Arrays.sort(keys);
+            return keys;
+        }
+    }
+}
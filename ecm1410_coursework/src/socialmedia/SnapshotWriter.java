@@ -0,0 +1,470 @@
+package socialmedia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The SnapshotWriter class writes a platform to a file in the binary snapshot
+ * format, which is read back by {@link SnapshotReader}.
+ * <p>
+ * A snapshot file (version 3) is laid out as follows. The header and post index
+ * are fixed-width big-endian fields. Every other number is an unsigned variable-length
+ * integer (7 bits per byte, low bits first), and every string is its UTF-8 byte
+ * length followed by its UTF-8 bytes:
+ * <pre>
+ * header   magic (4 bytes "SMPS"), version (2 bytes), then 4 bytes each for the
+ *          account ID high-water mark, post ID high-water mark, number of accounts,
+ *          number of posts, and numbers of original posts, comments and endorsements,
+ *          then 8 bytes each for the checkpoint ID and the base checkpoint ID
+ * index    for each post, in ascending ID order: ID (4 bytes) and the file
+ *          offset of the post's type (8 bytes)
+ * base     location of the base checkpoint (empty for a full snapshot)
+ * accounts for each account: ID, handle, description (length + 1, or 0 if null),
+ *          post count, endorsement count
+ * posts    for each post, in ascending ID order: ID - previous ID, type,
+ *          author account ID, parent post ID + 1 (comments and endorsements only),
+ *          comment count, endorsement count, message
+ * </pre>
+ * The handle of each account is only stored once, in the account table,
+ * and posts refer to their author by account ID. The post index lets
+ * {@link MappedSnapshot} find and decode a single post without reading the
+ * rest of the file.
+ * <p>
+ * Every file has a random checkpoint ID. A full snapshot holds every account and post, and
+ * has a base checkpoint ID of 0. An incremental snapshot (a delta) only holds the accounts
+ * and posts changed since its base checkpoint, another full or incremental snapshot, which
+ * is named by its checkpoint ID and location. An account removed since the base is written
+ * with an empty handle, and a removed post with the type {@link SnapshotWriter#REMOVED}
+ * and no other fields.
+ * <p>
+ * Version 2 files have no checkpoint IDs or base, and are always full snapshots.
+ * Version 1 files also have no index or post type totals, and their header numbers are
+ * variable-length.
+ * <p>
+ * The totals in the header are only known once every post has been written,
+ * so the header is written last, by {@link SnapshotWriter#close()}.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+final class SnapshotWriter implements Closeable {
+
+    /** First four bytes of every snapshot file ("SMPS"). */
+    static final int MAGIC = 0x534D5053;
+
+    /** Version of the snapshot format written by this class. */
+    static final short VERSION = 3;
+
+    /** Size in bytes of the version 3 header. */
+    static final int HEADER_SIZE = 50;
+
+    /** Size in bytes of the version 2 header, which has no checkpoint IDs. */
+    static final int VERSION_2_HEADER_SIZE = 34;
+
+    /** Size in bytes of each entry in the post index. */
+    static final int INDEX_ENTRY_SIZE = 12;
+
+    /** Type code of a post removed since the base checkpoint of an incremental snapshot. */
+    static final byte REMOVED = 0;
+
+    /** Type code of an {@link OriginalPost}. */
+    static final byte ORIGINAL = 1;
+
+    /** Type code of a {@link Comment}. */
+    static final byte COMMENT = 2;
+
+    /** Type code of an {@link Endorsement}. */
+    static final byte ENDORSEMENT = 3;
+
+    /** Size in bytes of the write buffer. */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** Channel of the file being written. */
+    private final FileChannel channel;
+
+    /** Buffer of bytes not yet written to {@link SnapshotWriter#channel}. */
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /** Buffer of post index entries not yet written to {@link SnapshotWriter#channel}. */
+    private final ByteBuffer indexBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE - BUFFER_SIZE % INDEX_ENTRY_SIZE);
+
+    /** File offset at which the contents of {@link SnapshotWriter#buffer} will be written. */
+    private long bufferOffset;
+
+    /** File offset at which the contents of {@link SnapshotWriter#indexBuffer} will be written. */
+    private long indexOffset = HEADER_SIZE;
+
+    /** Values of the header, written by {@link SnapshotWriter#close()}. */
+    private final int accountHighWaterMark, postHighWaterMark, accountCount, postCount;
+
+    /** Random ID of the checkpoint being written. */
+    private final long checkpointId;
+
+    /** Checkpoint ID of the base of an incremental snapshot, or 0 for a full snapshot. */
+    private final long baseCheckpointId;
+
+    /** Number of posts written of each type, indexed by type code. */
+    private final int[] typeCounts = new int[ENDORSEMENT + 1];
+
+    /** Number of accounts still to be written. */
+    private int accountsLeft;
+
+    /** Number of posts still to be written. */
+    private int postsLeft;
+
+    /** ID of the last post written (-1 before the first). */
+    private int lastPostId = -1;
+
+    /**
+     * Constructor which creates (or replaces) a full snapshot file.
+     * Exactly the given number of accounts, and then posts, must be written before it is closed.
+     *
+     * @param filename location of the file to be written.
+     * @param accountHighWaterMark next account ID to be handed out.
+     * @param postHighWaterMark next post ID to be handed out.
+     * @param accountCount number of accounts which will be written.
+     * @param postCount number of posts which will be written.
+     * @throws IOException if there is a problem creating the file.
+     */
+    SnapshotWriter(String filename, int accountHighWaterMark, int postHighWaterMark, int accountCount, int postCount)
+            throws IOException {
+        this(filename, accountHighWaterMark, postHighWaterMark, accountCount, postCount, 0, null);
+    }
+
+    /**
+     * Constructor which creates (or replaces) an incremental snapshot file, holding the accounts
+     * and posts changed since a base checkpoint. Exactly the given number of accounts, and then
+     * posts (including those removed), must be written before it is closed.
+     *
+     * @param filename location of the file to be written.
+     * @param accountHighWaterMark next account ID to be handed out.
+     * @param postHighWaterMark next post ID to be handed out.
+     * @param accountCount number of changed accounts which will be written.
+     * @param postCount number of changed posts which will be written.
+     * @param baseCheckpointId checkpoint ID of the base, or 0 to write a full snapshot.
+     * @param baseFilename location of the base (ignored for a full snapshot).
+     * @throws IOException if there is a problem creating the file.
+     */
+    SnapshotWriter(String filename, int accountHighWaterMark, int postHighWaterMark, int accountCount, int postCount,
+            long baseCheckpointId, String baseFilename) throws IOException {
+        channel = FileChannel.open(Paths.get(filename),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.accountHighWaterMark = accountHighWaterMark;
+        this.postHighWaterMark = postHighWaterMark;
+        this.accountCount = accountCount;
+        this.postCount = postCount;
+        this.baseCheckpointId = baseCheckpointId;
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0);
+        checkpointId = id;
+        accountsLeft = accountCount;
+        postsLeft = postCount;
+        // The base follows the space left for the header and post index
+        bufferOffset = HEADER_SIZE + (long) INDEX_ENTRY_SIZE * postCount;
+        writeString(baseCheckpointId == 0 ? "" : relativeLocation(filename, baseFilename), false);
+    }
+
+    /**
+     * Returns the random ID of the checkpoint being written, which incremental snapshots
+     * based on it refer to.
+     *
+     * @return checkpoint ID.
+     */
+    long checkpointId() {
+        return checkpointId;
+    }
+
+    /**
+     * Writes an account to the account table.
+     *
+     * @param account account to write.
+     * @throws IOException if there is a problem writing the file.
+     */
+    void writeAccount(Account account) throws IOException {
+        writeAccount(account.getAccountId(), account.getHandle(), account.getDescription(),
+                account.getPostCount(), account.getEndorseCount());
+    }
+
+    /**
+     * Writes an account to the account table.
+     *
+     * @param id account ID.
+     * @param handle account's handle.
+     * @param description account's description (may be null).
+     * @param postCount number of posts made by the account.
+     * @param endorseCount number of endorsements on the account's posts.
+     * @throws IOException if there is a problem writing the file.
+     */
+    void writeAccount(int id, String handle, String description, int postCount, int endorseCount)
+            throws IOException {
+        if (accountsLeft-- == 0) {
+            throw new IllegalStateException("More accounts written than declared in the header.");
+        } else if (handle.isEmpty() && baseCheckpointId == 0) {
+            throw new IllegalStateException("Removed accounts can only be written to an incremental snapshot.");
+        }
+        writeVarInt(id);
+        writeString(handle, false);
+        writeString(description, true);
+        writeVarInt(postCount);
+        writeVarInt(endorseCount);
+    }
+
+    /**
+     * Writes an account removed since the base checkpoint of an incremental snapshot.
+     *
+     * @param id account ID.
+     * @throws IOException if there is a problem writing the file.
+     */
+    void writeAccountRemoved(int id) throws IOException {
+        writeAccount(id, "", null, 0, 0);
+    }
+
+    /**
+     * Writes a post. Posts must be written after every account, in ascending ID order.
+     *
+     * @param post post to write.
+     * @throws IOException if there is a problem writing the file.
+     */
+    void writePost(Post post) throws IOException {
+        writePost(typeOf(post), post.getPostId(), post.getAuthorId(), parentOf(post),
+                post.getCommentCount(), post.getEndorseCount(), post.getMessage());
+    }
+
+    /**
+     * Writes a post removed since the base checkpoint of an incremental snapshot.
+     * Posts must be written after every account, in ascending ID order.
+     *
+     * @param id post ID.
+     * @throws IOException if there is a problem writing the file.
+     */
+    void writePostRemoved(int id) throws IOException {
+        if (baseCheckpointId == 0) {
+            throw new IllegalStateException("Removed posts can only be written to an incremental snapshot.");
+        }
+        writePost(REMOVED, id, 0, 0, 0, 0, null);
+    }
+
+    /**
+     * Writes a post. Posts must be written after every account, in ascending ID order.
+     *
+     * @param type {@link SnapshotWriter#ORIGINAL}, {@link SnapshotWriter#COMMENT} or {@link SnapshotWriter#ENDORSEMENT}.
+     * @param id post ID.
+     * @param authorId account ID of the post's author.
+     * @param parentId parent post ID of a comment or endorsement (-1 for an orphaned comment).
+     * @param commentCount number of comments on the post.
+     * @param endorseCount number of endorsements on the post.
+     * @param message message of the post.
+     * @throws IOException if there is a problem writing the file.
+     */
+    void writePost(byte type, int id, int authorId, int parentId, int commentCount, int endorseCount, String message)
+            throws IOException {
+        if (accountsLeft != 0) {
+            throw new IllegalStateException("Posts written before every account declared in the header.");
+        } else if (postsLeft-- == 0) {
+            throw new IllegalStateException("More posts written than declared in the header.");
+        } else if (id <= lastPostId) {
+            throw new IllegalArgumentException("Posts must be written in ascending ID order.");
+        }
+        writeVarInt(id - lastPostId);
+        lastPostId = id;
+        ensureSpace(1);
+        if (!indexBuffer.hasRemaining()) {
+            flushIndex();
+        }
+        indexBuffer.putInt(id);
+        indexBuffer.putLong(bufferOffset + buffer.position());
+        typeCounts[type]++;
+        buffer.put(type);
+        if (type == REMOVED) {
+            return;
+        }
+        writeVarInt(authorId);
+        if (type != ORIGINAL) {
+            writeVarInt(parentId + 1);
+        }
+        writeVarInt(commentCount);
+        writeVarInt(endorseCount);
+        writeString(message, false);
+    }
+
+    /**
+     * Writes any buffered bytes and the header, and closes the file.
+     * Does nothing if the file is already closed.
+     *
+     * @throws IOException if there is a problem writing the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            if (accountsLeft != 0 || postsLeft != 0) {
+                throw new IllegalStateException("Fewer accounts or posts written than declared in the header.");
+            }
+            flush();
+            flushIndex();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putShort(VERSION);
+            header.putInt(accountHighWaterMark);
+            header.putInt(postHighWaterMark);
+            header.putInt(accountCount);
+            header.putInt(postCount);
+            header.putInt(typeCounts[ORIGINAL]);
+            header.putInt(typeCounts[COMMENT]);
+            header.putInt(typeCounts[ENDORSEMENT]);
+            header.putLong(checkpointId);
+            header.putLong(baseCheckpointId);
+            header.flip();
+            writeFully(header, 0);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Returns the type code of a post.
+     *
+     * @param post post to find the type of.
+     * @return {@link SnapshotWriter#ORIGINAL}, {@link SnapshotWriter#COMMENT} or {@link SnapshotWriter#ENDORSEMENT}.
+     */
+    static byte typeOf(Post post) {
+        if (post instanceof Comment) {
+            return COMMENT;
+        } else if (post instanceof Endorsement) {
+            return ENDORSEMENT;
+        } else {
+            return ORIGINAL;
+        }
+    }
+
+    /**
+     * Returns the parent post ID of a post.
+     *
+     * @param post post to find the parent of.
+     * @return parent post ID of a comment or endorsement (-1 for an orphaned comment), or -1 for an original post.
+     */
+    static int parentOf(Post post) {
+        if (post instanceof Comment) {
+            return ((Comment) post).getParentId();
+        } else if (post instanceof Endorsement) {
+            return ((Endorsement) post).getParentId();
+        } else {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the location of a base checkpoint as it is stored in an incremental snapshot:
+     * its file name if it is in the same directory, or its absolute location if it is not.
+     *
+     * @param filename location of the incremental snapshot.
+     * @param baseFilename location of the base checkpoint.
+     * @return stored location of the base.
+     */
+    private static String relativeLocation(String filename, String baseFilename) {
+        Path base = Paths.get(baseFilename).toAbsolutePath();
+        if (base.getParent().equals(Paths.get(filename).toAbsolutePath().getParent())) {
+            return base.getFileName().toString();
+        }
+        return base.toString();
+    }
+
+    /**
+     * Writes a non-negative int as an unsigned variable-length integer.
+     *
+     * @param value value to write.
+     * @throws IOException if there is a problem writing the file.
+     */
+    private void writeVarInt(int value) throws IOException {
+        ensureSpace(5);
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Writes a string as its UTF-8 byte length followed by its UTF-8 bytes.
+     * A nullable string has 1 added to its length, so that null is written as 0.
+     *
+     * @param value string to write.
+     * @param nullable true if the string may be null.
+     * @throws IOException if there is a problem writing the file.
+     */
+    private void writeString(String value, boolean nullable) throws IOException {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(nullable ? bytes.length + 1 : bytes.length);
+        for (int offset = 0; offset < bytes.length; ) {
+            ensureSpace(1);
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    /**
+     * Makes sure the buffer has room for the given number of bytes, writing it out if it does not.
+     *
+     * @param bytes number of bytes about to be put into the buffer.
+     * @throws IOException if there is a problem writing the file.
+     */
+    private void ensureSpace(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes every buffered byte to the file.
+     *
+     * @throws IOException if there is a problem writing the file.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        bufferOffset = writeFully(buffer, bufferOffset);
+        buffer.clear();
+    }
+
+    /**
+     * Writes every buffered post index entry to the file.
+     *
+     * @throws IOException if there is a problem writing the file.
+     */
+    private void flushIndex() throws IOException {
+        indexBuffer.flip();
+        indexOffset = writeFully(indexBuffer, indexOffset);
+        indexBuffer.clear();
+    }
+
+    /**
+     * Writes the remaining bytes of a buffer to the file at the given offset.
+     *
+     * @param bytes bytes to write.
+     * @param offset file offset to write them at.
+     * @return the file offset just after the bytes written.
+     * @throws IOException if there is a problem writing the file.
+     */
+    private long writeFully(ByteBuffer bytes, long offset) throws IOException {
+        while (bytes.hasRemaining()) {
+            offset += channel.write(bytes, offset);
+        }
+        return offset;
+    }
+}
@@ -0,0 +1,486 @@
+package socialmedia;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The SocialGraphGenerator class generates a synthetic platform for load and scale testing,
+ * shaped like a real one: a few accounts write most of the posts, a few posts get most of the
+ * endorsements and comments, and conversations form long chains of replies.
+ * <p>
+ * The platform is generated from a seed, so the same seed and settings always give the same
+ * accounts and posts. It has the given number of accounts, handled {@code user0},
+ * {@code user1} and so on, and the given number of posts, made in turn:
+ * <ul>
+ * <li>The kind of each post is picked at random, weighted by the post mix. The first post is
+ * always an original post, as there is nothing to comment on or endorse before it.</li>
+ * <li>The author of each post is picked from a Zipf distribution over the accounts with the
+ * activity skew, so account 0 is the most active, then account 1, and so on.</li>
+ * <li>The post a comment or endorsement is made on is picked from a Zipf distribution over the
+ * original posts and comments made so far with the endorsement skew, so the earliest posts
+ * are the most popular. A comment may instead reply to the last comment made, with the reply
+ * probability, which builds chains of comments. A comment which would be deeper than the
+ * largest comment depth replies to its would-be parent's parent instead.</li>
+ * </ul>
+ * A skew of 0 picks uniformly, and the larger the skew the more the first ranks are picked.
+ * <p>
+ * The platform can be made through the {@link SocialMediaPlatform} interface (in batches, if
+ * the platform is a {@link BatchSocialMediaPlatform}), written straight to a snapshot file
+ * without any platform, or loaded into a platform from such a file, which is by far the fastest
+ * way to fill a large platform.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public class SocialGraphGenerator {
+
+    /**
+     * The Graph class is a generated platform, held as one array entry per account and per post.
+     * Post i is the i-th post made, and account i the i-th account.
+     */
+    private static final class Graph {
+
+        /** Number of posts authored by each account. */
+        private final int[] accountPosts;
+
+        /** Number of endorsements of posts authored by each account. */
+        private final int[] accountEndorsements;
+
+        /** Type code of each post, as written by {@link SnapshotWriter}. */
+        private final byte[] types;
+
+        /** Author account of each post. */
+        private final int[] authors;
+
+        /** Parent post of each comment and endorsement, or -1 for an original post. */
+        private final int[] parents;
+
+        /** Number of comments on each post. */
+        private final int[] commentCounts;
+
+        /** Number of endorsements of each post. */
+        private final int[] endorseCounts;
+
+        /**
+         * Constructor which creates an empty graph.
+         *
+         * @param accountCount number of accounts.
+         * @param postCount number of posts.
+         */
+        private Graph(int accountCount, int postCount) {
+            accountPosts = new int[accountCount];
+            accountEndorsements = new int[accountCount];
+            types = new byte[postCount];
+            authors = new int[postCount];
+            parents = new int[postCount];
+            commentCounts = new int[postCount];
+            endorseCounts = new int[postCount];
+        }
+    }
+
+    /** Largest number of posts made by one batch call on a {@link BatchSocialMediaPlatform}. */
+    private static final int BATCH_SIZE = 1024;
+
+    /** Seed of the random numbers. */
+    private final long seed;
+
+    /** Number of accounts to generate. */
+    private final int accountCount;
+
+    /** Number of posts to generate. */
+    private final int postCount;
+
+    /** Relative weights of original posts, comments and endorsements. */
+    private int originalWeight = 60, commentWeight = 25, endorsementWeight = 15;
+
+    /** Largest depth of a comment (1 for a comment on an original post). */
+    private int maxCommentDepth = 1000;
+
+    /** Probability that a comment replies to the last comment made. */
+    private double replyProbability = 0.5;
+
+    /** Zipf exponent of the authors of posts. */
+    private double activitySkew = 1.0;
+
+    /** Zipf exponent of the posts commented on and endorsed. */
+    private double endorsementSkew = 1.0;
+
+    /**
+     * Constructor which creates a generator with the default settings: a post mix of 60 original
+     * posts to 25 comments to 15 endorsements, a largest comment depth of 1000, a reply probability
+     * of 0.5, and an activity and endorsement skew of 1.
+     *
+     * @param seed seed of the random numbers.
+     * @param accountCount number of accounts to generate.
+     * @param postCount number of posts to generate.
+     * @throws IllegalArgumentException if a count is negative, or there are posts but no accounts.
+     */
+    public SocialGraphGenerator(long seed, int accountCount, int postCount) {
+        if (accountCount < 0 || postCount < 0) {
+            throw new IllegalArgumentException("Account and post counts must not be negative.");
+        } else if (postCount > 0 && accountCount == 0) {
+            throw new IllegalArgumentException("Posts need at least one account.");
+        }
+        this.seed = seed;
+        this.accountCount = accountCount;
+        this.postCount = postCount;
+    }
+
+    /**
+     * Sets the relative weights of the kinds of post.
+     *
+     * @param originals weight of original posts.
+     * @param comments weight of comments.
+     * @param endorsements weight of endorsements.
+     * @throws IllegalArgumentException if a weight is negative, or there are no original posts.
+     */
+    public void setPostMix(int originals, int comments, int endorsements) {
+        if (originals <= 0 || comments < 0 || endorsements < 0) {
+            throw new IllegalArgumentException("Post weights must not be negative, and original posts must be made.");
+        }
+        this.originalWeight = originals;
+        this.commentWeight = comments;
+        this.endorsementWeight = endorsements;
+    }
+
+    /**
+     * Sets the largest depth of a comment, where a comment on an original post has depth 1.
+     *
+     * @param maxCommentDepth the largest depth.
+     * @throws IllegalArgumentException if the depth is less than 1.
+     */
+    public void setMaxCommentDepth(int maxCommentDepth) {
+        if (maxCommentDepth < 1) {
+            throw new IllegalArgumentException("Largest comment depth must be at least 1.");
+        }
+        this.maxCommentDepth = maxCommentDepth;
+    }
+
+    /**
+     * Sets the probability that a comment replies to the last comment made. The mean length of
+     * a chain of replies is 1 / (1 - probability), so 0.999 gives chains around a thousand deep.
+     *
+     * @param replyProbability the probability.
+     * @throws IllegalArgumentException if the probability is not between 0 and 1.
+     */
+    public void setReplyProbability(double replyProbability) {
+        if (!(replyProbability >= 0 && replyProbability <= 1)) {
+            throw new IllegalArgumentException("Reply probability must be between 0 and 1.");
+        }
+        this.replyProbability = replyProbability;
+    }
+
+    /**
+     * Sets the Zipf exponent of the authors of posts.
+     *
+     * @param activitySkew the exponent (0 for every account equally active).
+     * @throws IllegalArgumentException if the exponent is negative.
+     */
+    public void setActivitySkew(double activitySkew) {
+        if (!(activitySkew >= 0)) {
+            throw new IllegalArgumentException("Skew must not be negative.");
+        }
+        this.activitySkew = activitySkew;
+    }
+
+    /**
+     * Sets the Zipf exponent of the posts commented on and endorsed.
+     *
+     * @param endorsementSkew the exponent (0 for every post equally popular).
+     * @throws IllegalArgumentException if the exponent is negative.
+     */
+    public void setEndorsementSkew(double endorsementSkew) {
+        if (!(endorsementSkew >= 0)) {
+            throw new IllegalArgumentException("Skew must not be negative.");
+        }
+        this.endorsementSkew = endorsementSkew;
+    }
+
+    /**
+     * Makes the generated accounts and posts on a platform through its interface, in batches if
+     * the platform is a {@link BatchSocialMediaPlatform}. The platform must not already have any
+     * of the generated handles, but may have other accounts and posts.
+     *
+     * @param platform platform to fill.
+     * @throws IllegalStateException if the platform rejects a generated account or post.
+     */
+    public void populate(SocialMediaPlatform platform) {
+        Graph graph = generate();
+        try {
+            for (int i = 0; i < accountCount; i++) {
+                platform.createAccount(handle(i), description(i));
+            }
+            if (platform instanceof BatchSocialMediaPlatform) {
+                populateBatches((BatchSocialMediaPlatform) platform, graph);
+                return;
+            }
+            int[] ids = new int[postCount];
+            for (int i = 0; i < postCount; i++) {
+                String author = handle(graph.authors[i]);
+                if (graph.types[i] == SnapshotWriter.ORIGINAL) {
+                    ids[i] = platform.createPost(author, message(graph, i));
+                } else if (graph.types[i] == SnapshotWriter.COMMENT) {
+                    ids[i] = platform.commentPost(author, ids[graph.parents[i]], message(graph, i));
+                } else {
+                    ids[i] = platform.endorsePost(author, ids[graph.parents[i]]);
+                }
+            }
+        } catch (IllegalHandleException | InvalidHandleException | HandleNotRecognisedException
+                 | PostIDNotRecognisedException | NotActionablePostException | InvalidPostException e) {
+            throw new IllegalStateException("Platform rejected a generated account or post.", e);
+        }
+    }
+
+    /**
+     * Fills an empty platform with the generated accounts and posts by writing them to a
+     * temporary snapshot file and loading it, which replaces anything already on the platform.
+     *
+     * @param platform platform to fill.
+     * @throws IOException if there is a problem writing or loading the snapshot.
+     */
+    public void populateBulk(SocialMediaPlatform platform) throws IOException {
+        File snapshot = File.createTempFile("generated", ".smps");
+        try {
+            writeSnapshot(snapshot.getPath());
+            platform.loadPlatform(snapshot.getPath());
+        } catch (ClassNotFoundException e) {
+            // Snapshot files hold no serialised classes
+            throw new IllegalStateException(e);
+        } finally {
+            snapshot.delete();
+        }
+    }
+
+    /**
+     * Writes the generated accounts and posts straight to a snapshot file, without making them
+     * on a platform. Loading the file gives the same platform as {@link SocialGraphGenerator#populate}
+     * does on an empty platform.
+     *
+     * @param filename location of the file.
+     * @throws IOException if there is a problem writing the file.
+     */
+    public void writeSnapshot(String filename) throws IOException {
+        Graph graph = generate();
+        try (SnapshotWriter out = new SnapshotWriter(filename, accountCount, postCount, accountCount, postCount)) {
+            for (int i = 0; i < accountCount; i++) {
+                out.writeAccount(i, handle(i), description(i), graph.accountPosts[i], graph.accountEndorsements[i]);
+            }
+            for (int i = 0; i < postCount; i++) {
+                out.writePost(graph.types[i], i, graph.authors[i], graph.parents[i], graph.commentCounts[i],
+                        graph.endorseCounts[i], message(graph, i));
+            }
+        }
+    }
+
+    /**
+     * Generates the accounts and posts.
+     * @return the generated graph.
+     */
+    private Graph generate() {
+        Random random = new Random(seed);
+        Graph graph = new Graph(accountCount, postCount);
+        int[] depths = new int[postCount];
+        int[] actionable = new int[postCount];
+        int actionableCount = 0;
+        int lastComment = -1;
+        int totalWeight = originalWeight + commentWeight + endorsementWeight;
+        for (int i = 0; i < postCount; i++) {
+            int kind = random.nextInt(totalWeight);
+            int author = zipf(random, accountCount, activitySkew) - 1;
+            graph.authors[i] = author;
+            graph.accountPosts[author]++;
+            if (actionableCount == 0 || kind < originalWeight) {
+                graph.types[i] = SnapshotWriter.ORIGINAL;
+                graph.parents[i] = -1;
+                actionable[actionableCount++] = i;
+            } else if (kind < originalWeight + commentWeight) {
+                int parent;
+                if (lastComment != -1 && random.nextDouble() < replyProbability) {
+                    parent = lastComment;
+                } else {
+                    parent = actionable[zipf(random, actionableCount, endorsementSkew) - 1];
+                }
+                if (depths[parent] == maxCommentDepth) {
+                    parent = graph.parents[parent];
+                }
+                graph.types[i] = SnapshotWriter.COMMENT;
+                graph.parents[i] = parent;
+                graph.commentCounts[parent]++;
+                depths[i] = depths[parent] + 1;
+                actionable[actionableCount++] = i;
+                lastComment = i;
+            } else {
+                int parent = actionable[zipf(random, actionableCount, endorsementSkew) - 1];
+                graph.types[i] = SnapshotWriter.ENDORSEMENT;
+                graph.parents[i] = parent;
+                graph.endorseCounts[parent]++;
+                graph.accountEndorsements[graph.authors[parent]]++;
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Makes the generated posts on a batch platform. Consecutive posts of the same kind are made
+     * by one batch call, unless one is made on a post of the same batch, whose ID is not yet known.
+     *
+     * @param platform platform to fill, which already has the generated accounts.
+     * @param graph generated graph.
+     */
+    private void populateBatches(BatchSocialMediaPlatform platform, Graph graph) {
+        int[] ids = new int[postCount];
+        String[] handles = new String[BATCH_SIZE];
+        String[] messages = new String[BATCH_SIZE];
+        int[] parentIds = new int[BATCH_SIZE];
+        int start = 0;
+        while (start < postCount) {
+            byte type = graph.types[start];
+            int end = start;
+            while (end < postCount && end - start < BATCH_SIZE && graph.types[end] == type
+                    && (type == SnapshotWriter.ORIGINAL || graph.parents[end] < start)) {
+                int item = end - start;
+                handles[item] = handle(graph.authors[end]);
+                messages[item] = type == SnapshotWriter.ENDORSEMENT ? null : message(graph, end);
+                parentIds[item] = type == SnapshotWriter.ORIGINAL ? -1 : ids[graph.parents[end]];
+                end++;
+            }
+            int size = end - start;
+            BatchResult result;
+            if (type == SnapshotWriter.ORIGINAL) {
+                result = platform.createPosts(Arrays.copyOf(handles, size), Arrays.copyOf(messages, size));
+            } else if (type == SnapshotWriter.COMMENT) {
+                result = platform.commentPosts(Arrays.copyOf(handles, size), Arrays.copyOf(parentIds, size), Arrays.copyOf(messages, size));
+            } else {
+                result = platform.endorsePosts(Arrays.copyOf(handles, size), Arrays.copyOf(parentIds, size));
+            }
+            if (result.getFailureCount() > 0) {
+                throw new IllegalStateException("Platform rejected a generated post.");
+            }
+            System.arraycopy(result.getPostIds(), 0, ids, start, size);
+            start = end;
+        }
+    }
+
+    /**
+     * Returns the message of a generated post. The message of an endorsement is made from
+     * the post it endorses, as the platform does.
+     *
+     * @param graph generated graph.
+     * @param id index of the post.
+     * @return the message.
+     */
+    private static String message(Graph graph, int id) {
+        if (graph.types[id] == SnapshotWriter.ORIGINAL) {
+            return "Generated post " + id;
+        } else if (graph.types[id] == SnapshotWriter.COMMENT) {
+            return "Generated reply " + id + " to " + graph.parents[id];
+        }
+        int parent = graph.parents[id];
+        return String.format("EP@%1$s: %2$s", handle(graph.authors[parent]), message(graph, parent));
+    }
+
+    /**
+     * Returns the handle of a generated account.
+     *
+     * @param account index of the account.
+     * @return the handle.
+     */
+    private static String handle(int account) {
+        return "user" + account;
+    }
+
+    /**
+     * Returns the description of a generated account.
+     *
+     * @param account index of the account.
+     * @return the description.
+     */
+    private static String description(int account) {
+        return "Generated account " + account;
+    }
+
+    /**
+     * Picks a rank from a Zipf distribution, where rank k is picked with probability proportional
+     * to 1 / k^exponent, in constant time by rejection-inversion sampling (Hormann and Derflinger,
+     * "Rejection-inversion to generate variates from monotone discrete distributions", 1996).
+     *
+     * @param random random number generator.
+     * @param n number of ranks.
+     * @param exponent Zipf exponent (0 for uniform).
+     * @return a rank from 1 to n.
+     */
+    private static int zipf(Random random, int n, double exponent) {
+        if (exponent == 0 || n == 1) {
+            return random.nextInt(n) + 1;
+        }
+        double hIntegralX1 = hIntegral(1.5, exponent) - 1;
+        double hIntegralN = hIntegral(n + 0.5, exponent);
+        double s = 2 - hIntegralInverse(hIntegral(2.5, exponent) - h(2, exponent), exponent);
+        while (true) {
+            double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInverse(u, exponent);
+            int k = (int) Math.max(1, Math.min(n, (long) (x + 0.5)));
+            if (k - x <= s || u >= hIntegral(k + 0.5, exponent) - h(k, exponent)) {
+                return k;
+            }
+        }
+    }
+
+    /**
+     * Returns the Zipf weight function 1 / x^exponent.
+     *
+     * @param x the point.
+     * @param exponent Zipf exponent.
+     * @return the weight.
+     */
+    private static double h(double x, double exponent) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    /**
+     * Returns the integral of {@link SocialGraphGenerator#h} from 1 to x, shifted by a constant.
+     *
+     * @param x the point.
+     * @param exponent Zipf exponent.
+     * @return the integral.
+     */
+    private static double hIntegral(double x, double exponent) {
+        double logX = Math.log(x);
+        return expm1OverX((1 - exponent) * logX) * logX;
+    }
+
+    /**
+     * Returns the inverse of {@link SocialGraphGenerator#hIntegral}.
+     *
+     * @param x the integral.
+     * @param exponent Zipf exponent.
+     * @return the point.
+     */
+    private static double hIntegralInverse(double x, double exponent) {
+        double t = Math.max(-1, x * (1 - exponent));
+        return Math.exp(log1pOverX(t) * x);
+    }
+
+    /**
+     * Returns (e^x - 1) / x, accurately for x near 0.
+     *
+     * @param x the argument.
+     * @return the value.
+     */
+    private static double expm1OverX(double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + x * 0.25));
+    }
+
+    /**
+     * Returns log(1 + x) / x, accurately for x near 0.
+     *
+     * @param x the argument.
+     * @return the value.
+     */
+    private static double log1pOverX(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - x * 0.25));
+    }
+}
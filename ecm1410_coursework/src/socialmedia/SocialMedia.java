@@ -1,9 +1,18 @@
 package socialmedia;
 
 import java.io.*;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * SocialMedia is a functioning implementor of
@@ -13,25 +22,108 @@ import java.util.Map;
  * @author Ben Ellison
  * @version 23-03-2023
  */
-public class SocialMedia implements SocialMediaPlatform, Serializable {
+public class SocialMedia implements BatchSocialMediaPlatform, Serializable {
+
+    /** Default number of accounts, and of posts, whose formatted text is cached. */
+    public static final int DEFAULT_RENDER_CACHE_CAPACITY = 4096;
 
     /** (Multi-)key-value pair hashmap of account handles and ids to Account objects. */
-    private DualKeyMap<Integer,String,Account> accounts = new DualKeyMap<>();
+    private DualKeyMap<String,Account> accounts = new DualKeyMap<>();
+
+    /** Key-value pair map of post IDs to Post objects. */
+    private IntKeyMap<Post> posts = new IntKeyMap<>();
+
+    /** Allocator of sequential account IDs. */
+    private final IdAllocator accountIds = new IdAllocator();
+
+    /** Allocator of sequential post IDs. */
+    private final IdAllocator postIds = new IdAllocator();
+
+    /** Key-value pair hashmap of parent post IDs to the IDs of their comments (in ascending order). */
+    private Map<Integer,NavigableSet<Integer>> childComments = new HashMap<>();
+
+    /** Key-value pair hashmap of parent post IDs to the IDs of their endorsements (in ascending order). */
+    private Map<Integer,NavigableSet<Integer>> childEndorsements = new HashMap<>();
+
+    /** Key-value pair hashmap of account IDs to the IDs of the posts they authored. */
+    private Map<Integer,NavigableSet<Integer>> accountPosts = new HashMap<>();
+
+    /** Ranking of post IDs by the number of endorsements on each post. */
+    private EndorsementRanking postRanking = new EndorsementRanking();
+
+    /** Ranking of account IDs by the number of endorsements on each account's posts. */
+    private EndorsementRanking accountRanking = new EndorsementRanking();
+
+    /** The number of {@link OriginalPost} objects currently on the platform. */
+    private int originalPostCount = 0;
 
-    /** Key-value pair hashmap of post IDs to Post objects. */
-    private Map<Integer,Post> posts = new HashMap<>();
+    /** The number of {@link Comment} objects currently on the platform. */
+    private int commentPostCount = 0;
+
+    /** The number of {@link Endorsement} objects currently on the platform. */
+    private int endorsementPostCount = 0;
+
+    /**
+     * Snapshot loaded by {@link SocialMedia#loadPlatformMapped(String)} whose posts have not
+     * all been decoded into {@link SocialMedia#posts} yet, or null if every post is in memory.
+     */
+    private transient MappedSnapshot snapshot;
+
+    /** Formatted text of recently shown accounts, by account ID. */
+    private final RenderCache accountRenders;
+
+    /** Formatted text of recently shown posts, by post ID. */
+    private final RenderCache postRenders;
+
+    /** IDs of the accounts created, changed or removed since the last checkpoint. */
+    private BitSet dirtyAccounts = new BitSet();
+
+    /** IDs of the posts created, changed or removed since the last checkpoint. */
+    private BitSet dirtyPosts = new BitSet();
+
+    /**
+     * Checkpoint ID of the snapshot last saved or loaded, which the next incremental snapshot
+     * is based on, or 0 if there is none to base it on.
+     */
+    private long checkpointId;
+
+    /** Location of the snapshot last saved or loaded. */
+    private String checkpointFile;
+
+    /**
+     * Constructor which creates an empty platform caching the formatted text of up to
+     * {@link SocialMedia#DEFAULT_RENDER_CACHE_CAPACITY} accounts and as many posts.
+     */
+    public SocialMedia() {
+        this(DEFAULT_RENDER_CACHE_CAPACITY);
+    }
+
+    /**
+     * Constructor which creates an empty platform caching the formatted text of up to the
+     * given number of accounts and as many posts. Once a cache is full, the account or post
+     * shown least recently is dropped from it.
+     *
+     * @param renderCacheCapacity number of accounts, and of posts, cached (0 disables the caches).
+     * @throws IllegalArgumentException if the capacity is negative.
+     */
+    public SocialMedia(int renderCacheCapacity) {
+        accountRenders = new RenderCache(renderCacheCapacity, 1);
+        postRenders = new RenderCache(renderCacheCapacity, 1);
+    }
 
     @Override
     public int createAccount(String handle)
             throws IllegalHandleException, InvalidHandleException {
         if (stringExceedsLimit(Account.HANDLE_CHAR_LIMIT,handle) || handle.contains(" ")){
             throw new InvalidHandleException();
-        } else if(accounts.containsKey(handle)){
+        } else if(accounts.containsSecond(handle)){
             throw new IllegalHandleException();
         } else {
             Account newAccount;
-            newAccount = new Account(handle);
+            newAccount = new Account(accountIds.allocate(), handle);
             accounts.put(newAccount.getAccountId(), handle, newAccount);
+            accountRanking.add(newAccount.getAccountId(), 0);
+            accountChanged(newAccount.getAccountId());
             return newAccount.getAccountId();
         }
     }
@@ -41,11 +133,13 @@ public class SocialMedia implements SocialMediaPlatform, Serializable {
             throws IllegalHandleException, InvalidHandleException {
         if (stringExceedsLimit(Account.HANDLE_CHAR_LIMIT, handle) || handle.contains(" ")) {
             throw new InvalidHandleException();
-        } else if (accounts.containsKey(handle)) {
+        } else if (accounts.containsSecond(handle)) {
             throw new IllegalHandleException();
         } else {
-            Account newAccount = new Account(handle, description);
+            Account newAccount = new Account(accountIds.allocate(), handle, description);
             accounts.put(newAccount.getAccountId(), handle, newAccount);
+            accountRanking.add(newAccount.getAccountId(), 0);
+            accountChanged(newAccount.getAccountId());
             return newAccount.getAccountId();
         }
 }
@@ -53,58 +147,55 @@ public class SocialMedia implements SocialMediaPlatform, Serializable {
     @Override
     public void removeAccount(int id)
             throws AccountIDNotRecognisedException {
-        if (!accounts.containsKey(id)) {
+        materialisePosts();
+        Account account = accounts.getByFirst(id);
+        if (account == null) {
             throw new AccountIDNotRecognisedException();
         } else {
-            for (Post value : posts.values()) {
-                if (accounts.get(value.getAuthor()).equals(accounts.get(id))) {
-                    try {
-                        deletePost(value.getPostId());
-                    } catch (PostIDNotRecognisedException ignored) {}
-                }
-            }
-            accounts.remove(id);
+            removeAccountPosts(account);
+            accounts.removeByFirst(id);
+            accountRanking.remove(id);
+            accountChanged(id);
         }
     }
 
     @Override
     public void removeAccount(String handle)
             throws HandleNotRecognisedException {
-        if (!accounts.containsKey(handle)) {
+        materialisePosts();
+        Account account = accounts.getBySecond(handle);
+        if (account == null) {
             throw new HandleNotRecognisedException();
         }
-        ArrayList<Integer> toBeDeleted = new ArrayList<>();
-        for (Post value : posts.values()) {
-            if (value.getAuthor().equals(handle)) {
-                toBeDeleted.add(value.getPostId());
-            }
-        }
-        for (Integer id : toBeDeleted) {
-            try {
-                deletePost(id);
-            } catch (PostIDNotRecognisedException ignored) {
-            }
-        }
-        accounts.remove(handle);
+        removeAccountPosts(account);
+        accounts.removeBySecond(handle);
+        accountRanking.remove(account.getAccountId());
+        accountChanged(account.getAccountId());
     }
 
     @Override
     public void changeAccountHandle(String oldHandle, String newHandle)
             throws HandleNotRecognisedException, IllegalHandleException, InvalidHandleException {
-        if (!accounts.containsKey(oldHandle)) {
+        if (!accounts.containsSecond(oldHandle)) {
             throw new HandleNotRecognisedException();
         } else if (stringExceedsLimit(Account.HANDLE_CHAR_LIMIT,newHandle)) {
             throw new InvalidHandleException();
-        } else if (accounts.containsKey(newHandle)) {
-            throw new IllegalHandleException();
         } else {
-            accounts.get(oldHandle).setHandle(newHandle);
-            int id = accounts.get(oldHandle).getAccountId();
-            accounts.put(id,newHandle,accounts.get(id));
-            accounts.remove(oldHandle);
-            for (Post value : posts.values()){
-                if (value.getAuthor().equals(oldHandle)){
-                    value.setAuthor(newHandle);
+            Account account = accounts.rekey(oldHandle, newHandle);
+            if (account == null) {
+                // The old handle is known, so the new handle must already be taken
+                throw new IllegalHandleException();
+            }
+            account.setHandle(newHandle);
+            accountChanged(account.getAccountId());
+            // The account's posts show its handle too
+            NavigableSet<Integer> authored = accountPosts.get(account.getAccountId());
+            if (snapshot != null) {
+                // Posts still in the snapshot are not in the index yet
+                postRenders.clear();
+            } else if (authored != null) {
+                for (int postId : authored) {
+                    postRenders.invalidate(postId);
                 }
             }
         }
@@ -113,107 +204,178 @@ public class SocialMedia implements SocialMediaPlatform, Serializable {
     @Override
     public void updateAccountDescription(String handle, String description)
             throws HandleNotRecognisedException/*,  InvalidDescriptionException */{
-        if (!accounts.containsKey(handle)) {
+        Account account = accounts.getBySecond(handle);
+        if (account == null) {
             throw new HandleNotRecognisedException();
         } else {
-            accounts.get(handle).setDescription(description);
+            account.setDescription(description);
+            accountChanged(account.getAccountId());
         }
     }
 
     @Override
     public String showAccount(String handle)
             throws HandleNotRecognisedException {
-        if (!accounts.containsKey(handle)) {
+        Account account = accounts.getBySecond(handle);
+        if (account == null) {
             throw new HandleNotRecognisedException();
         }
-        else {
-            return String.format("""
-                            ID: %1$s
-                            Handle: %2$s
-                            Description: %3$s
-                            Post count: %4$s
-                            Endorse count: %5$s""",
-                            accounts.get(handle).getAccountId(), handle, accounts.get(handle).getDescription(), accounts.get(handle).getPostCount(), accounts.get(handle).getEndorseCount());
+        String text = accountRenders.get(account.getAccountId());
+        if (text == null) {
+            text = PlatformFormat.account(account.getAccountId(), handle, account.getDescription(), account.getPostCount(), account.getEndorseCount());
+            accountRenders.put(account.getAccountId(), text);
         }
+        return text;
     }
 
     @Override
     public int createPost(String handle, String message)
             throws HandleNotRecognisedException, InvalidPostException {
-        if (!accounts.containsKey(handle)) {
+        Account author = accounts.getBySecond(handle);
+        if (author == null) {
             throw new HandleNotRecognisedException();
         }
         else if (stringExceedsLimit(Post.POST_CHAR_LIMIT, message)){
             throw new InvalidPostException();
         }
         else {
-            OriginalPost newPost = new OriginalPost(handle,message);
-            posts.put(newPost.getPostId(),newPost);
-            accounts.get(handle).setPostCount(accounts.get(handle).getPostCount() + 1);
-            return newPost.getPostId();
+            return addOriginalPost(author, message);
         }
     }
 
     @Override
     public int endorsePost(String handle, int id)
             throws HandleNotRecognisedException, PostIDNotRecognisedException, NotActionablePostException {
-        if (!accounts.containsKey(handle)) {
+        Account endorser = accounts.getBySecond(handle);
+        Post post = findPost(id);
+        if (endorser == null) {
             throw new HandleNotRecognisedException();
-        } else if (!posts.containsKey(id)){
+        } else if (post == null){
             throw new PostIDNotRecognisedException();
-        } else if (posts.get(id) instanceof Endorsement) {
+        } else if (post instanceof Endorsement) {
             throw new NotActionablePostException();
         } else {
-            String message = String.format("EP@%1$s: %2$s", posts.get(id).getAuthor(), posts.get(id).message);
-            Endorsement newEndorsement = new Endorsement(handle, id, message);
-            posts.put(newEndorsement.getPostId(), newEndorsement);
-            posts.get(id).setEndorseCount(posts.get(id).getEndorseCount() + 1);
-            accounts.get(handle).setPostCount(accounts.get(handle).getPostCount() + 1);
-            accounts.get(posts.get(id).getAuthor()).setEndorseCount(accounts.get(posts.get(id).getAuthor()).getEndorseCount() + 1);
-            return newEndorsement.getPostId();
+            return addEndorsement(endorser, post);
         }
     }
 
     @Override
     public int commentPost(String handle, int id, String message)
             throws HandleNotRecognisedException, PostIDNotRecognisedException, NotActionablePostException, InvalidPostException {
-        if (!accounts.containsKey(handle)) {
+        Account author = accounts.getBySecond(handle);
+        Post post = findPost(id);
+        if (author == null) {
             throw new HandleNotRecognisedException();
-        } else if (!posts.containsKey(id)){
+        } else if (post == null){
             throw new PostIDNotRecognisedException();
-        } else if (posts.get(id) instanceof Endorsement) {
+        } else if (post instanceof Endorsement) {
             throw new NotActionablePostException();
         } else if (stringExceedsLimit(Post.POST_CHAR_LIMIT, message)){
             throw new InvalidPostException();
         } else {
-            Comment newComment = new Comment(handle, id, message);
-            posts.put(newComment.getPostId(), newComment);
-            posts.get(id).setCommentCount(posts.get(id).getCommentCount() + 1);
-            accounts.get(handle).setPostCount(accounts.get(handle).getPostCount() + 1);
-            return newComment.getPostId();
+            return addComment(author, post, message);
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each handle is looked up once for the whole batch.
+     */
+    @Override
+    public BatchResult createPosts(String[] handles, String[] messages) {
+        BatchResult result = new BatchResult(BatchResult.checkSizes(handles.length, messages.length));
+        Map<String,Account> authors = new HashMap<>();
+        for (int i = 0; i < handles.length; i++) {
+            Account author = authors.computeIfAbsent(handles[i], accounts::getBySecond);
+            if (author == null) {
+                result.failed(i, BatchResult.ErrorCode.HANDLE_NOT_RECOGNISED);
+            } else if (stringExceedsLimit(Post.POST_CHAR_LIMIT, messages[i])) {
+                result.failed(i, BatchResult.ErrorCode.INVALID_POST);
+            } else {
+                result.succeeded(i, addOriginalPost(author, messages[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each handle is looked up once for the whole batch.
+     */
+    @Override
+    public BatchResult endorsePosts(String[] handles, int[] ids) {
+        BatchResult result = new BatchResult(BatchResult.checkSizes(handles.length, ids.length));
+        Map<String,Account> endorsers = new HashMap<>();
+        for (int i = 0; i < handles.length; i++) {
+            Account endorser = endorsers.computeIfAbsent(handles[i], accounts::getBySecond);
+            Post post = findPost(ids[i]);
+            if (endorser == null) {
+                result.failed(i, BatchResult.ErrorCode.HANDLE_NOT_RECOGNISED);
+            } else if (post == null) {
+                result.failed(i, BatchResult.ErrorCode.POST_ID_NOT_RECOGNISED);
+            } else if (post instanceof Endorsement) {
+                result.failed(i, BatchResult.ErrorCode.NOT_ACTIONABLE_POST);
+            } else {
+                result.succeeded(i, addEndorsement(endorser, post));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Each handle is looked up once for the whole batch.
+     */
+    @Override
+    public BatchResult commentPosts(String[] handles, int[] ids, String[] messages) {
+        BatchResult result = new BatchResult(BatchResult.checkSizes(handles.length, ids.length, messages.length));
+        Map<String,Account> authors = new HashMap<>();
+        for (int i = 0; i < handles.length; i++) {
+            Account author = authors.computeIfAbsent(handles[i], accounts::getBySecond);
+            Post post = findPost(ids[i]);
+            if (author == null) {
+                result.failed(i, BatchResult.ErrorCode.HANDLE_NOT_RECOGNISED);
+            } else if (post == null) {
+                result.failed(i, BatchResult.ErrorCode.POST_ID_NOT_RECOGNISED);
+            } else if (post instanceof Endorsement) {
+                result.failed(i, BatchResult.ErrorCode.NOT_ACTIONABLE_POST);
+            } else if (stringExceedsLimit(Post.POST_CHAR_LIMIT, messages[i])) {
+                result.failed(i, BatchResult.ErrorCode.INVALID_POST);
+            } else {
+                result.succeeded(i, addComment(author, post, messages[i]));
+            }
+        }
+        return result;
+    }
+
     @Override
     public void deletePost(int id)
             throws PostIDNotRecognisedException {
+        materialisePosts();
         if (!posts.containsKey(id)){
             throw new PostIDNotRecognisedException();
         } else {
-            accounts.get(posts.get(id).getAuthor()).setPostCount(accounts.get(posts.get(id).getAuthor()).getPostCount() - 1);
-            if (posts.get(id) instanceof Comment){
-                posts.get(((Comment) posts.get(id)).getParentId()).setCommentCount(posts.get(((Comment) posts.get(id)).getParentId()).getCommentCount() - 1);
-            }
-            else if(posts.get(id) instanceof Endorsement){
-                posts.get(((Endorsement) posts.get(id)).getParentId()).setEndorseCount(posts.get(((Endorsement) posts.get(id)).getParentId()).getEndorseCount() - 1);
-                accounts.get(posts.get(((Endorsement) posts.get(id)).getParentId()).getAuthor()).setEndorseCount(accounts.get(posts.get(((Endorsement) posts.get(id)).getParentId()).getAuthor()).getEndorseCount() - 1);
+            removePost(id);
+            Set<Integer> comments = childComments.remove(id);
+            if (comments != null) {
+                for (Integer commentId : comments) {
+                    ((Comment) posts.get(commentId)).setParentDeleted();
+                    postChanged(commentId);
+                }
             }
-            posts.remove(id);
-            for (Post value : posts.values()){
-                if (value instanceof Comment && ((Comment) value).getParentId() == id) {
-                    ((Comment) value).setParentDeleted();
-                } else if (value instanceof Endorsement && ((Endorsement) value).getParentId() == id){
-                    posts.remove(value.getPostId());
+            Set<Integer> endorsements = childEndorsements.remove(id);
+            if (endorsements != null) {
+                for (Integer endorsementId : endorsements) {
+                    Post endorsement = posts.remove(endorsementId);
+                    postRanking.remove(endorsementId);
+                    postChanged(endorsementId);
+                    Account endorser = accounts.getByFirst(endorsement.getAuthorId());
+                    setPostCount(endorser, endorser.getPostCount() - 1);
+                    removeFromIndex(accountPosts, endorser.getAccountId(), endorsementId);
+                    endorsementPostCount--;
                 }
             }
         }
@@ -222,21 +384,24 @@ public class SocialMedia implements SocialMediaPlatform, Serializable {
     @Override
     public String showIndividualPost(int id)
             throws PostIDNotRecognisedException {
-        if (!posts.containsKey(id)){
+        String text = postRenders.get(id);
+        if (text != null) {
+            return text;
+        }
+        Post post = findPost(id);
+        if (post == null){
             throw new PostIDNotRecognisedException();
         } else {
-            return String.format("""
-                            ID: %1$s
-                            Account: %2$s
-                            No. Endorsements: %3$s | No. Comments: %4$s
-                            %5$s""",
-                            id, posts.get(id).getAuthor(), posts.get(id).getEndorseCount(), posts.get(id).getCommentCount(), posts.get(id).getMessage());
+            text = PlatformFormat.post(id, getAuthor(post), post.getEndorseCount(), post.getCommentCount(), post.getMessage());
+            postRenders.put(id, text);
+            return text;
         }
     }
 
     @Override
     public StringBuilder showPostChildrenDetails(int id)
             throws PostIDNotRecognisedException, NotActionablePostException {
+        materialisePosts();
         if (!posts.containsKey(id)){
             throw new PostIDNotRecognisedException();
         }
@@ -245,10 +410,90 @@ public class SocialMedia implements SocialMediaPlatform, Serializable {
         }
         else {
             StringBuilder postFamilyInfo = new StringBuilder();
-            return findChildComments(id, postFamilyInfo, 0);
+            try {
+                ThreadRenderer.render(threadSource(), id, postFamilyInfo);
+            } catch (IOException e) {
+                // A StringBuilder never throws
+                throw new UncheckedIOException(e);
+            }
+            return postFamilyInfo;
             }
     }
 
+    /**
+     * Returns one page of the formatted thread of a post, in the same format as
+     * {@link SocialMedia#showPostChildrenDetails(int)}, leaving out comments nested deeper than a
+     * given depth. The cursor of each page is passed to get the next one, which carries on
+     * from the post after the last one on the page without walking the thread again from the top.
+     *
+     * @param id of the post to be shown.
+     * @param maxDepth depth of the deepest comments shown (0 shows the post alone).
+     * @param pageSize largest number of posts on the page.
+     * @param cursor {@link ThreadPage#getCursor()} of the previous page, or null for the first page.
+     * @return the page.
+     * @throws PostIDNotRecognisedException if the ID does not match to any post in the system.
+     * @throws NotActionablePostException if the ID refers to an endorsement post.
+     * @throws IllegalArgumentException if the depth is negative, the page size is not positive,
+     *                                  or the cursor is not one of the post's thread.
+     */
+    public ThreadPage showPostChildrenDetails(int id, int maxDepth, int pageSize, String cursor)
+            throws PostIDNotRecognisedException, NotActionablePostException {
+        materialisePosts();
+        if (!posts.containsKey(id)){
+            throw new PostIDNotRecognisedException();
+        }
+        else if (posts.get(id) instanceof Endorsement){
+            throw new NotActionablePostException();
+        }
+        return ThreadRenderer.page(threadSource(), id, maxDepth, pageSize, cursor);
+    }
+
+    /**
+     * Writes the formatted thread of a post to an {@link Appendable}, such as a {@link Writer},
+     * in the same format as {@link SocialMedia#showPostChildrenDetails(int)}.
+     * Each post is written as soon as it is formatted, so the thread is never held in memory whole.
+     *
+     * @param id of the post to be shown.
+     * @param out destination of the thread.
+     * @throws PostIDNotRecognisedException if the ID does not match to any post in the system.
+     * @throws NotActionablePostException if the ID refers to an endorsement post.
+     * @throws IOException if there is a problem writing to the destination.
+     */
+    public void renderPostChildrenDetails(int id, Appendable out)
+            throws PostIDNotRecognisedException, NotActionablePostException, IOException {
+        materialisePosts();
+        if (!posts.containsKey(id)){
+            throw new PostIDNotRecognisedException();
+        }
+        else if (posts.get(id) instanceof Endorsement){
+            throw new NotActionablePostException();
+        }
+        ThreadRenderer.render(threadSource(), id, out);
+    }
+
+    /**
+     * Writes the formatted thread of a post to a channel, encoded in UTF-8,
+     * in the same format as {@link SocialMedia#showPostChildrenDetails(int)}.
+     * The channel is left open.
+     *
+     * @param id of the post to be shown.
+     * @param channel destination of the thread.
+     * @throws PostIDNotRecognisedException if the ID does not match to any post in the system.
+     * @throws NotActionablePostException if the ID refers to an endorsement post.
+     * @throws IOException if there is a problem writing to the channel.
+     */
+    public void renderPostChildrenDetails(int id, WritableByteChannel channel)
+            throws PostIDNotRecognisedException, NotActionablePostException, IOException {
+        materialisePosts();
+        if (!posts.containsKey(id)){
+            throw new PostIDNotRecognisedException();
+        }
+        else if (posts.get(id) instanceof Endorsement){
+            throw new NotActionablePostException();
+        }
+        ThreadRenderer.render(threadSource(), id, channel);
+    }
+
     @Override
     public int getNumberOfAccounts() {
         return accounts.size();
@@ -257,90 +502,288 @@ public class SocialMedia implements SocialMediaPlatform, Serializable {
 
     @Override
     public int getTotalOriginalPosts() {
-        int counter = 0;
-        for(Post value : posts.values()){
-            if (value instanceof OriginalPost){
-                counter += 1;
-            }
-        }
-        return counter;
+        assert postCountersMatchRecount() : "Post type counters do not match the posts on the platform.";
+        return originalPostCount;
     }
 
     @Override
     public int getTotalEndorsmentPosts() {
-        int counter = 0;
-        for(Post value : posts.values()){
-            if (value instanceof Endorsement){
-                counter += 1;
-            }
-        }
-        return counter;
+        assert postCountersMatchRecount() : "Post type counters do not match the posts on the platform.";
+        return endorsementPostCount;
     }
 
     @Override
     public int getTotalCommentPosts() {
-        int counter = 0;
-        for(Post value : posts.values()){
-            if (value instanceof Comment){
-                counter += 1;
-            }
-        }
-        return counter;
+        assert postCountersMatchRecount() : "Post type counters do not match the posts on the platform.";
+        return commentPostCount;
     }
 
     @Override
     public int getMostEndorsedPost() {
-        int highestValue = -1;  // This ensures that if there are accounts with no endorsements, the first account will be returned
-        int mostEndorsedPostId = -1;
-        for (Post value : posts.values()) {
-            if (value.getEndorseCount() > highestValue) {
-                highestValue = value.getEndorseCount();
-                mostEndorsedPostId = value.getPostId();
-            }
-        }
-        return mostEndorsedPostId;
+        materialisePosts();
+        return postRanking.first();
     }
 
     @Override
     public int getMostEndorsedAccount() {
-        int highestValue = -1; // This ensures that if there are accounts with no endorsements, the first account will be returned
-        int mostEndorsedAccountId = -1;
-        for (Account value : accounts.values()) {
-            if (value.getEndorseCount() > highestValue) {
-                highestValue = value.getEndorseCount();
-                mostEndorsedAccountId = value.getAccountId();
-            }
+        return accountRanking.first();
+    }
+
+    /**
+     * Returns the IDs of the k posts with the most endorsements, most endorsed first.
+     * Posts with the same number of endorsements are ordered by lowest ID first.
+     *
+     * @param k maximum number of post IDs to return.
+     * @return IDs of the most endorsed posts.
+     */
+    public int[] getTopEndorsedPosts(int k) {
+        materialisePosts();
+        return postRanking.top(k);
+    }
+
+    /**
+     * Returns the IDs of the k accounts with the most endorsements, most endorsed first.
+     * Accounts with the same number of endorsements are ordered by lowest ID first.
+     *
+     * @param k maximum number of account IDs to return.
+     * @return IDs of the most endorsed accounts.
+     */
+    public int[] getTopEndorsedAccounts(int k) {
+        return accountRanking.top(k);
+    }
+
+    /**
+     * Returns the IDs of all posts (original posts, comments and endorsements)
+     * authored by the account with the given handle, in the order they were created.
+     *
+     * @param handle handle to identify the account.
+     * @return IDs of the account's posts.
+     * @throws HandleNotRecognisedException if the handle does not match to any
+     *                                      account in the system.
+     */
+    public int[] getPostIdsByAccount(String handle)
+            throws HandleNotRecognisedException {
+        materialisePosts();
+        Account account = accounts.getBySecond(handle);
+        if (account == null) {
+            throw new HandleNotRecognisedException();
         }
-        return mostEndorsedAccountId;
+        Set<Integer> authored = accountPosts.get(account.getAccountId());
+        if (authored == null) {
+            return new int[0];
+        }
+        return authored.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Returns the statistics of the cache of formatted accounts used by {@link SocialMedia#showAccount(String)}.
+     *
+     * @return the statistics.
+     */
+    public CacheStatistics getAccountRenderCacheStatistics() {
+        return accountRenders.statistics();
+    }
+
+    /**
+     * Returns the statistics of the cache of formatted posts used by {@link SocialMedia#showIndividualPost(int)}.
+     *
+     * @return the statistics.
+     */
+    public CacheStatistics getPostRenderCacheStatistics() {
+        return postRenders.statistics();
     }
 
     @Override
     public void erasePlatform() {
+        snapshot = null;
+        accountRenders.clear();
+        postRenders.clear();
         accounts.clear();
         posts.clear();
+        childComments.clear();
+        childEndorsements.clear();
+        accountPosts.clear();
+        postRanking.clear();
+        accountRanking.clear();
+        originalPostCount = 0;
+        commentPostCount = 0;
+        endorsementPostCount = 0;
+        accountIds.reset();
+        postIds.reset();
+        // Every account and post of the last checkpoint is gone, so the next one must be full
+        setCheckpoint(0, null);
     }
 
     @Override
     public void savePlatform(String filename) throws IOException {
-        ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(filename));
-        out.writeObject(accounts);
-        out.writeObject(posts);
-        out.close();
+        materialisePosts();
+        long savedCheckpoint;
+        try (SnapshotWriter out = new SnapshotWriter(filename, accountIds.highWaterMark(), postIds.highWaterMark(), accounts.size(), posts.size())) {
+            for (Account value : accounts.values()) {
+                out.writeAccount(value);
+            }
+            for (int id : sortedPostIds()) {
+                out.writePost(posts.get(id));
+            }
+            savedCheckpoint = out.checkpointId();
+        }
+        // Only a file closed without error becomes the checkpoint
+        setCheckpoint(savedCheckpoint, filename);
+    }
+
+    /**
+     * Saves an incremental snapshot, which only holds the accounts and posts created, changed
+     * or removed since the last snapshot was saved or loaded (the last checkpoint), so that
+     * the time taken grows with the number of changes rather than the size of the platform.
+     * <p>
+     * The incremental snapshot is based on the last checkpoint, which must be kept (along
+     * with any checkpoints it is in turn based on) for it to be loaded. Any implementor of
+     * {@link SocialMediaPlatform#loadPlatform(String)} in this package loads the chain of
+     * checkpoints the file is based on, and then the changes in the file. The file then
+     * becomes the last checkpoint, so that a chain of incremental snapshots can be saved.
+     * <p>
+     * A full snapshot is saved instead if there is no checkpoint to base the file on, as when
+     * nothing has been saved or loaded since the platform was created or erased, or the last
+     * file loaded was in an older format.
+     *
+     * @param filename location of the file to be saved.
+     * @throws IOException if there is a problem experienced when trying to save the
+     *                     file or reading the chain of checkpoints it is based on, or the
+     *                     file is one of those checkpoints.
+     */
+    public void saveIncremental(String filename) throws IOException {
+        if (checkpointId == 0) {
+            savePlatform(filename);
+            return;
+        } else if (SnapshotReader.chainLocations(checkpointFile).contains(Paths.get(filename).toAbsolutePath().normalize())) {
+            throw new IOException("An incremental snapshot cannot replace a checkpoint in the chain it is based on.");
+        }
+        long savedCheckpoint;
+        try (SnapshotWriter out = new SnapshotWriter(filename, accountIds.highWaterMark(), postIds.highWaterMark(),
+                dirtyAccounts.cardinality(), dirtyPosts.cardinality(), checkpointId, checkpointFile)) {
+            for (int id = dirtyAccounts.nextSetBit(0); id >= 0; id = dirtyAccounts.nextSetBit(id + 1)) {
+                Account account = accounts.getByFirst(id);
+                if (account == null) {
+                    out.writeAccountRemoved(id);
+                } else {
+                    out.writeAccount(account);
+                }
+            }
+            // Changed posts are always in memory, as only unchanged ones are left in a mapped snapshot
+            for (int id = dirtyPosts.nextSetBit(0); id >= 0; id = dirtyPosts.nextSetBit(id + 1)) {
+                Post post = posts.get(id);
+                if (post == null) {
+                    out.writePostRemoved(id);
+                } else {
+                    out.writePost(post);
+                }
+            }
+            savedCheckpoint = out.checkpointId();
+        }
+        setCheckpoint(savedCheckpoint, filename);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public void loadPlatform(String filename) throws IOException, ClassNotFoundException {
-        ObjectInputStream in = new ObjectInputStream(new FileInputStream(filename));
-        for(int i=0;i<2;i++){
-            Object obj = in.readObject();
-            if (obj instanceof DualKeyMap) {
-                accounts = (DualKeyMap<Integer, String, Account>) obj;
-            } else if (obj instanceof Map) {
-                posts = (Map<Integer, Post>) obj;
+        DualKeyMap<String,Account> loadedAccounts = new DualKeyMap<>();
+        IntKeyMap<Post> loadedPosts = new IntKeyMap<>();
+        int[] highWaterMarks = new int[2];
+        SnapshotReader.read(filename, new SnapshotReader.Sink() {
+            @Override
+            public void header(int accountHighWaterMark, int postHighWaterMark, int accountCount, int postCount) {
+                highWaterMarks[0] = accountHighWaterMark;
+                highWaterMarks[1] = postHighWaterMark;
             }
+
+            @Override
+            public void account(int id, String handle, String description, int postCount, int endorseCount) {
+                loadedAccounts.put(id, handle, SnapshotReader.toAccount(id, handle, description, postCount, endorseCount));
+            }
+
+            @Override
+            public void post(byte type, int id, int authorId, int parentId, int commentCount, int endorseCount, String message) {
+                loadedPosts.put(id, SnapshotReader.toPost(type, id, authorId, parentId, commentCount, endorseCount, message));
+            }
+        });
+        snapshot = null;
+        accounts = loadedAccounts;
+        posts = loadedPosts;
+        accountRenders.clear();
+        postRenders.clear();
+        accountIds.reset();
+        postIds.reset();
+        accountIds.advanceTo(highWaterMarks[0]);
+        postIds.advanceTo(highWaterMarks[1]);
+        rebuildIndexes();
+        setCheckpoint(SnapshotReader.checkpointId(filename), filename);
+    }
+
+    /**
+     * Loads a platform like {@link SocialMedia#loadPlatform(String)}, but memory-maps the
+     * file and only reads its header and accounts up front. Each post is decoded from the
+     * mapped file the first time it is used, so a large platform can serve requests
+     * such as {@link SocialMedia#showIndividualPost(int)} or {@link SocialMedia#createPost(String, String)}
+     * straight away.
+     * <p>
+     * Requests which need every post or the post indexes, such as deleting a post, removing
+     * an account, showing a post's children, ranking posts or saving the platform, first decode
+     * all the remaining posts. Files in an older format are loaded by {@link SocialMedia#loadPlatform(String)}.
+     * The file must not be changed or deleted until every post has been decoded.
+     *
+     * @param filename location of the file to be loaded.
+     * @throws IOException if there is a problem experienced reading the file.
+     * @throws ClassNotFoundException if a file in the original format holds an unknown class.
+     */
+    public void loadPlatformMapped(String filename) throws IOException, ClassNotFoundException {
+        MappedSnapshot mapped = MappedSnapshot.map(filename);
+        if (mapped == null) {
+            loadPlatform(filename);
+            return;
         }
-        in.close();
+        DualKeyMap<String,Account> loadedAccounts = new DualKeyMap<>();
+        mapped.forEachAccount(value -> loadedAccounts.put(value.getAccountId(), value.getHandle(), value));
+        accounts = loadedAccounts;
+        posts = new IntKeyMap<>();
+        accountRenders.clear();
+        postRenders.clear();
+        accountIds.reset();
+        postIds.reset();
+        accountIds.advanceTo(mapped.accountHighWaterMark());
+        postIds.advanceTo(mapped.postHighWaterMark());
+        rebuildIndexes();
+        originalPostCount = mapped.originalCount();
+        commentPostCount = mapped.commentCount();
+        endorsementPostCount = mapped.endorsementCount();
+        snapshot = mapped;
+        setCheckpoint(mapped.checkpointId(), filename);
+    }
+
+    /**
+     * Records that the last checkpoint has been moved, as when a snapshot is saved to a
+     * temporary file and then renamed over the file it replaces, so that incremental snapshots
+     * saved afterwards are based on the file where it now is. Does nothing if the file moved
+     * is not the last checkpoint.
+     *
+     * @param from location the snapshot was saved or loaded at.
+     * @param to location the snapshot has been moved to.
+     */
+    public void checkpointMoved(String from, String to) {
+        if (checkpointFile != null && Paths.get(checkpointFile).toAbsolutePath().normalize().equals(Paths.get(from).toAbsolutePath().normalize())) {
+            checkpointFile = to;
+        }
+    }
+
+    /**
+     * Records the snapshot just saved or loaded as the last checkpoint, which nothing has changed since.
+     *
+     * @param id checkpoint ID of the snapshot, or 0 if incremental snapshots cannot be based on it.
+     * @param filename location of the snapshot.
+     */
+    private void setCheckpoint(long id, String filename) {
+        checkpointId = id;
+        checkpointFile = filename;
+        dirtyAccounts.clear();
+        dirtyPosts.clear();
     }
 
     /**
@@ -356,25 +799,359 @@ public class SocialMedia implements SocialMediaPlatform, Serializable {
     }
 
     /**
-     * Recursively builds a formatted {@link StringBuilder} object of all children posts.
+     * Returns the posts of the platform as a {@link ThreadRenderer.Source}.
+     * Only the comments of each post are visited, using {@link SocialMedia#childComments}.
+     *
+     * @return source of the posts of comment threads.
+     */
+    private ThreadRenderer.Source threadSource() {
+        return new ThreadRenderer.Source() {
+            @Override
+            public String showPost(int id) {
+                try {
+                    return showIndividualPost(id);
+                } catch (PostIDNotRecognisedException e) {
+                    return null;
+                }
+            }
+
+            @Override
+            public Iterator<Integer> comments(int id, int after) {
+                NavigableSet<Integer> comments = childComments.get(id);
+                return comments == null ? Collections.emptyIterator() : comments.tailSet(after, false).iterator();
+            }
+        };
+    }
+
+    /**
+     * Removes a single post from the platform, updating the counters of its author
+     * and parent post, and unlinking it from its parent in the child index.
+     * Children of the post are left for the caller to handle.
      *
      * @param id post id.
-     * @return children posts.
      */
-    private StringBuilder findChildComments(int id, StringBuilder postFamilyInfo, int depth) {
-        try {
-            if (postFamilyInfo.length() == 0) {
-                postFamilyInfo.append(showIndividualPost(id));
-            } else {
-                String indent = " ".repeat(depth - 4);
-                postFamilyInfo.append(String.format("\n%1$s|\n%1$s| > ", indent)).append(showIndividualPost(id).indent(depth).trim());
+    private void removePost(int id) {
+        Post post = posts.remove(id);
+        postRanking.remove(id);
+        postChanged(id);
+        Account author = accounts.getByFirst(post.getAuthorId());
+        setPostCount(author, author.getPostCount() - 1);
+        removeFromIndex(accountPosts, author.getAccountId(), id);
+        if (post instanceof OriginalPost) {
+            originalPostCount--;
+        } else if (post instanceof Comment) {
+            commentPostCount--;
+            int parentId = ((Comment) post).getParentId();
+            if (parentId != -1) {
+                posts.get(parentId).setCommentCount(posts.get(parentId).getCommentCount() - 1);
+                postChanged(parentId);
+                removeFromIndex(childComments, parentId, id);
+            }
+        } else if (post instanceof Endorsement) {
+            endorsementPostCount--;
+            Post parent = posts.get(((Endorsement) post).getParentId());
+            setEndorseCount(parent, parent.getEndorseCount() - 1);
+            Account parentAuthor = accounts.getByFirst(parent.getAuthorId());
+            setEndorseCount(parentAuthor, parentAuthor.getEndorseCount() - 1);
+            removeFromIndex(childEndorsements, parent.getPostId(), id);
+        }
+        if (post.getEndorseCount() > 0) {
+            // Endorsements of the post are removed with it, so its author loses them
+            setEndorseCount(author, author.getEndorseCount() - post.getEndorseCount());
+        }
+    }
+
+    /**
+     * Creates an original post, once its author and message have been checked.
+     *
+     * @param author account creating the post.
+     * @param message message of the post.
+     * @return ID of the new post.
+     */
+    private int addOriginalPost(Account author, String message) {
+        OriginalPost newPost = new OriginalPost(postIds.allocate(), author.getAccountId(),message);
+        posts.put(newPost.getPostId(),newPost);
+        postRanking.add(newPost.getPostId(), 0);
+        addToIndex(accountPosts, newPost.getAuthorId(), newPost.getPostId());
+        originalPostCount++;
+        setPostCount(author, author.getPostCount() + 1);
+        postChanged(newPost.getPostId());
+        return newPost.getPostId();
+    }
+
+    /**
+     * Creates an endorsement of a post, once the endorser and post have been checked.
+     *
+     * @param endorser account endorsing the post.
+     * @param post original post or comment being endorsed.
+     * @return ID of the new endorsement.
+     */
+    private int addEndorsement(Account endorser, Post post) {
+        int id = post.getPostId();
+        Account postAuthor = accounts.getByFirst(post.getAuthorId());
+        String message = String.format("EP@%1$s: %2$s", postAuthor.getHandle(), post.message);
+        Endorsement newEndorsement = new Endorsement(postIds.allocate(), endorser.getAccountId(), id, message);
+        posts.put(newEndorsement.getPostId(), newEndorsement);
+        postRanking.add(newEndorsement.getPostId(), 0);
+        addToIndex(childEndorsements, id, newEndorsement.getPostId());
+        addToIndex(accountPosts, newEndorsement.getAuthorId(), newEndorsement.getPostId());
+        endorsementPostCount++;
+        setEndorseCount(post, post.getEndorseCount() + 1);
+        setPostCount(endorser, endorser.getPostCount() + 1);
+        setEndorseCount(postAuthor, postAuthor.getEndorseCount() + 1);
+        postChanged(newEndorsement.getPostId());
+        return newEndorsement.getPostId();
+    }
+
+    /**
+     * Creates a comment on a post, once the author, post and message have been checked.
+     *
+     * @param author account creating the comment.
+     * @param post original post or comment being commented on.
+     * @param message message of the comment.
+     * @return ID of the new comment.
+     */
+    private int addComment(Account author, Post post, String message) {
+        int id = post.getPostId();
+        Comment newComment = new Comment(postIds.allocate(), author.getAccountId(), id, message);
+        posts.put(newComment.getPostId(), newComment);
+        postRanking.add(newComment.getPostId(), 0);
+        addToIndex(childComments, id, newComment.getPostId());
+        addToIndex(accountPosts, newComment.getAuthorId(), newComment.getPostId());
+        commentPostCount++;
+        post.setCommentCount(post.getCommentCount() + 1);
+        postChanged(id);
+        setPostCount(author, author.getPostCount() + 1);
+        postChanged(newComment.getPostId());
+        return newComment.getPostId();
+    }
+
+    /**
+     * Sets the endorsement count of a post, keeping {@link SocialMedia#postRanking} in step.
+     *
+     * @param post post to update.
+     * @param count new number of endorsements on the post.
+     */
+    private void setEndorseCount(Post post, int count) {
+        post.setEndorseCount(count);
+        postRanking.update(post.getPostId(), count);
+        postChanged(post.getPostId());
+    }
+
+    /**
+     * Sets the endorsement count of an account, keeping {@link SocialMedia#accountRanking} in step.
+     *
+     * @param account account to update.
+     * @param count new number of endorsements on the account's posts.
+     */
+    private void setEndorseCount(Account account, int count) {
+        account.setEndorseCount(count);
+        accountRanking.update(account.getAccountId(), count);
+        accountChanged(account.getAccountId());
+    }
+
+    /**
+     * Marks an account as changed since the last checkpoint, and drops its cached formatted text.
+     *
+     * @param id account id.
+     */
+    private void accountChanged(int id) {
+        dirtyAccounts.set(id);
+        accountRenders.invalidate(id);
+    }
+
+    /**
+     * Marks a post as changed since the last checkpoint, and drops its cached formatted text.
+     *
+     * @param id post id.
+     */
+    private void postChanged(int id) {
+        dirtyPosts.set(id);
+        postRenders.invalidate(id);
+    }
+
+    /**
+     * Sets the post count of an account, marking it as changed since the last checkpoint.
+     *
+     * @param account account to update.
+     * @param count new number of posts made by the account.
+     */
+    private void setPostCount(Account account, int count) {
+        account.setPostCount(count);
+        accountChanged(account.getAccountId());
+    }
+
+    /**
+     * Returns the post with the given ID, decoding it from {@link SocialMedia#snapshot}
+     * if it has not been used since the platform was loaded.
+     *
+     * @param id post id.
+     * @return the post, or null if there is no post with the ID.
+     */
+    private Post findPost(int id) {
+        Post post = posts.get(id);
+        if (post == null && snapshot != null) {
+            // Nothing is deleted until the snapshot is released, so every post in it is still on the platform
+            post = snapshot.decode(id);
+            if (post != null) {
+                posts.put(id, post);
             }
-        } catch (PostIDNotRecognisedException ignore) {}
-        for (Post value : posts.values()){
-            if (value instanceof Comment && ((Comment) value).getParentId() == id){
-                postFamilyInfo = findChildComments(value.getPostId(), postFamilyInfo, depth+4);
+        }
+        return post;
+    }
+
+    /**
+     * Decodes every post not yet decoded from {@link SocialMedia#snapshot}, releases the
+     * snapshot, and builds the post indexes. Does nothing if every post is already in memory.
+     */
+    private void materialisePosts() {
+        if (snapshot == null) {
+            return;
+        }
+        snapshot.forEachPost(value -> {
+            // Posts already decoded may have changed since, so they are kept
+            if (!posts.containsKey(value.getPostId())) {
+                posts.put(value.getPostId(), value);
+            }
+        });
+        snapshot = null;
+        rebuildIndexes();
+    }
+
+    /**
+     * Resolves the current handle of a post's author through {@link SocialMedia#accounts}.
+     *
+     * @param post post to find the author of.
+     * @return author's handle.
+     */
+    private String getAuthor(Post post) {
+        return accounts.getByFirst(post.getAuthorId()).getHandle();
+    }
+
+    /**
+     * Deletes every post authored by an account, along with anything cascaded by those deletions.
+     *
+     * @param account account whose posts are deleted.
+     */
+    private void removeAccountPosts(Account account) {
+        Set<Integer> authored = accountPosts.get(account.getAccountId());
+        if (authored == null) {
+            return;
+        }
+        for (Integer postId : new ArrayList<>(authored)) {
+            // Endorsements of the account's own posts may already have been cascaded away
+            if (posts.containsKey(postId)) {
+                try {
+                    deletePost(postId);
+                } catch (PostIDNotRecognisedException ignored) {}
             }
         }
-        return postFamilyInfo;
+        accountPosts.remove(account.getAccountId());
     }
-}
\ No newline at end of file
+
+    /**
+     * Adds a post ID to the set of post IDs indexed under a key
+     * (a parent post ID or an account ID).
+     *
+     * @param index post index to update.
+     * @param key parent post id or account id.
+     * @param postId post id.
+     */
+    private void addToIndex(Map<Integer,NavigableSet<Integer>> index, int key, int postId) {
+        index.computeIfAbsent(key, k -> new TreeSet<>()).add(postId);
+    }
+
+    /**
+     * Removes a post ID from the set of post IDs indexed under a key,
+     * dropping the set once it is empty.
+     *
+     * @param index post index to update.
+     * @param key parent post id or account id.
+     * @param postId post id.
+     */
+    private void removeFromIndex(Map<Integer,NavigableSet<Integer>> index, int key, int postId) {
+        Set<Integer> indexed = index.get(key);
+        if (indexed != null && indexed.remove(postId) && indexed.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * Rebuilds the post indexes, endorsement rankings and post type counters
+     * from the accounts and posts currently on the platform, and makes sure
+     * the ID allocators will not hand out any ID already in use.
+     * Used after the posts have been replaced by {@link SocialMedia#loadPlatform(String)}.
+     */
+    private void rebuildIndexes() {
+        childComments.clear();
+        childEndorsements.clear();
+        accountPosts.clear();
+        postRanking.clear();
+        accountRanking.clear();
+        originalPostCount = 0;
+        commentPostCount = 0;
+        endorsementPostCount = 0;
+        for (Account value : accounts.values()) {
+            accountRanking.add(value.getAccountId(), value.getEndorseCount());
+            accountIds.advanceTo(value.getAccountId() + 1);
+        }
+        // Posts are visited in ID (creation) order, so that the indexes keep children in creation order
+        for (int id : sortedPostIds()) {
+            Post value = posts.get(id);
+            postIds.advanceTo(value.getPostId() + 1);
+            addToIndex(accountPosts, value.getAuthorId(), value.getPostId());
+            postRanking.add(value.getPostId(), value.getEndorseCount());
+            if (value instanceof OriginalPost) {
+                originalPostCount++;
+            } else if (value instanceof Comment) {
+                commentPostCount++;
+                if (((Comment) value).getParentId() != -1) {
+                    addToIndex(childComments, ((Comment) value).getParentId(), value.getPostId());
+                }
+            } else if (value instanceof Endorsement) {
+                endorsementPostCount++;
+                addToIndex(childEndorsements, ((Endorsement) value).getParentId(), value.getPostId());
+            }
+        }
+    }
+
+    /**
+     * Returns the IDs of every post on the platform in ascending (creation) order.
+     *
+     * @return sorted post IDs.
+     */
+    private int[] sortedPostIds() {
+        int[] ids = new int[posts.size()];
+        int count = 0;
+        for (int slot = posts.nextSlot(0); slot != -1; slot = posts.nextSlot(slot + 1)) {
+            ids[count++] = posts.keyAt(slot);
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Recounts every post on the platform by type and compares the result with the
+     * maintained post type counters. Only intended to be called from assertions,
+     * as it scans every post.
+     *
+     * @return true if all three counters match a full recount.
+     */
+    private boolean postCountersMatchRecount() {
+        if (snapshot != null) {
+            // Posts still in the snapshot are not in memory to be counted
+            return true;
+        }
+        int original = 0, comments = 0, endorsements = 0;
+        for (Post value : posts.values()) {
+            if (value instanceof OriginalPost) {
+                original++;
+            } else if (value instanceof Comment) {
+                comments++;
+            } else if (value instanceof Endorsement) {
+                endorsements++;
+            }
+        }
+        return original == originalPostCount && comments == commentPostCount && endorsements == endorsementPostCount;
+    }
+}
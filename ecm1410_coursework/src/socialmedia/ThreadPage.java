@@ -0,0 +1,112 @@
+package socialmedia;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * The ThreadPage class is one page of the comment thread of a post, as returned by
+ * {@code showPostChildrenDetails(int, int, int, String)}.
+ * <p>
+ * A page holds up to a given number of posts of the thread, in the same depth-first order
+ * and format as {@link SocialMediaPlatform#showPostChildrenDetails(int)}, and a cursor from
+ * which the next page carries on. Appending the text of every page of a thread, with no
+ * depth limit, gives exactly the text of the whole thread.
+ * <p>
+ * A cursor is the path from the top of the thread to the first post of the next page,
+ * so the next page is found without walking the posts before it again.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public final class ThreadPage {
+
+    /** Formatted posts of the page. */
+    private final StringBuilder text;
+
+    /** Cursor of the next page, or null if this is the last page. */
+    private final String cursor;
+
+    /**
+     * Constructor which creates a page of a thread.
+     *
+     * @param text formatted posts of the page.
+     * @param next path from the top of the thread to the first post of the next page,
+     *             or null if this is the last page.
+     */
+    ThreadPage(StringBuilder text, int[] next) {
+        this.text = text;
+        cursor = next == null ? null : encode(next);
+    }
+
+    /**
+     * Returns the formatted posts of the page.
+     * @return text of the page.
+     */
+    public StringBuilder getText() {
+        return text;
+    }
+
+    /**
+     * Returns true if there is another page after this one.
+     * The next page may turn out to be empty if the posts on it are deleted first.
+     *
+     * @return true if there is another page.
+     */
+    public boolean hasMore() {
+        return cursor != null;
+    }
+
+    /**
+     * Returns the cursor to pass to get the next page of the thread.
+     * The cursor should be treated as an opaque string.
+     *
+     * @return cursor of the next page, or null if this is the last page.
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Encodes a path through a thread as a cursor.
+     *
+     * @param path post IDs from the top of the thread down.
+     * @return cursor.
+     */
+    private static String encode(int[] path) {
+        ByteBuffer bytes = ByteBuffer.allocate(4 * path.length);
+        for (int id : path) {
+            bytes.putInt(id);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.array());
+    }
+
+    /**
+     * Decodes a cursor, checking that it belongs to the thread of a post.
+     *
+     * @param cursor cursor returned by {@link ThreadPage#getCursor()}, or null for the first page.
+     * @param id ID of the post at the top of the thread.
+     * @return post IDs from the top of the thread down, or null for the first page.
+     * @throws IllegalArgumentException if the cursor is not a cursor of the post's thread.
+     */
+    static int[] decode(String cursor, int id) {
+        if (cursor == null) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid thread cursor.", e);
+        }
+        if (bytes.length == 0 || bytes.length % 4 != 0) {
+            throw new IllegalArgumentException("Invalid thread cursor.");
+        }
+        int[] path = new int[bytes.length / 4];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(path);
+        if (path[0] != id) {
+            throw new IllegalArgumentException("Thread cursor belongs to the thread of another post.");
+        }
+        return path;
+    }
+}
@@ -0,0 +1,176 @@
+package socialmedia;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The ThreadRenderer class writes the comment thread of a post, in the format of
+ * {@link SocialMediaPlatform#showPostChildrenDetails(int)}, to any {@link Appendable}.
+ * <p>
+ * The thread is walked depth first with an explicit stack of comment iterators rather
+ * than by recursion, so a chain of comments of any length cannot overflow the call stack.
+ * Each post is written as soon as it is visited, so apart from the stack (one iterator
+ * for each level of the thread being written) only one post is held in memory at a time,
+ * however many posts the thread has.
+ * <p>
+ * A thread can also be written a page at a time (see {@link ThreadPage}). Since the comments
+ * on a post are kept in ascending ID order, the walk can be picked up again from the path
+ * to any post in the thread, by starting each level of the stack after the post on the path.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+final class ThreadRenderer {
+
+    /**
+     * The Source interface gives a ThreadRenderer the posts of a platform.
+     */
+    interface Source {
+
+        /**
+         * Returns a post formatted as by {@link SocialMediaPlatform#showIndividualPost(int)}.
+         *
+         * @param id post ID.
+         * @return formatted post, or null if the post no longer exists.
+         */
+        String showPost(int id);
+
+        /**
+         * Returns the IDs of the comments made directly on a post, in ascending order,
+         * starting after a given ID.
+         *
+         * @param id post ID.
+         * @param after ID to start after (which need not be a comment on the post any more),
+         *              or -1 to start from the first comment.
+         * @return iterator over the comment IDs.
+         */
+        Iterator<Integer> comments(int id, int after);
+    }
+
+    /**
+     * Private constructor, as this class only holds static methods.
+     */
+    private ThreadRenderer() {}
+
+    /**
+     * Writes a post and every comment below it. A post which no longer exists
+     * is left out of the thread, along with the comments below it.
+     *
+     * @param source posts of the platform.
+     * @param id ID of the post at the top of the thread.
+     * @param out destination of the thread.
+     * @throws IOException if there is a problem writing to the destination.
+     */
+    static void render(Source source, int id, Appendable out) throws IOException {
+        render(source, id, out, Integer.MAX_VALUE, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Writes a post and every comment below it to a channel, encoded in UTF-8.
+     * The channel is left open.
+     *
+     * @param source posts of the platform.
+     * @param id ID of the post at the top of the thread.
+     * @param channel destination of the thread.
+     * @throws IOException if there is a problem writing to the channel.
+     */
+    static void render(Source source, int id, WritableByteChannel channel) throws IOException {
+        Writer out = Channels.newWriter(channel, StandardCharsets.UTF_8);
+        render(source, id, out);
+        out.flush();
+    }
+
+    /**
+     * Formats one page of the thread of a post.
+     *
+     * @param source posts of the platform.
+     * @param id ID of the post at the top of the thread.
+     * @param maxDepth depth of the deepest comments shown (0 shows the post alone).
+     * @param pageSize largest number of posts on the page.
+     * @param cursor cursor of the page, or null for the first page.
+     * @return the page.
+     * @throws IllegalArgumentException if the depth is negative, the page size is not
+     *                                  positive, or the cursor is not one of the post's thread.
+     */
+    static ThreadPage page(Source source, int id, int maxDepth, int pageSize, String cursor) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Thread depth must not be negative.");
+        } else if (pageSize <= 0) {
+            throw new IllegalArgumentException("Thread page size must be positive.");
+        }
+        int[] start = ThreadPage.decode(cursor, id);
+        StringBuilder text = new StringBuilder();
+        try {
+            return new ThreadPage(text, render(source, id, text, maxDepth, pageSize, start));
+        } catch (IOException e) {
+            // A StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes part of the thread of a post, from a given post onwards.
+     *
+     * @param source posts of the platform.
+     * @param id ID of the post at the top of the thread.
+     * @param out destination of the thread.
+     * @param maxDepth depth of the deepest comments written.
+     * @param limit largest number of posts written.
+     * @param start path from the top of the thread to the first post to be written,
+     *              or null to start from the top.
+     * @return path to the next post which would have been written after the limit,
+     *         or null if the rest of the thread was written.
+     * @throws IOException if there is a problem writing to the destination.
+     */
+    private static int[] render(Source source, int id, Appendable out, int maxDepth, int limit, int[] start)
+            throws IOException {
+        // path[d] is the post being visited at depth d, and siblings.get(d) the comments
+        // on path[d] still to be visited, so the post being visited is at depth siblings.size()
+        int[] path = start == null ? new int[] {id} : start.clone();
+        List<Iterator<Integer>> siblings = new ArrayList<>();
+        for (int depth = 1; depth < path.length; depth++) {
+            // The deepest level starts from the first post to be written itself, so that it is
+            // only written if it is still a comment on the post above it
+            int after = depth == path.length - 1 ? path[depth] - 1 : path[depth];
+            siblings.add(source.comments(path[depth - 1], after));
+        }
+        int written = 0;
+        boolean resuming = !siblings.isEmpty();
+        while (true) {
+            int depth = siblings.size();
+            String post = !resuming && depth <= maxDepth ? source.showPost(path[depth]) : null;
+            resuming = false;
+            if (post != null) {
+                if (written == limit) {
+                    return Arrays.copyOf(path, depth + 1);
+                }
+                PlatformFormat.appendThreadNode(out, post, depth * PlatformFormat.THREAD_INDENT);
+                written++;
+                if (depth < maxDepth) {
+                    siblings.add(source.comments(path[depth], -1));
+                }
+            }
+            // Move on to the next comment, going back up the thread past any level with none left
+            while (!siblings.isEmpty() && !siblings.get(siblings.size() - 1).hasNext()) {
+                siblings.remove(siblings.size() - 1);
+            }
+            if (siblings.isEmpty()) {
+                return null;
+            }
+            depth = siblings.size();
+            if (depth == path.length) {
+                path = Arrays.copyOf(path, path.length * 2);
+            }
+            path[depth] = siblings.get(depth - 1).next();
+        }
+    }
+}
@@ -0,0 +1,748 @@
+package socialmedia;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The TraceFile class reads and writes trace files, which record every call made to a platform,
+ * written by {@link RecordingSocialMedia} and read by {@link TraceReplayer}.
+ * <p>
+ * A trace file starts with a magic number ("SMPT"), a version (2 bytes) and the time the
+ * recording started, in milliseconds since the epoch (8 bytes), followed by one record for each
+ * call, in the order the calls returned. Every number in a record is a variable-length integer
+ * (7 bits per byte, low bits first; signed numbers are zigzag encoded), and every string is its
+ * UTF-8 byte length + 1 (or 0 if null) followed by its UTF-8 bytes:
+ * <pre>
+ * record   operation (1 byte), start time - start time of the previous record (signed),
+ *          duration, arguments, outcome (1 byte), result
+ * </pre>
+ * Start times and durations are in nanoseconds. The arguments of each operation are given by
+ * {@link TraceFile#ARGUMENTS}: a string ({@code S}), an int ({@code I}), or an array of strings
+ * ({@code s}) or ints ({@code i}), written as its length followed by its elements. The result
+ * depends on the outcome:
+ * <pre>
+ * NOTHING  nothing (a void method, or a null result)
+ * INT      the int returned (signed)
+ * TEXT     the length of the text returned, then its {@link String#hashCode()} (signed)
+ * BATCH    the number of items, then for each the post ID, or -1 - the error code (signed)
+ * THREW    the index of the exception class in {@link TraceFile#EXCEPTIONS}, or 0 followed by
+ *          the name of the class if it is not there
+ * </pre>
+ * Text is only recorded by its length and hash, which keeps traces small while still
+ * catching any difference in what a platform shows.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+final class TraceFile {
+
+    /**
+     * The Call class is one call read back from a trace file.
+     */
+    static final class Call {
+
+        /** Operation called. */
+        final byte operation;
+
+        /** Time the call started, in nanoseconds since the recording started. */
+        final long startNanos;
+
+        /** Time the call took, in nanoseconds. */
+        final long durationNanos;
+
+        /** Arguments of the call: Strings, Integers, String arrays and int arrays. */
+        final Object[] arguments;
+
+        /** Outcome of the call, as described by {@link TraceFile#describeResult(Object)} or {@link TraceFile#describeThrown(Throwable)}. */
+        final String outcome;
+
+        /**
+         * Constructor which creates a call read back from a trace.
+         *
+         * @param operation operation called.
+         * @param startNanos time the call started.
+         * @param durationNanos time the call took.
+         * @param arguments arguments of the call.
+         * @param outcome description of the outcome.
+         */
+        private Call(byte operation, long startNanos, long durationNanos, Object[] arguments, String outcome) {
+            this.operation = operation;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.arguments = arguments;
+            this.outcome = outcome;
+        }
+    }
+
+    /** First four bytes of every trace file ("SMPT"). */
+    static final int MAGIC = 0x534D5054;
+
+    /** Version of the trace format written by this class. */
+    static final short VERSION = 1;
+
+    /** Operation recording {@link SocialMediaPlatform#createAccount(String)}. */
+    static final byte CREATE_ACCOUNT = 1;
+
+    /** Operation recording {@link SocialMediaPlatform#createAccount(String, String)}. */
+    static final byte CREATE_ACCOUNT_DESCRIPTION = 2;
+
+    /** Operation recording {@link SocialMediaPlatform#removeAccount(int)}. */
+    static final byte REMOVE_ACCOUNT_BY_ID = 3;
+
+    /** Operation recording {@link SocialMediaPlatform#removeAccount(String)}. */
+    static final byte REMOVE_ACCOUNT_BY_HANDLE = 4;
+
+    /** Operation recording {@link SocialMediaPlatform#changeAccountHandle(String, String)}. */
+    static final byte CHANGE_ACCOUNT_HANDLE = 5;
+
+    /** Operation recording {@link SocialMediaPlatform#updateAccountDescription(String, String)}. */
+    static final byte UPDATE_ACCOUNT_DESCRIPTION = 6;
+
+    /** Operation recording {@link SocialMediaPlatform#showAccount(String)}. */
+    static final byte SHOW_ACCOUNT = 7;
+
+    /** Operation recording {@link SocialMediaPlatform#createPost(String, String)}. */
+    static final byte CREATE_POST = 8;
+
+    /** Operation recording {@link SocialMediaPlatform#endorsePost(String, int)}. */
+    static final byte ENDORSE_POST = 9;
+
+    /** Operation recording {@link SocialMediaPlatform#commentPost(String, int, String)}. */
+    static final byte COMMENT_POST = 10;
+
+    /** Operation recording {@link SocialMediaPlatform#deletePost(int)}. */
+    static final byte DELETE_POST = 11;
+
+    /** Operation recording {@link SocialMediaPlatform#showIndividualPost(int)}. */
+    static final byte SHOW_INDIVIDUAL_POST = 12;
+
+    /** Operation recording {@link SocialMediaPlatform#showPostChildrenDetails(int)}. */
+    static final byte SHOW_POST_CHILDREN_DETAILS = 13;
+
+    /** Operation recording {@link SocialMediaPlatform#getNumberOfAccounts()}. */
+    static final byte GET_NUMBER_OF_ACCOUNTS = 14;
+
+    /** Operation recording {@link SocialMediaPlatform#getTotalOriginalPosts()}. */
+    static final byte GET_TOTAL_ORIGINAL_POSTS = 15;
+
+    /** Operation recording {@link SocialMediaPlatform#getTotalEndorsmentPosts()}. */
+    static final byte GET_TOTAL_ENDORSEMENT_POSTS = 16;
+
+    /** Operation recording {@link SocialMediaPlatform#getTotalCommentPosts()}. */
+    static final byte GET_TOTAL_COMMENT_POSTS = 17;
+
+    /** Operation recording {@link SocialMediaPlatform#getMostEndorsedPost()}. */
+    static final byte GET_MOST_ENDORSED_POST = 18;
+
+    /** Operation recording {@link SocialMediaPlatform#getMostEndorsedAccount()}. */
+    static final byte GET_MOST_ENDORSED_ACCOUNT = 19;
+
+    /** Operation recording {@link SocialMediaPlatform#erasePlatform()}. */
+    static final byte ERASE_PLATFORM = 20;
+
+    /** Operation recording {@link SocialMediaPlatform#savePlatform(String)}. */
+    static final byte SAVE_PLATFORM = 21;
+
+    /** Operation recording {@link SocialMediaPlatform#loadPlatform(String)}. */
+    static final byte LOAD_PLATFORM = 22;
+
+    /** Operation recording {@link BatchSocialMediaPlatform#createPosts(String[], String[])}. */
+    static final byte CREATE_POSTS = 23;
+
+    /** Operation recording {@link BatchSocialMediaPlatform#endorsePosts(String[], int[])}. */
+    static final byte ENDORSE_POSTS = 24;
+
+    /** Operation recording {@link BatchSocialMediaPlatform#commentPosts(String[], int[], String[])}. */
+    static final byte COMMENT_POSTS = 25;
+
+    /** Names of the operations, indexed by operation. */
+    static final String[] NAMES = {null, "createAccount", "createAccount", "removeAccount", "removeAccount",
+            "changeAccountHandle", "updateAccountDescription", "showAccount", "createPost", "endorsePost",
+            "commentPost", "deletePost", "showIndividualPost", "showPostChildrenDetails", "getNumberOfAccounts",
+            "getTotalOriginalPosts", "getTotalEndorsmentPosts", "getTotalCommentPosts", "getMostEndorsedPost",
+            "getMostEndorsedAccount", "erasePlatform", "savePlatform", "loadPlatform", "createPosts",
+            "endorsePosts", "commentPosts"};
+
+    /** Types of the arguments of the operations, indexed by operation (see above). */
+    static final String[] ARGUMENTS = {null, "S", "SS", "I", "S", "SS", "SS", "S", "SS", "SI", "SIS", "I", "I", "I",
+            "", "", "", "", "", "", "", "S", "S", "ss", "si", "sis"};
+
+    /** Longest string argument shown in full by {@link TraceFile#describeCall(String, Object[])}. */
+    private static final int SHOWN_LENGTH = 40;
+
+    /** Longest int array argument shown in full by {@link TraceFile#describeCall(String, Object[])}. */
+    private static final int SHOWN_INTS = 8;
+
+    /** Outcome of a call which returned nothing, or null. */
+    private static final byte NOTHING = 0;
+
+    /** Outcome of a call which returned an int. */
+    private static final byte INT = 1;
+
+    /** Outcome of a call which returned text. */
+    private static final byte TEXT = 2;
+
+    /** Outcome of a call which returned a {@link BatchResult}. */
+    private static final byte BATCH = 3;
+
+    /** Outcome of a call which threw an exception. */
+    private static final byte THREW = 4;
+
+    /** Exception classes recorded by index (from 1); any other is recorded by name. */
+    private static final Class<?>[] EXCEPTIONS = {null, IllegalHandleException.class, InvalidHandleException.class,
+            HandleNotRecognisedException.class, AccountIDNotRecognisedException.class,
+            PostIDNotRecognisedException.class, NotActionablePostException.class, InvalidPostException.class};
+
+    /**
+     * The Writer class appends records to a new trace file. Records may be written by several threads at once.
+     */
+    static final class Writer implements Closeable {
+
+        /** Stream of the trace file. */
+        private final DataOutputStream out;
+
+        /** Value of {@link System#nanoTime()} when the recording started. */
+        private final long origin = System.nanoTime();
+
+        /** Start time of the last record written, in nanoseconds since the recording started. */
+        private long lastStart;
+
+        /**
+         * Constructor which creates a trace file, replacing any file already there, and writes its header.
+         *
+         * @param filename location of the trace file.
+         * @throws IOException if there is a problem creating the file.
+         */
+        Writer(String filename) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeLong(System.currentTimeMillis());
+        }
+
+        /**
+         * Returns the time now, to be passed to {@link Writer#returned} or {@link Writer#threw} as the start of a call.
+         * @return nanoseconds since the recording started.
+         */
+        long start() {
+            return System.nanoTime() - origin;
+        }
+
+        /**
+         * Records a call which returned.
+         *
+         * @param operation operation called.
+         * @param start value of {@link Writer#start()} when the call started.
+         * @param result value returned: an Integer, a CharSequence, a BatchResult, or null.
+         * @param arguments arguments of the call.
+         * @param <T> type of the value returned.
+         * @return the value returned.
+         * @throws UncheckedIOException if there is a problem writing the trace.
+         */
+        <T> T returned(byte operation, long start, T result, Object... arguments) {
+            write(operation, start, arguments, result, null);
+            return result;
+        }
+
+        /**
+         * Records a call which threw an exception.
+         *
+         * @param operation operation called.
+         * @param start value of {@link Writer#start()} when the call started.
+         * @param thrown exception thrown.
+         * @param arguments arguments of the call.
+         * @throws UncheckedIOException if there is a problem writing the trace.
+         */
+        void threw(byte operation, long start, Throwable thrown, Object... arguments) {
+            write(operation, start, arguments, null, thrown);
+        }
+
+        /**
+         * Writes a record.
+         *
+         * @param operation operation called.
+         * @param start start of the call.
+         * @param arguments arguments of the call.
+         * @param result value returned, if the call returned.
+         * @param thrown exception thrown, or null if the call returned.
+         */
+        private synchronized void write(byte operation, long start, Object[] arguments, Object result, Throwable thrown) {
+            long duration = System.nanoTime() - origin - start;
+            try {
+                out.writeByte(operation);
+                writeSigned(start - lastStart);
+                writeUnsigned(duration);
+                lastStart = start;
+                for (Object argument : arguments) {
+                    writeField(argument);
+                }
+                if (thrown != null) {
+                    out.writeByte(THREW);
+                    int index = exceptionIndex(thrown);
+                    writeUnsigned(index);
+                    if (index == 0) {
+                        writeString(thrown.getClass().getName());
+                    }
+                } else if (result instanceof Integer) {
+                    out.writeByte(INT);
+                    writeSigned((Integer) result);
+                } else if (result instanceof CharSequence) {
+                    out.writeByte(TEXT);
+                    String text = result.toString();
+                    writeUnsigned(text.length());
+                    writeSigned(text.hashCode());
+                } else if (result instanceof BatchResult) {
+                    out.writeByte(BATCH);
+                    BatchResult batch = (BatchResult) result;
+                    writeUnsigned(batch.size());
+                    for (int i = 0; i < batch.size(); i++) {
+                        writeSigned(batchItem(batch, i));
+                    }
+                } else {
+                    out.writeByte(NOTHING);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Writes an argument.
+         *
+         * @param field a String (may be null), Integer, String array or int array.
+         * @throws IOException if there is a problem writing the trace.
+         */
+        private void writeField(Object field) throws IOException {
+            if (field instanceof Integer) {
+                writeSigned((Integer) field);
+            } else if (field instanceof String[]) {
+                writeUnsigned(((String[]) field).length);
+                for (String string : (String[]) field) {
+                    writeString(string);
+                }
+            } else if (field instanceof int[]) {
+                writeUnsigned(((int[]) field).length);
+                for (int value : (int[]) field) {
+                    writeSigned(value);
+                }
+            } else {
+                writeString((String) field);
+            }
+        }
+
+        /**
+         * Writes a string, which may be null.
+         *
+         * @param string the string.
+         * @throws IOException if there is a problem writing the trace.
+         */
+        private void writeString(String string) throws IOException {
+            if (string == null) {
+                writeUnsigned(0);
+                return;
+            }
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeUnsigned(bytes.length + 1L);
+            out.write(bytes);
+        }
+
+        /**
+         * Writes a signed number, zigzag encoded so small negative numbers stay short.
+         *
+         * @param value the number.
+         * @throws IOException if there is a problem writing the trace.
+         */
+        private void writeSigned(long value) throws IOException {
+            writeUnsigned((value << 1) ^ (value >> 63));
+        }
+
+        /**
+         * Writes an unsigned variable-length number.
+         *
+         * @param value the number.
+         * @throws IOException if there is a problem writing the trace.
+         */
+        private void writeUnsigned(long value) throws IOException {
+            while ((value & ~0x7FL) != 0) {
+                out.writeByte((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        }
+
+        /**
+         * Writes every record written so far to the file.
+         *
+         * @throws IOException if there is a problem writing the trace.
+         */
+        synchronized void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * The Reader class reads the records of a trace file back in order.
+     */
+    static final class Reader implements Closeable {
+
+        /** Stream of the trace file. */
+        private final DataInputStream in;
+
+        /** Time the recording started, in milliseconds since the epoch. */
+        private final long startedMillis;
+
+        /** Start time of the last record read, in nanoseconds since the recording started. */
+        private long lastStart;
+
+        /**
+         * Constructor which opens a trace file and reads its header.
+         *
+         * @param filename location of the trace file.
+         * @throws IOException if there is a problem reading the file, or it is not a trace file.
+         */
+        Reader(String filename) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename), 1 << 16));
+            try {
+                if (in.readInt() != MAGIC) {
+                    throw new StreamCorruptedException("File is not a trace.");
+                }
+                short version = in.readShort();
+                if (version != VERSION) {
+                    throw new StreamCorruptedException("Unsupported trace version " + version + ".");
+                }
+                startedMillis = in.readLong();
+            } catch (IOException e) {
+                in.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Returns the time the recording started.
+         * @return milliseconds since the epoch.
+         */
+        long getStartedMillis() {
+            return startedMillis;
+        }
+
+        /**
+         * Reads the next call. A record cut short, as left if the recording program stopped
+         * while writing it, ends the trace.
+         *
+         * @return the call, or null at the end of the trace.
+         * @throws IOException if there is a problem reading the file, or a record is malformed.
+         */
+        Call next() throws IOException {
+            int operation = in.read();
+            if (operation == -1) {
+                return null;
+            } else if (operation < 1 || operation >= NAMES.length) {
+                throw new StreamCorruptedException("Unknown trace operation " + operation + ".");
+            }
+            try {
+                long start = lastStart + readSigned();
+                long duration = readUnsigned();
+                lastStart = start;
+                String types = ARGUMENTS[operation];
+                Object[] arguments = new Object[types.length()];
+                for (int i = 0; i < arguments.length; i++) {
+                    arguments[i] = readField(types.charAt(i));
+                }
+                return new Call((byte) operation, start, duration, arguments, readOutcome());
+            } catch (EOFException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Reads an argument.
+         *
+         * @param type type of the argument, as in {@link TraceFile#ARGUMENTS}.
+         * @return the argument.
+         * @throws IOException if there is a problem reading the file.
+         */
+        private Object readField(char type) throws IOException {
+            if (type == 'I') {
+                return (int) readSigned();
+            } else if (type == 'S') {
+                return readString();
+            }
+            int length = readLength();
+            if (type == 's') {
+                String[] strings = new String[length];
+                for (int i = 0; i < length; i++) {
+                    strings[i] = readString();
+                }
+                return strings;
+            }
+            int[] values = new int[length];
+            for (int i = 0; i < length; i++) {
+                values[i] = (int) readSigned();
+            }
+            return values;
+        }
+
+        /**
+         * Reads the outcome of a call.
+         *
+         * @return description of the outcome, as given by {@link TraceFile#describeResult(Object)}
+         *         or {@link TraceFile#describeThrown(Throwable)}.
+         * @throws IOException if there is a problem reading the file, or the outcome is malformed.
+         */
+        private String readOutcome() throws IOException {
+            byte outcome = in.readByte();
+            if (outcome == NOTHING) {
+                return describeNothing();
+            } else if (outcome == INT) {
+                return describeInt((int) readSigned());
+            } else if (outcome == TEXT) {
+                int length = readLength();
+                return describeText(length, (int) readSigned());
+            } else if (outcome == BATCH) {
+                int[] items = new int[readLength()];
+                for (int i = 0; i < items.length; i++) {
+                    items[i] = (int) readSigned();
+                }
+                return describeBatch(items);
+            } else if (outcome == THREW) {
+                int index = readLength();
+                if (index >= EXCEPTIONS.length) {
+                    throw new StreamCorruptedException("Unknown trace exception " + index + ".");
+                }
+                return describeThrown(index == 0 ? readString() : EXCEPTIONS[index].getName());
+            }
+            throw new StreamCorruptedException("Unknown trace outcome " + outcome + ".");
+        }
+
+        /**
+         * Reads a string, which may be null.
+         *
+         * @return the string.
+         * @throws IOException if there is a problem reading the file.
+         */
+        private String readString() throws IOException {
+            int length = readLength();
+            if (length == 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length - 1];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Reads an unsigned number which must fit in an int, such as a length.
+         *
+         * @return the number.
+         * @throws IOException if there is a problem reading the file, or the number is too large.
+         */
+        private int readLength() throws IOException {
+            long value = readUnsigned();
+            if (value > Integer.MAX_VALUE) {
+                throw new StreamCorruptedException("Trace length " + value + " is too large.");
+            }
+            return (int) value;
+        }
+
+        /**
+         * Reads a zigzag encoded signed number.
+         *
+         * @return the number.
+         * @throws IOException if there is a problem reading the file.
+         */
+        private long readSigned() throws IOException {
+            long value = readUnsigned();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        /**
+         * Reads an unsigned variable-length number.
+         *
+         * @return the number.
+         * @throws IOException if there is a problem reading the file, or the number is malformed.
+         */
+        private long readUnsigned() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = in.readUnsignedByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new StreamCorruptedException("Malformed number in trace.");
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Constructor which is never used, as this class only holds the trace format.
+     */
+    private TraceFile() {
+    }
+
+    /**
+     * Describes the value returned by a call, the same way as it is described when read back from a trace.
+     *
+     * @param result value returned: an Integer, a CharSequence, a BatchResult, or null.
+     * @return description of the outcome.
+     */
+    static String describeResult(Object result) {
+        if (result instanceof Integer) {
+            return describeInt((Integer) result);
+        } else if (result instanceof CharSequence) {
+            String text = result.toString();
+            return describeText(text.length(), text.hashCode());
+        } else if (result instanceof BatchResult) {
+            BatchResult batch = (BatchResult) result;
+            int[] items = new int[batch.size()];
+            for (int i = 0; i < items.length; i++) {
+                items[i] = batchItem(batch, i);
+            }
+            return describeBatch(items);
+        }
+        return describeNothing();
+    }
+
+    /**
+     * Describes the exception thrown by a call, the same way as it is described when read back from a trace.
+     *
+     * @param thrown exception thrown.
+     * @return description of the outcome.
+     */
+    static String describeThrown(Throwable thrown) {
+        return describeThrown(thrown.getClass().getName());
+    }
+
+    /**
+     * Describes a call by its method and arguments, shortening long strings and arrays.
+     *
+     * @param name name of the method called.
+     * @param arguments arguments of the call: Strings, Integers, String arrays and int arrays.
+     * @return description of the call, such as {@code commentPost("user", 12, "Hello")}.
+     */
+    static String describeCall(String name, Object[] arguments) {
+        StringBuilder description = new StringBuilder(name).append('(');
+        for (int i = 0; i < arguments.length; i++) {
+            Object argument = arguments[i];
+            description.append(i == 0 ? "" : ", ");
+            if (argument instanceof String) {
+                String text = (String) argument;
+                description.append('"').append(text.length() > SHOWN_LENGTH ? text.substring(0, SHOWN_LENGTH) + "..." : text)
+                        .append('"');
+            } else if (argument instanceof String[]) {
+                description.append(((String[]) argument).length).append(" strings");
+            } else if (argument instanceof int[]) {
+                int[] values = (int[]) argument;
+                description.append(values.length <= SHOWN_INTS ? Arrays.toString(values) : values.length + " ints");
+            } else {
+                description.append(argument);
+            }
+        }
+        return description.append(')').toString();
+    }
+
+    /**
+     * Returns the index of an exception's class in {@link TraceFile#EXCEPTIONS}.
+     *
+     * @param thrown exception thrown.
+     * @return the index, or 0 if the class is not there.
+     */
+    private static int exceptionIndex(Throwable thrown) {
+        for (int i = 1; i < EXCEPTIONS.length; i++) {
+            if (EXCEPTIONS[i] == thrown.getClass()) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns an item of a batch result as it is recorded.
+     *
+     * @param batch the batch result.
+     * @param index index of the item.
+     * @return the post ID, or -1 - the error code if the item failed.
+     */
+    private static int batchItem(BatchResult batch, int index) {
+        BatchResult.ErrorCode code = batch.getErrorCode(index);
+        return code == BatchResult.ErrorCode.NONE ? batch.getPostId(index) : -1 - code.ordinal();
+    }
+
+    /**
+     * Describes a call which returned nothing.
+     * @return description of the outcome.
+     */
+    private static String describeNothing() {
+        return "returned";
+    }
+
+    /**
+     * Describes a call which returned an int.
+     *
+     * @param value the int.
+     * @return description of the outcome.
+     */
+    private static String describeInt(int value) {
+        return "returned " + value;
+    }
+
+    /**
+     * Describes a call which returned text.
+     *
+     * @param length length of the text.
+     * @param hash hash of the text.
+     * @return description of the outcome.
+     */
+    private static String describeText(int length, int hash) {
+        return "returned text of " + length + " characters with hash " + Integer.toHexString(hash);
+    }
+
+    /**
+     * Describes a call which returned a batch result.
+     *
+     * @param items items of the batch, as recorded.
+     * @return description of the outcome.
+     */
+    private static String describeBatch(int[] items) {
+        BatchResult.ErrorCode[] codes = BatchResult.ErrorCode.values();
+        StringBuilder description = new StringBuilder("returned batch [");
+        for (int i = 0; i < items.length; i++) {
+            int code = -1 - items[i];
+            description.append(i == 0 ? "" : ", ").append(items[i] >= 0 ? String.valueOf(items[i])
+                    : code < codes.length ? codes[code].name() : "error " + code);
+        }
+        return description.append(']').toString();
+    }
+
+    /**
+     * Describes a call which threw an exception.
+     *
+     * @param className name of the exception's class.
+     * @return description of the outcome.
+     */
+    private static String describeThrown(String className) {
+        return "threw " + className.substring(className.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,240 @@
+package socialmedia;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The TraceReplayer class replays a trace recorded by a {@link RecordingSocialMedia} on a
+ * platform, makes the same calls in the same order, checks that each has the same outcome as
+ * when it was recorded, and reports how long they took.
+ * <p>
+ * A replay can run in one of two modes. {@link Mode#OPEN_LOOP} makes each call at the same time
+ * after the first as when it was recorded, reproducing the recorded rate of traffic, and measures
+ * each call's latency from when it was due, so a platform which falls behind is charged for the
+ * wait. {@link Mode#CLOSED_LOOP} makes each call as soon as the last one returns, measuring how
+ * fast the platform can get through the traffic. Either way the calls are made one at a time, in
+ * the order the trace holds them.
+ * <p>
+ * A replay should start from the same state the recording started from, which is usually an
+ * empty platform. Calls to {@link SocialMediaPlatform#savePlatform(String)} save to temporary
+ * files instead of the recorded locations, which are deleted once the replay ends, and later
+ * calls to {@link SocialMediaPlatform#loadPlatform(String)} with a recorded location load the
+ * replayed save. Loads of files not saved during the trace use the recorded location.
+ *
+ * @author Adam George
+ * @author Ben Ellison
+ * @version 18-10-2026
+ */
+public class TraceReplayer {
+
+    /**
+     * Ways a trace can be replayed.
+     */
+    public enum Mode {
+        /** Make each call at the time it was made in the recording. */
+        OPEN_LOOP,
+        /** Make each call as soon as the last one returns. */
+        CLOSED_LOOP
+    }
+
+    /** Time before a call is due at which the replayer stops sleeping and spins, in nanoseconds. */
+    private static final long SPIN_NANOS = 50_000;
+
+    /** Location of the trace file. */
+    private final String filename;
+
+    /** Way the trace is replayed. */
+    private final Mode mode;
+
+    /**
+     * Constructor which creates a replayer for a trace file.
+     *
+     * @param filename location of the trace file.
+     * @param mode way the trace is replayed.
+     * @throws IllegalArgumentException if filename or mode is null.
+     */
+    public TraceReplayer(String filename, Mode mode) {
+        if (filename == null || mode == null) {
+            throw new IllegalArgumentException("Trace filename and mode must not be null.");
+        }
+        this.filename = filename;
+        this.mode = mode;
+    }
+
+    /**
+     * Replays the trace on a platform.
+     *
+     * @param platform platform to make the calls on.
+     * @return report of the replay.
+     * @throws IOException if there is a problem reading the trace, it is not a trace file, or
+     *                     a temporary file for a save cannot be created.
+     */
+    public ReplayReport replay(SocialMediaPlatform platform) throws IOException {
+        ReplayReport report = new ReplayReport();
+        Map<String, File> saves = new HashMap<>();
+        try (TraceFile.Reader trace = new TraceFile.Reader(filename)) {
+            long origin = System.nanoTime();
+            long firstStart = 0;
+            long earliestStart = Long.MAX_VALUE;
+            long latestEnd = Long.MIN_VALUE;
+            long index = 0;
+            for (TraceFile.Call call; (call = trace.next()) != null; index++) {
+                if (index == 0) {
+                    firstStart = call.startNanos;
+                }
+                earliestStart = Math.min(earliestStart, call.startNanos);
+                latestEnd = Math.max(latestEnd, call.startNanos + call.durationNanos);
+                Object[] arguments = remapFiles(call, saves);
+                long due;
+                if (mode == Mode.OPEN_LOOP) {
+                    // Calls returning out of order may have started before the first; those are due at once
+                    due = origin + Math.max(0, call.startNanos - firstStart);
+                    waitUntil(due);
+                } else {
+                    due = System.nanoTime();
+                }
+                String outcome = invoke(platform, call.operation, arguments);
+                long latency = System.nanoTime() - due;
+                report.addCall(call.durationNanos, latency, outcome.equals(call.outcome) ? null
+                        : describeMismatch(index, call, outcome));
+            }
+            report.setSpans(System.nanoTime() - origin, index == 0 ? 0 : latestEnd - earliestStart);
+        } finally {
+            for (File save : saves.values()) {
+                save.delete();
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Returns the arguments to replay a call with, with the location of a save replaced by a
+     * temporary file, and the location of a load replaced by the file saved there in the replay.
+     *
+     * @param call the call.
+     * @param saves temporary files of the saves made so far, by recorded location.
+     * @return the arguments.
+     * @throws IOException if a temporary file cannot be created.
+     */
+    private static Object[] remapFiles(TraceFile.Call call, Map<String, File> saves) throws IOException {
+        if (call.operation == TraceFile.SAVE_PLATFORM) {
+            File save = saves.get(call.arguments[0]);
+            if (save == null) {
+                save = File.createTempFile("replayed", ".smps");
+                saves.put((String) call.arguments[0], save);
+            }
+            return new Object[] {save.getPath()};
+        } else if (call.operation == TraceFile.LOAD_PLATFORM && saves.containsKey(call.arguments[0])) {
+            return new Object[] {saves.get(call.arguments[0]).getPath()};
+        }
+        return call.arguments;
+    }
+
+    /**
+     * Makes a call on a platform.
+     *
+     * @param platform platform to make the call on.
+     * @param operation operation to call, one of those in {@link TraceFile}.
+     * @param a arguments of the call.
+     * @return description of the outcome, as given by {@link TraceFile#describeResult(Object)}
+     *         or {@link TraceFile#describeThrown(Throwable)}.
+     */
+    private static String invoke(SocialMediaPlatform platform, byte operation, Object[] a) {
+        Object result = null;
+        try {
+            if (operation == TraceFile.CREATE_ACCOUNT) {
+                result = platform.createAccount((String) a[0]);
+            } else if (operation == TraceFile.CREATE_ACCOUNT_DESCRIPTION) {
+                result = platform.createAccount((String) a[0], (String) a[1]);
+            } else if (operation == TraceFile.REMOVE_ACCOUNT_BY_ID) {
+                platform.removeAccount((int) a[0]);
+            } else if (operation == TraceFile.REMOVE_ACCOUNT_BY_HANDLE) {
+                platform.removeAccount((String) a[0]);
+            } else if (operation == TraceFile.CHANGE_ACCOUNT_HANDLE) {
+                platform.changeAccountHandle((String) a[0], (String) a[1]);
+            } else if (operation == TraceFile.UPDATE_ACCOUNT_DESCRIPTION) {
+                platform.updateAccountDescription((String) a[0], (String) a[1]);
+            } else if (operation == TraceFile.SHOW_ACCOUNT) {
+                result = platform.showAccount((String) a[0]);
+            } else if (operation == TraceFile.CREATE_POST) {
+                result = platform.createPost((String) a[0], (String) a[1]);
+            } else if (operation == TraceFile.ENDORSE_POST) {
+                result = platform.endorsePost((String) a[0], (int) a[1]);
+            } else if (operation == TraceFile.COMMENT_POST) {
+                result = platform.commentPost((String) a[0], (int) a[1], (String) a[2]);
+            } else if (operation == TraceFile.DELETE_POST) {
+                platform.deletePost((int) a[0]);
+            } else if (operation == TraceFile.SHOW_INDIVIDUAL_POST) {
+                result = platform.showIndividualPost((int) a[0]);
+            } else if (operation == TraceFile.SHOW_POST_CHILDREN_DETAILS) {
+                result = platform.showPostChildrenDetails((int) a[0]);
+            } else if (operation == TraceFile.GET_NUMBER_OF_ACCOUNTS) {
+                result = platform.getNumberOfAccounts();
+            } else if (operation == TraceFile.GET_TOTAL_ORIGINAL_POSTS) {
+                result = platform.getTotalOriginalPosts();
+            } else if (operation == TraceFile.GET_TOTAL_ENDORSEMENT_POSTS) {
+                result = platform.getTotalEndorsmentPosts();
+            } else if (operation == TraceFile.GET_TOTAL_COMMENT_POSTS) {
+                result = platform.getTotalCommentPosts();
+            } else if (operation == TraceFile.GET_MOST_ENDORSED_POST) {
+                result = platform.getMostEndorsedPost();
+            } else if (operation == TraceFile.GET_MOST_ENDORSED_ACCOUNT) {
+                result = platform.getMostEndorsedAccount();
+            } else if (operation == TraceFile.ERASE_PLATFORM) {
+                platform.erasePlatform();
+            } else if (operation == TraceFile.SAVE_PLATFORM) {
+                platform.savePlatform((String) a[0]);
+            } else if (operation == TraceFile.LOAD_PLATFORM) {
+                platform.loadPlatform((String) a[0]);
+            } else if (operation == TraceFile.CREATE_POSTS) {
+                result = platform instanceof BatchSocialMediaPlatform
+                        ? ((BatchSocialMediaPlatform) platform).createPosts((String[]) a[0], (String[]) a[1])
+                        : BatchResult.createEach(platform, (String[]) a[0], (String[]) a[1]);
+            } else if (operation == TraceFile.ENDORSE_POSTS) {
+                result = platform instanceof BatchSocialMediaPlatform
+                        ? ((BatchSocialMediaPlatform) platform).endorsePosts((String[]) a[0], (int[]) a[1])
+                        : BatchResult.endorseEach(platform, (String[]) a[0], (int[]) a[1]);
+            } else if (operation == TraceFile.COMMENT_POSTS) {
+                result = platform instanceof BatchSocialMediaPlatform
+                        ? ((BatchSocialMediaPlatform) platform).commentPosts((String[]) a[0], (int[]) a[1], (String[]) a[2])
+                        : BatchResult.commentEach(platform, (String[]) a[0], (int[]) a[1], (String[]) a[2]);
+            }
+        } catch (Exception e) {
+            return TraceFile.describeThrown(e);
+        }
+        return TraceFile.describeResult(result);
+    }
+
+    /**
+     * Waits until a call is due, sleeping until shortly before and then spinning, so the call is
+     * made as close to its time as possible.
+     *
+     * @param due value of {@link System#nanoTime()} at which the call is due.
+     */
+    private static void waitUntil(long due) {
+        long remaining;
+        while ((remaining = due - System.nanoTime()) > 0) {
+            if (remaining > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * Describes a call whose outcome differed from the recording.
+     *
+     * @param index position of the call in the trace, from 0.
+     * @param call the call, as recorded.
+     * @param outcome description of the outcome when replayed.
+     * @return description of the mismatch.
+     */
+    private static String describeMismatch(long index, TraceFile.Call call, String outcome) {
+        return "#" + index + " " + TraceFile.describeCall(TraceFile.NAMES[call.operation], call.arguments)
+                + ": recorded " + call.outcome + ", replayed " + outcome;
+    }
+}